@@ -0,0 +1,44 @@
+package frc.team4159.robot;
+
+import frc.team4159.robot.sim.SimulatedRobot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of reading and shaping the drive sticks, through the simulated driver station
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class OIBenchmark {
+
+    private OI oi;
+
+    @Setup
+    public void setup() {
+        SimulatedRobot.getInstance();
+        oi = Robot.oi;
+    }
+
+    @Benchmark
+    public void driveSticks(Blackhole blackhole) {
+        blackhole.consume(oi.getLeftY());
+        blackhole.consume(oi.getRightY());
+    }
+
+}
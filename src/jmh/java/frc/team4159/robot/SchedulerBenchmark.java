@@ -0,0 +1,49 @@
+package frc.team4159.robot;
+
+import edu.wpi.first.wpilibj.command.Scheduler;
+import frc.team4159.robot.sim.SimulatedRobot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a teleop loop on simulated hardware: one Scheduler.run() with every subsystem's default command, and a whole
+ * 20 ms cycle including the drivetrain control loop and physics
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SchedulerBenchmark {
+
+    private SimulatedRobot robot;
+
+    @Setup
+    public void setup() {
+        robot = SimulatedRobot.getInstance();
+        Scheduler.getInstance().removeAll();
+    }
+
+    @Benchmark
+    public void schedulerRun() {
+        Scheduler.getInstance().run();
+    }
+
+    @Benchmark
+    public void simulatedCycle() {
+        robot.runCycle();
+    }
+
+}
@@ -0,0 +1,62 @@
+package frc.team4159.robot.commands.drive;
+
+import frc.team4159.robot.Robot;
+import frc.team4159.robot.sim.SimulatedRobot;
+import frc.team4159.robot.util.TrajectoryCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static frc.team4159.robot.Constants.CONTROL_LOOP_HZ;
+import static frc.team4159.robot.util.TrajectoryCSV.MID_TO_LEFT_L;
+import static frc.team4159.robot.util.TrajectoryCSV.MID_TO_LEFT_R;
+
+/**
+ * Cost of RunCSVProfile on simulated hardware: the drivetrain logging the scheduler thread does each loop while it
+ * runs, and one tick of the drivetrain control loop that does the path following. The path is restarted with
+ * doInitialize() when it finishes, which happens once every few hundred ticks.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RunCSVProfileBenchmark {
+
+    private SimulatedRobot robot;
+    private RunCSVProfile command;
+
+    @Setup
+    public void setup() {
+        robot = SimulatedRobot.getInstance();
+        TrajectoryCache.getInstance().setDirectory("traj");
+
+        command = new RunCSVProfile(MID_TO_LEFT_L, MID_TO_LEFT_R);
+        command.doInitialize();
+    }
+
+    @Benchmark
+    public void logDashboard() {
+        Robot.drivetrain.logDashboard();
+    }
+
+    @Benchmark
+    public void controlLoopTick() {
+        if(Robot.drivetrain.isPathFinished())
+            command.doInitialize();
+        Robot.drivetrain.getControlLoop().runOnce();
+        robot.getClock().advance(1.0 / CONTROL_LOOP_HZ);
+    }
+
+}
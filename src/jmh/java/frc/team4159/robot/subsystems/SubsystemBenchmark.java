@@ -0,0 +1,51 @@
+package frc.team4159.robot.subsystems;
+
+import frc.team4159.robot.sim.SimulatedRobot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the subsystem calls made every teleop loop, on simulated hardware
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SubsystemBenchmark {
+
+    private Drivetrain drivetrain;
+    private CubeHolder cubeHolder;
+    private double output;
+
+    @Setup
+    public void setup() {
+        SimulatedRobot.getInstance();
+        drivetrain = Drivetrain.getInstance();
+        cubeHolder = Superstructure.cubeHolder;
+    }
+
+    @Benchmark
+    public void drivetrainSetRawOutput() {
+        output = output > 1 ? -1 : output + 0.01;
+        drivetrain.setRawOutput(output, -output);
+    }
+
+    @Benchmark
+    public void cubeHolderMove() {
+        cubeHolder.move();
+    }
+
+}
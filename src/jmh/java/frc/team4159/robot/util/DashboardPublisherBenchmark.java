@@ -0,0 +1,73 @@
+package frc.team4159.robot.util;
+
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost per robot loop of the lift and climber dashboard values and the loop statistics, put directly to SmartDashboard
+ * every loop as before and set through DashboardPublisher. Each op is one 20 ms loop. Only the counters change.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DashboardPublisherBenchmark {
+
+    private SimulatedClock clock;
+    private DashboardPublisher publisher;
+    private DashboardPublisher.StringChannel liftMode;
+    private DashboardPublisher.BooleanChannel rawMode, startedClimb;
+    private DashboardPublisher.NumberChannel outputsSent, outputsSkipped, deviceReads;
+    private long loops;
+
+    @Setup
+    public void setup() {
+        clock = new SimulatedClock(0);
+        publisher = new DashboardPublisher(clock);
+        liftMode = publisher.string("Lift mode", 0.1);
+        rawMode = publisher.bool("Climber Raw Mode", 0.1);
+        startedClimb = publisher.bool("Has Started Climb", 0.1);
+        outputsSent = publisher.number("Outputs sent", 0.5, 0);
+        outputsSkipped = publisher.number("Outputs skipped", 0.5, 0);
+        deviceReads = publisher.number("Device reads per loop", 0.5, 0);
+    }
+
+    @Benchmark
+    public void direct() {
+        loops++;
+        SmartDashboard.putString("Lift mode", "PID");
+        SmartDashboard.putBoolean("Climber Raw Mode", false);
+        SmartDashboard.putBoolean("Has Started Climb", false);
+        SmartDashboard.putNumber("Outputs sent", loops);
+        SmartDashboard.putNumber("Outputs skipped", loops * 2);
+        SmartDashboard.putNumber("Device reads per loop", 11);
+    }
+
+    @Benchmark
+    public void publisher() {
+        loops++;
+        clock.advance(0.02);
+        liftMode.set("PID");
+        rawMode.set(false);
+        startedClimb.set(false);
+        outputsSent.set(loops);
+        outputsSkipped.set(loops * 2);
+        deviceReads.set(11);
+        publisher.publish();
+    }
+
+}
@@ -0,0 +1,64 @@
+package frc.team4159.robot.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of recording one robot loop of CHANNELS samples into the TelemetryLog while its writer thread drains to a
+ * temporary directory. The target is well under 50 us per loop with no allocation.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TelemetryLogBenchmark {
+
+    private static final int CHANNELS = 50;
+
+    private TelemetryLog log;
+    private int firstChannel;
+    private double timestamp;
+
+    @Setup
+    public void setup() throws IOException {
+        log = TelemetryLog.getInstance();
+        firstChannel = log.addChannel("benchmark/0");
+        for(int i = 1; i < CHANNELS; i++)
+            log.addChannel("benchmark/" + i);
+
+        File directory = Files.createTempDirectory("telemetry").toFile();
+        log.start(directory);
+    }
+
+    @TearDown
+    public void tearDown() {
+        log.stop();
+        System.out.println("Dropped " + log.getDropped() + " loops, wrote " + log.getBytesWritten() + " bytes");
+    }
+
+    @Benchmark
+    public void recordLoop() {
+        timestamp += 0.02;
+        log.startFrame(timestamp);
+        for(int i = 0; i < CHANNELS; i++)
+            log.record(firstChannel + i, timestamp * i);
+    }
+
+}
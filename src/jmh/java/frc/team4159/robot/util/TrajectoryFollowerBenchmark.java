@@ -0,0 +1,84 @@
+package frc.team4159.robot.util;
+
+import jaci.pathfinder.Pathfinder;
+import jaci.pathfinder.Trajectory;
+import jaci.pathfinder.followers.EncoderFollower;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import static frc.team4159.robot.Constants.UNITS_PER_REV;
+import static frc.team4159.robot.Constants.WHEEL_DIAMETER;
+
+/**
+ * Cost of one path following tick with Pathfinder's EncoderFollower and with TrajectoryFollower, per segment and time
+ * indexed. Followers start over when they reach the end of the path.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TrajectoryFollowerBenchmark {
+
+    private static final String CSV = "traj/midToLeft_left_detailed.csv";
+    private static final double kV = 1 / 4.05;
+
+    private EncoderFollower encoderFollower;
+    private TrajectoryFollower follower;
+    private TrajectoryFollower timeIndexedFollower;
+    private double timestamp;
+    private int encoderTick;
+
+    @Setup
+    public void setup() {
+        Trajectory trajectory = Pathfinder.readFromCSV(new File(CSV));
+
+        encoderFollower = new EncoderFollower(trajectory);
+        encoderFollower.configureEncoder(0, UNITS_PER_REV, WHEEL_DIAMETER);
+        encoderFollower.configurePIDVA(0.8, 0, 0.1, kV, 0);
+
+        follower = new TrajectoryFollower(ArrayTrajectory.fromTrajectory(trajectory));
+        follower.configureEncoder(0, UNITS_PER_REV, WHEEL_DIAMETER);
+        follower.configurePIDVA(0.8, 0, 0.1, kV, 0);
+
+        timeIndexedFollower = new TrajectoryFollower(ArrayTrajectory.fromTrajectory(trajectory));
+        timeIndexedFollower.configureEncoder(0, UNITS_PER_REV, WHEEL_DIAMETER);
+        timeIndexedFollower.configurePIDVA(0.8, 0, 0.1, kV, 0);
+    }
+
+    @Benchmark
+    public double encoderFollower() {
+        if(encoderFollower.isFinished())
+            encoderFollower.reset();
+        return encoderFollower.calculate(encoderTick++ & 0xFFFF);
+    }
+
+    @Benchmark
+    public double trajectoryFollower() {
+        if(follower.isFinished())
+            follower.reset();
+        return follower.calculate(encoderTick++ & 0xFFFF);
+    }
+
+    @Benchmark
+    public double trajectoryFollowerTimeIndexed() {
+        if(timeIndexedFollower.isFinished())
+            timeIndexedFollower.reset();
+        timestamp += 0.01;
+        return timeIndexedFollower.calculate(encoderTick++ & 0xFFFF, timestamp);
+    }
+
+}
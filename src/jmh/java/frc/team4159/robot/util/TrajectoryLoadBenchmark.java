@@ -0,0 +1,65 @@
+package frc.team4159.robot.util;
+
+import jaci.pathfinder.Pathfinder;
+import jaci.pathfinder.Trajectory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of loading every path with Pathfinder.readFromCSV and of memory-mapping the converted binary files. Run with
+ * -prof gc, as ./gradlew jmh does, for the bytes each load allocates.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TrajectoryLoadBenchmark {
+
+    private static final String DIRECTORY = "traj";
+
+    private File[] csvs;
+
+    @Setup
+    public void setup() throws IOException {
+        File directory = new File(DIRECTORY);
+        csvs = directory.listFiles((dir, name) -> name.endsWith("_detailed.csv"));
+        if(csvs == null || csvs.length == 0)
+            throw new IOException("No detailed CSVs in " + directory);
+    }
+
+    @Benchmark
+    public double loadCSV() {
+        double sum = 0;
+        for(File csv : csvs) {
+            Trajectory trajectory = Pathfinder.readFromCSV(csv);
+            sum += trajectory.get(trajectory.length() - 1).position;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double loadBinary() throws IOException {
+        double sum = 0;
+        for(File csv : csvs) {
+            BinaryTrajectory trajectory = BinaryTrajectory.load(BinaryTrajectory.binaryPath(csv.getPath()));
+            sum += trajectory.getPosition(trajectory.length() - 1);
+        }
+        return sum;
+    }
+
+}
@@ -15,6 +15,20 @@ public interface Constants {
     // Desired peak output percentage
     int PEAK_OUT_PERCENT = 1;
 
+    // Rate of the drivetrain control loop thread, which runs path following and heading correction
+    int CONTROL_LOOP_HZ = 100;
+
+    // Actuator commands that change by less than this are not sent again, unless OUTPUT_REFRESH_MS has passed
+    double OUTPUT_EPSILON = 0.001;
+    int OUTPUT_REFRESH_MS = 100;
+
+    // Port and rate of the live telemetry stream. The field allows ports 5800 to 5810 for team use
+    int DASHBOARD_PORT = 5805;
+    double DASHBOARD_RATE_HZ = 20;
+
+    // Seconds of loops the flight recorder keeps in memory, written out on disable, brownout or overrun
+    double FLIGHT_RECORDER_SECONDS = 10;
+
     // For SRX mag encoder. AKA ticks per revolution or pulses per revolution
     int UNITS_PER_REV = 4096;
 
@@ -22,7 +36,7 @@ public interface Constants {
     double WHEELBASE_WIDTH = .6566535; // 25.8525 inches to meters.
 
     // 4 inches to feet
-    double WHEEL_DIAMETER = 4/12; // 0.1016
+    double WHEEL_DIAMETER = 4.0 / 12; // 4 inches, in feet
 
     double WHEEL_CIRCUMFERANCE = WHEEL_DIAMETER * Math.PI;
 
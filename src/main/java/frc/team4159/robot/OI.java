@@ -1,7 +1,8 @@
 package frc.team4159.robot;
 
+import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.Joystick;
-import edu.wpi.first.wpilibj.buttons.JoystickButton;
+import edu.wpi.first.wpilibj.buttons.Button;
 import frc.team4159.robot.commands.drive.RunCSVProfile;
 
 import static frc.team4159.robot.ControlMap.*;
@@ -10,13 +11,16 @@ import static frc.team4159.robot.util.TrajectoryCSV.*;
 /*
  * The OI (Operator Interface) class binds the controls on the physical operator interface to the commands and command
  * groups that allow control of the robot.
+ *
+ * Joysticks are read once per loop by update(), like the SensorSnapshot, so a replay can feed recorded sticks back in
+ * with update(leftY, rightY, secondaryY, buttons). Pressed and released mean changed since the previous loop.
  */
 
 public class OI {
 
     private static OI instance;
 
-    public static OI getInstance() {
+    public static synchronized OI getInstance() {
         if(instance == null)
             instance = new OI();
         return instance;
@@ -26,7 +30,12 @@ public class OI {
      *  Logitech Attack 3 joysticks, plugged in via USB to the driver station laptop
      */
     private Joystick leftJoy, rightJoy, secondaryJoy, testJoy;
-    private JoystickButton base, midToRight, midToLeft;
+    private Button base, midToRight, midToLeft;
+
+    /* Stick state read this loop. Buttons are bit masks indexed by port, with button n in bit n - 1 */
+    private double leftY, rightY, secondaryY;
+    private int[] buttons = new int[4];
+    private int[] lastButtons = new int[4];
 
     private OI() {
         leftJoy = new Joystick(LEFT_STICK);
@@ -34,9 +43,9 @@ public class OI {
         secondaryJoy = new Joystick(SECONDARY_STICK);
         testJoy = new Joystick(TEST_STICK);
 
-        base = new JoystickButton(testJoy, 3);
-        midToLeft = new JoystickButton(testJoy, 4);
-        midToRight = new JoystickButton(testJoy, 5);
+        base = new StickButton(TEST_STICK, 3);
+        midToLeft = new StickButton(TEST_STICK, 4);
+        midToRight = new StickButton(TEST_STICK, 5);
 
         base.whenReleased(new RunCSVProfile(BASELINE_L, BASELINE_R));
         midToLeft.whenReleased(new RunCSVProfile(MID_TO_LEFT_L, MID_TO_LEFT_R));
@@ -44,6 +53,88 @@ public class OI {
 
     }
 
+    /**
+     * Button read from the sticks' state this loop instead of from the driver station
+     */
+    private class StickButton extends Button {
+
+        private final int port, button;
+
+        StickButton(int port, int button) {
+            this.port = port;
+            this.button = button;
+        }
+
+        @Override
+        public boolean get() {
+            return held(port, button);
+        }
+    }
+
+    /**
+     * Read every joystick once. Called at the top of each loop.
+     */
+    public void update() {
+        DriverStation ds = DriverStation.getInstance();
+        update(leftJoy.getY(), rightJoy.getY(), secondaryJoy.getY(), ds.getStickButtons(LEFT_STICK),
+                ds.getStickButtons(RIGHT_STICK), ds.getStickButtons(SECONDARY_STICK), ds.getStickButtons(TEST_STICK));
+    }
+
+    /**
+     * Use the given stick state for this loop instead of reading the joysticks
+     * @param leftY Raw left y-axis, -1 to 1
+     * @param rightY Raw right y-axis, -1 to 1
+     * @param secondaryY Raw secondary y-axis, -1 to 1
+     */
+    public void update(double leftY, double rightY, double secondaryY, int leftButtons, int rightButtons,
+                       int secondaryButtons, int testButtons) {
+        this.leftY = leftY;
+        this.rightY = rightY;
+        this.secondaryY = secondaryY;
+
+        int[] last = lastButtons;
+        lastButtons = buttons;
+        buttons = last;
+        buttons[LEFT_STICK] = leftButtons;
+        buttons[RIGHT_STICK] = rightButtons;
+        buttons[SECONDARY_STICK] = secondaryButtons;
+        buttons[TEST_STICK] = testButtons;
+    }
+
+    private boolean held(int port, int button) {
+        return (buttons[port] & (1 << (button - 1))) != 0;
+    }
+
+    private boolean pressed(int port, int button) {
+        return held(port, button) && (lastButtons[port] & (1 << (button - 1))) == 0;
+    }
+
+    private boolean released(int port, int button) {
+        return !held(port, button) && (lastButtons[port] & (1 << (button - 1))) != 0;
+    }
+
+    /**
+     * @return Raw left y-axis this loop, for recording
+     */
+    public double getRawLeftY() {
+        return leftY;
+    }
+
+    public double getRawRightY() {
+        return rightY;
+    }
+
+    public double getRawSecondaryY() {
+        return secondaryY;
+    }
+
+    /**
+     * @return Button bit mask of the stick on the given port this loop
+     */
+    public int getButtons(int port) {
+        return buttons[port];
+    }
+
     /*
      * DRIVETRAIN CONTROLS
      */
@@ -53,7 +144,6 @@ public class OI {
      */
 
     public double getLeftY() {
-        double leftY = leftJoy.getY();
         return -Math.copySign(Math.pow(leftY, 2), leftY);
     }
 
@@ -61,7 +151,6 @@ public class OI {
      * @return Right y-axis joystick value squared and inverted sign
      */
     public double getRightY() {
-        double rightY = rightJoy.getY();
         return -Math.copySign(Math.pow(rightY, 2), rightY);
 	}
 
@@ -69,7 +158,6 @@ public class OI {
      * @return Secondary y-axis joystick value squared
      */
     public double getSecondaryY() {
-        double secondaryY = secondaryJoy.getY();
         return Math.copySign(Math.pow(secondaryY, 2), secondaryY);
     }
 
@@ -77,25 +165,25 @@ public class OI {
      * @return True if reverse button pressed.
      */
 	public boolean reverseControls() {
-        return (leftJoy.getRawButtonPressed(REVERSE_CONTROLS));
+        return (pressed(LEFT_STICK, REVERSE_CONTROLS));
     }
 
     /*
 
     public boolean left90Button() {
-        return rightJoy.getRawButton(LEFT_90);
+        return held(RIGHT_STICK, LEFT_90);
     }
 
     public boolean right90Button() {
-        return rightJoy.getRawButton(RIGHT_90);
+        return held(RIGHT_STICK, RIGHT_90);
     }
 
     public boolean front0Button() {
-        return rightJoy.getRawButton(FRONT_0);
+        return held(RIGHT_STICK, FRONT_0);
     }
 
     public boolean back180Button() {
-        return rightJoy.getRawButton(BACK_180);
+        return held(RIGHT_STICK, BACK_180);
     }
 
     */
@@ -104,7 +192,7 @@ public class OI {
      * @return True if right trigger held.
      */
     public boolean driveStraightButton() {
-        return rightJoy.getTrigger();
+        return held(RIGHT_STICK, 1);
     }
 
     /*
@@ -115,49 +203,49 @@ public class OI {
      * @return True if intake button held
      */
     public boolean intakeButton() {
-        return secondaryJoy.getRawButton(INTAKE);
+        return held(SECONDARY_STICK, INTAKE);
     }
 
     /**
      * @return True if outtake button held
      */
     public boolean outtakeButton() {
-        return secondaryJoy.getRawButton(OUTTAKE);
+        return held(SECONDARY_STICK, OUTTAKE);
     }
 
     /**
      * @return True if secondary trigger held
      */
     public boolean openClaw() {
-        return secondaryJoy.getTrigger();
+        return held(SECONDARY_STICK, 1);
     }
 
     /**
      * @return True if switch height state button pressed
      */
     public boolean setSwitchHeight(){
-        return secondaryJoy.getRawButtonPressed(SWITCH);
+        return pressed(SECONDARY_STICK, SWITCH);
     }
 
     /**
      * @return True if set lifter down button pressed
      */
     public boolean setLiftTargetZero() {
-        return secondaryJoy.getRawButtonPressed(GROUND);
+        return pressed(SECONDARY_STICK, GROUND);
     }
 
     /**
      * @return True if lifter raw mode button pressed
      */
     public boolean toggleLifterRawMode() {
-	    return secondaryJoy.getRawButtonPressed(TOGGLE_RAW_LIFT);
+	    return pressed(SECONDARY_STICK, TOGGLE_RAW_LIFT);
     }
 
     /**
      * @return True if reset lift encoder button pressed
      */
     public boolean resetLiftEncoder(){
-        return secondaryJoy.getRawButtonPressed(RESET_LIFT_ENCODER);
+        return pressed(SECONDARY_STICK, RESET_LIFT_ENCODER);
     }
 
     /*
@@ -168,21 +256,21 @@ public class OI {
      * @return True if set enable climb button held
      */
     public boolean climbEnable() {
-        return secondaryJoy.getRawButton(CLIMB_ENABLE);
+        return held(SECONDARY_STICK, CLIMB_ENABLE);
     }
 
     /**
      * @return True if winch button held
      */
     public boolean climbWinch() {
-        return secondaryJoy.getRawButton(WINCH);
+        return held(SECONDARY_STICK, WINCH);
     }
 
     /**
      * @return True if set toggle raw climb button pressed
      */
     public boolean toggleRawClimb() {
-        return secondaryJoy.getRawButtonPressed(TOGGLE_RAW_CLIMB);
+        return pressed(SECONDARY_STICK, TOGGLE_RAW_CLIMB);
     }
 
     /*
@@ -190,11 +278,11 @@ public class OI {
      */
 
     public boolean getAutoSelectionButton(){
-        return testJoy.getRawButtonReleased(SELECTOR);
+        return released(TEST_STICK, SELECTOR);
     }
 
     public boolean getAutoOptionButton(){
-        return testJoy.getRawButtonReleased(OPTION);
+        return released(TEST_STICK, OPTION);
     }
 
 }
\ No newline at end of file
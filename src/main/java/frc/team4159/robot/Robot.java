@@ -5,17 +5,41 @@ import edu.wpi.first.networktables.NetworkTableEntry;
 import edu.wpi.first.networktables.NetworkTableInstance;
 import edu.wpi.first.wpilibj.CameraServer;
 import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.PowerDistributionPanel;
+import edu.wpi.first.wpilibj.RobotController;
 import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.command.Command;
 import edu.wpi.first.wpilibj.command.Scheduler;
 import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import frc.team4159.robot.commands.auto.ElimsAuto;
+import frc.team4159.robot.commands.auto.MotionProfileBaselineAuto;
+import frc.team4159.robot.commands.drive.CharacterizeDrive;
+import frc.team4159.robot.commands.drive.RunCSVProfile;
 import frc.team4159.robot.commands.led.BlinkLED;
+import frc.team4159.robot.io.DeviceCalls;
+import frc.team4159.robot.io.DeviceConfigurator;
+import frc.team4159.robot.io.InputRecorder;
+import frc.team4159.robot.io.OutputCache;
+import frc.team4159.robot.io.SensorSnapshot;
+import frc.team4159.robot.io.StatusFrameManager;
 import frc.team4159.robot.util.AutoSelector;
+import frc.team4159.robot.util.DashboardPublisher;
+import frc.team4159.robot.util.DashboardServer;
+import frc.team4159.robot.util.FlightRecorder;
+import frc.team4159.robot.util.LoopProfiler;
+import frc.team4159.robot.util.StartupProfiler;
+import frc.team4159.robot.util.TelemetryLog;
+import frc.team4159.robot.util.TrajectoryCache;
+import frc.team4159.robot.util.TrajectoryGenerator;
 import frc.team4159.robot.subsystems.Drivetrain;
 import frc.team4159.robot.subsystems.Superstructure;
 
+import static frc.team4159.robot.Constants.DASHBOARD_PORT;
+import static frc.team4159.robot.Constants.DASHBOARD_RATE_HZ;
+import static frc.team4159.robot.Constants.FLIGHT_RECORDER_SECONDS;
+
 /**
  * The VM is configured to automatically run this class, and to call the
  * functions corresponding to each mode, as described in the TimedRobot
@@ -37,58 +61,309 @@ public class Robot extends TimedRobot {
     public static OI oi;
     private static AutoSelector autoSelector;
 
+    /* Seconds left in the match when the climb starts */
+    private static final double ENDGAME_TIME = 30;
+
+    /* Loops longer than this are overruns */
+    private static final double LOOP_PERIOD = 0.02;
+    private static final int PDP_CHANNELS = 16;
+
+    /* Device reads counted at the previous snapshot */
+    private static long lastDeviceReads;
+
+    /* When the current and previous loops started, set by readSensors() */
+    private static double loopStart, lastLoopStart;
+
+    /* Flight recorder channels */
+    private static final InputRecorder.Actuator[] ACTUATORS = InputRecorder.Actuator.values();
+    private int loopTimeChannel, loopPeriodChannel, batteryChannel, brownoutChannel, totalCurrentChannel;
+    private int firstCurrentChannel, firstOutputChannel;
+    private boolean wasBrownedOut;
+    private boolean wasEnabled;
+
+    /* Overruns can repeat all match, so only the first few are dumped each boot */
+    private static final int MAX_OVERRUN_DUMPS = 3;
+    private int overrunDumps;
+
+    /* Loop statistics for the dashboard */
+    private static final DashboardPublisher.NumberChannel deviceReads =
+            DashboardPublisher.getInstance().number("Device reads per loop", 0.5, 0);
+    private static final DashboardPublisher.NumberChannel outputsSent =
+            DashboardPublisher.getInstance().number("Outputs sent", 0.5, 0);
+    private static final DashboardPublisher.NumberChannel outputsSkipped =
+            DashboardPublisher.getInstance().number("Outputs skipped", 0.5, 0);
+    private static final DashboardPublisher.NumberChannel telemetryDropped =
+            DashboardPublisher.getInstance().number("Telemetry loops dropped", 0.5, 0);
+    private static final DashboardPublisher.NumberChannel loopP99 =
+            DashboardPublisher.getInstance().number("Loop p99 ms", 1, 0.1);
+    private static final DashboardPublisher.NumberChannel loopMax =
+            DashboardPublisher.getInstance().number("Loop max ms", 1, 0.1);
+    private static final DashboardPublisher.NumberChannel loopOverruns =
+            DashboardPublisher.getInstance().number("Loop overruns", 0.5, 0);
+    private static final DashboardPublisher.StringChannel slowestSection =
+            DashboardPublisher.getInstance().string("Slowest section", 1);
+
+    /* Timing of each phase of the robot loop */
+    private static final LoopProfiler.Section READ_SENSORS = LoopProfiler.getInstance().section("Robot readSensors");
+    private static final LoopProfiler.Section SCHEDULER = LoopProfiler.getInstance().section("Scheduler run");
+    private static final LoopProfiler.Section FLIGHT_RECORDER = LoopProfiler.getInstance().section("Flight recorder");
+    private static final LoopProfiler.Section DASHBOARD = LoopProfiler.getInstance().section("Dashboard publish");
+    private static final LoopProfiler.Section RESET_CHECK = LoopProfiler.getInstance().section("Device reset check");
+
+    /* Loops between recomputing the slowest section for the dashboard */
+    private static final int SLOWEST_SECTION_LOOPS = 50;
+
     /* Auto choosers */
     private Command autoCommand;
     private SendableChooser<Command> autoChooser;
 
+    /* Follower for every path, for trying RAMSETE on the field before any auto uses it by default */
+    private SendableChooser<RunCSVProfile.Follower> followerChooser;
+
     /* LED stuff */
     private Command blinkLEDCommand;
     private SendableChooser<Command> endGameChooser;
     private NetworkTableEntry ledModeEntry;
 
+    /* Builds the choosers and starts the camera after robotInit() */
+    private Thread deferredInit;
+
     /**
      * Called when the robot is first powered on
      */
     @Override
     public void robotInit() {
 
+        StartupProfiler profiler = new StartupProfiler("robotInit");
+
         /*
          *  Initialize subsystems
          */
+        profiler.phase("Drivetrain");
         drivetrain = Drivetrain.getInstance();
+        profiler.phase("Superstructure");
         superstructure = Superstructure.getInstance();
 
+        /*
+         * Send every Talon the settings it does not already have, all Talons at once
+         */
+        profiler.phase("Talon configuration");
+        DeviceConfigurator.getInstance().applyAll();
+
+        /*
+         * Subsystems have added their channels, so start logging them to disk
+         */
+        profiler.phase("Telemetry log");
+        TelemetryLog.getInstance().start();
+        DashboardServer.getInstance().start(DASHBOARD_PORT, DASHBOARD_RATE_HZ);
+        InputRecorder.getInstance().start();
+        startFlightRecorder();
+
+        StatusFrameManager statusFrames = StatusFrameManager.getInstance();
+        System.out.printf("Estimated CAN utilization: %.1f%% at default status frame periods, %.1f%% disabled, "
+                        + "%.1f%% auto, %.1f%% teleop, %.1f%% endgame%n",
+                statusFrames.estimateDefaultUtilization() * 100,
+                statusFrames.estimateUtilization(StatusFrameManager.Mode.DISABLED) * 100,
+                statusFrames.estimateUtilization(StatusFrameManager.Mode.AUTO) * 100,
+                statusFrames.estimateUtilization(StatusFrameManager.Mode.TELEOP) * 100,
+                statusFrames.estimateUtilization(StatusFrameManager.Mode.ENDGAME) * 100);
+
         /*
          *  Initialize helper classes
          */
+        profiler.phase("OI and AutoSelector");
         oi = OI.getInstance();
         autoSelector = AutoSelector.getInstance();
 
+        /*
+         * Start networktables for rPi to read. disabledInit() sets the LED mode, so this cannot wait.
+         */
+        profiler.phase("NetworkTables");
+        NetworkTableInstance inst = NetworkTableInstance.getDefault();
+        NetworkTable table = inst.getTable("datatable");
+        ledModeEntry = table.getEntry("LED Mode");
+
+        /*
+         * Load every trajectory now so auto does not wait on disk. Missing paths are reported, not thrown, and the
+         * dashboard shows whether they all loaded so a bad deploy is seen before the match.
+         */
+        profiler.phase("Trajectory preload");
+        boolean trajectoriesOK = TrajectoryCache.getInstance().preload();
+        SmartDashboard.putBoolean("Trajectories OK", trajectoriesOK);
+        if(!trajectoriesOK)
+            DriverStation.reportError("Trajectories failed to load, autos using them will not run. Redeploy.", false);
+
+        /*
+         * Regenerate paths whose .bot files changed, in the background
+         */
+        TrajectoryGenerator.getInstance().startInBackground();
+
+        /*
+         * Nothing else is needed before the first disabledPeriodic(), so do it in the background
+         */
+        profiler.phase("Start deferred init");
+        deferredInit = new Thread(this::deferredInit, "DeferredInit");
+        deferredInit.setDaemon(true);
+        deferredInit.start();
+
+        profiler.report();
+    }
+
+    /**
+     * Keep the last FLIGHT_RECORDER_SECONDS of loop timing, power, outputs and each subsystem's running command
+     */
+    private void startFlightRecorder() {
+
+        FlightRecorder flight = FlightRecorder.getInstance();
+
+        loopTimeChannel = flight.addChannel("loop time ms");
+        loopPeriodChannel = flight.addChannel("loop period ms");
+        batteryChannel = flight.addChannel("battery voltage");
+        brownoutChannel = flight.addChannel("browned out");
+        totalCurrentChannel = flight.addChannel("total current");
+        firstCurrentChannel = flight.addChannel("pdp 0 current");
+        for(int i = 1; i < PDP_CHANNELS; i++)
+            flight.addChannel("pdp " + i + " current");
+        firstOutputChannel = flight.addChannel(ACTUATORS[0].name().toLowerCase() + " output");
+        for(int i = 1; i < ACTUATORS.length; i++)
+            flight.addChannel(ACTUATORS[i].name().toLowerCase() + " output");
+
+        flight.addSubsystem(drivetrain);
+        flight.addSubsystem(Superstructure.cubeHolder);
+        flight.addSubsystem(Superstructure.climber);
+        flight.addSubsystem(Superstructure.led);
+
+        flight.start(FLIGHT_RECORDER_SECONDS, 1 / LOOP_PERIOD);
+    }
+
+    /**
+     * Dashboard choosers and the camera. Runs on its own thread after robotInit(). Subsystems must already exist, since
+     * the Scheduler is not safe to register them from here.
+     */
+    private void deferredInit() {
+
+        StartupProfiler profiler = new StartupProfiler("Deferred init");
+
         /*
          * Put auto command into SmartDashboard
          */
+        profiler.phase("Auto chooser");
         autoChooser = new SendableChooser<>();
         autoChooser.addDefault("Auto!", new ElimsAuto());
+        autoChooser.addObject("Baseline, Talon motion profile", new MotionProfileBaselineAuto());
+
+        followerChooser = new SendableChooser<>();
+        followerChooser.addDefault("Each path's own follower", null);
+        for(RunCSVProfile.Follower follower : RunCSVProfile.Follower.values()) {
+            followerChooser.addObject("Every path " + follower, follower);
+        }
+        SmartDashboard.putData("Path follower", followerChooser);
 
         /*
          * Put end game action (blinking LEDs) into SmartDashboard
          */
+        profiler.phase("End game chooser");
         endGameChooser = new SendableChooser<>();
         endGameChooser.addDefault("Blink LED Ring", new BlinkLED());
 
-        /*
-         * Start networktables for rPi to read
-         */
-        NetworkTableInstance inst = NetworkTableInstance.getDefault();
-        NetworkTable table = inst.getTable("datatable");
-        ledModeEntry = table.getEntry("LED Mode");
-
         // Used for auto testing in teleop
-        SmartDashboard.putNumber("MAX_VELOCITY", 4.05);
+        profiler.phase("Dashboard values");
+        SmartDashboard.putNumber("MAX_VELOCITY", 13.3);
         SmartDashboard.putNumber("kP_TURN", 0.05);
 
+        /* Drivetrain characterization, fit afterwards with FeedforwardFitter */
+        profiler.phase("Characterization");
+        for(CharacterizeDrive.Test test : CharacterizeDrive.Test.values()) {
+            for(boolean forward : new boolean[] {true, false}) {
+                CharacterizeDrive command = new CharacterizeDrive(test, forward);
+                SmartDashboard.putData(command.getName(), command);
+            }
+        }
+
+        profiler.phase("Camera");
         CameraServer.getInstance().startAutomaticCapture();
 
+        profiler.report();
+    }
+
+    /**
+     * Wait for deferredInit() to finish, in case a match starts before it does
+     */
+    private void awaitDeferredInit() {
+        try {
+            deferredInit.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Called every loop in every mode, after the mode's periodic method. Restores the settings of any motor controller
+     * that reset and sends this loop's dashboard values.
+     */
+    @Override
+    public void robotPeriodic() {
+        RESET_CHECK.start();
+        StatusFrameManager.getInstance().checkResets();
+        RESET_CHECK.stop();
+
+        FLIGHT_RECORDER.start();
+        recordFlight();
+        FLIGHT_RECORDER.stop();
+
+        DASHBOARD.start();
+        outputsSent.set(OutputCache.getSent());
+        outputsSkipped.set(OutputCache.getSkipped());
+        telemetryDropped.set(TelemetryLog.getInstance().getDropped());
+
+        LoopProfiler profiler = LoopProfiler.getInstance();
+        loopP99.set(profiler.getLoop().getPercentile(0.99) * 1000);
+        loopMax.set(profiler.getLoop().getMax() * 1000);
+        loopOverruns.set(profiler.getOverruns());
+        if(profiler.getLoop().getCount() % SLOWEST_SECTION_LOOPS == 0) {
+            LoopProfiler.Section slowest = profiler.getSlowest();
+            slowestSection.set(slowest == null ? "" : slowest.getName());
+        }
+
+        DashboardPublisher.getInstance().publish();
+        DASHBOARD.stop();
+    }
+
+    /**
+     * Add this loop to the flight recorder, and dump it on a brownout or, up to MAX_OVERRUN_DUMPS times, a loop that
+     * ran over its period
+     */
+    private void recordFlight() {
+
+        FlightRecorder flight = FlightRecorder.getInstance();
+        double now = Timer.getFPGATimestamp();
+        double loopTime = now - loopStart;
+        boolean brownedOut = RobotController.isBrownedOut();
+
+        LoopProfiler.getInstance().loopFinished(loopTime);
+
+        flight.startFrame(loopStart);
+        flight.record(loopTimeChannel, loopTime * 1000);
+        flight.record(loopPeriodChannel, (loopStart - lastLoopStart) * 1000);
+        flight.record(batteryChannel, RobotController.getBatteryVoltage());
+        flight.record(brownoutChannel, brownedOut);
+
+        PowerDistributionPanel pdp = superstructure.getPDP();
+        if(pdp != null) {
+            flight.record(totalCurrentChannel, pdp.getTotalCurrent());
+            for(int i = 0; i < PDP_CHANNELS; i++)
+                flight.record(firstCurrentChannel + i, pdp.getCurrent(i));
+        }
+
+        for(int i = 0; i < ACTUATORS.length; i++)
+            flight.record(firstOutputChannel + i, InputRecorder.getLastOutput(ACTUATORS[i]));
+        flight.endFrame();
+
+        if(brownedOut && !wasBrownedOut)
+            flight.trigger("brownout", now);
+        else if(loopTime > LOOP_PERIOD && overrunDumps < MAX_OVERRUN_DUMPS && flight.trigger("overrun", now))
+            overrunDumps++;
+        wasBrownedOut = brownedOut;
     }
 
     /**
@@ -97,6 +372,18 @@ public class Robot extends TimedRobot {
     @Override
     public void disabledInit() {
 
+        /* Keep what led up to the robot being disabled, whether by the field or by something going wrong */
+        if(wasEnabled) {
+            FlightRecorder.getInstance().trigger("disabled", Timer.getFPGATimestamp());
+
+            /* Loop timing for the period that just ended */
+            System.out.print(LoopProfiler.getInstance().report());
+            LoopProfiler.getInstance().reset();
+        }
+        wasEnabled = false;
+
+        StatusFrameManager.getInstance().setMode(StatusFrameManager.Mode.DISABLED);
+
         ledModeEntry.setString("DISABLED");
 
         /*
@@ -104,6 +391,7 @@ public class Robot extends TimedRobot {
          */
         if (blinkLEDCommand != null) {
             blinkLEDCommand.cancel();
+            InputRecorder.getInstance().recordCommand(blinkLEDCommand, false);
         }
     }
 
@@ -111,6 +399,8 @@ public class Robot extends TimedRobot {
     @Override
     public void disabledPeriodic() {
 
+        readSensors();
+
         if(oi.getAutoSelectionButton()) {
             autoSelector.nextSelection();
             printAutoOptions();
@@ -121,7 +411,7 @@ public class Robot extends TimedRobot {
             printAutoOptions();
         }
 
-        Scheduler.getInstance().run();
+        runScheduler();
     }
 
     /**
@@ -130,10 +420,16 @@ public class Robot extends TimedRobot {
     @Override
     public void autonomousInit() {
 
+        StatusFrameManager.getInstance().setMode(StatusFrameManager.Mode.AUTO);
+        wasEnabled = true;
+
         /* Starts auto command */
+        awaitDeferredInit();
+        RunCSVProfile.setOverride(followerChooser.getSelected());
         autoCommand = autoChooser.getSelected();
         if (autoCommand != null) {
             autoCommand.start();
+            InputRecorder.getInstance().recordCommand(autoCommand, true);
         }
 
         /* Put alliance color to NetworkTables to be used by rPi to control LED strips */
@@ -150,7 +446,8 @@ public class Robot extends TimedRobot {
      */
     @Override
     public void autonomousPeriodic() {
-        Scheduler.getInstance().run();
+        readSensors();
+        runScheduler();
     }
 
     /**
@@ -159,19 +456,25 @@ public class Robot extends TimedRobot {
     @Override
     public void teleopInit() {
 
+        StatusFrameManager.getInstance().setMode(StatusFrameManager.Mode.TELEOP);
+        wasEnabled = true;
+
         /*
          * Stops autonomous action from running when teleop starts
          */
         if (autoCommand != null) {
             autoCommand.cancel();
+            InputRecorder.getInstance().recordCommand(autoCommand, false);
         }
 
         /*
          * Start blinking LED command
          */
+        awaitDeferredInit();
         blinkLEDCommand = endGameChooser.getSelected();
         if(blinkLEDCommand != null) {
             blinkLEDCommand.start();
+            InputRecorder.getInstance().recordCommand(blinkLEDCommand, true);
         }
 
     }
@@ -181,7 +484,15 @@ public class Robot extends TimedRobot {
      */
     @Override
     public void teleopPeriodic() {
-        Scheduler.getInstance().run();
+        readSensors();
+
+        /* Match time is -1 when not connected to the field */
+        double matchTime = Timer.getMatchTime();
+        if(matchTime >= 0 && matchTime <= ENDGAME_TIME) {
+            StatusFrameManager.getInstance().setMode(StatusFrameManager.Mode.ENDGAME);
+        }
+
+        runScheduler();
     }
 
     /**
@@ -189,6 +500,39 @@ public class Robot extends TimedRobot {
      */
     @Override
     public void testPeriodic() {
+        readSensors();
+    }
+
+    /**
+     * Read every sensor into the SensorSnapshot and every joystick into the OI, and record them. Called at the top of
+     * each loop, before anything reads a sensor or stick. Also publishes how many device reads were made since the
+     * previous loop, including the drivetrain control loop's.
+     */
+    public static void readSensors() {
+
+        lastLoopStart = loopStart;
+        loopStart = Timer.getFPGATimestamp();
+        READ_SENSORS.start();
+
+        SensorSnapshot.getInstance().update(loopStart, drivetrain.getIO(),
+                Superstructure.cubeHolder.getIO(), Superstructure.climber.getIO());
+        oi.update();
+        InputRecorder.getInstance().recordLoop();
+
+        long reads = DeviceCalls.getReads();
+        deviceReads.set(reads - lastDeviceReads);
+        lastDeviceReads = reads;
+
+        READ_SENSORS.stop();
+    }
+
+    /**
+     * Run every scheduled command once, timed by the LoopProfiler
+     */
+    private static void runScheduler() {
+        SCHEDULER.start();
+        Scheduler.getInstance().run();
+        SCHEDULER.stop();
     }
 
     /**
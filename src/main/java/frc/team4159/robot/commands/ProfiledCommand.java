@@ -0,0 +1,99 @@
+package frc.team4159.robot.commands;
+
+import edu.wpi.first.wpilibj.command.Command;
+import frc.team4159.robot.util.LoopProfiler;
+
+/**
+ * Command whose initialize, execute, isFinished and end are timed in LoopProfiler, in sections named after the class,
+ * e.g. "Drive execute". The Scheduler calls the final methods here, which time the doInitialize(), doExecute(),
+ * doIsFinished() and doEnd() that subclasses implement. Every instance of a class shares its sections.
+ *
+ * Command groups stay CommandGroups, since their commands are timed themselves.
+ */
+
+public abstract class ProfiledCommand extends Command {
+
+    private final LoopProfiler.Section initializeSection = section("initialize");
+    private final LoopProfiler.Section executeSection = section("execute");
+    private final LoopProfiler.Section isFinishedSection = section("isFinished");
+    private final LoopProfiler.Section endSection = section("end");
+
+    public ProfiledCommand() {
+        super();
+    }
+
+    public ProfiledCommand(String name) {
+        super(name);
+    }
+
+    /**
+     * @param timeout Seconds until isTimedOut() is true
+     */
+    public ProfiledCommand(double timeout) {
+        super(timeout);
+    }
+
+    /**
+     * @param timeout Seconds until isTimedOut() is true
+     */
+    public ProfiledCommand(String name, double timeout) {
+        super(name, timeout);
+    }
+
+    private LoopProfiler.Section section(String method) {
+        return LoopProfiler.getInstance().section(getClass().getSimpleName() + " " + method);
+    }
+
+    @Override
+    protected final void initialize() {
+        initializeSection.start();
+        doInitialize();
+        initializeSection.stop();
+    }
+
+    @Override
+    protected final void execute() {
+        executeSection.start();
+        doExecute();
+        executeSection.stop();
+    }
+
+    @Override
+    protected final boolean isFinished() {
+        isFinishedSection.start();
+        boolean finished = doIsFinished();
+        isFinishedSection.stop();
+        return finished;
+    }
+
+    @Override
+    protected final void end() {
+        endSection.start();
+        doEnd();
+        endSection.stop();
+    }
+
+    /**
+     * Called just before this command runs the first time
+     */
+    protected void doInitialize() {
+    }
+
+    /**
+     * Called repeatedly while this command is scheduled
+     */
+    protected void doExecute() {
+    }
+
+    /**
+     * @return True once this command no longer needs to run doExecute()
+     */
+    protected abstract boolean doIsFinished();
+
+    /**
+     * Called once after doIsFinished() returns true, and by interrupted() unless a subclass changes it
+     */
+    protected void doEnd() {
+    }
+
+}
@@ -1,24 +1,25 @@
 package frc.team4159.robot.commands.auto;
 
 import edu.wpi.first.wpilibj.command.Command;
-import edu.wpi.first.wpilibj.command.TimedCommand;
+import frc.team4159.robot.commands.ProfiledCommand;
 import frc.team4159.robot.commands.drive.RunCSVProfile;
 import frc.team4159.robot.util.AutoSelector;
+import frc.team4159.robot.util.GameData;
 import openrio.powerup.MatchData;
 
 import static frc.team4159.robot.util.TrajectoryCSV.*;
 
 
-public class Auto extends TimedCommand {
+public class Auto extends ProfiledCommand {
 
     public Auto() {
         super(15);
     }
 
     @Override
-    protected void initialize() {
+    protected void doInitialize() {
 
-        MatchData.OwnedSide nearSwitch = MatchData.getOwnedSide(MatchData.GameFeature.SWITCH_NEAR);
+        MatchData.OwnedSide nearSwitch = GameData.getOwnedSide(MatchData.GameFeature.SWITCH_NEAR);
         String position = AutoSelector.getInstance().getPosition();
         Command command;
 
@@ -75,7 +76,7 @@ public class Auto extends TimedCommand {
     }
 
     @Override
-    protected boolean isFinished() {
+    protected boolean doIsFinished() {
         return isTimedOut();
     }
 
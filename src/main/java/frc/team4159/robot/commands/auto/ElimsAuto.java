@@ -1,21 +1,22 @@
 package frc.team4159.robot.commands.auto;
 
 import edu.wpi.first.wpilibj.command.Command;
-import edu.wpi.first.wpilibj.command.TimedCommand;
+import frc.team4159.robot.commands.ProfiledCommand;
+import frc.team4159.robot.util.GameData;
 import openrio.powerup.MatchData;
 
 
-public class ElimsAuto extends TimedCommand {
+public class ElimsAuto extends ProfiledCommand {
 
     public ElimsAuto() {
         super(15);
     }
 
     @Override
-    protected void initialize() {
+    protected void doInitialize() {
         Command command;
 
-        MatchData.OwnedSide switchNear = MatchData.getOwnedSide(MatchData.GameFeature.SWITCH_NEAR);
+        MatchData.OwnedSide switchNear = GameData.getOwnedSide(MatchData.GameFeature.SWITCH_NEAR);
 
         if(switchNear == MatchData.OwnedSide.LEFT) {
             command = new BaselineAuto();
@@ -30,7 +31,7 @@ public class ElimsAuto extends TimedCommand {
         command.start();
     }
     @Override
-    protected boolean isFinished() {
+    protected boolean doIsFinished() {
         return isTimedOut();
     }
 
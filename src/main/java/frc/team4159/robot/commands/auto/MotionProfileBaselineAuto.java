@@ -0,0 +1,15 @@
+package frc.team4159.robot.commands.auto;
+
+import edu.wpi.first.wpilibj.command.CommandGroup;
+import frc.team4159.robot.commands.drive.RunMotionProfile;
+
+import static frc.team4159.robot.util.TrajectoryCSV.BASELINE_L;
+import static frc.team4159.robot.util.TrajectoryCSV.BASELINE_R;
+
+/* Drives the baseline path with the Talons' motion profile mode, for testing it against RunCSVProfile */
+public class MotionProfileBaselineAuto extends CommandGroup {
+
+    public MotionProfileBaselineAuto() {
+        addSequential(new RunMotionProfile(BASELINE_L, BASELINE_R));
+    }
+}
@@ -1,7 +1,7 @@
 package frc.team4159.robot.commands.climb;
 
-import edu.wpi.first.wpilibj.command.Command;
 import frc.team4159.robot.OI;
+import frc.team4159.robot.commands.ProfiledCommand;
 import frc.team4159.robot.subsystems.Climber;
 import frc.team4159.robot.subsystems.Superstructure;
 
@@ -10,7 +10,7 @@ import frc.team4159.robot.subsystems.Superstructure;
  * the robot up.
  */
 
-public class Climb extends Command {
+public class Climb extends ProfiledCommand {
 
     private Climber climber;
     private OI oi;
@@ -22,7 +22,7 @@ public class Climb extends Command {
     }
 
     @Override
-    protected void execute() {
+    protected void doExecute() {
 
         /*
          * Update setpoint if enable climber button is held and absolute value of y-axis is greater than 0.1
@@ -45,16 +45,15 @@ public class Climb extends Command {
         }
 
         //climber.update();
-        climber.logSmartDashboard();
     }
 
     @Override
-    protected boolean isFinished() {
+    protected boolean doIsFinished() {
         return false;
     }
 
     @Override
-    protected void end() {
+    protected void doEnd() {
     }
 
     @Override
@@ -1,17 +1,17 @@
 package frc.team4159.robot.commands.cube;
 
-import edu.wpi.first.wpilibj.command.InstantCommand;
+import frc.team4159.robot.commands.ProfiledCommand;
 import frc.team4159.robot.subsystems.Superstructure;
 
 
-public class CloseClaw extends InstantCommand {
+public class CloseClaw extends ProfiledCommand {
 
     public CloseClaw() {
         Superstructure.getInstance().getCubeHolder().close();
     }
 
     @Override
-    protected boolean isFinished() {
+    protected boolean doIsFinished() {
         return true;
     }
 
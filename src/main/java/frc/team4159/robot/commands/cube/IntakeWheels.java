@@ -1,11 +1,11 @@
 package frc.team4159.robot.commands.cube;
 
-import edu.wpi.first.wpilibj.command.TimedCommand;
+import frc.team4159.robot.commands.ProfiledCommand;
 import frc.team4159.robot.subsystems.CubeHolder;
 import frc.team4159.robot.subsystems.Superstructure;
 
 
-public class IntakeWheels extends TimedCommand {
+public class IntakeWheels extends ProfiledCommand {
 
     private CubeHolder cubeHolder = Superstructure.getInstance().getCubeHolder();
 
@@ -14,17 +14,17 @@ public class IntakeWheels extends TimedCommand {
     }
 
     @Override
-    protected void execute() {
+    protected void doExecute() {
         cubeHolder.intake();
     }
 
     @Override
-    protected boolean isFinished() {
+    protected boolean doIsFinished() {
         return isTimedOut();
     }
 
     @Override
-    protected void end() {
+    protected void doEnd() {
         cubeHolder.stopFlywheels();
     }
 
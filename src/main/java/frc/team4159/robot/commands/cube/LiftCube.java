@@ -1,12 +1,12 @@
 package frc.team4159.robot.commands.cube;
 
-import edu.wpi.first.wpilibj.command.Command;
 import frc.team4159.robot.OI;
 import frc.team4159.robot.Robot;
+import frc.team4159.robot.commands.ProfiledCommand;
 import frc.team4159.robot.subsystems.CubeHolder;
 import frc.team4159.robot.subsystems.Superstructure;
 
-public class LiftCube extends Command {
+public class LiftCube extends ProfiledCommand {
 
     private CubeHolder cubeHolder;
     private OI oi;
@@ -18,7 +18,7 @@ public class LiftCube extends Command {
     }
 
     @Override
-    protected void execute() {
+    protected void doExecute() {
 
         /*
          * Intake and outtake wheel control
@@ -76,17 +76,15 @@ public class LiftCube extends Command {
 //        if(Robot.oi.resetLiftEncoder()){
 //            cubeHolder.resetLiftEncoder();
 //        }
-
-        cubeHolder.logDashboard();
     }
 
     @Override
-    protected boolean isFinished() {
+    protected boolean doIsFinished() {
         return false;
     }
 
     @Override
-    protected void end() {
+    protected void doEnd() {
         cubeHolder.stopFlywheels();
     }
 
@@ -1,12 +1,17 @@
 package frc.team4159.robot.commands.cube;
 
-import edu.wpi.first.wpilibj.command.InstantCommand;
+import frc.team4159.robot.commands.ProfiledCommand;
 import frc.team4159.robot.subsystems.Superstructure;
 
-public class LiftDown extends InstantCommand {
+public class LiftDown extends ProfiledCommand {
 
     public LiftDown() {
         Superstructure.getInstance().getCubeHolder().updatePosition(0);
     }
 
+    @Override
+    protected boolean doIsFinished() {
+        return true;
+    }
+
 }
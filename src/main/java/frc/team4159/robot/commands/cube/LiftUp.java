@@ -1,14 +1,19 @@
 package frc.team4159.robot.commands.cube;
 
-import edu.wpi.first.wpilibj.command.InstantCommand;
+import frc.team4159.robot.commands.ProfiledCommand;
 import frc.team4159.robot.subsystems.Superstructure;
 
 import static frc.team4159.robot.Constants.SWITCH_HEIGHT;
 
-public class LiftUp extends InstantCommand {
+public class LiftUp extends ProfiledCommand {
 
     public LiftUp() {
         Superstructure.getInstance().getCubeHolder().setTargetPosition(SWITCH_HEIGHT);
     }
 
+    @Override
+    protected boolean doIsFinished() {
+        return true;
+    }
+
 }
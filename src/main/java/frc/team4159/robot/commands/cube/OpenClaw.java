@@ -1,12 +1,17 @@
 package frc.team4159.robot.commands.cube;
 
-import edu.wpi.first.wpilibj.command.InstantCommand;
+import frc.team4159.robot.commands.ProfiledCommand;
 import frc.team4159.robot.subsystems.Superstructure;
 
-public class OpenClaw extends InstantCommand {
+public class OpenClaw extends ProfiledCommand {
 
     public OpenClaw() {
         Superstructure.getInstance().getCubeHolder().open();
     }
 
+    @Override
+    protected boolean doIsFinished() {
+        return true;
+    }
+
 }
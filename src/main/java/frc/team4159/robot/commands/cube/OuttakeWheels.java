@@ -1,10 +1,10 @@
 package frc.team4159.robot.commands.cube;
 
-import edu.wpi.first.wpilibj.command.TimedCommand;
+import frc.team4159.robot.commands.ProfiledCommand;
 import frc.team4159.robot.subsystems.CubeHolder;
 import frc.team4159.robot.subsystems.Superstructure;
 
-public class OuttakeWheels extends TimedCommand {
+public class OuttakeWheels extends ProfiledCommand {
 
     private CubeHolder cubeHolder = Superstructure.getInstance().getCubeHolder();
 
@@ -13,17 +13,17 @@ public class OuttakeWheels extends TimedCommand {
     }
 
     @Override
-    protected void execute() {
+    protected void doExecute() {
         cubeHolder.autoOuttake();
     }
 
     @Override
-    protected boolean isFinished() {
+    protected boolean doIsFinished() {
         return isTimedOut();
     }
 
     @Override
-    protected void end() {
+    protected void doEnd() {
     }
 
     @Override
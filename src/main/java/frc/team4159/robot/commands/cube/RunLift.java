@@ -1,9 +1,9 @@
 package frc.team4159.robot.commands.cube;
 
-import edu.wpi.first.wpilibj.command.TimedCommand;
+import frc.team4159.robot.commands.ProfiledCommand;
 import frc.team4159.robot.subsystems.Superstructure;
 
-public class RunLift extends TimedCommand {
+public class RunLift extends ProfiledCommand {
 
     public RunLift() {
         /* Run for 15 seconds, the duration of autonomous */
@@ -11,13 +11,13 @@ public class RunLift extends TimedCommand {
     }
 
     @Override
-    protected void execute() {
+    protected void doExecute() {
         Superstructure.getInstance().getCubeHolder().move();
     }
 
 
     @Override
-    protected boolean isFinished() {
+    protected boolean doIsFinished() {
         return isTimedOut();
     }
 
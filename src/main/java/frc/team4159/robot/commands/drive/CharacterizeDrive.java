@@ -0,0 +1,187 @@
+package frc.team4159.robot.commands.drive;
+
+import com.ctre.phoenix.motorcontrol.ControlMode;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotController;
+import frc.team4159.robot.Robot;
+import frc.team4159.robot.commands.ProfiledCommand;
+import frc.team4159.robot.io.DrivetrainIO;
+import frc.team4159.robot.subsystems.Drivetrain;
+import frc.team4159.robot.util.TelemetryLog;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import static frc.team4159.robot.Constants.*;
+import static frc.team4159.robot.util.DriveFeedforward.NOMINAL_VOLTAGE;
+
+/**
+ * Drives both sides with a known voltage and logs what they do, for FeedforwardFitter to fit kS, kV and kA from.
+ * Runs on the drivetrain control loop so every sample is the same distance apart. Samples go into arrays allocated when
+ * the command starts and are written to characterization_*.csv in the telemetry log directory when it ends. The volts
+ * logged are what the Talons measured they applied, so their current limit clipping the step shows up in the data.
+ *
+ * Run the quasistatic and step tests both forward and backward, with room for the robot to drive about 15 feet.
+ * Disabling the robot or cancelling the command stops the motors and keeps what was logged so far.
+ */
+
+public class CharacterizeDrive extends ProfiledCommand {
+
+    public enum Test {
+        /* Voltage ramps up slowly, so acceleration is near zero and velocity follows kS and kV */
+        QUASISTATIC,
+        /* Voltage jumps to STEP_VOLTAGE, so acceleration is large and shows kA */
+        STEP
+    }
+
+    private static final double RAMP_RATE = 0.25; // Volts per second
+    private static final double QUASISTATIC_DURATION = 10; // s
+    private static final double STEP_VOLTAGE = 6;
+    private static final double STEP_DURATION = 2; // s
+
+    /* Logged columns, written in this order */
+    private static final String[] COLUMNS = {"time", "battery", "left volts", "right volts", "left position",
+            "right position", "left velocity", "right velocity", "left acceleration", "right acceleration"};
+    private static final int TIME = 0, BATTERY = 1, LEFT_VOLTS = 2, RIGHT_VOLTS = 3, LEFT_POSITION = 4,
+            RIGHT_POSITION = 5, LEFT_VELOCITY = 6, RIGHT_VELOCITY = 7, LEFT_ACCELERATION = 8, RIGHT_ACCELERATION = 9;
+
+    private final Drivetrain drivetrain = Robot.getDrivetrain();
+    private final DrivetrainIO io = drivetrain.getIO();
+    private final Test test;
+    private final boolean forward;
+    private final double duration;
+
+    /* Written by the control loop thread while the test runs. Each run gets new arrays, since the last run's writer
+     * thread may still be reading its own. */
+    private double[][] samples;
+    private int count;
+    private double startTime;
+    private volatile boolean finished;
+
+    /**
+     * @param test Which test to run
+     * @param forward True to drive forward, false to drive backward
+     */
+    public CharacterizeDrive(Test test, boolean forward) {
+        super("Characterize " + test.name().toLowerCase() + (forward ? " forward" : " backward"));
+        requires(Robot.drivetrain);
+        this.test = test;
+        this.forward = forward;
+
+        duration = test == Test.QUASISTATIC ? QUASISTATIC_DURATION : STEP_DURATION;
+    }
+
+    @Override
+    protected void doInitialize() {
+        samples = new double[COLUMNS.length][(int) Math.ceil(duration * CONTROL_LOOP_HZ) + 1];
+        count = 0;
+        startTime = Double.NaN;
+        finished = false;
+        drivetrain.runOnControlLoop(this::sample);
+    }
+
+    /**
+     * Control loop iteration. Logs the sensors, then sets the voltage for the next sample.
+     */
+    private void sample(double timestamp) {
+
+        if(finished)
+            return;
+
+        if(Double.isNaN(startTime))
+            startTime = timestamp;
+        double time = timestamp - startTime;
+
+        double battery = RobotController.getBatteryVoltage();
+        if(battery <= 0)
+            battery = NOMINAL_VOLTAGE; // Simulation
+
+        double volts = test == Test.QUASISTATIC ? RAMP_RATE * time : STEP_VOLTAGE;
+        double percent = Math.min(volts / battery, 1) * (forward ? 1 : -1);
+
+        double feetPerUnit = WHEEL_CIRCUMFERANCE / UNITS_PER_REV;
+        samples[TIME][count] = time;
+        samples[BATTERY][count] = battery;
+        samples[LEFT_VOLTS][count] = io.getLeftOutputVoltage();
+        samples[RIGHT_VOLTS][count] = io.getRightOutputVoltage();
+        samples[LEFT_POSITION][count] = io.getLeftPosition() * feetPerUnit;
+        samples[RIGHT_POSITION][count] = io.getRightPosition() * feetPerUnit;
+        samples[LEFT_VELOCITY][count] = io.getLeftVelocity() * 10 * feetPerUnit;
+        samples[RIGHT_VELOCITY][count] = io.getRightVelocity() * 10 * feetPerUnit;
+        if(count > 0) {
+            double dt = time - samples[TIME][count - 1];
+            samples[LEFT_ACCELERATION][count] =
+                    (samples[LEFT_VELOCITY][count] - samples[LEFT_VELOCITY][count - 1]) / dt;
+            samples[RIGHT_ACCELERATION][count] =
+                    (samples[RIGHT_VELOCITY][count] - samples[RIGHT_VELOCITY][count - 1]) / dt;
+        }
+        count++;
+
+        if(time >= duration || count == samples[TIME].length) {
+            finished = true;
+            io.setOutput(ControlMode.PercentOutput, 0, 0);
+        } else {
+            io.setOutput(ControlMode.PercentOutput, percent, percent);
+        }
+    }
+
+    @Override
+    protected boolean doIsFinished() {
+        return finished;
+    }
+
+    @Override
+    protected void doEnd() {
+
+        /* Control loop no longer touches the samples after this */
+        drivetrain.runOnControlLoop(null);
+
+        double[][] taken = samples;
+        int samplesTaken = count;
+        Thread writer = new Thread(() -> write(taken, samplesTaken), "CharacterizeDrive");
+        writer.setDaemon(true);
+        writer.setPriority(Thread.MIN_PRIORITY);
+        writer.start();
+    }
+
+    @Override
+    protected void interrupted() {
+        end();
+    }
+
+    private void write(double[][] samples, int samplesTaken) {
+
+        File directory = TelemetryLog.findDirectory();
+        if(directory == null) {
+            DriverStation.reportError("No log directory, " + getName() + " data lost", false);
+            return;
+        }
+
+        File file = new File(directory, "characterization_" + test.name().toLowerCase()
+                + (forward ? "_forward_" : "_backward_") + new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date())
+                + ".csv");
+
+        try(PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(file)))) {
+            out.println(String.join(",", COLUMNS));
+            for(int i = 0; i < samplesTaken; i++) {
+                for(int column = 0; column < COLUMNS.length; column++) {
+                    if(column > 0)
+                        out.print(',');
+                    out.print(samples[column][i]);
+                }
+                out.println();
+            }
+        } catch (IOException ex) {
+            DriverStation.reportError("Error writing " + file + ":  " + ex.getMessage(), false);
+            return;
+        }
+
+        System.out.println(getName() + " wrote " + samplesTaken + " samples to " + file);
+    }
+
+}
@@ -1,12 +1,12 @@
 package frc.team4159.robot.commands.drive;
 
-import edu.wpi.first.wpilibj.DriverStation;
-import edu.wpi.first.wpilibj.command.Command;
+import edu.wpi.first.wpilibj.RobotState;
 
 import frc.team4159.robot.Robot;
+import frc.team4159.robot.commands.ProfiledCommand;
 import frc.team4159.robot.subsystems.Drivetrain;
 
-public class Drive extends Command{
+public class Drive extends ProfiledCommand {
 
     private Drivetrain drivetrain = Robot.getDrivetrain();
 
@@ -16,14 +16,14 @@ public class Drive extends Command{
 
     // Called just before this Command runs the first time
     @Override
-    protected void initialize() {
+    protected void doInitialize() {
     }
 
     // Called repeatedly when this Command is scheduled to run
     @Override
-    protected void execute() {
+    protected void doExecute() {
 
-        if(Robot.oi.reverseControls() && !DriverStation.getInstance().isDisabled()) {
+        if(Robot.oi.reverseControls() && !RobotState.isDisabled()) {
             drivetrain.reverseControls();
         }
 
@@ -50,19 +50,17 @@ public class Drive extends Command{
 
         }
 
-        drivetrain.logDashboard();
-
     }
 
     // Make this return true when this Command no longer needs to run execute()
     @Override
-    protected boolean isFinished() {
+    protected boolean doIsFinished() {
         return false;
     }
 
     // Called once after isFinished returns true
     @Override
-    protected void end() {
+    protected void doEnd() {
         drivetrain.stop();
     }
 
@@ -1,10 +1,10 @@
 package frc.team4159.robot.commands.drive;
 
-import edu.wpi.first.wpilibj.command.Command;
 import frc.team4159.robot.Robot;
+import frc.team4159.robot.commands.ProfiledCommand;
 import frc.team4159.robot.subsystems.Drivetrain;
 
-public class DriveDistance extends Command {
+public class DriveDistance extends ProfiledCommand {
 
     private Drivetrain drivetrain;
     private double leftDistance, rightDistance;
@@ -31,7 +31,7 @@ public class DriveDistance extends Command {
     }
 
     @Override
-    protected void initialize() {
+    protected void doInitialize() {
         drivetrain.driveDistance(leftDistance, rightDistance);
     }
 
@@ -39,12 +39,12 @@ public class DriveDistance extends Command {
      * @return True if driving distance using motion magic is finished
      */
     @Override
-    protected boolean isFinished() {
+    protected boolean doIsFinished() {
         return drivetrain.motionMagicFinished();
     }
 
     @Override
-    protected void end() {
+    protected void doEnd() {
     }
 
     @Override
@@ -1,10 +1,10 @@
 package frc.team4159.robot.commands.drive;
 
-import edu.wpi.first.wpilibj.command.TimedCommand;
 import frc.team4159.robot.Robot;
+import frc.team4159.robot.commands.ProfiledCommand;
 import frc.team4159.robot.subsystems.Drivetrain;
 
-public class DriveSlow extends TimedCommand {
+public class DriveSlow extends ProfiledCommand {
 
     private Drivetrain drivetrain;
 
@@ -15,17 +15,17 @@ public class DriveSlow extends TimedCommand {
     }
 
     @Override
-    protected void execute() {
+    protected void doExecute() {
         drivetrain.setRawOutput(0.2, 0.2);
     }
 
     @Override
-    protected boolean isFinished() {
+    protected boolean doIsFinished() {
         return isTimedOut();
     }
 
     @Override
-    protected void end() {
+    protected void doEnd() {
         drivetrain.setRawOutput(0, 0);
     }
 
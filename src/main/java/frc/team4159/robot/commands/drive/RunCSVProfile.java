@@ -1,59 +1,121 @@
 package frc.team4159.robot.commands.drive;
 
-import java.io.File;
-
-import edu.wpi.first.wpilibj.command.Command;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import frc.team4159.robot.Robot;
+import frc.team4159.robot.commands.ProfiledCommand;
 import frc.team4159.robot.subsystems.Drivetrain;
-import jaci.pathfinder.Pathfinder;
-import jaci.pathfinder.Trajectory;
-import jaci.pathfinder.followers.EncoderFollower;
+import frc.team4159.robot.util.ArrayTrajectory;
+import frc.team4159.robot.util.DriveFeedforward;
+import frc.team4159.robot.util.Pose;
+import frc.team4159.robot.util.RamseteFollower;
+import frc.team4159.robot.util.TrajectoryCache;
+import frc.team4159.robot.util.TrajectoryFollower;
 
 import static frc.team4159.robot.Constants.UNITS_PER_REV;
 import static frc.team4159.robot.Constants.WHEEL_DIAMETER;
+import static frc.team4159.robot.util.DriveFeedforward.NOMINAL_VOLTAGE;
+
+public class RunCSVProfile extends ProfiledCommand {
+
+    /**
+     * How the path is followed
+     */
+    public enum Follower {
+        /* Each side follows its distance from its encoder, with proportional heading correction */
+        ENCODER,
+        /* Both sides track the pose along the path from odometry. Corrects cross-track error too. */
+        RAMSETE
+    }
 
-public class RunCSVProfile extends Command {
+    /* Follower every path uses instead of its own, for comparing them in simulation or trying one on the field from the
+     * dashboard. Null to use each path's own. */
+    private static Follower override;
 
     private Drivetrain drivetrain;
 
-    private double MAX_VELOCITY = 4.05; // meters per second ?!?!?!?!?!?!
+    /* Feet per second like the paths, only used if the drivetrain has not been characterized. This was 4.05, the same
+     * speed in meters per second, which made kV three times too high and overshot every path. */
+    private double MAX_VELOCITY = 13.3;
     private double kA = 0;
     private double kP_TURN = 0.05;
 
-    private EncoderFollower left;
-    private EncoderFollower right;
+    /* Ramsete gains. b is per square foot. */
+    private static final double RAMSETE_B = 2 * 0.3048 * 0.3048;
+    private static final double RAMSETE_ZETA = 0.7;
+
+    private TrajectoryFollower left;
+    private TrajectoryFollower right;
+    private RamseteFollower ramsete;
+    private final Pose startPose = new Pose();
 
     private String leftCSV;
     private String rightCSV;
+    private Follower follower;
 
     public RunCSVProfile(String leftCSV, String rightCSV) {
+        this(leftCSV, rightCSV, Follower.ENCODER);
+    }
+
+    /**
+     * @param follower How to follow the path
+     */
+    public RunCSVProfile(String leftCSV, String rightCSV, Follower follower) {
         requires(Robot.drivetrain);
         drivetrain = Robot.getDrivetrain();
         this.leftCSV = leftCSV;
         this.rightCSV = rightCSV;
+        this.follower = follower;
+    }
+
+    /**
+     * @param follower Follower for every path from now on, or null for each path's own
+     */
+    public static void setOverride(Follower follower) {
+        override = follower;
     }
 
     @Override
-    protected void initialize() {
+    protected void doInitialize() {
 
-        System.out.println("Running: " + leftCSV + ", " + rightCSV);
+        Follower follower = override != null ? override : this.follower;
+        ramsete = null;
+        System.out.println("Running: " + leftCSV + ", " + rightCSV + " with " + follower + " follower");
 
-        MAX_VELOCITY = SmartDashboard.getNumber("MAX_VELOCITY", 4.05);
+        MAX_VELOCITY = SmartDashboard.getNumber("MAX_VELOCITY", 13.3);
         kP_TURN = SmartDashboard.getNumber("kP_TURN", 0.05);
 
         double kV = 1 / MAX_VELOCITY;
 
         drivetrain.zeroNavX();
 
-        File left_csv_trajectory = new File(leftCSV);
-        File right_csv_trajectory = new File(rightCSV);
-
-        Trajectory left_trajectory = Pathfinder.readFromCSV(left_csv_trajectory);
-        Trajectory right_trajectory = Pathfinder.readFromCSV(right_csv_trajectory);
-
-        left = new EncoderFollower(left_trajectory);
-        right = new EncoderFollower(right_trajectory);
+        ArrayTrajectory leftTrajectory = TrajectoryCache.getInstance().get(leftCSV);
+        ArrayTrajectory rightTrajectory = TrajectoryCache.getInstance().get(rightCSV);
+        DriveFeedforward feedforward = DriveFeedforward.get();
+
+        if(follower == Follower.RAMSETE) {
+            ramsete = new RamseteFollower(leftTrajectory, rightTrajectory);
+            ramsete.configureGains(RAMSETE_B, RAMSETE_ZETA);
+            if(feedforward != null) {
+                DriveFeedforward.Side l = feedforward.getLeft(), r = feedforward.getRight();
+                ramsete.configureLeftFeedforward(l.kS / NOMINAL_VOLTAGE, l.kV / NOMINAL_VOLTAGE,
+                        l.kA / NOMINAL_VOLTAGE);
+                ramsete.configureRightFeedforward(r.kS / NOMINAL_VOLTAGE, r.kV / NOMINAL_VOLTAGE,
+                        r.kA / NOMINAL_VOLTAGE);
+            } else {
+                ramsete.configureLeftFeedforward(0, kV, kA);
+                ramsete.configureRightFeedforward(0, kV, kA);
+            }
+
+            /* The robot is placed at the start of the path, so odometry starts there */
+            ramsete.getStartPose(startPose);
+            drivetrain.resetPose(startPose.x, startPose.y, startPose.heading);
+
+            drivetrain.followPath(ramsete);
+            return;
+        }
+
+        left = new TrajectoryFollower(leftTrajectory);
+        right = new TrajectoryFollower(rightTrajectory);
 
         left.configureEncoder(drivetrain.getLeftEncoderPosition(), UNITS_PER_REV, WHEEL_DIAMETER);
         left.configurePIDVA(0.0, 0.0, 0.0, kV, kA);
@@ -61,32 +123,38 @@ public class RunCSVProfile extends Command {
         right.configureEncoder(drivetrain.getRightEncoderPosition(), UNITS_PER_REV, WHEEL_DIAMETER);
         right.configurePIDVA(0.0, 0.0, 0.0, kV, kA);
 
-    }
+        if(feedforward != null) {
+            configureFeedforward(left, feedforward.getLeft());
+            configureFeedforward(right, feedforward.getRight());
+        }
 
-    @Override
-    protected void execute() {
-        double l = left.calculate(drivetrain.getLeftEncoderPosition());
-        double r = right.calculate(drivetrain.getRightEncoderPosition());
-
-        double gyro_heading = drivetrain.getHeadingDegrees();
-        double desired_heading = Pathfinder.r2d(left.getHeading());
-
-        double angleDifference = Pathfinder.boundHalfDegrees(desired_heading - gyro_heading);
-        double kG = kP_TURN * (-1.0/80.0);
-        double turn = kG * angleDifference;
+        /* Followed on the drivetrain's control loop thread with time-indexed setpoints */
+        drivetrain.followPath(left, right, kP_TURN);
+    }
 
-        drivetrain.setRawOutput(l + turn, r - turn);
-        drivetrain.logDashboard();
+    /**
+     * Characterized gains are in volts, the follower's output is percent
+     */
+    private static void configureFeedforward(TrajectoryFollower follower, DriveFeedforward.Side side) {
+        follower.configureFeedforward(side.kS / NOMINAL_VOLTAGE, side.kV / NOMINAL_VOLTAGE, side.kA / NOMINAL_VOLTAGE);
     }
 
     @Override
-    protected boolean isFinished() {
-        return left.isFinished() && right.isFinished();
+    protected boolean doIsFinished() {
+        return drivetrain.isPathFinished();
     }
 
     @Override
-    protected void end() {
-        drivetrain.setRawOutput(0, 0);
+    protected void doEnd() {
+        drivetrain.stopPath();
+
+        if(ramsete != null) {
+            System.out.printf("Max cross-track error: %.2f ft%n", ramsete.getMaxCrossTrackError());
+        } else {
+            System.out.printf("Late ticks: %d of %d, max %.1f ms late%n",
+                    left.getLateTicks(), left.getTicks(), left.getMaxLateness() * 1000);
+        }
+        System.out.println(drivetrain.getControlLoop().report());
     }
 
     @Override
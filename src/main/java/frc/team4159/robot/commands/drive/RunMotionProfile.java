@@ -0,0 +1,87 @@
+package frc.team4159.robot.commands.drive;
+
+import edu.wpi.first.wpilibj.Notifier;
+import frc.team4159.robot.Robot;
+import frc.team4159.robot.commands.ProfiledCommand;
+import frc.team4159.robot.subsystems.Drivetrain;
+import frc.team4159.robot.util.MotionProfileStreamer;
+import frc.team4159.robot.util.TrajectoryCache;
+
+import static frc.team4159.robot.Constants.UNITS_PER_REV;
+import static frc.team4159.robot.Constants.WHEEL_CIRCUMFERANCE;
+
+/*
+ * Runs a path with the Talons' motion profile mode. Points are streamed into the Talons on a Notifier so they follow
+ * the path with their own velocity closed loop every 10 ms, instead of RunCSVProfile's 20 ms percent output loop.
+ */
+
+public class RunMotionProfile extends ProfiledCommand {
+
+    private static final int POINT_DURATION_MS = 10;
+
+    /* Notifier runs twice per point so the Talon's bottom buffer never waits on us */
+    private static final double STREAM_PERIOD = POINT_DURATION_MS / 2 / 1000.0;
+
+    private Drivetrain drivetrain;
+
+    private String leftCSV;
+    private String rightCSV;
+
+    private volatile MotionProfileStreamer left;
+    private volatile MotionProfileStreamer right;
+
+    /* Created on the first run and reused, since each Notifier holds a HAL handle and a thread until it is freed */
+    private Notifier notifier;
+
+    public RunMotionProfile(String leftCSV, String rightCSV) {
+        requires(Robot.drivetrain);
+        drivetrain = Robot.getDrivetrain();
+        this.leftCSV = leftCSV;
+        this.rightCSV = rightCSV;
+    }
+
+    @Override
+    protected void doInitialize() {
+
+        System.out.println("Streaming: " + leftCSV + ", " + rightCSV);
+
+        double unitsPerDistance = UNITS_PER_REV / WHEEL_CIRCUMFERANCE;
+
+        left = new MotionProfileStreamer(drivetrain.getLeftProfileTalon(),
+                TrajectoryCache.getInstance().get(leftCSV), unitsPerDistance, POINT_DURATION_MS);
+        right = new MotionProfileStreamer(drivetrain.getRightProfileTalon(),
+                TrajectoryCache.getInstance().get(rightCSV), unitsPerDistance, POINT_DURATION_MS);
+
+        left.start();
+        right.start();
+
+        if(notifier == null)
+            notifier = new Notifier(this::stream);
+        notifier.startPeriodic(STREAM_PERIOD);
+    }
+
+    private void stream() {
+        left.update();
+        right.update();
+    }
+
+    @Override
+    protected boolean doIsFinished() {
+        return left.isFinished() && right.isFinished();
+    }
+
+    @Override
+    protected void doEnd() {
+        notifier.stop();
+        left.stop();
+        right.stop();
+        drivetrain.stop();
+
+        System.out.println("Underruns: left " + left.getUnderruns() + ", right " + right.getUnderruns());
+    }
+
+    @Override
+    protected void interrupted() {
+        end();
+    }
+}
@@ -1,11 +1,11 @@
 package frc.team4159.robot.commands.drive;
 
-import edu.wpi.first.wpilibj.command.Command;
 import frc.team4159.robot.Robot;
+import frc.team4159.robot.commands.ProfiledCommand;
 import frc.team4159.robot.subsystems.Drivetrain;
 
-/* Turns to angle using navX gyro. Currently does not work. Drive distance instead */
-public class TurnToAngle extends Command{
+/* Turns to angle using navX gyro, finishing once the heading has settled */
+public class TurnToAngle extends ProfiledCommand {
 
     private Drivetrain drivetrain = Robot.getDrivetrain();
     private double angle;
@@ -16,21 +16,24 @@ public class TurnToAngle extends Command{
     }
 
     @Override
-    protected void initialize() {
+    protected void doInitialize() {
+        drivetrain.disableTurnControl();
     }
 
     @Override
-    protected void execute() {
+    protected void doExecute() {
         drivetrain.turnToAngle(angle);
     }
 
     @Override
-    protected boolean isFinished() {
+    protected boolean doIsFinished() {
         return drivetrain.turnOnTarget();
     }
 
     @Override
-    protected void end() {
+    protected void doEnd() {
+        drivetrain.disableTurnControl();
+        drivetrain.setRawOutput(0, 0);
     }
 
     @Override
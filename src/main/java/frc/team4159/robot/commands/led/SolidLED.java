@@ -1,10 +1,10 @@
 package frc.team4159.robot.commands.led;
 
-import edu.wpi.first.wpilibj.command.TimedCommand;
+import frc.team4159.robot.commands.ProfiledCommand;
 import frc.team4159.robot.subsystems.LED;
 import frc.team4159.robot.subsystems.Superstructure;
 
-public class SolidLED extends TimedCommand {
+public class SolidLED extends ProfiledCommand {
 
     private LED led = Superstructure.getInstance().getLED();
 
@@ -14,17 +14,17 @@ public class SolidLED extends TimedCommand {
     }
 
     @Override
-    protected void initialize() {
+    protected void doInitialize() {
         led.enableLEDRings();
     }
 
     @Override
-    protected boolean isFinished() {
+    protected boolean doIsFinished() {
         return isTimedOut();
     }
 
     @Override
-    protected void end() {
+    protected void doEnd() {
         led.disableLEDRings();
     }
 
@@ -1,21 +1,21 @@
 package frc.team4159.robot.commands.led;
 
-import edu.wpi.first.wpilibj.command.TimedCommand;
+import frc.team4159.robot.commands.ProfiledCommand;
 import frc.team4159.robot.subsystems.Superstructure;
 
-class TurnOffLED extends TimedCommand {
+class TurnOffLED extends ProfiledCommand {
 
     TurnOffLED(double timeout) {
         super(timeout);
     }
 
     @Override
-    protected void initialize() {
+    protected void doInitialize() {
         Superstructure.getInstance().getLED().disableLEDRings();
     }
 
     @Override
-    protected boolean isFinished() {
+    protected boolean doIsFinished() {
         return isTimedOut();
     }
 
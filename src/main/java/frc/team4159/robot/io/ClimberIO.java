@@ -0,0 +1,38 @@
+package frc.team4159.robot.io;
+
+import com.ctre.phoenix.motorcontrol.ControlMode;
+
+/**
+ * Hardware used by the Climber: hook delivery Talon SRX with a mag encoder, winch Victor SP and a hall effect sensor
+ * that sees the telescoping arm when it is down
+ */
+
+public interface ClimberIO {
+
+    /**
+     * @param mode Talon control mode
+     * @param value Value in units of the control mode
+     */
+    void setHook(ControlMode mode, double value);
+
+    /**
+     * @return Hook encoder position in native units
+     */
+    int getHookPosition();
+
+    /**
+     * @param position New hook encoder position in native units
+     */
+    void setHookPosition(int position);
+
+    /**
+     * @param percent Winch output between -1 and 1. Negative winches the robot up.
+     */
+    void setWinch(double percent);
+
+    /**
+     * @return True if the hall effect sensor sees the arm
+     */
+    boolean getHallSensor();
+
+}
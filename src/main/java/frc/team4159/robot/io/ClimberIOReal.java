@@ -0,0 +1,93 @@
+package frc.team4159.robot.io;
+
+import com.ctre.phoenix.motorcontrol.ControlMode;
+import com.ctre.phoenix.motorcontrol.FeedbackDevice;
+import com.ctre.phoenix.motorcontrol.can.TalonSRX;
+import edu.wpi.first.wpilibj.DigitalInput;
+import edu.wpi.first.wpilibj.VictorSP;
+
+import static frc.team4159.robot.Constants.TIMEOUT_MS;
+import static frc.team4159.robot.RobotMap.*;
+
+/**
+ * Climber hardware on the robot
+ */
+
+public class ClimberIOReal implements ClimberIO {
+
+    /* Controls hook delivery */
+    private TalonSRX climbTalon;
+
+    /* Controls winching */
+    private VictorSP climbVictor;
+
+    /* Last commands sent to each actuator */
+    private OutputCache hookOutput = new OutputCache();
+    private OutputCache winchOutput = new OutputCache();
+
+    private DigitalInput hallSensor;
+
+    private final int PIDIDX = 0;
+
+    public ClimberIOReal() {
+
+        climbTalon = new TalonSRX(CLIMB_TALON);
+        climbVictor = new VictorSP(CLIMB_VICTOR);
+        hallSensor = new DigitalInput(HALL_SENSOR);
+
+        configure();
+
+        StatusFrameManager.getInstance().register("climb Talon", climbTalon, StatusFrameProfiles.CLIMB_TALON);
+    }
+
+    /**
+     * Configure mag encoder as sensor plugged into Talon. Set PIDF values. Set encoder position to 0.
+     */
+    private void configure() {
+
+        final int SLOTIDX = 0;
+
+        final double kF = 0;
+        final double kP = 0.4;
+        final double kI = 0;
+        final double kD = 0;
+
+        // TODO: Limit current of the climber motors to prevent breakage
+        DeviceConfigurator.getInstance().register("climb Talon", climbTalon, new TalonConfig()
+                .feedbackSensor(FeedbackDevice.CTRE_MagEncoder_Relative, PIDIDX)
+                .pidf(SLOTIDX, kP, kI, kD, kF)
+                .sensorPosition(0));
+    }
+
+    @Override
+    public void setHook(ControlMode mode, double value) {
+        InputRecorder.output(InputRecorder.Actuator.HOOK, mode, value);
+        if(hookOutput.update(mode, value))
+            climbTalon.set(mode, value);
+    }
+
+    @Override
+    public int getHookPosition() {
+        DeviceCalls.read();
+        return climbTalon.getSelectedSensorPosition(PIDIDX);
+    }
+
+    @Override
+    public void setHookPosition(int position) {
+        climbTalon.setSelectedSensorPosition(position, PIDIDX, TIMEOUT_MS);
+    }
+
+    @Override
+    public void setWinch(double percent) {
+        InputRecorder.output(InputRecorder.Actuator.WINCH, null, percent);
+        if(winchOutput.update(null, percent))
+            climbVictor.set(percent);
+    }
+
+    @Override
+    public boolean getHallSensor() {
+        DeviceCalls.read();
+        return hallSensor.get();
+    }
+
+}
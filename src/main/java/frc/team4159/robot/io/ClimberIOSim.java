@@ -0,0 +1,65 @@
+package frc.team4159.robot.io;
+
+import com.ctre.phoenix.motorcontrol.ControlMode;
+
+/**
+ * Climber hardware simulated in software. The hall effect sensor sees the arm while it is within a small distance of
+ * its starting position.
+ */
+
+public class ClimberIOSim implements ClimberIO {
+
+    /* Hook speed at full percent output, native units per second */
+    private static final double HOOK_SPEED = 4000;
+    private static final double HALL_SENSOR_RANGE = 100;
+
+    private ControlMode hookMode = ControlMode.PercentOutput;
+    private double hookOutput;
+    private double hookPosition;
+    private double encoderOffset;
+    private double winch;
+
+    @Override
+    public synchronized void setHook(ControlMode mode, double value) {
+        InputRecorder.output(InputRecorder.Actuator.HOOK, mode, value);
+        hookMode = mode;
+        hookOutput = value;
+    }
+
+    /**
+     * @param dt Seconds to advance
+     */
+    public synchronized void step(double dt) {
+        if(hookMode == ControlMode.Position) {
+            hookPosition = hookOutput - encoderOffset;
+        } else if(hookMode == ControlMode.PercentOutput) {
+            hookPosition += hookOutput * HOOK_SPEED * dt;
+        }
+    }
+
+    @Override
+    public synchronized int getHookPosition() {
+        return (int) (hookPosition + encoderOffset);
+    }
+
+    @Override
+    public synchronized void setHookPosition(int position) {
+        encoderOffset = position - hookPosition;
+    }
+
+    @Override
+    public synchronized void setWinch(double percent) {
+        InputRecorder.output(InputRecorder.Actuator.WINCH, null, percent);
+        winch = percent;
+    }
+
+    public synchronized double getWinch() {
+        return winch;
+    }
+
+    @Override
+    public synchronized boolean getHallSensor() {
+        return Math.abs(hookPosition) < HALL_SENSOR_RANGE;
+    }
+
+}
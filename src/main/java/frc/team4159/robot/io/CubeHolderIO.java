@@ -0,0 +1,43 @@
+package frc.team4159.robot.io;
+
+import com.ctre.phoenix.motorcontrol.ControlMode;
+
+/**
+ * Hardware used by the CubeHolder: lift Talon SRX with a mag encoder, intake Victor SP, claw pistons and the lift's
+ * lower limit switch
+ */
+
+public interface CubeHolderIO {
+
+    /**
+     * @param mode Talon control mode
+     * @param value Value in units of the control mode
+     */
+    void setLift(ControlMode mode, double value);
+
+    /**
+     * @return Lift encoder position in native units
+     */
+    int getLiftPosition();
+
+    /**
+     * @param position New lift encoder position in native units
+     */
+    void setLiftPosition(int position);
+
+    /**
+     * @param percent Intake wheel output between -1 and 1. Negative intakes.
+     */
+    void setIntake(double percent);
+
+    /**
+     * @param open True to extend the pistons and open the claw
+     */
+    void setClawOpen(boolean open);
+
+    /**
+     * @return Raw limit switch value. False while the switch is pressed.
+     */
+    boolean getLimitSwitch();
+
+}
@@ -0,0 +1,109 @@
+package frc.team4159.robot.io;
+
+import com.ctre.phoenix.motorcontrol.ControlMode;
+import com.ctre.phoenix.motorcontrol.FeedbackDevice;
+import com.ctre.phoenix.motorcontrol.can.TalonSRX;
+import edu.wpi.first.wpilibj.DigitalInput;
+import edu.wpi.first.wpilibj.DoubleSolenoid;
+import edu.wpi.first.wpilibj.VictorSP;
+
+import static frc.team4159.robot.Constants.*;
+import static frc.team4159.robot.RobotMap.*;
+
+/**
+ * CubeHolder hardware on the robot
+ */
+
+public class CubeHolderIOReal implements CubeHolderIO {
+
+    private TalonSRX liftTalon;
+    private VictorSP intakeVictor;
+    private DoubleSolenoid pistons;
+
+    /* Last commands sent to each actuator */
+    private OutputCache liftOutput = new OutputCache();
+    private OutputCache intakeOutput = new OutputCache();
+    private OutputCache clawOutput = new OutputCache();
+    private DigitalInput limitSwitch;
+
+    private final int PIDIDX = 0;
+    private final double kF = 0.0;
+    private final double kP = 1.0;
+    private final double kI = 0.0;
+    private final double kD = 0.0;
+
+    public CubeHolderIOReal() {
+
+        intakeVictor = new VictorSP(INTAKE_VICTOR);
+        liftTalon = new TalonSRX(LIFT_TALON);
+        liftTalon.setInverted(true);
+        pistons = new DoubleSolenoid(FORWARD_CHANNEL, REVERSE_CHANNEL);
+        limitSwitch = new DigitalInput(LIMIT_SWITCH);
+
+        configure();
+
+        StatusFrameManager.getInstance().register("lift Talon", liftTalon, StatusFrameProfiles.LIFT_TALON);
+    }
+
+    /**
+     * Absolute mag encoder, output range, PID and current limit settings, applied by DeviceConfigurator
+     */
+    private void configure() {
+
+        final int SLOTIDX = 0;
+
+        /* Limit peak and continuous current to prevent brownouts */
+        final int PEAK_CURRENT = 7; // Amps
+        final int CONTINUOUS_CURRENT = 5; // Amps
+        final int PEAK_CURRENT_DURATION = 200; // ms
+
+        liftTalon.setSensorPhase(false);
+
+        DeviceConfigurator.getInstance().register("lift Talon", liftTalon, new TalonConfig()
+                .feedbackSensor(FeedbackDevice.CTRE_MagEncoder_Absolute, PIDIDX)
+                .outputRange(NOMINAL_OUT_PERCENT, PEAK_OUT_PERCENT)
+                .allowableError(SLOTIDX, 0) // TODO: Figure out allowable closed loop error units and value
+                .pidf(SLOTIDX, kP, kI, kD, kF)
+                .currentLimit(PEAK_CURRENT, PEAK_CURRENT_DURATION, CONTINUOUS_CURRENT)
+                .sensorPosition(UPPER_LIFTER_LIMIT)); // AUTONOMOUS starting configuration (raised)
+    }
+
+    @Override
+    public void setLift(ControlMode mode, double value) {
+        InputRecorder.output(InputRecorder.Actuator.LIFT, mode, value);
+        if(liftOutput.update(mode, value))
+            liftTalon.set(mode, value);
+    }
+
+    @Override
+    public int getLiftPosition() {
+        DeviceCalls.read();
+        return liftTalon.getSelectedSensorPosition(PIDIDX);
+    }
+
+    @Override
+    public void setLiftPosition(int position) {
+        liftTalon.setSelectedSensorPosition(position, PIDIDX, TIMEOUT_MS);
+    }
+
+    @Override
+    public void setIntake(double percent) {
+        InputRecorder.output(InputRecorder.Actuator.INTAKE, null, percent);
+        if(intakeOutput.update(null, percent))
+            intakeVictor.set(percent);
+    }
+
+    @Override
+    public void setClawOpen(boolean open) {
+        InputRecorder.output(InputRecorder.Actuator.CLAW, open);
+        if(clawOutput.update(open))
+            pistons.set(open ? DoubleSolenoid.Value.kForward : DoubleSolenoid.Value.kReverse);
+    }
+
+    @Override
+    public boolean getLimitSwitch() {
+        DeviceCalls.read();
+        return limitSwitch.get();
+    }
+
+}
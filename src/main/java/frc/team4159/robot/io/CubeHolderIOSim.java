@@ -0,0 +1,80 @@
+package frc.team4159.robot.io;
+
+import com.ctre.phoenix.motorcontrol.ControlMode;
+
+import static frc.team4159.robot.Constants.LOWER_LIFTER_LIMIT;
+import static frc.team4159.robot.Constants.UPPER_LIFTER_LIMIT;
+
+/**
+ * CubeHolder hardware simulated in software. The lift reaches position setpoints instantly and percent output moves
+ * it at a fixed rate, between the lower limit switch and the upper hard stop.
+ */
+
+public class CubeHolderIOSim implements CubeHolderIO {
+
+    /* Lift speed at full percent output, native units per second */
+    private static final double LIFT_SPEED = 4000;
+
+    private ControlMode liftMode = ControlMode.PercentOutput;
+    private double liftOutput;
+    private double liftPosition = UPPER_LIFTER_LIMIT;
+    private double encoderOffset;
+
+    private double intake;
+    private boolean clawOpen;
+
+    @Override
+    public synchronized void setLift(ControlMode mode, double value) {
+        InputRecorder.output(InputRecorder.Actuator.LIFT, mode, value);
+        liftMode = mode;
+        liftOutput = value;
+    }
+
+    /**
+     * @param dt Seconds to advance
+     */
+    public synchronized void step(double dt) {
+        if(liftMode == ControlMode.Position) {
+            liftPosition = liftOutput - encoderOffset;
+        } else if(liftMode == ControlMode.PercentOutput) {
+            liftPosition += liftOutput * LIFT_SPEED * dt;
+        }
+        liftPosition = Math.max(LOWER_LIFTER_LIMIT, Math.min(UPPER_LIFTER_LIMIT, liftPosition));
+    }
+
+    @Override
+    public synchronized int getLiftPosition() {
+        return (int) (liftPosition + encoderOffset);
+    }
+
+    @Override
+    public synchronized void setLiftPosition(int position) {
+        encoderOffset = position - liftPosition;
+    }
+
+    @Override
+    public synchronized void setIntake(double percent) {
+        InputRecorder.output(InputRecorder.Actuator.INTAKE, null, percent);
+        intake = percent;
+    }
+
+    public synchronized double getIntake() {
+        return intake;
+    }
+
+    @Override
+    public synchronized void setClawOpen(boolean open) {
+        InputRecorder.output(InputRecorder.Actuator.CLAW, open);
+        clawOpen = open;
+    }
+
+    public synchronized boolean isClawOpen() {
+        return clawOpen;
+    }
+
+    @Override
+    public synchronized boolean getLimitSwitch() {
+        return liftPosition > LOWER_LIFTER_LIMIT;
+    }
+
+}
@@ -0,0 +1,27 @@
+package frc.team4159.robot.io;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts sensor reads made through the real IO classes, from any thread, so the device calls per loop can be compared
+ */
+
+public class DeviceCalls {
+
+    private static final LongAdder reads = new LongAdder();
+
+    /**
+     * Record one read of a device value. Called by every real IO getter.
+     */
+    static void read() {
+        reads.increment();
+    }
+
+    /**
+     * @return Device reads since the robot started
+     */
+    public static long getReads() {
+        return reads.sum();
+    }
+
+}
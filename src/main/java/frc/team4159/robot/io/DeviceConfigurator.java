@@ -0,0 +1,194 @@
+package frc.team4159.robot.io;
+
+import com.ctre.phoenix.ErrorCode;
+import com.ctre.phoenix.motorcontrol.can.TalonSRX;
+import edu.wpi.first.wpilibj.DriverStation;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static frc.team4159.robot.Constants.TIMEOUT_MS;
+
+/**
+ * Applies every registered TalonConfig at once. Each Talon's current values are read back and only the settings that
+ * differ are sent. Talons are configured in parallel, one thread each, since every call blocks for a CAN round trip.
+ * Every returned ErrorCode goes into one startup report.
+ *
+ * Configs are kept after boot, so a Talon that resets, e.g. in a brownout, can be configured again with reapply().
+ */
+
+public class DeviceConfigurator {
+
+    private static DeviceConfigurator instance;
+
+    public static synchronized DeviceConfigurator getInstance() {
+        if(instance == null)
+            instance = new DeviceConfigurator();
+        return instance;
+    }
+
+    /* Readback differences smaller than this, relative to the value, are rounding in the Talon's fixed point storage */
+    private static final double TOLERANCE = 1e-3;
+
+    private static class Device {
+        final String name;
+        final TalonSRX talon;
+        final TalonConfig config;
+
+        Device(String name, TalonSRX talon, TalonConfig config) {
+            this.name = name;
+            this.talon = talon;
+            this.config = config;
+        }
+    }
+
+    /**
+     * What happened configuring one Talon
+     */
+    private static class Result {
+        int checked;
+        int sent;
+        long readNanos;
+        long sendNanos;
+        ArrayList<String> errors = new ArrayList<>();
+    }
+
+    private ArrayList<Device> devices;
+
+    /* Configures Talons that reset, off the robot loop. Created on the first reset. */
+    private ExecutorService reapplyExecutor;
+
+    private DeviceConfigurator() {
+        devices = new ArrayList<>();
+    }
+
+    /**
+     * Configure a Talon on the next applyAll()
+     * @param name Name used in the report
+     */
+    public synchronized void register(String name, TalonSRX talon, TalonConfig config) {
+        devices.add(new Device(name, talon, config));
+    }
+
+    /**
+     * Configure every registered Talon in parallel and report the time taken, settings sent and any errors. The
+     * report also gives the time sending every setting one Talon at a time would take, at the measured time per call.
+     * @return Number of errors
+     */
+    public synchronized int applyAll() {
+
+        long start = System.nanoTime();
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, devices.size()));
+        ArrayList<Future<Result>> futures = new ArrayList<>();
+        for(Device device : devices) {
+            futures.add(executor.submit(() -> apply(device, true)));
+        }
+
+        int checked = 0, sent = 0;
+        long readNanos = 0, sendNanos = 0;
+        ArrayList<String> errors = new ArrayList<>();
+        for(int i = 0; i < devices.size(); i++) {
+            try {
+                Result result = futures.get(i).get();
+                checked += result.checked;
+                sent += result.sent;
+                readNanos += result.readNanos;
+                sendNanos += result.sendNanos;
+                errors.addAll(result.errors);
+            } catch (Exception ex) {
+                errors.add(devices.get(i).name + ": " + ex);
+            }
+        }
+        executor.shutdown();
+
+        for(String error : errors) {
+            DriverStation.reportError("Config error:  " + error, false);
+        }
+
+        /* Before readback, every setting was sent with a timeout, one Talon at a time */
+        double callMs = sent > 0 ? sendNanos / 1e6 / sent : checked > 0 ? readNanos / 1e6 / checked : 0;
+        System.out.printf("Configured %d Talons in %.1f ms: %d settings checked, %d sent, %d errors. Sending every "
+                        + "setting one Talon at a time would take %.1f ms at the measured %.2f ms per call%n",
+                futures.size(), (System.nanoTime() - start) / 1e6, checked, sent, errors.size(), checked * callMs,
+                callMs);
+
+        return errors.size();
+    }
+
+    /**
+     * Configure a registered Talon again in the background, e.g. after it reset. Settings the Talon kept through the
+     * reset are only read back. The sensor position is not set again, since the mechanism has moved since boot.
+     * @param name Name the Talon was registered with. Other names, e.g. of Victors, are ignored.
+     */
+    public synchronized void reapply(String name) {
+
+        for(Device device : devices) {
+
+            if(!device.name.equals(name))
+                continue;
+
+            if(reapplyExecutor == null) {
+                reapplyExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "DeviceConfigurator");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+
+            reapplyExecutor.submit(() -> {
+                long start = System.nanoTime();
+                Result result = apply(device, false);
+                for(String error : result.errors) {
+                    DriverStation.reportError("Config error:  " + error, false);
+                }
+                System.out.printf("Reconfigured %s in %.1f ms: %d settings checked, %d sent, %d errors%n",
+                        device.name, (System.nanoTime() - start) / 1e6, result.checked, result.sent,
+                        result.errors.size());
+            });
+        }
+    }
+
+    /**
+     * @param setPosition True to set the sensor position the config has, if any
+     */
+    private static Result apply(Device device, boolean setPosition) {
+
+        Result result = new Result();
+        TalonSRX talon = device.talon;
+
+        for(TalonConfig.Setting setting : device.config.getSettings()) {
+
+            result.checked++;
+            long start = System.nanoTime();
+            double current = talon.configGetParameter(setting.parameter, setting.ordinal, TIMEOUT_MS);
+            ErrorCode readError = talon.getLastError();
+            result.readNanos += System.nanoTime() - start;
+
+            if(readError == ErrorCode.OK
+                    && Math.abs(current - setting.value) <= TOLERANCE * Math.max(1, Math.abs(setting.value)))
+                continue;
+
+            result.sent++;
+            start = System.nanoTime();
+            ErrorCode error = talon.configSetParameter(setting.parameter, setting.value, 0, setting.ordinal, TIMEOUT_MS);
+            result.sendNanos += System.nanoTime() - start;
+            if(error != ErrorCode.OK)
+                result.errors.add(device.name + " " + setting + ": " + error);
+        }
+
+        talon.enableCurrentLimit(device.config.isCurrentLimitEnabled());
+
+        Integer position = device.config.getSensorPosition();
+        if(setPosition && position != null) {
+            ErrorCode error = talon.setSelectedSensorPosition(position, 0, TIMEOUT_MS);
+            if(error != ErrorCode.OK)
+                result.errors.add(device.name + " sensor position: " + error);
+        }
+
+        return result;
+    }
+
+}
@@ -0,0 +1,76 @@
+package frc.team4159.robot.io;
+
+import com.ctre.phoenix.motorcontrol.ControlMode;
+import frc.team4159.robot.util.MotionProfileTalon;
+
+/**
+ * Hardware used by the Drivetrain: a Talon SRX with a mag encoder on each side (Victor SPXs follow them) and a navX
+ */
+
+public interface DrivetrainIO {
+
+    /**
+     * @param mode Talon control mode for both sides
+     * @param left Left side value in units of the control mode
+     * @param right Right side value in units of the control mode
+     */
+    void setOutput(ControlMode mode, double left, double right);
+
+    /**
+     * @return Left encoder position in native units
+     */
+    int getLeftPosition();
+
+    /**
+     * @return Right encoder position in native units
+     */
+    int getRightPosition();
+
+    /**
+     * @return Left encoder velocity in native units per 100 ms
+     */
+    int getLeftVelocity();
+
+    /**
+     * @return Right encoder velocity in native units per 100 ms
+     */
+    int getRightVelocity();
+
+    /**
+     * @return Volts the left Talon is applying to its motors, after current limiting
+     */
+    double getLeftOutputVoltage();
+
+    /**
+     * @return Volts the right Talon is applying to its motors, after current limiting
+     */
+    double getRightOutputVoltage();
+
+    /**
+     * @param left New left encoder position in native units
+     * @param right New right encoder position in native units
+     */
+    void setEncoderPositions(int left, int right);
+
+    /**
+     * @return Left motion magic velocity setpoint. Zero once motion magic is done.
+     */
+    int getLeftActiveTrajectoryVelocity();
+
+    /**
+     * @return Right motion magic velocity setpoint. Zero once motion magic is done.
+     */
+    int getRightActiveTrajectoryVelocity();
+
+    /**
+     * @return Gyro yaw in degrees, -180 to 180
+     */
+    double getYaw();
+
+    void zeroYaw();
+
+    MotionProfileTalon getLeftProfileTalon();
+
+    MotionProfileTalon getRightProfileTalon();
+
+}
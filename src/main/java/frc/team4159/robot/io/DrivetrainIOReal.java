@@ -0,0 +1,226 @@
+package frc.team4159.robot.io;
+
+import com.ctre.phoenix.motorcontrol.ControlMode;
+import com.ctre.phoenix.motorcontrol.FeedbackDevice;
+import com.ctre.phoenix.motorcontrol.SetValueMotionProfile;
+import com.ctre.phoenix.motorcontrol.can.TalonSRX;
+import com.ctre.phoenix.motorcontrol.can.VictorSPX;
+import com.kauailabs.navx.frc.AHRS;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.SPI;
+import frc.team4159.robot.util.CTREMotionProfileTalon;
+import frc.team4159.robot.util.DriveFeedforward;
+import frc.team4159.robot.util.MotionProfileTalon;
+
+import static frc.team4159.robot.Constants.*;
+import static frc.team4159.robot.RobotMap.*;
+
+/**
+ * Drivetrain hardware on the robot
+ */
+
+public class DrivetrainIOReal implements DrivetrainIO {
+
+    /* Motor controllers and sensors */
+    private TalonSRX leftTalon, rightTalon;
+    private VictorSPX leftVictor, rightVictor;
+    private AHRS navx;
+
+    /* Talon motion profile buffers, for streaming paths to the Talons */
+    private MotionProfileTalon leftProfileTalon, rightProfileTalon;
+
+    /* Last commands sent to the Talons */
+    private OutputCache leftOutput, rightOutput;
+
+    /* Drivetrain encoder PID constants */
+    private final int SLOTIDX = 0;
+    private final int PIDIDX = 0;
+    private final double kF_left = 0.196730769230769; // 1023 / 5200 where 5200 is our max speed
+    private final double kP_left = 0.4092; // (10% * 1023) / 250 where 250 is our max error
+    private final double kI_left = 0;
+    private final double kD_left = 4.092; // kP * 10
+    private final double kF_right = 0.0;
+    private final double kP_right = 0.0;
+    private final double kI_right = 0.0;
+    private final double kD_right = 0.0;
+
+    public DrivetrainIOReal() {
+
+        /* Invert left motors and set victors to follow talons */
+
+        leftTalon = new TalonSRX(LEFT_TALON);
+        leftVictor = new VictorSPX(LEFT_DRIVE_VICTOR);
+        leftTalon.setInverted(true);
+        leftVictor.setInverted(true);
+        leftVictor.follow(leftTalon);
+
+        rightTalon = new TalonSRX(RIGHT_TALON);
+        rightVictor = new VictorSPX(RIGHT_DRIVE_VICTOR);
+        rightTalon.setInverted(false);
+        rightVictor.setInverted(false);
+        rightVictor.follow(rightTalon);
+
+        /* NavX is a 9-axis inertial/magnetic sensor and motion processor, plugged into the RoboRio's MXP port */
+        try {
+            navx = new AHRS(SPI.Port.kMXP);
+        } catch (RuntimeException ex) {
+            DriverStation.reportError("Error instantiating navX-MXP:  " + ex.getMessage(), true);
+        }
+
+        configure();
+
+        StatusFrameManager statusFrames = StatusFrameManager.getInstance();
+        statusFrames.register("left drive Talon", leftTalon, StatusFrameProfiles.DRIVE_TALON);
+        statusFrames.register("right drive Talon", rightTalon, StatusFrameProfiles.DRIVE_TALON);
+        statusFrames.register("left drive Victor", leftVictor, StatusFrameProfiles.DRIVE_VICTOR);
+        statusFrames.register("right drive Victor", rightVictor, StatusFrameProfiles.DRIVE_VICTOR);
+
+        leftOutput = new OutputCache();
+        rightOutput = new OutputCache();
+
+        /* Streaming changes the Talons' mode behind setOutput(), so the next setOutput() must be sent */
+        leftProfileTalon = new CTREMotionProfileTalon(leftTalon) {
+            @Override
+            public void setMotionProfileMode(SetValueMotionProfile value) {
+                super.setMotionProfileMode(value);
+                leftOutput.invalidate();
+            }
+        };
+        rightProfileTalon = new CTREMotionProfileTalon(rightTalon) {
+            @Override
+            public void setMotionProfileMode(SetValueMotionProfile value) {
+                super.setMotionProfileMode(value);
+                rightOutput.invalidate();
+            }
+        };
+    }
+
+    /**
+     * Mag encoder, output range, PIDF, motion magic and current limit settings, applied by DeviceConfigurator
+     */
+    private void configure() {
+
+        leftTalon.setSensorPhase(false);
+        rightTalon.setSensorPhase(true); // Reverses encoder direction to match with motor direction
+
+        // TODO: Retune PIDF values for both sides of drivetrain
+        // TODO: figure out the correct cruise velocity and acceleration
+        final int CRUISE_ACCEL = 2000;
+        final int CRUISE_VELOCITY = 3860;
+
+        /* Limit peak and continuous current on both sides of drivetrain to prevent brownouts */
+        final int PEAK_CURRENT = 20; // Amps
+        final int CONTINUOUS_CURRENT = 15; // Amps
+        final int PEAK_CURRENT_DURATION = 200; // ms
+
+        /* Characterized feedforward replaces the guessed kF, and gives the right side one */
+        double leftKF = kF_left, rightKF = kF_right;
+        DriveFeedforward feedforward = DriveFeedforward.get();
+        if(feedforward != null) {
+            leftKF = feedforward.getLeft().getTalonKF();
+            rightKF = feedforward.getRight().getTalonKF();
+        }
+
+        DeviceConfigurator configurator = DeviceConfigurator.getInstance();
+
+        configurator.register("left drive Talon", leftTalon, new TalonConfig()
+                .feedbackSensor(FeedbackDevice.CTRE_MagEncoder_Relative, PIDIDX)
+                .outputRange(NOMINAL_OUT_PERCENT, PEAK_OUT_PERCENT)
+                .pidf(SLOTIDX, kP_left, kI_left, kD_left, leftKF)
+                .motionMagic(CRUISE_VELOCITY, CRUISE_ACCEL)
+                .currentLimit(PEAK_CURRENT, PEAK_CURRENT_DURATION, CONTINUOUS_CURRENT));
+
+        configurator.register("right drive Talon", rightTalon, new TalonConfig()
+                .feedbackSensor(FeedbackDevice.CTRE_MagEncoder_Relative, PIDIDX)
+                .outputRange(NOMINAL_OUT_PERCENT, PEAK_OUT_PERCENT)
+                .pidf(SLOTIDX, kP_right, kI_right, kD_right, rightKF)
+                .motionMagic(CRUISE_VELOCITY, CRUISE_ACCEL)
+                .currentLimit(PEAK_CURRENT, PEAK_CURRENT_DURATION, CONTINUOUS_CURRENT));
+    }
+
+    @Override
+    public synchronized void setOutput(ControlMode mode, double left, double right) {
+        InputRecorder.output(InputRecorder.Actuator.LEFT_DRIVE, mode, left);
+        InputRecorder.output(InputRecorder.Actuator.RIGHT_DRIVE, mode, right);
+        if(leftOutput.update(mode, left))
+            leftTalon.set(mode, left);
+        if(rightOutput.update(mode, right))
+            rightTalon.set(mode, right);
+    }
+
+    @Override
+    public int getLeftPosition() {
+        DeviceCalls.read();
+        return leftTalon.getSelectedSensorPosition(PIDIDX);
+    }
+
+    @Override
+    public int getRightPosition() {
+        DeviceCalls.read();
+        return rightTalon.getSelectedSensorPosition(PIDIDX);
+    }
+
+    @Override
+    public int getLeftVelocity() {
+        DeviceCalls.read();
+        return leftTalon.getSelectedSensorVelocity(PIDIDX);
+    }
+
+    @Override
+    public int getRightVelocity() {
+        DeviceCalls.read();
+        return rightTalon.getSelectedSensorVelocity(PIDIDX);
+    }
+
+    @Override
+    public double getLeftOutputVoltage() {
+        DeviceCalls.read();
+        return leftTalon.getMotorOutputVoltage();
+    }
+
+    @Override
+    public double getRightOutputVoltage() {
+        DeviceCalls.read();
+        return rightTalon.getMotorOutputVoltage();
+    }
+
+    @Override
+    public void setEncoderPositions(int left, int right) {
+        leftTalon.setSelectedSensorPosition(left, PIDIDX, TIMEOUT_MS);
+        rightTalon.setSelectedSensorPosition(right, PIDIDX, TIMEOUT_MS);
+    }
+
+    @Override
+    public int getLeftActiveTrajectoryVelocity() {
+        DeviceCalls.read();
+        return leftTalon.getActiveTrajectoryVelocity();
+    }
+
+    @Override
+    public int getRightActiveTrajectoryVelocity() {
+        DeviceCalls.read();
+        return rightTalon.getActiveTrajectoryVelocity();
+    }
+
+    @Override
+    public double getYaw() {
+        DeviceCalls.read();
+        return navx.getYaw();
+    }
+
+    @Override
+    public void zeroYaw() {
+        navx.zeroYaw();
+    }
+
+    @Override
+    public MotionProfileTalon getLeftProfileTalon() {
+        return leftProfileTalon;
+    }
+
+    @Override
+    public MotionProfileTalon getRightProfileTalon() {
+        return rightProfileTalon;
+    }
+
+}
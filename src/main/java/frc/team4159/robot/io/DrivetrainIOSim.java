@@ -0,0 +1,211 @@
+package frc.team4159.robot.io;
+
+import com.ctre.phoenix.motorcontrol.ControlMode;
+import frc.team4159.robot.util.MotionProfileTalon;
+import frc.team4159.robot.util.SimulatedMotionProfileTalon;
+
+import static frc.team4159.robot.Constants.*;
+import static frc.team4159.robot.util.DriveFeedforward.NOMINAL_VOLTAGE;
+
+/**
+ * Drivetrain hardware simulated in software. step() moves the encoders and gyro with an ideal model of the commanded
+ * outputs; a physics simulator can instead read the outputs and move the sensors itself with applyMotion().
+ */
+
+public class DrivetrainIOSim implements DrivetrainIO {
+
+    /* Free speed of the drivetrain in native units per 100 ms, same as Drivetrain's MAX_SPEED */
+    private static final double FREE_SPEED = 5200;
+    private static final double MOTION_MAGIC_VELOCITY = 3860;
+
+    private ControlMode mode = ControlMode.PercentOutput;
+    private double leftOutput, rightOutput;
+
+    private double leftPosition, rightPosition;
+    private double leftVelocity, rightVelocity;
+    private double yaw;
+
+    private SimulatedMotionProfileTalon leftProfileTalon = new SimulatedMotionProfileTalon();
+    private SimulatedMotionProfileTalon rightProfileTalon = new SimulatedMotionProfileTalon();
+
+    @Override
+    public synchronized void setOutput(ControlMode mode, double left, double right) {
+        InputRecorder.output(InputRecorder.Actuator.LEFT_DRIVE, mode, left);
+        InputRecorder.output(InputRecorder.Actuator.RIGHT_DRIVE, mode, right);
+        this.mode = mode;
+        leftOutput = left;
+        rightOutput = right;
+    }
+
+    /**
+     * Move the encoders and gyro as if the wheels reached the commanded output instantly
+     * @param dt Seconds to advance
+     */
+    public synchronized void step(double dt) {
+
+        leftVelocity = velocity(leftOutput, leftPosition);
+        rightVelocity = velocity(rightOutput, rightPosition);
+
+        double leftDelta = leftVelocity * 10 * dt;
+        double rightDelta = rightVelocity * 10 * dt;
+        leftPosition += leftDelta;
+        rightPosition += rightDelta;
+
+        /* Wheelbase is in meters, wheel circumference in feet */
+        double feetPerUnit = WHEEL_CIRCUMFERANCE / UNITS_PER_REV;
+        double wheelbaseFeet = WHEELBASE_WIDTH / 0.3048;
+        yaw += Math.toDegrees((leftDelta - rightDelta) * feetPerUnit / wheelbaseFeet);
+        yaw = boundYaw(yaw);
+
+        leftProfileTalon.step((int) Math.round(dt * 1000));
+        rightProfileTalon.step((int) Math.round(dt * 1000));
+    }
+
+    /**
+     * @return Velocity in native units per 100 ms that the current mode would settle at
+     */
+    private double velocity(double output, double position) {
+        switch(mode) {
+            case PercentOutput:
+                return output * FREE_SPEED;
+            case Velocity:
+                return output;
+            case Position:
+            case MotionMagic:
+                double error = output - position;
+                return Math.copySign(Math.min(Math.abs(error) / 10 / 0.02, MOTION_MAGIC_VELOCITY), error);
+            default:
+                return 0;
+        }
+    }
+
+    private static double boundYaw(double angle) {
+        while(angle > 180)
+            angle -= 360;
+        while(angle < -180)
+            angle += 360;
+        return angle;
+    }
+
+    /**
+     * @return Last commanded control mode
+     */
+    public synchronized ControlMode getMode() {
+        return mode;
+    }
+
+    public synchronized double getLeftOutput() {
+        return leftOutput;
+    }
+
+    public synchronized double getRightOutput() {
+        return rightOutput;
+    }
+
+    /**
+     * Move the sensors by what a physics simulator computed for one step. Deltas rather than absolute values, so
+     * zeroing the encoders or gyro still works while the simulator runs.
+     * @param leftDelta Left encoder change in native units
+     * @param rightDelta Right encoder change in native units
+     * @param leftVelocity Left velocity in native units per 100 ms
+     * @param rightVelocity Right velocity in native units per 100 ms
+     * @param yawDelta Gyro change in degrees, clockwise positive like the navX
+     */
+    public synchronized void applyMotion(double leftDelta, double rightDelta, double leftVelocity, double rightVelocity,
+                                         double yawDelta) {
+        leftPosition += leftDelta;
+        rightPosition += rightDelta;
+        this.leftVelocity = leftVelocity;
+        this.rightVelocity = rightVelocity;
+        yaw = boundYaw(yaw + yawDelta);
+    }
+
+    /**
+     * Set the encoders and gyro to recorded values, for replaying a control loop tick
+     * @param leftPosition Left encoder position in native units
+     * @param rightPosition Right encoder position in native units
+     * @param yaw Gyro yaw in degrees
+     */
+    public synchronized void setSensors(int leftPosition, int rightPosition, double yaw) {
+        this.leftPosition = leftPosition;
+        this.rightPosition = rightPosition;
+        this.yaw = yaw;
+    }
+
+    /**
+     * Run the simulated motion profile buffers without moving the sensors, for a physics simulator
+     * @param ms Milliseconds to advance
+     */
+    public synchronized void stepProfileTalons(int ms) {
+        leftProfileTalon.step(ms);
+        rightProfileTalon.step(ms);
+    }
+
+    @Override
+    public synchronized int getLeftPosition() {
+        return (int) leftPosition;
+    }
+
+    @Override
+    public synchronized int getRightPosition() {
+        return (int) rightPosition;
+    }
+
+    @Override
+    public synchronized int getLeftVelocity() {
+        return (int) leftVelocity;
+    }
+
+    @Override
+    public synchronized int getRightVelocity() {
+        return (int) rightVelocity;
+    }
+
+    /* No current limit or battery sag is simulated, so percent output reaches the motors at NOMINAL_VOLTAGE */
+    @Override
+    public synchronized double getLeftOutputVoltage() {
+        return mode == ControlMode.PercentOutput ? leftOutput * NOMINAL_VOLTAGE : 0;
+    }
+
+    @Override
+    public synchronized double getRightOutputVoltage() {
+        return mode == ControlMode.PercentOutput ? rightOutput * NOMINAL_VOLTAGE : 0;
+    }
+
+    @Override
+    public synchronized void setEncoderPositions(int left, int right) {
+        leftPosition = left;
+        rightPosition = right;
+    }
+
+    @Override
+    public synchronized int getLeftActiveTrajectoryVelocity() {
+        return mode == ControlMode.MotionMagic ? (int) leftVelocity : 0;
+    }
+
+    @Override
+    public synchronized int getRightActiveTrajectoryVelocity() {
+        return mode == ControlMode.MotionMagic ? (int) rightVelocity : 0;
+    }
+
+    @Override
+    public synchronized double getYaw() {
+        return yaw;
+    }
+
+    @Override
+    public synchronized void zeroYaw() {
+        yaw = 0;
+    }
+
+    @Override
+    public MotionProfileTalon getLeftProfileTalon() {
+        return leftProfileTalon;
+    }
+
+    @Override
+    public MotionProfileTalon getRightProfileTalon() {
+        return rightProfileTalon;
+    }
+
+}
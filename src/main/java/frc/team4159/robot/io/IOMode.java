@@ -0,0 +1,18 @@
+package frc.team4159.robot.io;
+
+import edu.wpi.first.wpilibj.RobotBase;
+
+/**
+ * Chooses between real and simulated hardware when subsystems are created
+ */
+
+public class IOMode {
+
+    /**
+     * @return True if running with -Dsimulation=true or off the roboRIO
+     */
+    public static boolean isSimulation() {
+        return Boolean.getBoolean("simulation") || !RobotBase.isReal();
+    }
+
+}
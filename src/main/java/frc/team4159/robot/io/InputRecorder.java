@@ -0,0 +1,367 @@
+package frc.team4159.robot.io;
+
+import com.ctre.phoenix.motorcontrol.ControlMode;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.command.Command;
+import frc.team4159.robot.OI;
+import frc.team4159.robot.util.AutoSelector;
+import frc.team4159.robot.util.LogBudget;
+import frc.team4159.robot.util.TelemetryLog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Records everything the robot code reads from outside, so a match can be replayed through the same commands by
+ * sim.InputReplay and its outputs compared with the ones the robot sent.
+ *
+ * Every robot loop records a RobotInputs, plus the game data and AutoSelector state when they change. The drivetrain
+ * control loop records the sensors it read on each tick, since it runs on its own thread between robot loops. Commands
+ * Robot starts or cancels itself are recorded by class name, and every actuator command is recorded as an output.
+ *
+ * Recording stops when the file's LogBudget runs out.
+ *
+ * File format, big endian: MAGIC, VERSION, then records starting with one of the record type bytes below.
+ */
+
+public class InputRecorder {
+
+    private static InputRecorder instance;
+
+    public static synchronized InputRecorder getInstance() {
+        if(instance == null)
+            instance = new InputRecorder();
+        return instance;
+    }
+
+    public static final int MAGIC = 0x494E5031; // "INP1"
+    public static final short VERSION = 1;
+
+    /* Record types */
+    public static final byte LOOP = 'L';
+    public static final byte CONTROL_LOOP = 'C';
+    public static final byte OUTPUT = 'O';
+    public static final byte GAME_DATA = 'G';
+    public static final byte AUTO_SELECTION = 'A';
+    public static final byte COMMAND_STARTED = 'S';
+    public static final byte COMMAND_CANCELLED = 'X';
+
+    /* Which thread an output came from, since the two threads' outputs interleave differently every run */
+    public static final byte ROBOT_LOOP = 0;
+    public static final byte CONTROL_LOOP_THREAD = 1;
+
+    /* How often the writer thread moves recorded bytes to the file */
+    private static final long WRITE_PERIOD_MS = 100;
+
+    /**
+     * Every actuator the robot code commands
+     */
+    public enum Actuator {
+        LEFT_DRIVE, RIGHT_DRIVE, LIFT, INTAKE, CLAW, HOOK, WINCH, SMALL_RING, BIG_RING
+    }
+
+    /**
+     * Receives every command sent to an actuator, by the real or simulated IO
+     */
+    public interface OutputListener {
+        /**
+         * @param mode Talon control mode, or null for actuators without one
+         * @param value Value in units of the mode. Booleans are 1 or 0.
+         */
+        void output(Actuator actuator, ControlMode mode, double value);
+    }
+
+    private static volatile OutputListener listener;
+
+    /* Last value commanded to each actuator, by ordinal, for the FlightRecorder */
+    private static final double[] lastOutputs = new double[Actuator.values().length];
+
+    /**
+     * @param listener Listener for every actuator command, or null to stop listening
+     */
+    public static void setOutputListener(OutputListener listener) {
+        InputRecorder.listener = listener;
+    }
+
+    /**
+     * Called by the IO classes for every command they are given, whether or not it is sent to the device
+     */
+    public static void output(Actuator actuator, ControlMode mode, double value) {
+        lastOutputs[actuator.ordinal()] = value;
+        OutputListener current = listener;
+        if(current != null)
+            current.output(actuator, mode, value);
+    }
+
+    public static void output(Actuator actuator, boolean value) {
+        output(actuator, null, value ? 1 : 0);
+    }
+
+    /**
+     * @return Last value commanded to the actuator, in units of its mode
+     */
+    public static double getLastOutput(Actuator actuator) {
+        return lastOutputs[actuator.ordinal()];
+    }
+
+    private final RobotInputs inputs = new RobotInputs();
+
+    /* Recorded bytes not yet written. The writer thread swaps these. Guarded by this. */
+    private ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+    private ByteArrayOutputStream spare = new ByteArrayOutputStream(64 * 1024);
+    private DataOutputStream out = new DataOutputStream(buffer);
+
+    /* Last values recorded, so they are only recorded when they change */
+    private String lastGameData;
+    private String lastSelection, lastPosition, lastLeftAction, lastRightAction;
+
+    private volatile Thread controlLoopThread;
+    private volatile boolean running;
+    private File file;
+    private LogBudget budget;
+
+    private InputRecorder() {
+    }
+
+    /**
+     * Start recording to the telemetry log directory
+     * @return True if recording started
+     */
+    public boolean start() {
+        File dir = TelemetryLog.findDirectory();
+        if(dir == null) {
+            DriverStation.reportError("No log directory, not recording inputs", false);
+            return false;
+        }
+        return start(dir);
+    }
+
+    /**
+     * Open a new input log in the given directory and start the writer thread
+     * @return True if recording started
+     */
+    public synchronized boolean start(File directory) {
+
+        if(file != null)
+            return running;
+
+        file = new File(directory, "inputs_" + new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date()) + ".bin");
+        budget = new LogBudget(directory);
+        if(!budget.claim(Integer.BYTES + Short.BYTES)) {
+            DriverStation.reportError("Not recording inputs, " + budget.getExhaustedReason(), false);
+            return false;
+        }
+
+        FileOutputStream stream;
+        try {
+            stream = new FileOutputStream(file);
+            DataOutputStream header = new DataOutputStream(stream);
+            header.writeInt(MAGIC);
+            header.writeShort(VERSION);
+            header.flush();
+        } catch (IOException ex) {
+            DriverStation.reportError("Error opening " + file + ":  " + ex.getMessage(), false);
+            return false;
+        }
+
+        running = true;
+        setOutputListener(this::recordOutput);
+
+        Thread thread = new Thread(() -> write(stream), "InputRecorder");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+
+        System.out.println("Recording inputs to " + file);
+        return true;
+    }
+
+    /**
+     * @return True if inputs are being recorded
+     */
+    public boolean isRecording() {
+        return running;
+    }
+
+    /**
+     * Record this loop's inputs. Call from the robot loop after the SensorSnapshot and OI have been updated.
+     */
+    public void recordLoop() {
+
+        if(!running)
+            return;
+
+        DriverStation ds = DriverStation.getInstance();
+        if(ds.isDisabled())
+            inputs.mode = RobotInputs.Mode.DISABLED;
+        else if(ds.isAutonomous())
+            inputs.mode = RobotInputs.Mode.AUTO;
+        else if(ds.isTest())
+            inputs.mode = RobotInputs.Mode.TEST;
+        else
+            inputs.mode = RobotInputs.Mode.TELEOP;
+        inputs.matchTime = Timer.getMatchTime();
+
+        SensorSnapshot.getInstance().copyTo(inputs);
+
+        OI oi = OI.getInstance();
+        inputs.leftY = oi.getRawLeftY();
+        inputs.rightY = oi.getRawRightY();
+        inputs.secondaryY = oi.getRawSecondaryY();
+        for(int port = 0; port < inputs.buttons.length; port++)
+            inputs.buttons[port] = oi.getButtons(port);
+
+        String gameData = ds.getGameSpecificMessage();
+        AutoSelector autoSelector = AutoSelector.getInstance();
+
+        synchronized(this) {
+            try {
+                out.writeByte(LOOP);
+                inputs.write(out);
+
+                if(gameData != null && !gameData.equals(lastGameData)) {
+                    out.writeByte(GAME_DATA);
+                    out.writeUTF(gameData);
+                    lastGameData = gameData;
+                }
+
+                if(!autoSelector.getSelection().equals(lastSelection)
+                        || !autoSelector.getPosition().equals(lastPosition)
+                        || !autoSelector.getLeftAction().equals(lastLeftAction)
+                        || !autoSelector.getRightAction().equals(lastRightAction)) {
+                    lastSelection = autoSelector.getSelection();
+                    lastPosition = autoSelector.getPosition();
+                    lastLeftAction = autoSelector.getLeftAction();
+                    lastRightAction = autoSelector.getRightAction();
+                    out.writeByte(AUTO_SELECTION);
+                    out.writeUTF(lastSelection);
+                    out.writeUTF(lastPosition);
+                    out.writeUTF(lastLeftAction);
+                    out.writeUTF(lastRightAction);
+                }
+            } catch (IOException ex) {
+                /* Writing to a ByteArrayOutputStream does not throw */
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
+
+    /**
+     * Record the sensors one drivetrain control loop tick read. Call from the control loop thread before it outputs.
+     * @param timestamp Time of the tick in seconds
+     */
+    public void recordControlLoop(double timestamp, int leftPosition, int rightPosition, double yaw) {
+
+        if(!running)
+            return;
+
+        controlLoopThread = Thread.currentThread();
+
+        synchronized(this) {
+            try {
+                out.writeByte(CONTROL_LOOP);
+                out.writeDouble(timestamp);
+                out.writeInt(leftPosition);
+                out.writeInt(rightPosition);
+                out.writeDouble(yaw);
+            } catch (IOException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
+
+    /**
+     * Record a command Robot started or cancelled itself, rather than one started by a button or another command
+     * @param started True if the command was started, false if it was cancelled
+     */
+    public void recordCommand(Command command, boolean started) {
+
+        if(!running || command == null)
+            return;
+
+        synchronized(this) {
+            try {
+                out.writeByte(started ? COMMAND_STARTED : COMMAND_CANCELLED);
+                out.writeUTF(command.getClass().getName());
+            } catch (IOException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
+
+    private void recordOutput(Actuator actuator, ControlMode mode, double value) {
+
+        byte source = Thread.currentThread() == controlLoopThread ? CONTROL_LOOP_THREAD : ROBOT_LOOP;
+
+        synchronized(this) {
+            try {
+                out.writeByte(OUTPUT);
+                out.writeByte(source);
+                out.writeByte(actuator.ordinal());
+                out.writeByte(mode == null ? -1 : mode.ordinal());
+                out.writeDouble(value);
+            } catch (IOException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
+
+    /**
+     * Writer thread. Swaps buffers with the recording threads every WRITE_PERIOD_MS and writes out the full one.
+     */
+    private void write(OutputStream stream) {
+
+        while(running) {
+            try {
+                Thread.sleep(WRITE_PERIOD_MS);
+            } catch (InterruptedException ex) {
+                break;
+            }
+
+            ByteArrayOutputStream full;
+            synchronized(this) {
+                full = buffer;
+                buffer = spare;
+                out = new DataOutputStream(buffer);
+                spare = full;
+            }
+
+            try {
+                if(!budget.claim(full.size()))
+                    throw new IOException(budget.getExhaustedReason());
+                full.writeTo(stream);
+            } catch (IOException ex) {
+                DriverStation.reportError("Error writing " + file + ", input recording stopped:  " + ex.getMessage(), false);
+                running = false;
+            }
+            full.reset();
+        }
+
+        setOutputListener(null);
+        try {
+            synchronized(this) {
+                if(budget.claim(buffer.size()))
+                    buffer.writeTo(stream);
+                buffer.reset();
+            }
+            stream.close();
+        } catch (IOException ex) {
+            DriverStation.reportWarning("Error closing " + file + ":  " + ex.getMessage(), false);
+        }
+    }
+
+    /**
+     * Stop recording and close the file. The recorder cannot be restarted.
+     */
+    public void stop() {
+        running = false;
+    }
+
+}
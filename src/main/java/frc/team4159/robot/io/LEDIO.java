@@ -0,0 +1,15 @@
+package frc.team4159.robot.io;
+
+/**
+ * Hardware used by the LED subsystem: two LED rings powered from PCM solenoid channels
+ */
+
+public interface LEDIO {
+
+    /**
+     * @param smallRing True to light the small ring
+     * @param bigRing True to light the big ring
+     */
+    void setRings(boolean smallRing, boolean bigRing);
+
+}
@@ -0,0 +1,33 @@
+package frc.team4159.robot.io;
+
+import edu.wpi.first.wpilibj.Solenoid;
+
+/**
+ * LED rings on the robot
+ */
+
+public class LEDIOReal implements LEDIO {
+
+    private Solenoid smallRing;
+    private Solenoid bigRing;
+
+    /* Last commands sent to each ring */
+    private OutputCache smallRingOutput = new OutputCache();
+    private OutputCache bigRingOutput = new OutputCache();
+
+    public LEDIOReal() {
+        smallRing = new Solenoid(0);
+        bigRing = new Solenoid(4);
+    }
+
+    @Override
+    public void setRings(boolean smallRing, boolean bigRing) {
+        InputRecorder.output(InputRecorder.Actuator.SMALL_RING, smallRing);
+        InputRecorder.output(InputRecorder.Actuator.BIG_RING, bigRing);
+        if(smallRingOutput.update(smallRing))
+            this.smallRing.set(smallRing);
+        if(bigRingOutput.update(bigRing))
+            this.bigRing.set(bigRing);
+    }
+
+}
@@ -0,0 +1,27 @@
+package frc.team4159.robot.io;
+
+/**
+ * LED rings simulated in software
+ */
+
+public class LEDIOSim implements LEDIO {
+
+    private boolean smallRing, bigRing;
+
+    @Override
+    public synchronized void setRings(boolean smallRing, boolean bigRing) {
+        InputRecorder.output(InputRecorder.Actuator.SMALL_RING, smallRing);
+        InputRecorder.output(InputRecorder.Actuator.BIG_RING, bigRing);
+        this.smallRing = smallRing;
+        this.bigRing = bigRing;
+    }
+
+    public synchronized boolean isSmallRingOn() {
+        return smallRing;
+    }
+
+    public synchronized boolean isBigRingOn() {
+        return bigRing;
+    }
+
+}
@@ -0,0 +1,102 @@
+package frc.team4159.robot.io;
+
+import frc.team4159.robot.util.Clock;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import static frc.team4159.robot.Constants.OUTPUT_EPSILON;
+import static frc.team4159.robot.Constants.OUTPUT_REFRESH_MS;
+
+/**
+ * Remembers the last command sent to one actuator so the same command is not sent again every loop. A command is sent
+ * when its mode changes, when its value moves more than epsilon, or when the refresh period has passed since the last
+ * send, so a dropped message cannot leave an actuator in the wrong state for long.
+ */
+
+public class OutputCache {
+
+    /* Totals across every actuator */
+    private static final LongAdder sent = new LongAdder();
+    private static final LongAdder skipped = new LongAdder();
+
+    private final double epsilon;
+    private final double refreshPeriod;
+    private final Clock clock;
+
+    private Object lastMode;
+    private double lastValue;
+    private double lastSendTime;
+
+    /**
+     * Cache with Constants.OUTPUT_EPSILON and OUTPUT_REFRESH_MS, timed by the FPGA clock
+     */
+    public OutputCache() {
+        this(OUTPUT_EPSILON, OUTPUT_REFRESH_MS, Clock.FPGA);
+    }
+
+    /**
+     * @param epsilon Smallest change in value that is sent, in the units of the control mode
+     * @param refreshMs Longest time in ms to go without sending the command again
+     * @param clock Time source
+     */
+    public OutputCache(double epsilon, double refreshMs, Clock clock) {
+        this.epsilon = epsilon;
+        refreshPeriod = refreshMs / 1000;
+        this.clock = clock;
+        invalidate();
+    }
+
+    /**
+     * Check whether a command needs to be sent, and if so remember it as sent
+     * @param mode Control mode, or any object that changes when the kind of command changes. Null for plain set(value).
+     * @param value Setpoint in the units of the mode
+     * @return True if the caller should send the command to the device
+     */
+    public synchronized boolean update(Object mode, double value) {
+
+        double now = clock.getTimestamp();
+
+        if(mode == lastMode && Math.abs(value - lastValue) <= epsilon && now - lastSendTime < refreshPeriod) {
+            skipped.increment();
+            return false;
+        }
+
+        lastMode = mode;
+        lastValue = value;
+        lastSendTime = now;
+        sent.increment();
+        return true;
+    }
+
+    /**
+     * Boolean actuators like solenoids
+     * @return True if the caller should send the command to the device
+     */
+    public boolean update(boolean on) {
+        return update(null, on ? 1 : 0);
+    }
+
+    /**
+     * Forget the last command so the next one is always sent. Call when something else has changed the device's mode.
+     */
+    public synchronized void invalidate() {
+        lastMode = null;
+        lastValue = Double.NaN;
+        lastSendTime = Double.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * @return Commands sent to devices since the robot started
+     */
+    public static long getSent() {
+        return sent.sum();
+    }
+
+    /**
+     * @return Commands skipped because they matched the last one sent
+     */
+    public static long getSkipped() {
+        return skipped.sum();
+    }
+
+}
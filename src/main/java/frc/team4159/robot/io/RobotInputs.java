@@ -0,0 +1,83 @@
+package frc.team4159.robot.io;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Everything the robot loop reads in one loop: time, robot mode, sensors and sticks. Recorded by InputRecorder and
+ * fed back by the replay. Reused from loop to loop, so recording allocates nothing.
+ */
+
+public class RobotInputs {
+
+    public enum Mode {
+        DISABLED, AUTO, TELEOP, TEST
+    }
+
+    public double timestamp;
+    public double matchTime;
+    public Mode mode = Mode.DISABLED;
+
+    /* Drivetrain, native units and native units per 100 ms */
+    public int leftPosition, rightPosition;
+    public int leftVelocity, rightVelocity;
+    public int leftActiveTrajectoryVelocity, rightActiveTrajectoryVelocity;
+    /* navX yaw in degrees */
+    public double yaw;
+
+    public int liftPosition;
+    public boolean limitSwitch;
+
+    public int hookPosition;
+    public boolean hallSensor;
+
+    /* Raw stick y-axes, and button bit masks by joystick port */
+    public double leftY, rightY, secondaryY;
+    public final int[] buttons = new int[4];
+
+    public void write(DataOutput out) throws IOException {
+        out.writeDouble(timestamp);
+        out.writeDouble(matchTime);
+        out.writeByte(mode.ordinal());
+        out.writeInt(leftPosition);
+        out.writeInt(rightPosition);
+        out.writeInt(leftVelocity);
+        out.writeInt(rightVelocity);
+        out.writeInt(leftActiveTrajectoryVelocity);
+        out.writeInt(rightActiveTrajectoryVelocity);
+        out.writeDouble(yaw);
+        out.writeInt(liftPosition);
+        out.writeBoolean(limitSwitch);
+        out.writeInt(hookPosition);
+        out.writeBoolean(hallSensor);
+        out.writeDouble(leftY);
+        out.writeDouble(rightY);
+        out.writeDouble(secondaryY);
+        for(int button : buttons)
+            out.writeInt(button);
+    }
+
+    public void read(DataInput in) throws IOException {
+        timestamp = in.readDouble();
+        matchTime = in.readDouble();
+        mode = Mode.values()[in.readByte()];
+        leftPosition = in.readInt();
+        rightPosition = in.readInt();
+        leftVelocity = in.readInt();
+        rightVelocity = in.readInt();
+        leftActiveTrajectoryVelocity = in.readInt();
+        rightActiveTrajectoryVelocity = in.readInt();
+        yaw = in.readDouble();
+        liftPosition = in.readInt();
+        limitSwitch = in.readBoolean();
+        hookPosition = in.readInt();
+        hallSensor = in.readBoolean();
+        leftY = in.readDouble();
+        rightY = in.readDouble();
+        secondaryY = in.readDouble();
+        for(int i = 0; i < buttons.length; i++)
+            buttons[i] = in.readInt();
+    }
+
+}
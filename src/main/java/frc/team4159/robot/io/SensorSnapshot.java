@@ -0,0 +1,263 @@
+package frc.team4159.robot.io;
+
+import frc.team4159.robot.util.DashboardServer;
+import frc.team4159.robot.util.TelemetryLog;
+
+/**
+ * Every sensor value the robot loop uses, read once at the top of each loop. Commands and subsystems read from here
+ * instead of calling the devices, so every reader in a loop sees the same values and each device is read once.
+ *
+ * The drivetrain control loop runs faster than the robot loop and reads its own sensors directly.
+ */
+
+public class SensorSnapshot {
+
+    private static SensorSnapshot instance;
+
+    public static synchronized SensorSnapshot getInstance() {
+        if(instance == null)
+            instance = new SensorSnapshot();
+        return instance;
+    }
+
+    /* Written and read on the robot loop thread. Volatile so a reader on another thread still sees whole values. */
+    private volatile double timestamp;
+
+    /* Drivetrain, native units and native units per 100 ms */
+    private volatile int leftPosition, rightPosition;
+    private volatile int leftVelocity, rightVelocity;
+    private volatile int leftActiveTrajectoryVelocity, rightActiveTrajectoryVelocity;
+    /* navX yaw in degrees */
+    private volatile double yaw;
+
+    /* Cube holder */
+    private volatile int liftPosition;
+    private volatile boolean limitSwitch;
+
+    /* Climber */
+    private volatile int hookPosition;
+    private volatile boolean hallSensor;
+
+    /* Telemetry channels, in the order update() reads the sensors */
+    private TelemetryLog log;
+    private final int FIRST_CHANNEL;
+
+    /* Live stream channels, in the same order */
+    private DashboardServer server;
+    private final int FIRST_STREAM_CHANNEL;
+
+    private SensorSnapshot() {
+        log = TelemetryLog.getInstance();
+        FIRST_CHANNEL = log.addChannel("drive/left position");
+        log.addChannel("drive/right position");
+        log.addChannel("drive/left velocity");
+        log.addChannel("drive/right velocity");
+        log.addChannel("drive/left trajectory velocity");
+        log.addChannel("drive/right trajectory velocity");
+        log.addChannel("drive/yaw");
+        log.addChannel("lift/position");
+        log.addChannel("lift/limit switch");
+        log.addChannel("climber/hook position");
+        log.addChannel("climber/hall sensor");
+
+        server = DashboardServer.getInstance();
+        FIRST_STREAM_CHANNEL = server.addChannel("drive/left position");
+        server.addChannel("drive/right position");
+        server.addChannel("drive/left velocity");
+        server.addChannel("drive/right velocity");
+        server.addChannel("drive/yaw");
+        server.addChannel("lift/position");
+        server.addChannel("climber/hook position");
+    }
+
+    /**
+     * Read every sensor once
+     * @param timestamp Time of the read in seconds
+     */
+    public void update(double timestamp, DrivetrainIO drivetrain, CubeHolderIO cubeHolder, ClimberIO climber) {
+
+        this.timestamp = timestamp;
+
+        leftPosition = drivetrain.getLeftPosition();
+        rightPosition = drivetrain.getRightPosition();
+        leftVelocity = drivetrain.getLeftVelocity();
+        rightVelocity = drivetrain.getRightVelocity();
+        leftActiveTrajectoryVelocity = drivetrain.getLeftActiveTrajectoryVelocity();
+        rightActiveTrajectoryVelocity = drivetrain.getRightActiveTrajectoryVelocity();
+        yaw = drivetrain.getYaw();
+
+        liftPosition = cubeHolder.getLiftPosition();
+        limitSwitch = cubeHolder.getLimitSwitch();
+
+        hookPosition = climber.getHookPosition();
+        hallSensor = climber.getHallSensor();
+
+        publish();
+    }
+
+    /**
+     * Use recorded sensor values instead of reading the sensors, for replay
+     */
+    public void update(RobotInputs inputs) {
+
+        timestamp = inputs.timestamp;
+
+        leftPosition = inputs.leftPosition;
+        rightPosition = inputs.rightPosition;
+        leftVelocity = inputs.leftVelocity;
+        rightVelocity = inputs.rightVelocity;
+        leftActiveTrajectoryVelocity = inputs.leftActiveTrajectoryVelocity;
+        rightActiveTrajectoryVelocity = inputs.rightActiveTrajectoryVelocity;
+        yaw = inputs.yaw;
+
+        liftPosition = inputs.liftPosition;
+        limitSwitch = inputs.limitSwitch;
+
+        hookPosition = inputs.hookPosition;
+        hallSensor = inputs.hallSensor;
+
+        publish();
+    }
+
+    /**
+     * Copy this loop's sensor values for recording
+     */
+    public void copyTo(RobotInputs inputs) {
+
+        inputs.timestamp = timestamp;
+
+        inputs.leftPosition = leftPosition;
+        inputs.rightPosition = rightPosition;
+        inputs.leftVelocity = leftVelocity;
+        inputs.rightVelocity = rightVelocity;
+        inputs.leftActiveTrajectoryVelocity = leftActiveTrajectoryVelocity;
+        inputs.rightActiveTrajectoryVelocity = rightActiveTrajectoryVelocity;
+        inputs.yaw = yaw;
+
+        inputs.liftPosition = liftPosition;
+        inputs.limitSwitch = limitSwitch;
+
+        inputs.hookPosition = hookPosition;
+        inputs.hallSensor = hallSensor;
+    }
+
+    /**
+     * Send this loop's values to the TelemetryLog and DashboardServer
+     */
+    private void publish() {
+
+        log.startFrame(timestamp);
+        int channel = FIRST_CHANNEL;
+        log.record(channel++, leftPosition);
+        log.record(channel++, rightPosition);
+        log.record(channel++, leftVelocity);
+        log.record(channel++, rightVelocity);
+        log.record(channel++, leftActiveTrajectoryVelocity);
+        log.record(channel++, rightActiveTrajectoryVelocity);
+        log.record(channel++, yaw);
+        log.record(channel++, liftPosition);
+        log.record(channel++, limitSwitch);
+        log.record(channel++, hookPosition);
+        log.record(channel, hallSensor);
+
+        channel = FIRST_STREAM_CHANNEL;
+        server.set(channel++, leftPosition);
+        server.set(channel++, rightPosition);
+        server.set(channel++, leftVelocity);
+        server.set(channel++, rightVelocity);
+        server.set(channel++, yaw);
+        server.set(channel++, liftPosition);
+        server.set(channel, hookPosition);
+        server.commit(timestamp);
+    }
+
+    /**
+     * Keep the snapshot in line with encoders that were just set, until the next update
+     */
+    public void setDrivePositions(int left, int right) {
+        leftPosition = left;
+        rightPosition = right;
+    }
+
+    /**
+     * Keep the snapshot in line with a gyro that was just zeroed, until the next update
+     */
+    public void setYaw(double yaw) {
+        this.yaw = yaw;
+    }
+
+    /**
+     * Keep the snapshot in line with a lift encoder that was just set, until the next update
+     */
+    public void setLiftPosition(int position) {
+        liftPosition = position;
+    }
+
+    /**
+     * Keep the snapshot in line with a hook encoder that was just set, until the next update
+     */
+    public void setHookPosition(int position) {
+        hookPosition = position;
+    }
+
+    /**
+     * @return Time of the last update in seconds
+     */
+    public double getTimestamp() {
+        return timestamp;
+    }
+
+    public int getLeftPosition() {
+        return leftPosition;
+    }
+
+    public int getRightPosition() {
+        return rightPosition;
+    }
+
+    public int getLeftVelocity() {
+        return leftVelocity;
+    }
+
+    public int getRightVelocity() {
+        return rightVelocity;
+    }
+
+    public int getLeftActiveTrajectoryVelocity() {
+        return leftActiveTrajectoryVelocity;
+    }
+
+    public int getRightActiveTrajectoryVelocity() {
+        return rightActiveTrajectoryVelocity;
+    }
+
+    /**
+     * @return navX yaw in degrees
+     */
+    public double getYaw() {
+        return yaw;
+    }
+
+    public int getLiftPosition() {
+        return liftPosition;
+    }
+
+    /**
+     * @return Raw limit switch value, false when pressed
+     */
+    public boolean getLimitSwitch() {
+        return limitSwitch;
+    }
+
+    public int getHookPosition() {
+        return hookPosition;
+    }
+
+    /**
+     * @return True if the hall effect sensor sees the magnet
+     */
+    public boolean getHallSensor() {
+        return hallSensor;
+    }
+
+}
@@ -0,0 +1,261 @@
+package frc.team4159.robot.io;
+
+import com.ctre.phoenix.ErrorCode;
+import com.ctre.phoenix.motorcontrol.StatusFrame;
+import com.ctre.phoenix.motorcontrol.StatusFrameEnhanced;
+import com.ctre.phoenix.motorcontrol.can.BaseMotorController;
+import com.ctre.phoenix.motorcontrol.can.TalonSRX;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Sets the status frame periods of every registered CAN motor controller for the current robot mode, so devices only
+ * report as often as something on the robot reads them. Robot calls setMode() on each mode transition; only frames
+ * whose period changes are sent. A device that reset, e.g. from a brownout, is back at its default periods, so Robot
+ * calls checkResets() every loop to send all of its frames again.
+ */
+
+public class StatusFrameManager {
+
+    private static StatusFrameManager instance;
+
+    public static synchronized StatusFrameManager getInstance() {
+        if(instance == null)
+            instance = new StatusFrameManager();
+        return instance;
+    }
+
+    public enum Mode {
+        DISABLED, AUTO, TELEOP, ENDGAME
+    }
+
+    /* CAN bit rate and bits on the wire per frame, for an extended ID frame with 8 data bytes and typical bit stuffing */
+    private static final double BUS_BITS_PER_SECOND = 1e6;
+    private static final double BITS_PER_FRAME = 135;
+
+    /* Phoenix sends each motor controller's control frame every 10 ms */
+    private static final int CONTROL_FRAME_PERIOD = 10;
+
+    /**
+     * Status frame periods of one kind of device in each robot mode
+     */
+    public static class Profile {
+
+        private final EnumMap<Mode, EnumMap<StatusFrameEnhanced, Integer>> periods = new EnumMap<>(Mode.class);
+
+        public Profile() {
+            for(Mode mode : Mode.values()) {
+                periods.put(mode, new EnumMap<>(StatusFrameEnhanced.class));
+            }
+        }
+
+        /**
+         * @param frame Status frame. Talon-only frames are ignored for Victors.
+         * @param periodMs Period in ms, 1 to 255
+         * @param modes Modes to use this period in, or none for every mode
+         * @return This profile, for chaining
+         */
+        public Profile set(StatusFrameEnhanced frame, int periodMs, Mode... modes) {
+            for(Mode mode : modes.length == 0 ? Mode.values() : modes) {
+                periods.get(mode).put(frame, periodMs);
+            }
+            return this;
+        }
+
+        Map<StatusFrameEnhanced, Integer> get(Mode mode) {
+            return periods.get(mode);
+        }
+    }
+
+    private static class Device {
+        final String name;
+        final BaseMotorController controller;
+        final Profile profile;
+        final EnumMap<StatusFrameEnhanced, Integer> applied = new EnumMap<>(StatusFrameEnhanced.class);
+
+        Device(String name, BaseMotorController controller, Profile profile) {
+            this.name = name;
+            this.controller = controller;
+            this.profile = profile;
+        }
+    }
+
+    private ArrayList<Device> devices;
+    private Mode mode;
+
+    private StatusFrameManager() {
+        devices = new ArrayList<>();
+        mode = Mode.DISABLED;
+    }
+
+    /**
+     * Manage a motor controller's status frames, applying the current mode's periods now
+     * @param name Name used in error messages
+     */
+    public synchronized void register(String name, BaseMotorController controller, Profile profile) {
+        Device device = new Device(name, controller, profile);
+        devices.add(device);
+        controller.hasResetOccurred(); // Clear the power-on reset, every period is sent now anyway
+        apply(device);
+    }
+
+    /**
+     * Switch every device to the periods for a robot mode. Does nothing if already in that mode.
+     */
+    public synchronized void setMode(Mode mode) {
+
+        if(mode == this.mode)
+            return;
+        this.mode = mode;
+
+        for(Device device : devices) {
+            apply(device);
+        }
+
+        double utilization = estimateUtilization(mode);
+        SmartDashboard.putNumber("CAN utilization estimate", utilization * 100);
+        System.out.printf("Status frames set for %s, estimated CAN utilization %.1f%%%n", mode, utilization * 100);
+    }
+
+    /**
+     * @return Current robot mode
+     */
+    public synchronized Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Send every period again to devices that reset since the last check, and have DeviceConfigurator configure them
+     * again. Only reads each device's cached reset flag, so it is cheap enough to run every loop. Reading the flag
+     * clears it, so nothing else should read it.
+     */
+    public synchronized void checkResets() {
+        for(Device device : devices) {
+            if(!device.controller.hasResetOccurred())
+                continue;
+            DriverStation.reportWarning(device.name + " reset, sending all status frame periods and config again",
+                    false);
+            device.applied.clear();
+            apply(device);
+            DeviceConfigurator.getInstance().reapply(device.name);
+        }
+    }
+
+    /**
+     * Send the frames whose period differs from what was last sent. Zero timeout, so this never blocks the loop.
+     */
+    private void apply(Device device) {
+
+        for(Map.Entry<StatusFrameEnhanced, Integer> entry : device.profile.get(mode).entrySet()) {
+
+            StatusFrameEnhanced frame = entry.getKey();
+            int period = entry.getValue();
+            if(device.applied.containsKey(frame) && device.applied.get(frame) == period)
+                continue;
+
+            ErrorCode error;
+            if(device.controller instanceof TalonSRX) {
+                error = ((TalonSRX) device.controller).setStatusFramePeriod(frame, period, 0);
+            } else {
+                StatusFrame baseFrame = toStatusFrame(frame);
+                if(baseFrame == null)
+                    continue;
+                error = device.controller.setStatusFramePeriod(baseFrame, period, 0);
+            }
+
+            if(error == ErrorCode.OK) {
+                device.applied.put(frame, period);
+            } else {
+                DriverStation.reportWarning("Could not set " + frame + " of " + device.name + ":  " + error, false);
+            }
+        }
+    }
+
+    /**
+     * @return The same frame for non-Talon motor controllers, or null if only Talons have it
+     */
+    private static StatusFrame toStatusFrame(StatusFrameEnhanced frame) {
+        switch(frame) {
+            case Status_1_General:
+                return StatusFrame.Status_1_General;
+            case Status_2_Feedback0:
+                return StatusFrame.Status_2_Feedback0;
+            case Status_4_AinTempVbat:
+                return StatusFrame.Status_4_AinTempVbat;
+            case Status_10_MotionMagic:
+                return StatusFrame.Status_10_MotionMagic;
+            case Status_12_Feedback1:
+                return StatusFrame.Status_12_Feedback1;
+            case Status_13_Base_PIDF0:
+                return StatusFrame.Status_13_Base_PIDF0;
+            case Status_14_Turn_PIDF1:
+                return StatusFrame.Status_14_Turn_PIDF1;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Estimate the fraction of the CAN bus used by the registered devices' status and control frames in a mode. Frames
+     * a profile does not set are counted at Phoenix's default period.
+     */
+    public synchronized double estimateUtilization(Mode mode) {
+        double framesPerSecond = 0;
+        for(Device device : devices) {
+            framesPerSecond += framesPerSecond(device, device.profile.get(mode));
+        }
+        return framesPerSecond * BITS_PER_FRAME / BUS_BITS_PER_SECOND;
+    }
+
+    /**
+     * Estimate the fraction of the CAN bus the registered devices would use with every frame at its default period
+     */
+    public synchronized double estimateDefaultUtilization() {
+        double framesPerSecond = 0;
+        for(Device device : devices) {
+            framesPerSecond += framesPerSecond(device, new EnumMap<>(StatusFrameEnhanced.class));
+        }
+        return framesPerSecond * BITS_PER_FRAME / BUS_BITS_PER_SECOND;
+    }
+
+    private static double framesPerSecond(Device device, Map<StatusFrameEnhanced, Integer> periods) {
+        boolean talon = device.controller instanceof TalonSRX;
+        double framesPerSecond = 1000.0 / CONTROL_FRAME_PERIOD;
+        for(StatusFrameEnhanced frame : StatusFrameEnhanced.values()) {
+            if(!talon && toStatusFrame(frame) == null)
+                continue;
+            Integer period = periods.get(frame);
+            int defaultPeriod = defaultPeriod(frame);
+            if(defaultPeriod > 0)
+                framesPerSecond += 1000.0 / (period != null ? period : defaultPeriod);
+        }
+        return framesPerSecond;
+    }
+
+    /**
+     * @return Phoenix's default period in ms, or 0 for frames only sent while in use
+     */
+    private static int defaultPeriod(StatusFrameEnhanced frame) {
+        switch(frame) {
+            case Status_1_General:
+                return 10;
+            case Status_2_Feedback0:
+                return 20;
+            case Status_3_Quadrature:
+            case Status_4_AinTempVbat:
+            case Status_8_PulseWidth:
+            case Status_10_MotionMagic:
+            case Status_12_Feedback1:
+            case Status_13_Base_PIDF0:
+            case Status_14_Turn_PIDF1:
+                return 160;
+            default:
+                return 0;
+        }
+    }
+
+}
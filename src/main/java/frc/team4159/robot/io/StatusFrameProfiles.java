@@ -0,0 +1,65 @@
+package frc.team4159.robot.io;
+
+import com.ctre.phoenix.motorcontrol.StatusFrameEnhanced;
+import frc.team4159.robot.io.StatusFrameManager.Profile;
+
+import static com.ctre.phoenix.motorcontrol.StatusFrameEnhanced.*;
+import static frc.team4159.robot.io.StatusFrameManager.Mode.*;
+
+/**
+ * Status frame periods in ms for each motor controller, by robot mode. 255 ms is the slowest a frame can be sent.
+ *
+ * Status 1 carries applied output and faults, and followers use their master's. Status 2 carries the selected sensor
+ * position and velocity. Status 10 carries the motion magic and motion profile targets. Nothing on the robot reads the
+ * quadrature, pulse width, analog, auxiliary sensor or closed loop error frames.
+ */
+
+public interface StatusFrameProfiles {
+
+    /* Frames nothing reads, slowed down in every mode */
+    StatusFrameEnhanced[] UNUSED = {
+            Status_3_Quadrature, Status_4_AinTempVbat, Status_8_PulseWidth, Status_12_Feedback1,
+            Status_13_Base_PIDF0, Status_14_Turn_PIDF1
+    };
+
+    /* Encoders feed the 100 Hz control loop and motion magic, followed by a Victor */
+    Profile DRIVE_TALON = unused(new Profile())
+            .set(Status_1_General, 10)
+            .set(Status_2_Feedback0, 10, AUTO, TELEOP, ENDGAME)
+            .set(Status_2_Feedback0, 100, DISABLED)
+            .set(Status_10_MotionMagic, 20, AUTO)
+            .set(Status_10_MotionMagic, 160, TELEOP, ENDGAME)
+            .set(Status_10_MotionMagic, 255, DISABLED);
+
+    /* Followers have no sensor and nothing reads their output */
+    Profile DRIVE_VICTOR = unused(new Profile())
+            .set(Status_1_General, 100)
+            .set(Status_2_Feedback0, 255)
+            .set(Status_10_MotionMagic, 255);
+
+    /* Lift position is read once per 20 ms robot loop by CubeHolder */
+    Profile LIFT_TALON = unused(new Profile())
+            .set(Status_1_General, 20, AUTO, TELEOP, ENDGAME)
+            .set(Status_1_General, 100, DISABLED)
+            .set(Status_2_Feedback0, 20, AUTO, TELEOP, ENDGAME)
+            .set(Status_2_Feedback0, 100, DISABLED)
+            .set(Status_10_MotionMagic, 255);
+
+    /* Hook only moves during the climb at the end of the match */
+    Profile CLIMB_TALON = unused(new Profile())
+            .set(Status_1_General, 20, ENDGAME)
+            .set(Status_1_General, 50, TELEOP)
+            .set(Status_1_General, 255, DISABLED, AUTO)
+            .set(Status_2_Feedback0, 20, ENDGAME)
+            .set(Status_2_Feedback0, 50, TELEOP)
+            .set(Status_2_Feedback0, 255, DISABLED, AUTO)
+            .set(Status_10_MotionMagic, 255);
+
+    static Profile unused(Profile profile) {
+        for(StatusFrameEnhanced frame : UNUSED) {
+            profile.set(frame, 255);
+        }
+        return profile;
+    }
+
+}
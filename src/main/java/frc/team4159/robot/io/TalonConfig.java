@@ -0,0 +1,123 @@
+package frc.team4159.robot.io;
+
+import com.ctre.phoenix.ParamEnum;
+import com.ctre.phoenix.motorcontrol.FeedbackDevice;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Configuration of one Talon SRX as data, so DeviceConfigurator can compare it with what the Talon already has and
+ * only send the differences. Talons keep their configuration through power cycles, so usually nothing is sent.
+ */
+
+public class TalonConfig {
+
+    /**
+     * One configuration parameter
+     */
+    public static class Setting {
+        public final ParamEnum parameter;
+        public final int ordinal;
+        public final double value;
+
+        Setting(ParamEnum parameter, int ordinal, double value) {
+            this.parameter = parameter;
+            this.ordinal = ordinal;
+            this.value = value;
+        }
+
+        @Override
+        public String toString() {
+            return parameter + "[" + ordinal + "] = " + value;
+        }
+    }
+
+    private final ArrayList<Setting> settings = new ArrayList<>();
+
+    /* Applied every boot, after the settings, since they are not stored as parameters */
+    private boolean currentLimitEnabled;
+    private Integer sensorPosition;
+
+    /**
+     * @param ordinal PID index or slot, depending on the parameter
+     * @return This config, for chaining
+     */
+    public TalonConfig set(ParamEnum parameter, int ordinal, double value) {
+        settings.add(new Setting(parameter, ordinal, value));
+        return this;
+    }
+
+    public TalonConfig feedbackSensor(FeedbackDevice device, int pidIdx) {
+        return set(ParamEnum.eFeedbackSensorType, pidIdx, device.value);
+    }
+
+    /**
+     * @param nominal Smallest output in either direction, 0 to 1
+     * @param peak Largest output in either direction, 0 to 1
+     */
+    public TalonConfig outputRange(double nominal, double peak) {
+        return set(ParamEnum.eNominalPosOutput, 0, nominal)
+                .set(ParamEnum.eNominalNegOutput, 0, -nominal)
+                .set(ParamEnum.ePeakPosOutput, 0, peak)
+                .set(ParamEnum.ePeakNegOutput, 0, -peak);
+    }
+
+    public TalonConfig pidf(int slot, double kP, double kI, double kD, double kF) {
+        return set(ParamEnum.eProfileParamSlot_P, slot, kP)
+                .set(ParamEnum.eProfileParamSlot_I, slot, kI)
+                .set(ParamEnum.eProfileParamSlot_D, slot, kD)
+                .set(ParamEnum.eProfileParamSlot_F, slot, kF);
+    }
+
+    /**
+     * @param error Closed loop error in native units that counts as on target
+     */
+    public TalonConfig allowableError(int slot, int error) {
+        return set(ParamEnum.eProfileParamSlot_AllowableErr, slot, error);
+    }
+
+    /**
+     * @param cruiseVelocity Native units per 100 ms
+     * @param acceleration Native units per 100 ms per second
+     */
+    public TalonConfig motionMagic(int cruiseVelocity, int acceleration) {
+        return set(ParamEnum.eMotMag_VelCruise, 0, cruiseVelocity)
+                .set(ParamEnum.eMotMag_Accel, 0, acceleration);
+    }
+
+    /**
+     * Limit current to peakAmps for peakMs, then to continuousAmps, and enable the limit
+     */
+    public TalonConfig currentLimit(int peakAmps, int peakMs, int continuousAmps) {
+        currentLimitEnabled = true;
+        return set(ParamEnum.ePeakCurrentLimitAmps, 0, peakAmps)
+                .set(ParamEnum.ePeakCurrentLimitMs, 0, peakMs)
+                .set(ParamEnum.eContinuousCurrentLimitAmps, 0, continuousAmps);
+    }
+
+    /**
+     * Set the selected sensor to this position once the feedback sensor is configured
+     */
+    public TalonConfig sensorPosition(int position) {
+        sensorPosition = position;
+        return this;
+    }
+
+    public List<Setting> getSettings() {
+        return Collections.unmodifiableList(settings);
+    }
+
+    public boolean isCurrentLimitEnabled() {
+        return currentLimitEnabled;
+    }
+
+    /**
+     * @return Starting sensor position, or null to leave it
+     */
+    public Integer getSensorPosition() {
+        return sensorPosition;
+    }
+
+}
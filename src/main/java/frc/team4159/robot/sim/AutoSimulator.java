@@ -0,0 +1,191 @@
+package frc.team4159.robot.sim;
+
+import edu.wpi.first.wpilibj.command.Command;
+import edu.wpi.first.wpilibj.command.Scheduler;
+import frc.team4159.robot.Robot;
+import frc.team4159.robot.commands.auto.Auto;
+import frc.team4159.robot.commands.auto.ElimsAuto;
+import frc.team4159.robot.commands.drive.RunCSVProfile;
+import frc.team4159.robot.util.ArrayTrajectory;
+import frc.team4159.robot.util.AutoSelector;
+import frc.team4159.robot.util.BinaryTrajectory;
+import frc.team4159.robot.util.GameData;
+import frc.team4159.robot.util.TrajectoryCache;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Runs every auto routine against DrivetrainPhysics on a virtual clock, as fast as the CPU allows, and reports where
+ * the robot ended up compared to the end of the path it was supposed to drive, and how far odometry drifted from the
+ * simulated pose along the way. Every auto runs once with each RunCSVProfile follower, so they can be compared. Run
+ * from the repo root so the trajectories load from ./traj:
+ *
+ *   ./gradlew simulateAutos
+ */
+
+public class AutoSimulator {
+
+    private static final double AUTO_LENGTH = 15;
+
+    /* Start pose of autos that do not follow a path, the baseline path's start */
+    private static final double DEFAULT_X = 3.29, DEFAULT_Y = 4.0;
+
+    /* Auto position ("ELIMS" for ElimsAuto), game data, and the path that combination should drive or null */
+    private static final String[][] SCENARIOS = {
+            {"BASELINE", "LLL", "baseline"},
+            {"LEFT", "LLL", "leftToLeft"},
+            {"LEFT", "RRR", "baseline"},
+            {"MIDDLE", "LLL", "midToLeft"},
+            {"MIDDLE", "RRR", "midToRight"},
+            {"MID RIGHT", "LLL", "baseline"},
+            {"MID RIGHT", "RRR", null},
+            {"RIGHT", "LLL", "baseline"},
+            {"RIGHT", "RRR", "rightToRight"},
+            {"ELIMS", "LLL", null},
+            {"ELIMS", "RRR", null}
+    };
+
+    private final String directory;
+    private final SimulatedRobot robot;
+
+    public static void main(String[] args) {
+
+        AutoSimulator simulator = new AutoSimulator(args.length > 0 ? args[0] : "traj");
+
+        System.out.printf("%-10s %-4s %-13s %-8s %8s %9s %9s %9s %8s %9s   %s%n",
+                "Position", "Data", "Path", "Follower", "Path s", "Error ft", "Error deg", "Auto s", "Odom ft",
+                "Odom deg", "Final pose");
+        long start = System.nanoTime();
+        for(RunCSVProfile.Follower follower : RunCSVProfile.Follower.values()) {
+            RunCSVProfile.setOverride(follower);
+            for(String[] scenario : SCENARIOS) {
+                simulator.run(follower, scenario[0], scenario[1], scenario[2]);
+            }
+        }
+        RunCSVProfile.setOverride(null);
+        System.out.printf("Simulated %d autos in %.0f ms%n", SCENARIOS.length * RunCSVProfile.Follower.values().length,
+                (System.nanoTime() - start) / 1e6);
+
+        System.exit(0);
+    }
+
+    private AutoSimulator(String directory) {
+
+        this.directory = directory;
+        robot = SimulatedRobot.getInstance();
+
+        TrajectoryCache.getInstance().setDirectory(directory);
+        TrajectoryCache.getInstance().preload();
+    }
+
+    /**
+     * Run one auto for 15 seconds of virtual time and print the result
+     * @param follower Follower every path is driven with
+     * @param position AutoSelector position, or "ELIMS" for ElimsAuto
+     * @param gameData Game data the field would send, e.g. "LRL"
+     * @param path Name of the path this auto should drive, e.g. "midToLeft", or null if it drives none
+     */
+    private void run(RunCSVProfile.Follower follower, String position, String gameData, String path) {
+
+        ArrayTrajectory left = null, right = null;
+        if(path != null) {
+            try {
+                left = load(path + "_left");
+                right = load(path + "_right");
+            } catch (IOException ex) {
+                System.out.println("Skipping " + position + " " + gameData + ":  " + ex.getMessage());
+                return;
+            }
+        }
+
+        Scheduler.getInstance().removeAll();
+        GameData.setOverride(gameData);
+
+        Command auto;
+        if(position.equals("ELIMS")) {
+            auto = new ElimsAuto();
+        } else {
+            AutoSelector.getInstance().setPosition(position);
+            auto = new Auto();
+        }
+
+        DrivetrainPhysics physics = robot.getPhysics();
+
+        /* Start on the path's center line, facing along it */
+        if(left != null) {
+            robot.resetPose((left.getX(0) + right.getX(0)) / 2, (left.getY(0) + right.getY(0)) / 2, left.getHeading(0));
+        } else {
+            robot.resetPose(DEFAULT_X, DEFAULT_Y, 0);
+        }
+
+        double startTime = robot.getClock().getTimestamp();
+        long wallStart = System.nanoTime();
+
+        boolean pathStarted = false;
+        double pathTime = Double.NaN, pathX = 0, pathY = 0, pathHeading = 0;
+        double lastActiveTime = 0;
+
+        robot.getTimer().startMatch();
+        auto.start();
+
+        while(robot.getClock().getTimestamp() - startTime < AUTO_LENGTH) {
+
+            robot.runCycle();
+
+            double time = robot.getClock().getTimestamp() - startTime;
+
+            /* Pose when the first path finishes */
+            if(!Robot.drivetrain.isPathFinished()) {
+                pathStarted = true;
+            } else if(pathStarted && Double.isNaN(pathTime)) {
+                pathTime = time;
+                pathX = physics.getX();
+                pathY = physics.getY();
+                pathHeading = physics.getHeading();
+            }
+
+            if(robot.getDrivetrainIO().getLeftOutput() != 0 || robot.getDrivetrainIO().getRightOutput() != 0
+                    || robot.getCubeHolderIO().getIntake() != 0)
+                lastActiveTime = time;
+        }
+
+        Scheduler.getInstance().removeAll();
+
+        String pathTimeText = "-", errorText = "-", headingErrorText = "-";
+        if(left != null && !Double.isNaN(pathTime)) {
+            int last = left.length() - 1;
+            double targetX = (left.getX(last) + right.getX(last)) / 2;
+            double targetY = (left.getY(last) + right.getY(last)) / 2;
+            double headingError = Math.toDegrees(wrap(pathHeading - left.getHeading(last)));
+            pathTimeText = String.format("%.2f", pathTime);
+            errorText = String.format("%.2f", Math.hypot(pathX - targetX, pathY - targetY));
+            headingErrorText = String.format("%.1f", headingError);
+        } else if(left != null) {
+            pathTimeText = "unfinished";
+        }
+
+        System.out.printf("%-10s %-4s %-13s %-8s %8s %9s %9s %9.2f %8.3f %9.2f   (%.2f, %.2f, %.1f deg)  %.0f ms%n",
+                position, gameData, path == null ? "-" : path, follower.name().toLowerCase(), pathTimeText, errorText,
+                headingErrorText,
+                lastActiveTime, robot.getMaxOdometryError(), Math.toDegrees(robot.getMaxOdometryHeadingError()),
+                physics.getX(), physics.getY(), Math.toDegrees(wrap(physics.getHeading())),
+                (System.nanoTime() - wallStart) / 1e6);
+    }
+
+    /**
+     * @param name Side of a path, e.g. "midToLeft_left"
+     */
+    private ArrayTrajectory load(String name) throws IOException {
+        File bin = new File(directory, name + "_detailed.bin");
+        return ArrayTrajectory.fromBinary(BinaryTrajectory.load(bin.getPath()));
+    }
+
+    /**
+     * @return Angle in radians wrapped to [-pi, pi]
+     */
+    private static double wrap(double angle) {
+        return Math.atan2(Math.sin(angle), Math.cos(angle));
+    }
+
+}
@@ -0,0 +1,270 @@
+package frc.team4159.robot.sim;
+
+import com.ctre.phoenix.motorcontrol.ControlMode;
+import frc.team4159.robot.io.DrivetrainIOSim;
+
+import java.util.Random;
+
+import static frc.team4159.robot.Constants.*;
+
+/**
+ * Differential drive physics for DrivetrainIOSim. Turns commanded outputs into motor current through the CIM curve,
+ * applies the Talon current limits, integrates both sides of the robot and moves the simulated encoders and gyro.
+ *
+ * Pose is in feet and radians like the Pathfinder trajectories: x forward from the driver station wall, heading counter
+ * clockwise from the x axis. Everything else is in SI units.
+ *
+ * By default the sensors measure exactly what the physics integrates, apart from the encoders reading whole native
+ * units. setSensorErrors() adds wheel slip and gyro drift, so odometry can be checked against a pose it does not
+ * simply reproduce.
+ */
+
+public class DrivetrainPhysics {
+
+    /* CIM motor, two per side */
+    private static final int MOTORS_PER_SIDE = 2;
+    private static final double STALL_TORQUE = 2.41; // N m
+    private static final double STALL_CURRENT = 131; // A
+    private static final double FREE_SPEED = 5330 * 2 * Math.PI / 60; // rad/s
+    private static final double FREE_CURRENT = 2.7; // A
+    private static final double BATTERY_VOLTAGE = 12;
+
+    private static final double RESISTANCE = BATTERY_VOLTAGE / STALL_CURRENT;
+    private static final double kT = STALL_TORQUE / STALL_CURRENT;
+    private static final double kV = FREE_SPEED / (BATTERY_VOLTAGE - FREE_CURRENT * RESISTANCE);
+
+    /* Talon current limits, same as DrivetrainIOReal.limitCurrent() */
+    private static final double PEAK_CURRENT = 20; // A
+    private static final double CONTINUOUS_CURRENT = 15; // A
+    private static final double PEAK_CURRENT_DURATION = 0.2; // s
+
+    /* Drivetrain's MAX_SPEED of 5200 native units per 100 ms is the wheel free speed, which sets the gearing */
+    private static final double WHEEL_FREE_SPEED = 5200.0 * 10 / UNITS_PER_REV * 2 * Math.PI; // rad/s
+    private static final double GEAR_RATIO = FREE_SPEED / WHEEL_FREE_SPEED;
+
+    private static final double WHEEL_RADIUS = WHEEL_DIAMETER * 0.3048 / 2; // m
+    private static final double TRACK_WIDTH = WHEELBASE_WIDTH; // m
+    private static final double MASS = 68; // kg, robot with battery and bumpers
+    private static final double MOMENT_OF_INERTIA = 4.5; // kg m^2
+    /* Rolling resistance and scrub, as a force per side proportional to wheel speed */
+    private static final double DAMPING = 6; // N per m/s
+
+    /* Closed loop modes are approximated as a feedforward to the free speed plus a proportional term */
+    private static final double TALON_FREE_SPEED = 5200; // native units per 100 ms
+    private static final double VELOCITY_kP = 0.002; // percent per native unit per 100 ms
+    private static final double POSITION_kP = 0.0005; // percent per native unit
+
+    /* Integration step, small enough that the explicit update stays stable */
+    private static final double STEP = 0.001; // s
+
+    private final DrivetrainIOSim io;
+
+    /* Robot state */
+    private double x, y, heading; // ft, ft, rad
+    private double leftVelocity, rightVelocity; // m/s
+
+    /* Sensor errors. Slip is the fraction of extra wheel travel the encoders see, gyro noise is the standard deviation of
+     * the yaw's random walk in degrees after one second. */
+    private double wheelSlip, gyroNoise;
+    private Random random = new Random(0);
+
+    /* Time each side has spent above the continuous current limit */
+    private double leftPeakTime, rightPeakTime;
+    private double leftCurrent, rightCurrent;
+
+    public DrivetrainPhysics(DrivetrainIOSim io) {
+        this.io = io;
+    }
+
+    /**
+     * Put the robot at rest at the given pose
+     * @param x Feet
+     * @param y Feet
+     * @param heading Radians counter clockwise
+     */
+    public void reset(double x, double y, double heading) {
+        this.x = x;
+        this.y = y;
+        this.heading = heading;
+        leftVelocity = rightVelocity = 0;
+        leftPeakTime = rightPeakTime = 0;
+        leftCurrent = rightCurrent = 0;
+    }
+
+    /**
+     * Make the simulated encoders and gyro disagree with the pose the way real ones do
+     * @param wheelSlip Fraction the encoders over-read the distance each side travelled, e.g. 0.02 for 2% slip
+     * @param gyroNoise Standard deviation in degrees of the yaw's random walk after one second
+     * @param seed Seed for the gyro noise, so a run can be repeated
+     */
+    public void setSensorErrors(double wheelSlip, double gyroNoise, long seed) {
+        this.wheelSlip = wheelSlip;
+        this.gyroNoise = gyroNoise;
+        random = new Random(seed);
+    }
+
+    /**
+     * Advance the simulation and move the simulated sensors
+     * @param dt Seconds to advance, split into 1 ms integration steps
+     */
+    public void update(double dt) {
+
+        int steps = Math.max(1, (int) Math.round(dt / STEP));
+        double step = dt / steps;
+
+        for(int i = 0; i < steps; i++) {
+            integrate(step);
+        }
+
+        io.stepProfileTalons((int) Math.round(dt * 1000));
+    }
+
+    private void integrate(double dt) {
+
+        ControlMode mode = io.getMode();
+        double leftDuty = duty(mode, io.getLeftOutput(), io.getLeftPosition(), io.getLeftVelocity());
+        double rightDuty = duty(mode, io.getRightOutput(), io.getRightPosition(), io.getRightVelocity());
+
+        leftCurrent = current(leftDuty * BATTERY_VOLTAGE, leftVelocity);
+        rightCurrent = current(rightDuty * BATTERY_VOLTAGE, rightVelocity);
+
+        leftPeakTime = Math.abs(leftCurrent) > CONTINUOUS_CURRENT ? leftPeakTime + dt : 0;
+        rightPeakTime = Math.abs(rightCurrent) > CONTINUOUS_CURRENT ? rightPeakTime + dt : 0;
+        leftCurrent = limit(leftCurrent, leftPeakTime);
+        rightCurrent = limit(rightCurrent, rightPeakTime);
+
+        double leftForce = force(leftCurrent) - DAMPING * leftVelocity;
+        double rightForce = force(rightCurrent) - DAMPING * rightVelocity;
+
+        double velocity = (leftVelocity + rightVelocity) / 2;
+        double angularVelocity = (rightVelocity - leftVelocity) / TRACK_WIDTH;
+
+        velocity += (leftForce + rightForce) / MASS * dt;
+        angularVelocity += (rightForce - leftForce) * TRACK_WIDTH / 2 / MOMENT_OF_INERTIA * dt;
+
+        double previousLeft = leftVelocity, previousRight = rightVelocity;
+        leftVelocity = velocity - angularVelocity * TRACK_WIDTH / 2;
+        rightVelocity = velocity + angularVelocity * TRACK_WIDTH / 2;
+
+        /* Trapezoidal integration of the wheel travel */
+        double leftDistance = (previousLeft + leftVelocity) / 2 * dt;
+        double rightDistance = (previousRight + rightVelocity) / 2 * dt;
+        double distance = (leftDistance + rightDistance) / 2;
+        double headingChange = (rightDistance - leftDistance) / TRACK_WIDTH;
+
+        double midHeading = heading + headingChange / 2;
+        x += metersToFeet(distance * Math.cos(midHeading));
+        y += metersToFeet(distance * Math.sin(midHeading));
+        heading += headingChange;
+
+        /* navX yaw is clockwise positive */
+        double slip = 1 + wheelSlip;
+        double yawNoise = gyroNoise * Math.sqrt(dt) * random.nextGaussian();
+        io.applyMotion(metersToUnits(leftDistance) * slip, metersToUnits(rightDistance) * slip,
+                metersToUnits(leftVelocity) / 10 * slip, metersToUnits(rightVelocity) / 10 * slip,
+                -Math.toDegrees(headingChange) + yawNoise);
+    }
+
+    /**
+     * @return Percent output the Talon would apply for a control mode and setpoint
+     */
+    private static double duty(ControlMode mode, double output, double position, double velocity) {
+        double duty;
+        switch(mode) {
+            case PercentOutput:
+                duty = output;
+                break;
+            case Velocity:
+                duty = output / TALON_FREE_SPEED + VELOCITY_kP * (output - velocity);
+                break;
+            case Position:
+            case MotionMagic:
+                duty = POSITION_kP * (output - position);
+                break;
+            default:
+                duty = 0;
+        }
+        return Math.max(-1, Math.min(1, duty));
+    }
+
+    /**
+     * @return Current through one motor in amps
+     */
+    private static double current(double voltage, double wheelVelocity) {
+        double motorSpeed = wheelVelocity / WHEEL_RADIUS * GEAR_RATIO;
+        return (voltage - motorSpeed / kV) / RESISTANCE;
+    }
+
+    /**
+     * Talons allow the peak current for a short time, then hold the continuous limit
+     */
+    private static double limit(double current, double peakTime) {
+        double limit = peakTime > PEAK_CURRENT_DURATION ? CONTINUOUS_CURRENT : PEAK_CURRENT;
+        return Math.max(-limit, Math.min(limit, current));
+    }
+
+    /**
+     * @return Force at the wheels of one side in newtons
+     */
+    private static double force(double current) {
+        return MOTORS_PER_SIDE * kT * current * GEAR_RATIO / WHEEL_RADIUS;
+    }
+
+    private static double metersToFeet(double meters) {
+        return meters / 0.3048;
+    }
+
+    private static double metersToUnits(double meters) {
+        return metersToFeet(meters) / WHEEL_CIRCUMFERANCE * UNITS_PER_REV;
+    }
+
+    /**
+     * @return X position in feet
+     */
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * @return Y position in feet
+     */
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * @return Heading in radians, counter clockwise
+     */
+    public double getHeading() {
+        return heading;
+    }
+
+    /**
+     * @return Left wheel speed in feet per second
+     */
+    public double getLeftVelocity() {
+        return metersToFeet(leftVelocity);
+    }
+
+    /**
+     * @return Right wheel speed in feet per second
+     */
+    public double getRightVelocity() {
+        return metersToFeet(rightVelocity);
+    }
+
+    /**
+     * @return Current through each left motor after limiting, in amps
+     */
+    public double getLeftCurrent() {
+        return leftCurrent;
+    }
+
+    /**
+     * @return Current through each right motor after limiting, in amps
+     */
+    public double getRightCurrent() {
+        return rightCurrent;
+    }
+
+}
@@ -0,0 +1,310 @@
+package frc.team4159.robot.sim;
+
+import com.ctre.phoenix.motorcontrol.ControlMode;
+import edu.wpi.first.wpilibj.RobotState;
+import edu.wpi.first.wpilibj.command.Command;
+import edu.wpi.first.wpilibj.command.Scheduler;
+import frc.team4159.robot.Robot;
+import frc.team4159.robot.io.InputRecorder;
+import frc.team4159.robot.io.RobotInputs;
+import frc.team4159.robot.io.SensorSnapshot;
+import frc.team4159.robot.util.AutoSelector;
+import frc.team4159.robot.util.GameData;
+import frc.team4159.robot.util.TrajectoryCache;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+
+import static frc.team4159.robot.io.InputRecorder.*;
+
+/**
+ * Replays an InputRecorder log through the robot code on simulated hardware and a virtual clock, and checks that every
+ * actuator command matches the recorded one bit for bit. Each recorded loop sets the clock, SensorSnapshot, OI, game
+ * data and AutoSelector, then runs the scheduler; each recorded control loop tick sets the drivetrain sensors and runs
+ * the control loop. Nothing waits on real time, so a match replays in well under a second. Run from the repo root:
+ *
+ *   ./gradlew replayInputs -Plog=logs/inputs_20180310_101500.bin
+ *
+ * Outputs are compared separately for the robot loop and the control loop thread, since the order they interleave in
+ * changes from run to run on the robot.
+ */
+
+public class InputReplay {
+
+    /* Mismatches printed before the rest are only counted */
+    private static final int MAX_PRINTED = 20;
+
+    /**
+     * One recorded actuator command
+     */
+    private static class Output {
+        final int actuator;
+        final int mode;
+        final long bits;
+
+        Output(int actuator, int mode, long bits) {
+            this.actuator = actuator;
+            this.mode = mode;
+            this.bits = bits;
+        }
+
+        @Override
+        public String toString() {
+            return Actuator.values()[actuator] + " " + (mode < 0 ? "" : ControlMode.values()[mode] + " ")
+                    + Double.longBitsToDouble(bits);
+        }
+    }
+
+    private final SimulatedRobot robot;
+    private final RobotInputs inputs = new RobotInputs();
+    private volatile RobotInputs.Mode mode = RobotInputs.Mode.DISABLED;
+
+    /* Recorded outputs not yet matched, by source */
+    private final ArrayDeque<Output> robotLoopOutputs = new ArrayDeque<>();
+    private final ArrayDeque<Output> controlLoopOutputs = new ArrayDeque<>();
+    private boolean inControlLoop;
+
+    /* Commands Robot started, by class name, so they can be cancelled */
+    private final HashMap<String, Command> commands = new HashMap<>();
+
+    private long loops, ticks, matched, mismatched;
+
+    public static void main(String[] args) throws IOException {
+
+        if(args.length < 1) {
+            System.out.println("Usage: InputReplay <inputs .bin> [trajectory directory]");
+            System.exit(2);
+        }
+
+        InputReplay replay = new InputReplay(args.length > 1 ? args[1] : "traj");
+        boolean identical = replay.run(Files.readAllBytes(Paths.get(args[0])));
+
+        System.exit(identical ? 0 : 1);
+    }
+
+    private InputReplay(String directory) {
+
+        robot = SimulatedRobot.getInstance();
+
+        TrajectoryCache.getInstance().setDirectory(directory);
+        TrajectoryCache.getInstance().preload();
+
+        /* Commands cancel themselves when disabled, so the scheduler must see the recorded mode */
+        RobotState.SetImplementation(new RobotState.Interface() {
+            @Override
+            public boolean isDisabled() {
+                return mode == RobotInputs.Mode.DISABLED;
+            }
+
+            @Override
+            public boolean isEnabled() {
+                return mode != RobotInputs.Mode.DISABLED;
+            }
+
+            @Override
+            public boolean isOperatorControl() {
+                return mode == RobotInputs.Mode.TELEOP;
+            }
+
+            @Override
+            public boolean isAutonomous() {
+                return mode == RobotInputs.Mode.AUTO;
+            }
+
+            @Override
+            public boolean isTest() {
+                return mode == RobotInputs.Mode.TEST;
+            }
+        });
+    }
+
+    /**
+     * @param log Contents of an InputRecorder file
+     * @return True if every output matched
+     */
+    private boolean run(byte[] log) throws IOException {
+
+        readOutputs(log);
+        int expected = robotLoopOutputs.size() + controlLoopOutputs.size();
+
+        InputRecorder.setOutputListener(this::compare);
+
+        DataInputStream in = open(log);
+        double firstTimestamp = Double.NaN;
+        long start = System.nanoTime();
+
+        try {
+            while(true) {
+                byte type = in.readByte();
+                switch(type) {
+                    case LOOP:
+                        inputs.read(in);
+                        if(Double.isNaN(firstTimestamp))
+                            firstTimestamp = inputs.timestamp;
+                        runLoop();
+                        break;
+                    case CONTROL_LOOP:
+                        runControlLoop(in.readDouble(), in.readInt(), in.readInt(), in.readDouble());
+                        break;
+                    case OUTPUT:
+                        in.skipBytes(11);
+                        break;
+                    case GAME_DATA:
+                        GameData.setOverride(in.readUTF());
+                        break;
+                    case AUTO_SELECTION:
+                        AutoSelector.getInstance().restore(in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF());
+                        break;
+                    case COMMAND_STARTED:
+                        startCommand(in.readUTF());
+                        break;
+                    case COMMAND_CANCELLED:
+                        Command command = commands.remove(in.readUTF());
+                        if(command != null)
+                            command.cancel();
+                        break;
+                    default:
+                        throw new IOException("Unknown record type " + type);
+                }
+            }
+        } catch (EOFException ex) {
+            /* End of the log. A record cut off by the robot shutting down is ignored. */
+        }
+
+        InputRecorder.setOutputListener(null);
+        Scheduler.getInstance().removeAll();
+
+        long unmatched = robotLoopOutputs.size() + controlLoopOutputs.size();
+        double wallTime = (System.nanoTime() - start) / 1e9;
+        double recordedTime = Double.isNaN(firstTimestamp) ? 0 : inputs.timestamp - firstTimestamp;
+
+        System.out.printf("Replayed %d loops and %d control loop ticks, %.1f s recorded in %.0f ms (%.0fx real time)%n",
+                loops, ticks, recordedTime, wallTime * 1000, wallTime > 0 ? recordedTime / wallTime : 0);
+        System.out.printf("%d of %d outputs identical, %d different, %d recorded but not replayed%n",
+                matched, expected, mismatched, unmatched);
+
+        return mismatched == 0 && unmatched == 0;
+    }
+
+    /**
+     * First pass. Queue every recorded output by the thread it came from.
+     */
+    private void readOutputs(byte[] log) throws IOException {
+
+        DataInputStream in = open(log);
+        try {
+            while(true) {
+                byte type = in.readByte();
+                switch(type) {
+                    case LOOP:
+                        inputs.read(in);
+                        break;
+                    case CONTROL_LOOP:
+                        in.skipBytes(24);
+                        break;
+                    case OUTPUT:
+                        byte source = in.readByte();
+                        Output output = new Output(in.readByte(), in.readByte(), Double.doubleToRawLongBits(in.readDouble()));
+                        (source == CONTROL_LOOP_THREAD ? controlLoopOutputs : robotLoopOutputs).add(output);
+                        break;
+                    case GAME_DATA:
+                    case COMMAND_STARTED:
+                    case COMMAND_CANCELLED:
+                        in.readUTF();
+                        break;
+                    case AUTO_SELECTION:
+                        for(int i = 0; i < 4; i++)
+                            in.readUTF();
+                        break;
+                    default:
+                        throw new IOException("Unknown record type " + type);
+                }
+            }
+        } catch (EOFException ex) {
+            /* End of the log */
+        }
+    }
+
+    private static DataInputStream open(byte[] log) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(log));
+        if(in.readInt() != MAGIC)
+            throw new IOException("Not an input log");
+        short version = in.readShort();
+        if(version != VERSION)
+            throw new IOException("Input log version " + version + ", expected " + VERSION);
+        return in;
+    }
+
+    /**
+     * What the robot loop does each period: take the inputs, then run the scheduler unless in test mode
+     */
+    private void runLoop() {
+
+        loops++;
+        mode = inputs.mode;
+        robot.getClock().setTimestamp(inputs.timestamp);
+
+        SensorSnapshot.getInstance().update(inputs);
+        Robot.oi.update(inputs.leftY, inputs.rightY, inputs.secondaryY, inputs.buttons[0], inputs.buttons[1],
+                inputs.buttons[2], inputs.buttons[3]);
+
+        if(mode != RobotInputs.Mode.TEST)
+            Scheduler.getInstance().run();
+    }
+
+    /**
+     * One drivetrain control loop tick with the sensor values it read on the robot
+     */
+    private void runControlLoop(double timestamp, int leftPosition, int rightPosition, double yaw) {
+
+        ticks++;
+        robot.getClock().setTimestamp(timestamp);
+        robot.getDrivetrainIO().setSensors(leftPosition, rightPosition, yaw);
+
+        inControlLoop = true;
+        try {
+            Robot.drivetrain.getControlLoop().runOnce();
+        } finally {
+            inControlLoop = false;
+        }
+    }
+
+    private void startCommand(String className) {
+        try {
+            Command command = (Command) Class.forName(className).newInstance();
+            command.start();
+            commands.put(className, command);
+        } catch (ReflectiveOperationException | ClassCastException ex) {
+            System.out.println("Could not start " + className + ":  " + ex);
+        }
+    }
+
+    /**
+     * Output listener. Checks a replayed output against the next one recorded from the same thread.
+     */
+    private void compare(Actuator actuator, ControlMode controlMode, double value) {
+
+        Output actual = new Output(actuator.ordinal(), controlMode == null ? -1 : controlMode.ordinal(),
+                Double.doubleToRawLongBits(value));
+        Output expected = (inControlLoop ? controlLoopOutputs : robotLoopOutputs).poll();
+
+        if(expected != null && expected.actuator == actual.actuator && expected.mode == actual.mode
+                && expected.bits == actual.bits) {
+            matched++;
+            return;
+        }
+
+        mismatched++;
+        if(mismatched <= MAX_PRINTED) {
+            System.out.printf("t=%.3f %s: expected %s, replayed %s%n", robot.getClock().getTimestamp(),
+                    inControlLoop ? "control loop" : "robot loop", expected == null ? "nothing" : expected, actual);
+        }
+    }
+
+}
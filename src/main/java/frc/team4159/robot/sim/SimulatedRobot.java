@@ -0,0 +1,148 @@
+package frc.team4159.robot.sim;
+
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.command.Scheduler;
+import frc.team4159.robot.OI;
+import frc.team4159.robot.Robot;
+import frc.team4159.robot.io.ClimberIOSim;
+import frc.team4159.robot.io.CubeHolderIOSim;
+import frc.team4159.robot.io.DrivetrainIOSim;
+import frc.team4159.robot.subsystems.Drivetrain;
+import frc.team4159.robot.subsystems.Superstructure;
+import frc.team4159.robot.util.Pose;
+import frc.team4159.robot.util.SimulatedClock;
+
+import static frc.team4159.robot.Constants.CONTROL_LOOP_HZ;
+
+/**
+ * Robot code running against simulated hardware and a virtual clock. Creates the subsystems and OI the way robotInit()
+ * does, and steps the scheduler, drivetrain control loop and physics together without sleeping.
+ */
+
+public class SimulatedRobot {
+
+    private static SimulatedRobot instance;
+
+    public static synchronized SimulatedRobot getInstance() {
+        if(instance == null)
+            instance = new SimulatedRobot();
+        return instance;
+    }
+
+    public static final double SCHEDULER_PERIOD = 0.02;
+
+    private final SimulatedClock clock;
+    private final VirtualTimer timer;
+    private final Drivetrain drivetrain;
+    private final DrivetrainIOSim drivetrainIO;
+    private final CubeHolderIOSim cubeHolderIO;
+    private final ClimberIOSim climberIO;
+    private final DrivetrainPhysics physics;
+
+    /* Largest difference between odometry and the physics pose since the last reset */
+    private final Pose pose = new Pose();
+    private double maxOdometryError, maxOdometryHeadingError;
+
+    private SimulatedRobot() {
+
+        /* Before any subsystem is created, so they all pick simulated hardware */
+        System.setProperty("simulation", "true");
+
+        clock = new SimulatedClock(0);
+        timer = new VirtualTimer(clock);
+        Timer.SetImplementation(timer);
+
+        Robot.drivetrain = Drivetrain.getInstance();
+        Robot.superstructure = Superstructure.getInstance();
+        Robot.oi = OI.getInstance();
+
+        drivetrain = Robot.drivetrain;
+        drivetrainIO = (DrivetrainIOSim) drivetrain.getIO();
+        cubeHolderIO = (CubeHolderIOSim) Superstructure.cubeHolder.getIO();
+        climberIO = (ClimberIOSim) Superstructure.climber.getIO();
+        physics = new DrivetrainPhysics(drivetrainIO);
+    }
+
+    /**
+     * Take the sensor snapshot and run the scheduler once, then the drivetrain control loop and physics for the rest of the 20 ms period
+     */
+    public void runCycle() {
+
+        Robot.readSensors();
+        Scheduler.getInstance().run();
+
+        double period = 1.0 / CONTROL_LOOP_HZ;
+        int loopsPerCycle = (int) Math.round(SCHEDULER_PERIOD / period);
+
+        for(int i = 0; i < loopsPerCycle; i++) {
+            drivetrain.getControlLoop().runOnce();
+            checkOdometry();
+            physics.update(period);
+            cubeHolderIO.step(period);
+            climberIO.step(period);
+            clock.advance(period);
+        }
+    }
+
+    /**
+     * Compare odometry with the physics pose. Called right after a control loop tick, when both are at the same time.
+     */
+    private void checkOdometry() {
+        drivetrain.getPose(pose);
+        maxOdometryError = Math.max(maxOdometryError, Math.hypot(pose.x - physics.getX(), pose.y - physics.getY()));
+        maxOdometryHeadingError = Math.max(maxOdometryHeadingError,
+                Math.abs(Pose.wrap(pose.heading - physics.getHeading())));
+    }
+
+    /**
+     * Put the simulated robot at rest at a pose, tell odometry it is there, and clear the odometry error
+     * @param x Feet
+     * @param y Feet
+     * @param heading Radians counter clockwise
+     */
+    public void resetPose(double x, double y, double heading) {
+        physics.reset(x, y, heading);
+        drivetrain.resetPose(x, y, heading);
+        maxOdometryError = 0;
+        maxOdometryHeadingError = 0;
+    }
+
+    /**
+     * @return Largest distance in feet between odometry and the physics pose since resetPose()
+     */
+    public double getMaxOdometryError() {
+        return maxOdometryError;
+    }
+
+    /**
+     * @return Largest heading difference in radians between odometry and the physics pose since resetPose()
+     */
+    public double getMaxOdometryHeadingError() {
+        return maxOdometryHeadingError;
+    }
+
+    public SimulatedClock getClock() {
+        return clock;
+    }
+
+    public VirtualTimer getTimer() {
+        return timer;
+    }
+
+    public DrivetrainPhysics getPhysics() {
+        return physics;
+    }
+
+    public DrivetrainIOSim getDrivetrainIO() {
+        return drivetrainIO;
+    }
+
+    public CubeHolderIOSim getCubeHolderIO() {
+        return cubeHolderIO;
+    }
+
+    public ClimberIOSim getClimberIO() {
+        return climberIO;
+    }
+
+}
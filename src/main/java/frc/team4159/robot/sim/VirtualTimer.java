@@ -0,0 +1,99 @@
+package frc.team4159.robot.sim;
+
+import edu.wpi.first.wpilibj.Timer;
+import frc.team4159.robot.util.SimulatedClock;
+
+/**
+ * WPILib timer implementation backed by a SimulatedClock. Installed with Timer.SetImplementation() so commands,
+ * TimedCommand timeouts and Clock.FPGA all see virtual time instead of the FPGA's.
+ */
+
+public class VirtualTimer implements Timer.StaticInterface {
+
+    private final SimulatedClock clock;
+    private double matchStart;
+
+    public VirtualTimer(SimulatedClock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Start counting match time from now
+     */
+    public void startMatch() {
+        matchStart = clock.getTimestamp();
+    }
+
+    @Override
+    public double getFPGATimestamp() {
+        return clock.getTimestamp();
+    }
+
+    /**
+     * @return Seconds left in a 15 second autonomous period
+     */
+    @Override
+    public double getMatchTime() {
+        return Math.max(0, 15 - (clock.getTimestamp() - matchStart));
+    }
+
+    /**
+     * Advances virtual time instead of sleeping
+     */
+    @Override
+    public void delay(double seconds) {
+        clock.advance(seconds);
+    }
+
+    @Override
+    public Timer.Interface newTimer() {
+        return new Stopwatch();
+    }
+
+    private class Stopwatch implements Timer.Interface {
+
+        private double startTime;
+        private double accumulatedTime;
+        private boolean running;
+
+        Stopwatch() {
+            reset();
+        }
+
+        @Override
+        public synchronized double get() {
+            return running ? accumulatedTime + clock.getTimestamp() - startTime : accumulatedTime;
+        }
+
+        @Override
+        public synchronized void reset() {
+            accumulatedTime = 0;
+            startTime = clock.getTimestamp();
+        }
+
+        @Override
+        public synchronized void start() {
+            if(!running) {
+                startTime = clock.getTimestamp();
+                running = true;
+            }
+        }
+
+        @Override
+        public synchronized void stop() {
+            accumulatedTime = get();
+            running = false;
+        }
+
+        @Override
+        public synchronized boolean hasPeriodPassed(double period) {
+            if(get() > period) {
+                startTime += period;
+                return true;
+            }
+            return false;
+        }
+
+    }
+
+}
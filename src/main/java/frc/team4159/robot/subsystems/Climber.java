@@ -1,75 +1,59 @@
 package frc.team4159.robot.subsystems;
 
 import com.ctre.phoenix.motorcontrol.ControlMode;
-import com.ctre.phoenix.motorcontrol.FeedbackDevice;
-import com.ctre.phoenix.motorcontrol.can.TalonSRX;
-import edu.wpi.first.wpilibj.DigitalInput;
-import edu.wpi.first.wpilibj.VictorSP;
+import edu.wpi.first.wpilibj.RobotState;
 import edu.wpi.first.wpilibj.command.Subsystem;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import frc.team4159.robot.commands.climb.Climb;
-
-import static frc.team4159.robot.Constants.TIMEOUT_MS;
-import static frc.team4159.robot.RobotMap.*;
+import frc.team4159.robot.io.IOMode;
+import frc.team4159.robot.io.ClimberIO;
+import frc.team4159.robot.io.ClimberIOReal;
+import frc.team4159.robot.io.ClimberIOSim;
+import frc.team4159.robot.io.SensorSnapshot;
+import frc.team4159.robot.util.DashboardPublisher;
+import frc.team4159.robot.util.LoopProfiler;
+import frc.team4159.robot.util.TelemetryLog;
 
 public class Climber extends Subsystem {
 
     private static Climber instance;
 
-    public static Climber getInstance() {
+    public static synchronized Climber getInstance() {
         if(instance == null)
-            instance = new Climber();
+            instance = new Climber(IOMode.isSimulation() ? new ClimberIOSim() : new ClimberIOReal());
         return instance;
     }
 
-    /* Controls hook delivery */
-    private TalonSRX climbTalon;
-
-    /* Controls winching */
-    private VictorSP climbVictor;
-
-    private DigitalInput hallSensor;
+    /* Hook delivery talon, winch victor and hall effect sensor */
+    private ClimberIO io;
 
     private boolean rawMode;
     private boolean hasStartedClimb;
 
-    private final int PIDIDX = 0;
     private double targetPosition = 0;
 
-    private Climber() {
-
-        climbTalon = new TalonSRX(CLIMB_TALON);
-        climbVictor = new VictorSP(CLIMB_VICTOR);
-        hallSensor = new DigitalInput(HALL_SENSOR);
-
-        rawMode = true;
-        hasStartedClimb = false;
-
-        configureSensors();
-        limitCurrent();
-
-    }
+    /* Telemetry channels */
+    private TelemetryLog log;
+    private final int TARGET_CHANNEL, RAW_MODE_CHANNEL, STARTED_CLIMB_CHANNEL;
+    private final LoopProfiler.Section LOG_SECTION = LoopProfiler.getInstance().section("Climber logSmartDashboard");
 
-    /**
-     * Configure mag encoder as sensor plugged into Talon. Set PIDF values. Set encoder position to 0.
-     */
-    private void configureSensors() {
+    /* Dashboard values */
+    private DashboardPublisher.BooleanChannel rawModeDashboard, startedClimbDashboard;
 
-        final int SLOTIDX = 0;
+    private Climber(ClimberIO io) {
 
-        final double kF = 0;
-        final double kP = 0.4;
-        final double kI = 0;
-        final double kD = 0;
+        this.io = io;
 
-        climbTalon.configSelectedFeedbackSensor(FeedbackDevice.CTRE_MagEncoder_Relative, PIDIDX, TIMEOUT_MS);
+        log = TelemetryLog.getInstance();
+        TARGET_CHANNEL = log.addChannel("climber/target");
+        RAW_MODE_CHANNEL = log.addChannel("climber/raw mode");
+        STARTED_CLIMB_CHANNEL = log.addChannel("climber/started climb");
 
-        climbTalon.config_kF(SLOTIDX, kF, TIMEOUT_MS);
-        climbTalon.config_kP(SLOTIDX, kP, TIMEOUT_MS);
-        climbTalon.config_kI(SLOTIDX, kI, TIMEOUT_MS);
-        climbTalon.config_kD(SLOTIDX, kD, TIMEOUT_MS);
+        DashboardPublisher dashboard = DashboardPublisher.getInstance();
+        rawModeDashboard = dashboard.bool("Climber Raw Mode", 0.1);
+        startedClimbDashboard = dashboard.bool("Has Started Climb", 0.1);
 
-        climbTalon.setSelectedSensorPosition(0, PIDIDX, TIMEOUT_MS);
+        rawMode = true;
+        hasStartedClimb = false;
 
     }
 
@@ -83,9 +67,9 @@ public class Climber extends Subsystem {
 
         if(!rawMode && hasStartedClimb) {
             final int MAX_SPEED = 200;
-            targetPosition = climbTalon.getSelectedSensorPosition(PIDIDX) + joyAxisValue * MAX_SPEED;
+            targetPosition = SensorSnapshot.getInstance().getHookPosition() + joyAxisValue * MAX_SPEED;
         } else {
-            climbTalon.set(ControlMode.PercentOutput, joyAxisValue);
+            io.setHook(ControlMode.PercentOutput, joyAxisValue);
         }
 
     }
@@ -98,18 +82,19 @@ public class Climber extends Subsystem {
 
         if(hallSensorPresent()) {
             hasStartedClimb = false;
-            climbTalon.setSelectedSensorPosition(0, PIDIDX, TIMEOUT_MS);
+            io.setHookPosition(0);
+            SensorSnapshot.getInstance().setHookPosition(0);
 
         } else {
             hasStartedClimb = true;
             if(!rawMode) {
-                climbTalon.set(ControlMode.Position, targetPosition);
+                io.setHook(ControlMode.Position, targetPosition);
             }
         }
     }
 
     public void rawClimb(double value) {
-        climbTalon.set(ControlMode.PercentOutput, value);
+        io.setHook(ControlMode.PercentOutput, value);
     }
 
     /**
@@ -117,11 +102,11 @@ public class Climber extends Subsystem {
      * OR if rawMode is true
      */
     public void winch() {
-        climbVictor.set(-1);
+        io.setWinch(-1);
 //        if((hallSensorPresent() && hasStartedClimb) || rawMode) {
-//            climbVictor.set(-1);
+//            io.setWinch(-1);
 //        } else {
-//            climbVictor.set(0);
+//            io.setWinch(0);
 //        }
     }
 
@@ -129,21 +114,21 @@ public class Climber extends Subsystem {
      * Stops winch motor
      */
     public void stopWinch() {
-        climbVictor.set(0);
+        io.setWinch(0);
     }
 
     /**
      * Stops telescoping arm motor
      */
     public void stopClimb() {
-        climbTalon.set(ControlMode.PercentOutput, 0);
+        io.setHook(ControlMode.PercentOutput, 0);
     }
 
     /**
      * @return True if hall effect sensor is present
      */
     private boolean hallSensorPresent() {
-        return hallSensor.get();
+        return SensorSnapshot.getInstance().getHallSensor();
     }
 
     /**
@@ -154,19 +139,34 @@ public class Climber extends Subsystem {
     }
 
     /**
-     * Limit current of the climber motors to prevent breakage
+     * Put climber values to the dashboard and TelemetryLog
+     */
+    public void logSmartDashboard() {
+        LOG_SECTION.start();
+        rawModeDashboard.set(rawMode);
+        startedClimbDashboard.set(hasStartedClimb);
+
+        /* Hook position is logged with the SensorSnapshot */
+        log.record(TARGET_CHANNEL, targetPosition);
+        log.record(RAW_MODE_CHANNEL, rawMode);
+        log.record(STARTED_CLIMB_CHANNEL, hasStartedClimb);
+        LOG_SECTION.stop();
+    }
+
+    /**
+     * @return Climber hardware, for simulators to drive
      */
-    private void limitCurrent() {
-        // TODO
+    public ClimberIO getIO() {
+        return io;
     }
 
     /**
-     * Put climber values to SmartDashboard
+     * Run by the Scheduler every loop. Logs here rather than in Climb, so it is timed on its own.
      */
-    public void logSmartDashboard() {
-        SmartDashboard.putBoolean("Climber Raw Mode", rawMode);
-        SmartDashboard.putBoolean("Has Started Climb", hasStartedClimb);
-//        SmartDashboard.putNumber("Climber Encoder Position", climbTalon.getSelectedSensorPosition(PIDIDX));
+    @Override
+    public void periodic() {
+        if(RobotState.isEnabled())
+            logSmartDashboard();
     }
 
     /**
@@ -1,136 +1,99 @@
 package frc.team4159.robot.subsystems;
 
 import com.ctre.phoenix.motorcontrol.ControlMode;
-import com.ctre.phoenix.motorcontrol.FeedbackDevice;
-import com.ctre.phoenix.motorcontrol.can.TalonSRX;
-import edu.wpi.first.wpilibj.DigitalInput;
-import edu.wpi.first.wpilibj.DoubleSolenoid;
-import edu.wpi.first.wpilibj.VictorSP;
+import edu.wpi.first.wpilibj.RobotState;
 import edu.wpi.first.wpilibj.command.Subsystem;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import frc.team4159.robot.commands.cube.LiftCube;
+import frc.team4159.robot.io.IOMode;
+import frc.team4159.robot.io.CubeHolderIO;
+import frc.team4159.robot.io.CubeHolderIOReal;
+import frc.team4159.robot.io.CubeHolderIOSim;
+import frc.team4159.robot.io.SensorSnapshot;
+import frc.team4159.robot.util.DashboardPublisher;
+import frc.team4159.robot.util.LoopProfiler;
+import frc.team4159.robot.util.TelemetryLog;
 
 import static frc.team4159.robot.Constants.*;
-import static frc.team4159.robot.RobotMap.*;
 
 public class CubeHolder extends Subsystem {
 
     private static CubeHolder instance;
 
-    public static CubeHolder getInstance() {
+    public static synchronized CubeHolder getInstance() {
         if(instance == null)
-            instance = new CubeHolder();
+            instance = new CubeHolder(IOMode.isSimulation() ? new CubeHolderIOSim() : new CubeHolderIOReal());
         return instance;
     }
 
-    private TalonSRX liftTalon;
-    private VictorSP intakeVictor;
-    private DoubleSolenoid pistons;
-    private DigitalInput limitSwitch;
-
-    private final int PIDIDX = 0;
-    private final double kF = 0.0;
-    private final double kP = 1.0;
-    private final double kI = 0.0;
-    private final double kD = 0.0;
+    /* Lift talon, intake victor, claw pistons and limit switch */
+    private CubeHolderIO io;
 
     private double targetPosition; // In encoder units. 4096 per revolution.
     private boolean rawMode;
 
-    private CubeHolder() {
-
-        intakeVictor = new VictorSP(INTAKE_VICTOR);
-        liftTalon = new TalonSRX(LIFT_TALON);
-        liftTalon.setInverted(true);
-        pistons = new DoubleSolenoid(FORWARD_CHANNEL, REVERSE_CHANNEL);
-        limitSwitch = new DigitalInput(LIMIT_SWITCH);
-
-        rawMode = true;
+    /* Telemetry channels */
+    private TelemetryLog log;
+    private final int TARGET_CHANNEL, RAW_MODE_CHANNEL;
+    private final LoopProfiler.Section LOG_SECTION = LoopProfiler.getInstance().section("CubeHolder logDashboard");
 
-        targetPosition = UPPER_LIFTER_LIMIT; // Initial target value in starting configuration (raised)
+    /* Dashboard values */
+    private DashboardPublisher.StringChannel liftMode;
 
-        configureSensors();
-        limitCurrent();
-    }
+    private CubeHolder(CubeHolderIO io) {
 
-    public void setLiftEncoderValue(int value) {
-        liftTalon.setSelectedSensorPosition(value, PIDIDX, TIMEOUT_MS);
-    }
+        this.io = io;
 
-    private void configureSensors() {
+        log = TelemetryLog.getInstance();
+        TARGET_CHANNEL = log.addChannel("lift/target");
+        RAW_MODE_CHANNEL = log.addChannel("lift/raw mode");
 
-        final int SLOTIDX = 0;
+        liftMode = DashboardPublisher.getInstance().string("Lift mode", 0.1);
 
-        liftTalon.configSelectedFeedbackSensor(FeedbackDevice.CTRE_MagEncoder_Absolute, PIDIDX, TIMEOUT_MS);
-        liftTalon.setSensorPhase(false);
-        liftTalon.configNominalOutputForward(NOMINAL_OUT_PERCENT, TIMEOUT_MS);
-        liftTalon.configNominalOutputReverse(NOMINAL_OUT_PERCENT, TIMEOUT_MS);
-        liftTalon.configPeakOutputForward(PEAK_OUT_PERCENT, TIMEOUT_MS);
-        liftTalon.configPeakOutputReverse(-PEAK_OUT_PERCENT, TIMEOUT_MS);
-
-        // TODO: Figure out allowable closed loop error units and value
-        liftTalon.configAllowableClosedloopError(SLOTIDX, 0, TIMEOUT_MS);
-
-        liftTalon.config_kF(SLOTIDX, kF, TIMEOUT_MS);
-        liftTalon.config_kP(SLOTIDX, kP, TIMEOUT_MS);
-        liftTalon.config_kI(SLOTIDX, kI, TIMEOUT_MS);
-        liftTalon.config_kD(SLOTIDX, kD, TIMEOUT_MS);
+        rawMode = true;
 
-        // Sets initial encoder value in AUTONOMOUS starting configuration (raised)
-        liftTalon.setSelectedSensorPosition(UPPER_LIFTER_LIMIT, PIDIDX, TIMEOUT_MS);
+        targetPosition = UPPER_LIFTER_LIMIT; // Initial target value in starting configuration (raised)
     }
 
-    private void limitCurrent() {
-
-        /* Sets and limits the peak and continuous current for both sides of motors to prevent brownouts */
-
-        final int PEAK_CURRENT = 7; // Amps
-        final int CONTINUOUS_CURRENT = 5; // Amps
-        final int PEAK_CURRENT_DURATION = 200; // ms
-        final int PEAK_CURRENT_TIMEOUT = 20; // ms
-
-        liftTalon.configPeakCurrentLimit(PEAK_CURRENT,TIMEOUT_MS);
-        liftTalon.configPeakCurrentDuration(PEAK_CURRENT_DURATION, PEAK_CURRENT_TIMEOUT);
-        liftTalon.configContinuousCurrentLimit(CONTINUOUS_CURRENT, TIMEOUT_MS);
-        liftTalon.enableCurrentLimit(true);
-
+    public void setLiftEncoderValue(int value) {
+        io.setLiftPosition(value);
+        SensorSnapshot.getInstance().setLiftPosition(value);
     }
 
     /* Runs wheels inwards to intake the cube */
     public void intake() {
-        intakeVictor.set(-1);
+        io.setIntake(-1);
     }
 
     /* Runs wheels outwards to outtake the cube */
     public void outtake() {
-        intakeVictor.set(1);
+        io.setIntake(1);
     }
 
     /* Outtake at a slower speed to prevent launching cube over switch in auto */
     public void autoOuttake() {
-        intakeVictor.set(0.75);
+        io.setIntake(0.75);
     }
 
     /* Stops running the wheels */
     public void stopFlywheels() {
-        intakeVictor.set(0);
+        io.setIntake(0);
     }
 
     /* Opens the claw */
     public void open() {
-        pistons.set(DoubleSolenoid.Value.kForward);
+        io.setClawOpen(true);
     }
 
     /* Closes the claw */
     public void close() {
-        pistons.set(DoubleSolenoid.Value.kReverse);
+        io.setClawOpen(false);
     }
 
     public void setRawLift(double value) {
         if(limitSwitchPressed() && value < 0) {
-            liftTalon.set(ControlMode.PercentOutput, 0);
+            io.setLift(ControlMode.PercentOutput, 0);
         } else {
-            liftTalon.set(ControlMode.PercentOutput, value);
+            io.setLift(ControlMode.PercentOutput, value);
         }
     }
 
@@ -150,7 +113,7 @@ public class CubeHolder extends Subsystem {
         if(targetPosition > UPPER_LIFTER_LIMIT)
             targetPosition = UPPER_LIFTER_LIMIT;
 
-        liftTalon.set(ControlMode.Position, targetPosition);
+        io.setLift(ControlMode.Position, targetPosition);
     }
 
     /**
@@ -171,7 +134,8 @@ public class CubeHolder extends Subsystem {
      * Reset lift encoder to 0 and sets target position to 0 if not already at 0
      */
     private void resetLiftEncoder() {
-        liftTalon.setSelectedSensorPosition(LOWER_LIFTER_LIMIT, PIDIDX, TIMEOUT_MS);
+        io.setLiftPosition(LOWER_LIFTER_LIMIT);
+        SensorSnapshot.getInstance().setLiftPosition(LOWER_LIFTER_LIMIT);
         if(targetPosition != 0) {
             targetPosition = 0;
         }
@@ -210,23 +174,38 @@ public class CubeHolder extends Subsystem {
     }
 
     private boolean limitSwitchPressed() {
-        return !limitSwitch.get();
+        return !SensorSnapshot.getInstance().getLimitSwitch();
     }
 
     /**
-     * Log values to SmartDashboard
+     * Log values to the dashboard and TelemetryLog
      */
     public void logDashboard() {
+        LOG_SECTION.start();
 
-        if(rawMode) {
-            SmartDashboard.putString("Lift mode", "RAW");
-        } else {
-            SmartDashboard.putString("Lift mode", "PID");
-        }
-//        SmartDashboard.putNumber("lift position", liftTalon.getSelectedSensorPosition(0));
-//        SmartDashboard.putNumber("lift target", targetPosition);
-//        SmartDashboard.putBoolean("Limit Switch", limitSwitchPressed());
+        liftMode.set(rawMode ? "RAW" : "PID");
+
+        /* Lift position and limit switch are logged with the SensorSnapshot */
+        log.record(TARGET_CHANNEL, targetPosition);
+        log.record(RAW_MODE_CHANNEL, rawMode);
+
+        LOG_SECTION.stop();
+    }
 
+    /**
+     * @return CubeHolder hardware, for simulators to drive
+     */
+    public CubeHolderIO getIO() {
+        return io;
+    }
+
+    /**
+     * Run by the Scheduler every loop. Logs here rather than in LiftCube, so it is timed on its own.
+     */
+    @Override
+    public void periodic() {
+        if(RobotState.isEnabled())
+            logDashboard();
     }
 
     /**
@@ -1,164 +1,153 @@
 package frc.team4159.robot.subsystems;
 
 import com.ctre.phoenix.motorcontrol.ControlMode;
-import com.ctre.phoenix.motorcontrol.FeedbackDevice;
-import com.ctre.phoenix.motorcontrol.can.TalonSRX;
-import com.ctre.phoenix.motorcontrol.can.VictorSPX;
-import com.kauailabs.navx.frc.AHRS;
-import edu.wpi.first.wpilibj.DriverStation;
-import edu.wpi.first.wpilibj.PIDController;
-import edu.wpi.first.wpilibj.PIDOutput;
-import edu.wpi.first.wpilibj.SPI;
+import edu.wpi.first.wpilibj.RobotState;
 import edu.wpi.first.wpilibj.command.Subsystem;
-import edu.wpi.first.wpilibj.livewindow.LiveWindow;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import frc.team4159.robot.commands.drive.Drive;
+import frc.team4159.robot.io.IOMode;
+import frc.team4159.robot.io.DrivetrainIO;
+import frc.team4159.robot.io.DrivetrainIOReal;
+import frc.team4159.robot.io.DrivetrainIOSim;
+import frc.team4159.robot.io.InputRecorder;
+import frc.team4159.robot.io.SensorSnapshot;
+import frc.team4159.robot.util.Clock;
+import frc.team4159.robot.util.ControlLoop;
+import frc.team4159.robot.util.DashboardPublisher;
+import frc.team4159.robot.util.DriveFeedforward;
+import frc.team4159.robot.util.HeadingController;
+import frc.team4159.robot.util.LoopProfiler;
+import frc.team4159.robot.util.MotionProfileTalon;
+import frc.team4159.robot.util.Odometry;
+import frc.team4159.robot.util.Pose;
+import frc.team4159.robot.util.RamseteFollower;
+import frc.team4159.robot.util.TelemetryLog;
+import frc.team4159.robot.util.TrajectoryFollower;
+import jaci.pathfinder.Pathfinder;
 
 import static frc.team4159.robot.Constants.*;
-import static frc.team4159.robot.RobotMap.*;
 
-public class Drivetrain extends Subsystem implements PIDOutput {
+public class Drivetrain extends Subsystem {
 
     private static Drivetrain instance;
 
-    public static Drivetrain getInstance() {
+    public static synchronized Drivetrain getInstance() {
         if(instance == null)
-            instance = new Drivetrain();
+            instance = new Drivetrain(IOMode.isSimulation() ? new DrivetrainIOSim() : new DrivetrainIOReal());
         return instance;
     }
 
     /* Motor controllers and sensors */
-    private TalonSRX leftTalon, rightTalon;
-    private VictorSPX leftVictor, rightVictor;
-    private AHRS navx;
-
-    private PIDController turnController;
-    private double angleSetpoint = 0;
-
-    /* Drivetrain encoder PID constants */
-    private final int MAX_SPEED = 5200; // Native units per 100ms
-    private final int SLOTIDX = 0;
-    private final int PIDIDX = 0;
-    private final double kF_left = 0.196730769230769; // 1023 / 5200 where 5200 is our max speed
-    private final double kP_left = 0.4092; // (10% * 1023) / 250 where 250 is our max error
-    private final double kI_left = 0;
-    private final double kD_left = 4.092; // kP * 10
-    private final double kF_right = 0.0;
-    private final double kP_right = 0.0;
-    private final double kI_right = 0.0;
-    private final double kD_right = 0.0;
+    private DrivetrainIO io;
+
+    /* Sensor values read once per robot loop */
+    private SensorSnapshot sensors;
+
+    /* Turning and drive straight, calculated on the robot loop from the sensor snapshot */
+    private final HeadingController turnController = new HeadingController();
+    private boolean turnEnabled;
+
+    /* Max speed in native units per 100ms, from the characterized feedforward when there is one */
+    private final double MAX_SPEED;
 
     /* Stores state if controls should be reversed or not */
     private boolean reverse;
 
-    /* NavX turning PID constants */
-    private final double kP_turn = 5 * 0.01;
-    private final double kI_turn = 0;
-    private final double kD_turn = 0.05;
-    private final double kF_turn = 0;
-    private final double kToleranceDegrees = 2.0f;
+    /* NavX turning constants. kD is per degree per second, kS is used when there is no characterized feedforward */
+    private final double kP_turn = 0.02;
+    private final double kD_turn = 0.004;
+    private final double kS_turn = 0.08;
+    private final double kToleranceDegrees = 2.0;
+    private final double kRateToleranceDegrees = 10.0; // degrees per second
+    private final double kSettleTime = 0.1; // seconds
 
     private double rotateToAngleRate;
 
-    private Drivetrain() {
+    /* Runs path following on its own thread, faster than the scheduler */
+    private ControlLoop controlLoop;
 
-        /* Invert left motors and set victors to follow talons */
+    /* Path handed off by a command, followed on the control loop thread. Guarded by pathLock */
+    private final Object pathLock = new Object();
+    private TrajectoryFollower leftFollower, rightFollower;
+    private RamseteFollower ramseteFollower;
+    private final Pose pathPose = new Pose();
+    private double kP_path_turn;
+    private volatile boolean pathFinished = true;
 
-        leftTalon = new TalonSRX(LEFT_TALON);
-        leftVictor = new VictorSPX(LEFT_DRIVE_VICTOR);
-        leftTalon.setInverted(true);
-        leftVictor.setInverted(true);
-        leftVictor.follow(leftTalon);
+    /* Run on the control loop thread in place of path following, e.g. characterization. Guarded by pathLock */
+    private ControlLoop.Loop controlTask;
 
-        rightTalon = new TalonSRX(RIGHT_TALON);
-        rightVictor = new VictorSPX(RIGHT_DRIVE_VICTOR);
-        rightTalon.setInverted(false);
-        rightVictor.setInverted(false);
-        rightVictor.follow(rightTalon);
+    /* Field position, updated every control loop tick with a second of history */
+    private final Odometry odometry = new Odometry(CONTROL_LOOP_HZ);
+    private final Pose loggedPose = new Pose();
 
-        /* NavX is a 9-axis inertial/magnetic sensor and motion processor, plugged into the RoboRio's MXP port */
-        try {
-            navx = new AHRS(SPI.Port.kMXP);
-        } catch (RuntimeException ex) {
-            DriverStation.reportError("Error instantiating navX-MXP:  " + ex.getMessage(), true);
-        }
+    /* Telemetry channels */
+    private TelemetryLog log;
+    private final int ANGLE_SETPOINT_CHANNEL, ANGLE_ERROR_CHANNEL, TURN_RATE_CHANNEL, REVERSE_CHANNEL, PATH_CHANNEL;
+    private final int X_CHANNEL, Y_CHANNEL, HEADING_CHANNEL;
+    private final DashboardPublisher.NumberChannel poseX, poseY, poseHeading;
+    private final LoopProfiler.Section LOG_SECTION = LoopProfiler.getInstance().section("Drivetrain logDashboard");
+
+    private Drivetrain(DrivetrainIO io) {
 
+        this.io = io;
+        sensors = SensorSnapshot.getInstance();
         reverse = false;
 
-        limitCurrent();
+        DriveFeedforward feedforward = DriveFeedforward.get();
+        MAX_SPEED = feedforward == null
+                ? 5200
+                : feedforward.getMaxVelocity() / WHEEL_CIRCUMFERANCE * UNITS_PER_REV / 10;
+
+        log = TelemetryLog.getInstance();
+        ANGLE_SETPOINT_CHANNEL = log.addChannel("drive/angle setpoint");
+        ANGLE_ERROR_CHANNEL = log.addChannel("drive/angle error");
+        TURN_RATE_CHANNEL = log.addChannel("drive/turn rate");
+        REVERSE_CHANNEL = log.addChannel("drive/reverse");
+        PATH_CHANNEL = log.addChannel("drive/following path");
+        X_CHANNEL = log.addChannel("drive/x");
+        Y_CHANNEL = log.addChannel("drive/y");
+        HEADING_CHANNEL = log.addChannel("drive/heading");
+
+        DashboardPublisher dashboard = DashboardPublisher.getInstance();
+        poseX = dashboard.number("Pose x ft", 0.1, 0.01);
+        poseY = dashboard.number("Pose y ft", 0.1, 0.01);
+        poseHeading = dashboard.number("Pose heading deg", 0.1, 0.1);
+
         configureSensors();
 
+        /* Simulators call controlLoop.runOnce() themselves to run faster than real time */
+        controlLoop = new ControlLoop(CONTROL_LOOP_HZ, Clock.FPGA);
+        controlLoop.register(this::updatePath);
+        if(!IOMode.isSimulation())
+            controlLoop.start();
+
     }
 
     /**
-     * Apply mag encoder and navX sensor settings
+     * Configure the navX turning controller and zero sensors. Talon settings are applied by the IO.
      */
     private void configureSensors() {
 
         /*
-         * Configure peak and nominal outputs, set feedback sensor (mag encoder), and sensor direction
-         */
-
-        leftTalon.configSelectedFeedbackSensor(FeedbackDevice.CTRE_MagEncoder_Relative, PIDIDX, TIMEOUT_MS);
-        leftTalon.setSensorPhase(false);
-        leftTalon.configNominalOutputForward(NOMINAL_OUT_PERCENT, TIMEOUT_MS);
-        leftTalon.configNominalOutputReverse(NOMINAL_OUT_PERCENT, TIMEOUT_MS);
-        leftTalon.configPeakOutputForward(PEAK_OUT_PERCENT, TIMEOUT_MS);
-        leftTalon.configPeakOutputReverse(-PEAK_OUT_PERCENT, TIMEOUT_MS);
-
-        rightTalon.configSelectedFeedbackSensor(FeedbackDevice.CTRE_MagEncoder_Relative, PIDIDX, TIMEOUT_MS);
-        rightTalon.setSensorPhase(true); // Reverses encoder direction to match with motor direction
-        rightTalon.configNominalOutputForward(NOMINAL_OUT_PERCENT, TIMEOUT_MS);
-        rightTalon.configNominalOutputReverse(NOMINAL_OUT_PERCENT, TIMEOUT_MS);
-        rightTalon.configPeakOutputForward(PEAK_OUT_PERCENT, TIMEOUT_MS);
-        rightTalon.configPeakOutputReverse(-PEAK_OUT_PERCENT, TIMEOUT_MS);
-
-        // TODO: Retune PIDF values for both sides of drivetrain
-
-        /*
-         * Set PIDF values for left and right talons
-         */
-        leftTalon.config_kF(SLOTIDX, kF_left, TIMEOUT_MS);
-        leftTalon.config_kP(SLOTIDX, kP_left, TIMEOUT_MS);
-        leftTalon.config_kI(SLOTIDX, kI_left, TIMEOUT_MS);
-        leftTalon.config_kD(SLOTIDX, kD_left, TIMEOUT_MS);
-
-        rightTalon.config_kF(SLOTIDX, kF_right, TIMEOUT_MS);
-        rightTalon.config_kP(SLOTIDX, kP_right, TIMEOUT_MS);
-        rightTalon.config_kI(SLOTIDX, kI_right, TIMEOUT_MS);
-        rightTalon.config_kD(SLOTIDX, kD_right, TIMEOUT_MS);
-
-        /*
-         * Set max acceleration and velocity (in raw sensor units) for motion magic
+         * Configure turning controller. Static friction comes from the characterized feedforward when there is one.
          */
-        // TODO: figure out the correct cruise velocity and acceleration
-        final int CRUISE_ACCEL = 2000;
-        final int CRUISE_VELOCITY = 3860;
-
-        leftTalon.configMotionAcceleration(CRUISE_ACCEL, TIMEOUT_MS);
-        leftTalon.configMotionCruiseVelocity(CRUISE_VELOCITY, TIMEOUT_MS);
-        rightTalon.configMotionAcceleration(CRUISE_ACCEL, TIMEOUT_MS);
-        rightTalon.configMotionCruiseVelocity(CRUISE_VELOCITY, TIMEOUT_MS);
 
-        /*
-         * Configure turning PIDController. Set PIDF, input and output range, error tolerance, and continuity
-         */
+        final double MOTOR_OUTPUT_RANGE = 1;
 
-        final double NAVX_YAW_RANGE = 180.0f;
-        final int MOTOR_OUTPUT_RANGE = 1;
+        DriveFeedforward feedforward = DriveFeedforward.get();
+        double kS = feedforward == null
+                ? kS_turn
+                : (feedforward.getLeft().kS + feedforward.getRight().kS) / 2 / DriveFeedforward.NOMINAL_VOLTAGE;
 
-        turnController = new PIDController(kP_turn, kI_turn, kD_turn, kF_turn, navx, this);
-        turnController.setInputRange(-NAVX_YAW_RANGE, NAVX_YAW_RANGE);
-        turnController.setOutputRange(-MOTOR_OUTPUT_RANGE, MOTOR_OUTPUT_RANGE);
-        turnController.setAbsoluteTolerance(kToleranceDegrees);
-        turnController.setContinuous(true);
-        turnController.disable();
+        turnController.configure(kP_turn, kD_turn, kS, MOTOR_OUTPUT_RANGE);
+        turnController.configureSettling(kToleranceDegrees, kRateToleranceDegrees, kSettleTime);
 
         /*
          * Zero encoders and navX. Probably not be necessary but just in case.
          */
-        leftTalon.setSelectedSensorPosition(0, PIDIDX, TIMEOUT_MS);
-        rightTalon.setSelectedSensorPosition(0, PIDIDX, TIMEOUT_MS);
+        io.setEncoderPositions(0, 0);
+        sensors.setDrivePositions(0, 0);
         zeroNavX();
 
     }
@@ -170,11 +159,9 @@ public class Drivetrain extends Subsystem implements PIDOutput {
     public void setRawOutput(double leftPercent, double rightPercent){
 
         if(reverse) {
-            leftTalon.set(ControlMode.PercentOutput, -rightPercent);
-            rightTalon.set(ControlMode.PercentOutput, -leftPercent);
+            io.setOutput(ControlMode.PercentOutput, -rightPercent, -leftPercent);
         } else {
-            leftTalon.set(ControlMode.PercentOutput, leftPercent);
-            rightTalon.set(ControlMode.PercentOutput, rightPercent);
+            io.setOutput(ControlMode.PercentOutput, leftPercent, rightPercent);
         }
 
     }
@@ -187,53 +174,206 @@ public class Drivetrain extends Subsystem implements PIDOutput {
     }
 
     /**
-     * Turn to field oriented angle
+     * Turn to field oriented angle. Call once per robot loop, after the sensor snapshot is updated.
      * @param angle Robot heading relative to when robot first powered on
      */
     public void turnToAngle(double angle) {
-        if(!turnController.isEnabled()) {
-            turnController.setSetpoint(angle);
-            angleSetpoint = angle;
-            rotateToAngleRate = 0;
-            turnController.enable();
-        }
-        setRawOutput(-rotateToAngleRate, rotateToAngleRate);
+        if(!turnEnabled)
+            enableTurnControl(angle);
+        rotateToAngleRate = turnController.calculate(sensors.getYaw(), sensors.getTimestamp());
+        setRawOutput(rotateToAngleRate, -rotateToAngleRate);
     }
 
     /**
-     *  Drive straight in current heading
+     *  Drive straight in current heading. Call once per robot loop, after the sensor snapshot is updated.
      *  @param magnitude Speed percentage between -1 to 1
      */
     public void driveStraight(double magnitude) {
-        if(!turnController.isEnabled()) {
-            turnController.setSetpoint(navx.getYaw());
-            rotateToAngleRate = 0;
-            turnController.enable();
-        }
+        if(!turnEnabled)
+            enableTurnControl(getHeadingDegrees());
+        rotateToAngleRate = turnController.calculate(sensors.getYaw(), sensors.getTimestamp());
         setRawOutput(magnitude + rotateToAngleRate, magnitude - rotateToAngleRate);
     }
 
+    private void enableTurnControl(double angle) {
+        turnController.reset();
+        turnController.setSetpoint(angle);
+        rotateToAngleRate = 0;
+        turnEnabled = true;
+    }
+
     /**
-     *  @return True if turning PID error is less than set tolerance
+     *  @return True if the heading has been within tolerance and stopped turning for the settle time
      */
     public boolean turnOnTarget() {
-        return turnController.onTarget();
+        return turnEnabled && turnController.isSettled();
     }
 
     /**
-     * Stop running turning PID controller
+     * Stop turning control. The next turnToAngle() or driveStraight() starts from the heading at that time.
      */
     public void disableTurnControl() {
-        if(turnController.isEnabled())
-            turnController.disable();
+        turnEnabled = false;
+        rotateToAngleRate = 0;
+    }
+
+    /**
+     * Start following a path on the control loop thread. The drivetrain takes over the followers, so the caller should
+     * not use them again until stopPath() returns.
+     * @param left Configured follower for the left side
+     * @param right Configured follower for the right side
+     * @param kP_turn Heading correction gain
+     */
+    public void followPath(TrajectoryFollower left, TrajectoryFollower right, double kP_turn) {
+        synchronized(pathLock) {
+            leftFollower = left;
+            rightFollower = right;
+            kP_path_turn = kP_turn;
+            pathFinished = false;
+        }
+    }
+
+    /**
+     * Start tracking a path's poses from odometry on the control loop thread, like followPath() for encoder followers
+     * @param follower Configured Ramsete follower
+     */
+    public void followPath(RamseteFollower follower) {
+        synchronized(pathLock) {
+            ramseteFollower = follower;
+            pathFinished = false;
+        }
+    }
+
+    /**
+     * @return True if there is no path being followed
+     */
+    public boolean isPathFinished() {
+        return pathFinished;
+    }
+
+    /**
+     * Stop following the current path and stop the motors. No path output is written after this returns.
+     */
+    public void stopPath() {
+        synchronized(pathLock) {
+            leftFollower = null;
+            rightFollower = null;
+            ramseteFollower = null;
+            pathFinished = true;
+            stop();
+        }
+    }
+
+    /**
+     * Run a task on the control loop thread every iteration instead of following a path. It writes to the IO directly,
+     * so it is not affected by reversed controls.
+     * @param task Task to run, or null to stop the current one and stop the motors. No task output is written after
+     *             this returns.
+     */
+    public void runOnControlLoop(ControlLoop.Loop task) {
+        synchronized(pathLock) {
+            controlTask = task;
+            if(task == null)
+                stop();
+        }
+    }
+
+    /**
+     * Control loop iteration. Updates odometry, then follows the current path with time-indexed setpoints and
+     * proportional heading correction.
+     * @param timestamp Time of this iteration in seconds
+     */
+    private void updatePath(double timestamp) {
+        synchronized(pathLock) {
+            /* Runs faster than the robot loop, so reads its own sensors instead of the snapshot */
+            int leftPosition = io.getLeftPosition();
+            int rightPosition = io.getRightPosition();
+            double yaw = io.getYaw();
+            InputRecorder.getInstance().recordControlLoop(timestamp, leftPosition, rightPosition, yaw);
+
+            odometry.update(timestamp, leftPosition, rightPosition, yaw);
+
+            if(controlTask != null) {
+                controlTask.onLoop(timestamp);
+                return;
+            }
+
+            if(ramseteFollower != null) {
+                odometry.getPose(pathPose);
+                ramseteFollower.calculate(pathPose, timestamp);
+                setRawOutput(ramseteFollower.getLeftOutput(), ramseteFollower.getRightOutput());
+
+                if(ramseteFollower.isFinished()) {
+                    pathFinished = true;
+                    ramseteFollower = null;
+                    stop();
+                }
+                return;
+            }
+
+            if(leftFollower == null)
+                return;
+
+            double l = leftFollower.calculate(leftPosition, timestamp);
+            double r = rightFollower.calculate(rightPosition, timestamp);
+
+            double desired_heading = Pathfinder.r2d(leftFollower.getHeading());
+            double angleDifference = Pathfinder.boundHalfDegrees(desired_heading - yaw);
+            double kG = kP_path_turn * (-1.0/80.0);
+            double turn = kG * angleDifference;
+
+            setRawOutput(l + turn, r - turn);
+
+            if(leftFollower.isFinished() && rightFollower.isFinished()) {
+                pathFinished = true;
+                leftFollower = null;
+                rightFollower = null;
+                stop();
+            }
+        }
+    }
+
+    /**
+     * Tell odometry where the robot is, e.g. at the start of a path
+     * @param x Feet
+     * @param y Feet
+     * @param heading Radians counter clockwise from the x axis
+     */
+    public void resetPose(double x, double y, double heading) {
+        synchronized(pathLock) {
+            odometry.reset(Clock.FPGA.getTimestamp(), io.getLeftPosition(), io.getRightPosition(), io.getYaw(), x, y,
+                    heading);
+        }
+    }
+
+    /**
+     * @param out Filled in with the field pose from the last control loop tick
+     */
+    public void getPose(Pose out) {
+        odometry.getPose(out);
+    }
+
+    /**
+     * @param timestamp Time in seconds within the last second, e.g. when a camera frame was taken
+     * @param out Filled in with the field pose at that time
+     * @return False if the time is older than the pose history
+     */
+    public boolean getPoseAt(double timestamp, Pose out) {
+        return odometry.getPoseAt(timestamp, out);
+    }
+
+    /**
+     * @return Control loop running path following, for its timing statistics
+     */
+    public ControlLoop getControlLoop() {
+        return controlLoop;
     }
 
     /**
      *  Stop running drivetrain motors
      */
     public void stop() {
-        leftTalon.set(ControlMode.PercentOutput, 0);
-        rightTalon.set(ControlMode.PercentOutput, 0);
+        io.setOutput(ControlMode.PercentOutput, 0, 0);
     }
 
     /**
@@ -244,8 +384,7 @@ public class Drivetrain extends Subsystem implements PIDOutput {
     public void setVelocity(double leftPercent, double rightPercent) {
         double leftTarget = leftPercent * MAX_SPEED;
         double rightTarget = rightPercent * MAX_SPEED;
-        leftTalon.set(ControlMode.Velocity, leftTarget);
-        rightTalon.set(ControlMode.Velocity, rightTarget);
+        io.setOutput(ControlMode.Velocity, leftTarget, rightTarget);
     }
 
     /**
@@ -258,85 +397,89 @@ public class Drivetrain extends Subsystem implements PIDOutput {
         double leftTarget = (UNITS_PER_REV * leftDistance) / WHEEL_CIRCUMFERANCE;
         double rightTarget = (UNITS_PER_REV * rightDistance) / WHEEL_CIRCUMFERANCE;
 
-        leftTalon.set(ControlMode.MotionMagic, leftTarget);
-        rightTalon.set(ControlMode.MotionMagic, rightTarget);
+        io.setOutput(ControlMode.MotionMagic, leftTarget, rightTarget);
     }
 
     /**
      * @return True if motion magic trajectory is complete, meaning the velocity profile is 0
      */
     public boolean motionMagicFinished() {
-        return leftTalon.getActiveTrajectoryVelocity() == 0 && rightTalon.getActiveTrajectoryVelocity() == 0;
+        return sensors.getLeftActiveTrajectoryVelocity() == 0 && sensors.getRightActiveTrajectoryVelocity() == 0;
+    }
+
+    /**
+     * @return Left Talon's motion profile buffer
+     */
+    public MotionProfileTalon getLeftProfileTalon() {
+        return io.getLeftProfileTalon();
+    }
+
+    /**
+     * @return Right Talon's motion profile buffer
+     */
+    public MotionProfileTalon getRightProfileTalon() {
+        return io.getRightProfileTalon();
     }
 
     /**
      *  @return Left encoder position
      */
     public int getLeftEncoderPosition() {
-        return leftTalon.getSelectedSensorPosition(PIDIDX);
+        return sensors.getLeftPosition();
     }
 
     /**
      *  @return Right encoder position
      */
     public int getRightEncoderPosition() {
-        return rightTalon.getSelectedSensorPosition(PIDIDX);
+        return sensors.getRightPosition();
     }
 
     /**
      * @return NavX's yaw value
      */
     public double getHeadingDegrees() {
-        return navx.getYaw();
+        return sensors.getYaw();
     }
 
     /**
      *  Zero navX's yaw value
      */
     public void zeroNavX() {
-        navx.zeroYaw();
-    }
-
-    /**
-     * Log drivetrain variables to SmartDashboard
-     */
-    public void logDashboard() {
-        /*
-        SmartDashboard.putNumber("Current Angle", navx.getYaw());
-        SmartDashboard.putNumber("Angle Error",turnController.getError());
-        SmartDashboard.putNumber("Setpoint Angle", angleSetpoint);
-        */
+        synchronized(pathLock) {
+            io.zeroYaw();
+            odometry.setYaw(0);
+        }
+        sensors.setYaw(0);
     }
 
     /**
-     *  Set and limit peak and continuous current on both sides of drivetrain to prevent brownouts
+     * @return Drivetrain hardware, for simulators to drive
      */
-    private void limitCurrent() {
-
-        final int PEAK_CURRENT = 20; // Amps
-        final int CONTINUOUS_CURRENT = 15; // Amps
-        final int PEAK_CURRENT_DURATION = 200; // ms
-        final int PEAK_CURRENT_TIMEOUT = 20; // ms
-
-        leftTalon.configPeakCurrentLimit(PEAK_CURRENT,TIMEOUT_MS);
-        leftTalon.configPeakCurrentDuration(PEAK_CURRENT_DURATION, PEAK_CURRENT_TIMEOUT);
-        leftTalon.configContinuousCurrentLimit(CONTINUOUS_CURRENT, TIMEOUT_MS);
-        leftTalon.enableCurrentLimit(true);
-
-        rightTalon.configPeakCurrentLimit(PEAK_CURRENT,TIMEOUT_MS);
-        rightTalon.configPeakCurrentDuration(PEAK_CURRENT_DURATION, PEAK_CURRENT_TIMEOUT);
-        rightTalon.configContinuousCurrentLimit(CONTINUOUS_CURRENT, TIMEOUT_MS);
-        rightTalon.enableCurrentLimit(true);
-
+    public DrivetrainIO getIO() {
+        return io;
     }
 
     /**
-     *  Update rotateToAngleRate
-     *  @param output From PIDController
+     * Log drivetrain variables and the field pose to the TelemetryLog, and the pose to the dashboard. Sensors are
+     * logged with the SensorSnapshot.
      */
-    @Override
-    public void pidWrite(double output) {
-        rotateToAngleRate = output;
+    public void logDashboard() {
+        LOG_SECTION.start();
+        log.record(ANGLE_SETPOINT_CHANNEL, turnController.getSetpoint());
+        log.record(ANGLE_ERROR_CHANNEL, turnEnabled ? turnController.getError() : 0);
+        log.record(TURN_RATE_CHANNEL, rotateToAngleRate);
+        log.record(REVERSE_CHANNEL, reverse);
+        log.record(PATH_CHANNEL, !pathFinished);
+
+        odometry.getPose(loggedPose);
+        log.record(X_CHANNEL, loggedPose.x);
+        log.record(Y_CHANNEL, loggedPose.y);
+        log.record(HEADING_CHANNEL, Math.toDegrees(loggedPose.heading));
+        poseX.set(loggedPose.x);
+        poseY.set(loggedPose.y);
+        poseHeading.set(Math.toDegrees(loggedPose.heading));
+        LOG_SECTION.stop();
     }
 
     /**
@@ -353,6 +496,16 @@ public class Drivetrain extends Subsystem implements PIDOutput {
         }
     }
 
+    /**
+     * Run by the Scheduler every loop. Logging happens here instead of in Drive and RunCSVProfile, so it is logged
+     * whichever command has the drivetrain and is not counted in their timings.
+     */
+    @Override
+    public void periodic() {
+        if(RobotState.isEnabled())
+            logDashboard();
+    }
+
     /**
      * Initialize default command
      */
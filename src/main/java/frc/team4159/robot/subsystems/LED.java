@@ -1,34 +1,42 @@
 package frc.team4159.robot.subsystems;
 
-import edu.wpi.first.wpilibj.Solenoid;
+
 import edu.wpi.first.wpilibj.command.Subsystem;
+import frc.team4159.robot.io.IOMode;
+import frc.team4159.robot.io.LEDIO;
+import frc.team4159.robot.io.LEDIOReal;
+import frc.team4159.robot.io.LEDIOSim;
 
 public class LED extends Subsystem {
 
     private static LED instance;
 
-    public static LED getInstance() {
+    public static synchronized LED getInstance() {
         if (instance == null)
-            instance = new LED();
+            instance = new LED(IOMode.isSimulation() ? new LEDIOSim() : new LEDIOReal());
         return instance;
     }
 
-    private Solenoid smallRing;
-    private Solenoid bigRing;
+    /* Small and big LED rings */
+    private LEDIO io;
 
-    private LED() {
-        smallRing = new Solenoid(0);
-        bigRing = new Solenoid(4);
+    private LED(LEDIO io) {
+        this.io = io;
     }
 
     public void enableLEDRings() {
-        smallRing.set(true);
-        bigRing.set(true);
+        io.setRings(true, true);
     }
 
     public void disableLEDRings() {
-        smallRing.set(false);
-        bigRing.set(false);
+        io.setRings(false, false);
+    }
+
+    /**
+     * @return LED hardware, for simulators to drive
+     */
+    public LEDIO getIO() {
+        return io;
     }
 
     public void initDefaultCommand() {
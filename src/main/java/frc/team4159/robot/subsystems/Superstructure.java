@@ -1,6 +1,8 @@
 package frc.team4159.robot.subsystems;
 
 import edu.wpi.first.wpilibj.Compressor;
+import edu.wpi.first.wpilibj.PowerDistributionPanel;
+import frc.team4159.robot.io.IOMode;
 import static frc.team4159.robot.RobotMap.PCM;
 
 /*
@@ -11,7 +13,7 @@ public class Superstructure {
 
     private static Superstructure instance;
 
-    public static Superstructure getInstance() {
+    public static synchronized Superstructure getInstance() {
         if (instance == null)
             instance = new Superstructure();
         return instance;
@@ -21,7 +23,7 @@ public class Superstructure {
     public static CubeHolder cubeHolder;
     public static LED led;
 
-//    private PowerDistributionPanel pdp;
+    private PowerDistributionPanel pdp;
     private Compressor compressor;
 
     private Superstructure() {
@@ -29,9 +31,20 @@ public class Superstructure {
         cubeHolder = CubeHolder.getInstance();
         led = LED.getInstance();
 
-//        pdp = new PowerDistributionPanel(0);
-        compressor = new Compressor(PCM);
-        compressor.setClosedLoopControl(true);
+        /* No compressor or PDP off the robot */
+        if(!IOMode.isSimulation()) {
+            pdp = new PowerDistributionPanel(0);
+
+            compressor = new Compressor(PCM);
+            compressor.setClosedLoopControl(true);
+        }
+    }
+
+    /**
+     * @return Power distribution panel, or null in simulation
+     */
+    public PowerDistributionPanel getPDP() {
+        return pdp;
     }
 
     /**
@@ -71,15 +84,15 @@ public class Superstructure {
     */
 
     public double compressorCurrent() {
-        return compressor.getCompressorCurrent();
+        return compressor == null ? 0 : compressor.getCompressorCurrent();
     }
 
     public boolean compressorEnabled() {
-        return compressor.enabled();
+        return compressor != null && compressor.enabled();
     }
 
     public boolean pressureSwitch() {
-        return compressor.getPressureSwitchValue();
+        return compressor != null && compressor.getPressureSwitchValue();
     }
 
 }
@@ -0,0 +1,101 @@
+package frc.team4159.robot.util;
+
+import jaci.pathfinder.Trajectory;
+
+/**
+ * Trajectory stored as one primitive array per column instead of an array of Segment objects. Keeps a path in a few
+ * contiguous arrays for the whole match and lets followers read it without touching any objects.
+ */
+
+public class ArrayTrajectory {
+
+    private final double dt;
+    private final double[] position, velocity, acceleration, heading, x, y;
+
+    private ArrayTrajectory(double dt, int length) {
+        this.dt = dt;
+        position = new double[length];
+        velocity = new double[length];
+        acceleration = new double[length];
+        heading = new double[length];
+        x = new double[length];
+        y = new double[length];
+    }
+
+    /**
+     * Copy a Pathfinder trajectory into arrays. Uses the dt of the first segment for the whole path.
+     */
+    public static ArrayTrajectory fromTrajectory(Trajectory trajectory) {
+        int length = trajectory.length();
+        ArrayTrajectory result = new ArrayTrajectory(length > 0 ? trajectory.get(0).dt : 0, length);
+        for(int i = 0; i < length; i++) {
+            Trajectory.Segment segment = trajectory.get(i);
+            result.position[i] = segment.position;
+            result.velocity[i] = segment.velocity;
+            result.acceleration[i] = segment.acceleration;
+            result.heading[i] = segment.heading;
+            result.x[i] = segment.x;
+            result.y[i] = segment.y;
+        }
+        return result;
+    }
+
+    /**
+     * Copy a memory-mapped binary trajectory into arrays
+     */
+    public static ArrayTrajectory fromBinary(BinaryTrajectory trajectory) {
+        int length = trajectory.length();
+        ArrayTrajectory result = new ArrayTrajectory(trajectory.getDt(), length);
+        for(int i = 0; i < length; i++) {
+            result.position[i] = trajectory.getPosition(i);
+            result.velocity[i] = trajectory.getVelocity(i);
+            result.acceleration[i] = trajectory.getAcceleration(i);
+            result.heading[i] = trajectory.getHeading(i);
+            result.x[i] = trajectory.getX(i);
+            result.y[i] = trajectory.getY(i);
+        }
+        return result;
+    }
+
+    /**
+     * @return Number of segments
+     */
+    public int length() {
+        return position.length;
+    }
+
+    /**
+     * @return Time between segments in seconds
+     */
+    public double getDt() {
+        return dt;
+    }
+
+    public double getPosition(int i) {
+        return position[i];
+    }
+
+    public double getVelocity(int i) {
+        return velocity[i];
+    }
+
+    public double getAcceleration(int i) {
+        return acceleration[i];
+    }
+
+    /**
+     * @return Heading of segment i in radians
+     */
+    public double getHeading(int i) {
+        return heading[i];
+    }
+
+    public double getX(int i) {
+        return x[i];
+    }
+
+    public double getY(int i) {
+        return y[i];
+    }
+
+}
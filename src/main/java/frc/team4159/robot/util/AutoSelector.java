@@ -7,7 +7,7 @@ public class AutoSelector {
 
     private static AutoSelector instance;
 
-    public static AutoSelector getInstance() {
+    public static synchronized AutoSelector getInstance() {
         if(instance == null)
             instance = new AutoSelector();
         return instance;
@@ -69,6 +69,32 @@ public class AutoSelector {
 
     }
 
+    /**
+     * Select a position directly instead of cycling through the options
+     * @param position One of "BASELINE", "LEFT", "MIDDLE", "MID RIGHT", "RIGHT"
+     */
+    public void setPosition(String position) {
+        int index = positionOptions.indexOf(position);
+        if(index < 0)
+            throw new IllegalArgumentException("Unknown position " + position);
+        positionIndex = index;
+    }
+
+    /**
+     * Select everything at once, e.g. to restore a recorded selection. Unknown names leave that index unchanged.
+     */
+    public void restore(String selection, String position, String leftAction, String rightAction) {
+        selectionsIndex = restoreIndex(selections, selection, selectionsIndex);
+        positionIndex = restoreIndex(positionOptions, position, positionIndex);
+        leftIndex = restoreIndex(autoOptions, leftAction, leftIndex);
+        rightIndex = restoreIndex(autoOptions, rightAction, rightIndex);
+    }
+
+    private static int restoreIndex(ArrayList<String> options, String option, int current) {
+        int index = options.indexOf(option);
+        return index < 0 ? current : index;
+    }
+
     /**
      * @return Selection selected based on selection index
      */
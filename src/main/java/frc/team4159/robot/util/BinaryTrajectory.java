@@ -0,0 +1,202 @@
+package frc.team4159.robot.util;
+
+import jaci.pathfinder.Trajectory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Read-only view of a trajectory stored in a compact binary file. The file is memory-mapped and segment values are
+ * read straight out of the mapping, so loading a path does not parse any text or create any per-segment objects.
+ *
+ * File layout (little endian):
+ *   Header  - int magic, int version, int segment count, int CRC32 of the records, double dt
+ *   Records - x, y, position, velocity, acceleration, jerk, heading as doubles, one record per segment
+ */
+
+public class BinaryTrajectory {
+
+    private static final int MAGIC = 0x4A415254; // "TRAJ"
+    private static final int VERSION = 1;
+
+    private static final int HEADER_BYTES = 24;
+    private static final int RECORD_BYTES = 7 * Double.BYTES;
+
+    /* Byte offsets of each column inside a record */
+    private static final int X = 0;
+    private static final int Y = 8;
+    private static final int POSITION = 16;
+    private static final int VELOCITY = 24;
+    private static final int ACCELERATION = 32;
+    private static final int JERK = 40;
+    private static final int HEADING = 48;
+
+    private final ByteBuffer records;
+    private final int length;
+    private final double dt;
+
+    private BinaryTrajectory(ByteBuffer records, int length, double dt) {
+        this.records = records;
+        this.length = length;
+        this.dt = dt;
+    }
+
+    /**
+     * Memory-map a binary trajectory file and validate its header and checksum
+     * @param path Path to a .bin trajectory
+     * @throws IOException If the file can not be read or is not a valid trajectory
+     */
+    public static BinaryTrajectory load(String path) throws IOException {
+
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(new File(path).toPath(), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        if(buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC)
+            throw new IOException(path + " is not a binary trajectory");
+        if(buffer.getInt(4) != VERSION)
+            throw new IOException(path + " has unsupported version " + buffer.getInt(4));
+
+        int length = buffer.getInt(8);
+        int checksum = buffer.getInt(12);
+        double dt = buffer.getDouble(16);
+
+        if(buffer.capacity() != HEADER_BYTES + length * RECORD_BYTES)
+            throw new IOException(path + " is truncated: expected " + length + " segments");
+
+        buffer.position(HEADER_BYTES);
+        ByteBuffer records = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+
+        CRC32 crc = new CRC32();
+        crc.update(records.duplicate());
+        if((int) crc.getValue() != checksum)
+            throw new IOException(path + " failed checksum");
+
+        return new BinaryTrajectory(records, length, dt);
+    }
+
+    /**
+     * Write a trajectory in the binary format. Every segment must share the same dt.
+     * @param trajectory Trajectory to write
+     * @param file Destination .bin file
+     */
+    public static void write(Trajectory trajectory, File file) throws IOException {
+
+        int length = trajectory.length();
+        double dt = length > 0 ? trajectory.get(0).dt : 0;
+
+        ByteBuffer records = ByteBuffer.allocate(length * RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for(int i = 0; i < length; i++) {
+            Trajectory.Segment segment = trajectory.get(i);
+            if(segment.dt != dt)
+                throw new IOException("Segment " + i + " has dt " + segment.dt + ", expected " + dt);
+            records.putDouble(segment.x);
+            records.putDouble(segment.y);
+            records.putDouble(segment.position);
+            records.putDouble(segment.velocity);
+            records.putDouble(segment.acceleration);
+            records.putDouble(segment.jerk);
+            records.putDouble(segment.heading);
+        }
+        records.flip();
+
+        CRC32 crc = new CRC32();
+        crc.update(records.duplicate());
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putInt(length);
+        header.putInt((int) crc.getValue());
+        header.putDouble(dt);
+        header.flip();
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while(header.hasRemaining())
+                channel.write(header);
+            while(records.hasRemaining())
+                channel.write(records);
+        }
+    }
+
+    /**
+     * @param csvPath Path to a trajectory CSV, e.g. one from TrajectoryCSV
+     * @return Path of the binary trajectory converted from that CSV
+     */
+    public static String binaryPath(String csvPath) {
+        if(csvPath.endsWith(".csv"))
+            return csvPath.substring(0, csvPath.length() - 4) + ".bin";
+        return csvPath + ".bin";
+    }
+
+    /**
+     * Copy the mapped segments into a Pathfinder trajectory, for use with Pathfinder's followers
+     */
+    public Trajectory toTrajectory() {
+        Trajectory.Segment[] segments = new Trajectory.Segment[length];
+        for(int i = 0; i < length; i++) {
+            segments[i] = new Trajectory.Segment(dt, getX(i), getY(i), getPosition(i), getVelocity(i),
+                    getAcceleration(i), getJerk(i), getHeading(i));
+        }
+        return new Trajectory(segments);
+    }
+
+    /**
+     * @return Number of segments
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * @return Time between segments in seconds
+     */
+    public double getDt() {
+        return dt;
+    }
+
+    public double getX(int i) {
+        return column(i, X);
+    }
+
+    public double getY(int i) {
+        return column(i, Y);
+    }
+
+    public double getPosition(int i) {
+        return column(i, POSITION);
+    }
+
+    public double getVelocity(int i) {
+        return column(i, VELOCITY);
+    }
+
+    public double getAcceleration(int i) {
+        return column(i, ACCELERATION);
+    }
+
+    public double getJerk(int i) {
+        return column(i, JERK);
+    }
+
+    /**
+     * @return Heading of segment i in radians
+     */
+    public double getHeading(int i) {
+        return column(i, HEADING);
+    }
+
+    private double column(int i, int offset) {
+        return records.getDouble(i * RECORD_BYTES + offset);
+    }
+
+}
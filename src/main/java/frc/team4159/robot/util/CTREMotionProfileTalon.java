@@ -0,0 +1,105 @@
+package frc.team4159.robot.util;
+
+import com.ctre.phoenix.motion.MotionProfileStatus;
+import com.ctre.phoenix.motion.TrajectoryPoint;
+import com.ctre.phoenix.motorcontrol.ControlMode;
+import com.ctre.phoenix.motorcontrol.SetValueMotionProfile;
+import com.ctre.phoenix.motorcontrol.can.TalonSRX;
+
+import static frc.team4159.robot.Constants.TIMEOUT_MS;
+
+/**
+ * MotionProfileTalon backed by a real Talon SRX
+ */
+
+public class CTREMotionProfileTalon implements MotionProfileTalon {
+
+    private final TalonSRX talon;
+
+    /* Reused so pushing points and reading status do not allocate */
+    private final MotionProfileStatus status = new MotionProfileStatus();
+    private final TrajectoryPoint point = new TrajectoryPoint();
+
+    /**
+     * @param talon Talon with its feedback sensor and PIDF slot 0 already configured
+     */
+    public CTREMotionProfileTalon(TalonSRX talon) {
+        this.talon = talon;
+
+        /* Points carry their own duration, and the Talon reads its bottom buffer every 5 ms */
+        talon.configMotionProfileTrajectoryPeriod(0, TIMEOUT_MS);
+        talon.changeMotionControlFramePeriod(5);
+    }
+
+    @Override
+    public boolean pushPoint(double position, double velocity, int durationMs, boolean zeroPosition,
+                             boolean isLastPoint) {
+        point.position = position;
+        point.velocity = velocity;
+        point.headingDeg = 0;
+        point.profileSlotSelect0 = 0;
+        point.profileSlotSelect1 = 0;
+        point.timeDur = duration(durationMs);
+        point.zeroPos = zeroPosition;
+        point.isLastPoint = isLastPoint;
+        return talon.pushMotionProfileTrajectory(point).value == 0;
+    }
+
+    /**
+     * @return Closest supported trajectory point duration that is not longer than durationMs
+     */
+    private static TrajectoryPoint.TrajectoryDuration duration(int durationMs) {
+        TrajectoryPoint.TrajectoryDuration result = TrajectoryPoint.TrajectoryDuration.Trajectory_Duration_0ms;
+        for(TrajectoryPoint.TrajectoryDuration duration : TrajectoryPoint.TrajectoryDuration.values()) {
+            if(duration.value <= durationMs && duration.value > result.value)
+                result = duration;
+        }
+        return result;
+    }
+
+    @Override
+    public void processBuffer() {
+        talon.processMotionProfileBuffer();
+    }
+
+    @Override
+    public void updateStatus() {
+        talon.getMotionProfileStatus(status);
+    }
+
+    @Override
+    public int getTopBufferRemaining() {
+        return status.topBufferRem;
+    }
+
+    @Override
+    public int getBottomBufferCount() {
+        return status.btmBufferCnt;
+    }
+
+    @Override
+    public boolean hasUnderrun() {
+        return status.hasUnderrun;
+    }
+
+    @Override
+    public void clearUnderrun() {
+        talon.clearMotionProfileHasUnderrun(TIMEOUT_MS);
+    }
+
+    @Override
+    public boolean isLastPointActive() {
+        return status.activePointValid && status.isLast;
+    }
+
+    @Override
+    public void clearTrajectories() {
+        talon.clearMotionProfileTrajectories();
+    }
+
+    @Override
+    public void setMotionProfileMode(SetValueMotionProfile value) {
+        talon.set(ControlMode.MotionProfile, value.value);
+    }
+
+}
@@ -0,0 +1,19 @@
+package frc.team4159.robot.util;
+
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Source of timestamps in seconds. Lets timing-dependent code run against a fake clock off the robot.
+ */
+
+public interface Clock {
+
+    /* The roboRIO's FPGA clock */
+    Clock FPGA = Timer::getFPGATimestamp;
+
+    /**
+     * @return Current time in seconds
+     */
+    double getTimestamp();
+
+}
@@ -0,0 +1,174 @@
+package frc.team4159.robot.util;
+
+import edu.wpi.first.wpilibj.Notifier;
+
+/**
+ * Runs registered loops on a Notifier thread at a fixed rate, independent of the scheduler's 20 ms period, and keeps
+ * statistics on the actual period and execution time. Off the robot, call runOnce() against a SimulatedClock instead
+ * of start(). The Notifier is only created by start(), so a loop that is never started does not need the HAL.
+ */
+
+public class ControlLoop {
+
+    /**
+     * Code run on every control loop iteration
+     */
+    public interface Loop {
+        /**
+         * @param timestamp Time this iteration started, in seconds
+         */
+        void onLoop(double timestamp);
+    }
+
+    /* An iteration is an overrun if it starts more than this many periods after the previous one */
+    private static final double OVERRUN_TOLERANCE = 1.5;
+
+    private final double period;
+    private final Clock clock;
+    private Notifier notifier;
+
+    /* Replaced, never modified, so iterating it needs no lock or iterator */
+    private volatile Loop[] loops = new Loop[0];
+
+    /* Statistics, guarded by this */
+    private double lastStart;
+    private long iterations;
+    private double periodSum, periodSquaredSum;
+    private double minPeriod, maxPeriod;
+    private double maxExecutionTime;
+    private long overruns;
+
+    /**
+     * @param frequencyHz Iterations per second
+     * @param clock Time source, Clock.FPGA on the robot
+     */
+    public ControlLoop(double frequencyHz, Clock clock) {
+        period = 1.0 / frequencyHz;
+        this.clock = clock;
+        resetStatistics();
+    }
+
+    /**
+     * Add a loop. Loops run in the order they were registered.
+     */
+    public synchronized void register(Loop loop) {
+        Loop[] updated = new Loop[loops.length + 1];
+        System.arraycopy(loops, 0, updated, 0, loops.length);
+        updated[loops.length] = loop;
+        loops = updated;
+    }
+
+    public synchronized void start() {
+        if(notifier == null)
+            notifier = new Notifier(this::runOnce);
+        notifier.startPeriodic(period);
+    }
+
+    public synchronized void stop() {
+        if(notifier != null)
+            notifier.stop();
+    }
+
+    /**
+     * Run every loop once and record timing. Called by the Notifier, or directly when simulating.
+     */
+    public void runOnce() {
+
+        double start = clock.getTimestamp();
+
+        for(Loop loop : loops) {
+            loop.onLoop(start);
+        }
+
+        double executionTime = clock.getTimestamp() - start;
+
+        synchronized(this) {
+            if(!Double.isNaN(lastStart)) {
+                double actualPeriod = start - lastStart;
+                iterations++;
+                periodSum += actualPeriod;
+                periodSquaredSum += actualPeriod * actualPeriod;
+                minPeriod = Math.min(minPeriod, actualPeriod);
+                maxPeriod = Math.max(maxPeriod, actualPeriod);
+                if(actualPeriod > period * OVERRUN_TOLERANCE)
+                    overruns++;
+            }
+            maxExecutionTime = Math.max(maxExecutionTime, executionTime);
+            lastStart = start;
+        }
+    }
+
+    public synchronized void resetStatistics() {
+        lastStart = Double.NaN;
+        iterations = 0;
+        periodSum = periodSquaredSum = 0;
+        minPeriod = Double.POSITIVE_INFINITY;
+        maxPeriod = 0;
+        maxExecutionTime = 0;
+        overruns = 0;
+    }
+
+    /**
+     * @return Target period in seconds
+     */
+    public double getPeriod() {
+        return period;
+    }
+
+    /**
+     * @return Number of measured periods since statistics were reset
+     */
+    public synchronized long getIterations() {
+        return iterations;
+    }
+
+    /**
+     * @return Mean time between iterations in seconds
+     */
+    public synchronized double getMeanPeriod() {
+        return iterations == 0 ? 0 : periodSum / iterations;
+    }
+
+    /**
+     * @return Standard deviation of the time between iterations in seconds
+     */
+    public synchronized double getJitter() {
+        if(iterations == 0)
+            return 0;
+        double mean = periodSum / iterations;
+        return Math.sqrt(Math.max(periodSquaredSum / iterations - mean * mean, 0));
+    }
+
+    public synchronized double getMinPeriod() {
+        return iterations == 0 ? 0 : minPeriod;
+    }
+
+    public synchronized double getMaxPeriod() {
+        return maxPeriod;
+    }
+
+    /**
+     * @return Longest time spent running the loops in one iteration, in seconds
+     */
+    public synchronized double getMaxExecutionTime() {
+        return maxExecutionTime;
+    }
+
+    /**
+     * @return Iterations that started more than 1.5 periods after the previous one
+     */
+    public synchronized long getOverruns() {
+        return overruns;
+    }
+
+    /**
+     * @return One line summary of the statistics in milliseconds
+     */
+    public synchronized String report() {
+        return String.format("Control loop: %d iterations, period mean %.2f min %.2f max %.2f jitter %.3f ms, " +
+                        "max execution %.2f ms, %d overruns",
+                iterations, getMeanPeriod() * 1000, getMinPeriod() * 1000, maxPeriod * 1000, getJitter() * 1000,
+                maxExecutionTime * 1000, overruns);
+    }
+
+}
@@ -0,0 +1,171 @@
+package frc.team4159.robot.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Stand-in DashboardServer client that measures throughput, latency and skipped frames. Latency uses the frame's
+ * System.nanoTime(), so it is only meaningful on the machine running the server.
+ *
+ *   java -cp FRCUserProgram.jar frc.team4159.robot.util.DashboardClient [host] [port] [seconds] [read delay ms]
+ *
+ * With "local" as the host it starts a server in this JVM fed by a fake 50 Hz robot loop, then connects one client
+ * that keeps up and one that reads slowly, to check that the slow one skips frames without holding up the other.
+ */
+
+public class DashboardClient {
+
+    private static final int PORT = 5805;
+    private static final double RATE_HZ = 20;
+    private static final int LOCAL_CHANNELS = 50;
+
+    private final String host;
+    private final int port;
+    private final long readDelayMs;
+
+    /* Results */
+    private int frames;
+    private long bytes, skipped;
+    private long[] latencies = new long[1024];
+
+    public DashboardClient(String host, int port, long readDelayMs) {
+        this.host = host;
+        this.port = port;
+        this.readDelayMs = readDelayMs;
+    }
+
+    public static void main(String[] args) throws Exception {
+
+        String host = args.length > 0 ? args[0] : "local";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : PORT;
+        double seconds = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+
+        if(host.equals("local")) {
+            startLocalServer(port);
+            DashboardClient fast = new DashboardClient("localhost", port, 0);
+            DashboardClient slow = new DashboardClient("localhost", port, args.length > 3 ? Long.parseLong(args[3]) : 200);
+            Thread slowThread = new Thread(() -> slow.runQuietly(seconds), "SlowClient");
+            slowThread.start();
+            fast.run(seconds);
+            slowThread.join();
+            fast.print("Fast client", seconds);
+            slow.print("Slow client", seconds);
+            DashboardServer server = DashboardServer.getInstance();
+            System.out.println("Server sent " + server.getFramesSent() + " frames, skipped " + server.getFramesSkipped());
+        } else {
+            DashboardClient client = new DashboardClient(host, port, args.length > 3 ? Long.parseLong(args[3]) : 0);
+            client.run(seconds);
+            client.print("Client", seconds);
+        }
+
+        System.exit(0);
+    }
+
+    /**
+     * Start a server with LOCAL_CHANNELS channels and a thread committing a frame every 20 ms
+     */
+    private static void startLocalServer(int port) {
+
+        DashboardServer server = DashboardServer.getInstance();
+        int first = server.addChannel("channel 0");
+        for(int i = 1; i < LOCAL_CHANNELS; i++)
+            server.addChannel("channel " + i);
+        if(!server.start(port, RATE_HZ))
+            throw new IllegalStateException("Could not start the server on port " + port);
+
+        Thread loop = new Thread(() -> {
+            long start = System.nanoTime();
+            while(true) {
+                double timestamp = (System.nanoTime() - start) / 1e9;
+                for(int i = 0; i < LOCAL_CHANNELS; i++)
+                    server.set(first + i, timestamp * i);
+                server.commit(timestamp);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException ex) {
+                    return;
+                }
+            }
+        }, "FakeRobotLoop");
+        loop.setDaemon(true);
+        loop.start();
+    }
+
+    private void runQuietly(double seconds) {
+        try {
+            run(seconds);
+        } catch (IOException ex) {
+            System.err.println("Client error:  " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Read frames for the given time
+     */
+    public void run(double seconds) throws IOException {
+
+        long end = System.nanoTime() + (long) (seconds * 1e9);
+        long lastSeq = -1;
+
+        try(Socket socket = new Socket()) {
+
+            socket.setReceiveBufferSize(4096); // Small, so a slow client is noticed quickly
+            socket.connect(new InetSocketAddress(host, port));
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8),
+                    256);
+            in.readLine(); // Channel names
+
+            String line;
+            while(System.nanoTime() < end && (line = in.readLine()) != null) {
+                long now = System.nanoTime();
+                bytes += line.length() + 1;
+
+                long seq = field(line, "\"seq\":");
+                long ns = field(line, "\"ns\":");
+                if(lastSeq >= 0 && seq > lastSeq + 1)
+                    skipped += seq - lastSeq - 1;
+                lastSeq = seq;
+
+                if(frames == latencies.length)
+                    latencies = Arrays.copyOf(latencies, frames * 2);
+                latencies[frames++] = now - ns;
+
+                if(readDelayMs > 0) {
+                    try {
+                        Thread.sleep(readDelayMs);
+                    } catch (InterruptedException ex) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    private static long field(String line, String name) {
+        int start = line.indexOf(name) + name.length();
+        int end = start;
+        while(end < line.length() && (Character.isDigit(line.charAt(end)) || line.charAt(end) == '-'))
+            end++;
+        return Long.parseLong(line.substring(start, end));
+    }
+
+    private void print(String name, double seconds) {
+        long[] sorted = Arrays.copyOf(latencies, frames);
+        Arrays.sort(sorted);
+        System.out.printf("%s: %d frames (%.1f/s), %.1f KB/s, %d skipped, latency p50 %.2f ms p99 %.2f ms max %.2f ms%n",
+                name, frames, frames / seconds, bytes / seconds / 1024, skipped,
+                percentile(sorted, 0.5), percentile(sorted, 0.99), percentile(sorted, 1));
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        if(sorted.length == 0)
+            return 0;
+        return sorted[(int) Math.min(sorted.length - 1, Math.round(fraction * (sorted.length - 1)))] / 1e6;
+    }
+
+}
@@ -0,0 +1,232 @@
+package frc.team4159.robot.util;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.networktables.NetworkTableInstance;
+
+import java.util.ArrayList;
+
+/**
+ * Publishes dashboard values to the SmartDashboard table in one batch per BATCH_PERIOD instead of on every loop.
+ * Code sets values on typed channels, which is cheap. publish() sends a channel's value only if the channel's own period
+ * has passed and the value has changed, by more than its threshold for numbers.
+ */
+
+public class DashboardPublisher {
+
+    private static DashboardPublisher instance;
+
+    public static synchronized DashboardPublisher getInstance() {
+        if(instance == null)
+            instance = new DashboardPublisher(Clock.FPGA);
+        return instance;
+    }
+
+    /* Seconds between batches */
+    private static final double BATCH_PERIOD = 0.1;
+
+    /* Seconds between updates of the publisher's own rates */
+    private static final double STATS_PERIOD = 1.0;
+
+    /**
+     * One dashboard value
+     */
+    public static abstract class Channel {
+
+        private final String key;
+        private final double period;
+        private double lastPublished = Double.NEGATIVE_INFINITY;
+        private NetworkTableEntry entry;
+
+        /* Sets since the last batch, for comparing with putting every value every loop */
+        int sets;
+
+        Channel(String key, double period) {
+            this.key = key;
+            this.period = period;
+        }
+
+        /**
+         * @return True if the value was sent
+         */
+        boolean publish(NetworkTable table, double timestamp) {
+            if(timestamp - lastPublished < period || !changed())
+                return false;
+            if(entry == null)
+                entry = table.getEntry(key);
+            send(entry);
+            lastPublished = timestamp;
+            return true;
+        }
+
+        abstract boolean changed();
+
+        abstract void send(NetworkTableEntry entry);
+
+        public String getKey() {
+            return key;
+        }
+    }
+
+    public static class NumberChannel extends Channel {
+
+        private final double threshold;
+        private double value;
+        private double sent = Double.NaN;
+
+        NumberChannel(String key, double period, double threshold) {
+            super(key, period);
+            this.threshold = threshold;
+        }
+
+        public void set(double value) {
+            this.value = value;
+            sets++;
+        }
+
+        @Override
+        boolean changed() {
+            return Double.isNaN(sent) || Math.abs(value - sent) > threshold;
+        }
+
+        @Override
+        void send(NetworkTableEntry entry) {
+            entry.setDouble(value);
+            sent = value;
+        }
+    }
+
+    public static class BooleanChannel extends Channel {
+
+        private boolean value;
+        private boolean sent;
+        private boolean hasSent;
+
+        BooleanChannel(String key, double period) {
+            super(key, period);
+        }
+
+        public void set(boolean value) {
+            this.value = value;
+            sets++;
+        }
+
+        @Override
+        boolean changed() {
+            return !hasSent || value != sent;
+        }
+
+        @Override
+        void send(NetworkTableEntry entry) {
+            entry.setBoolean(value);
+            sent = value;
+            hasSent = true;
+        }
+    }
+
+    public static class StringChannel extends Channel {
+
+        private String value = "";
+        private String sent;
+
+        StringChannel(String key, double period) {
+            super(key, period);
+        }
+
+        /**
+         * @param value Compared by reference first, so pass constants to keep this cheap
+         */
+        public void set(String value) {
+            this.value = value;
+            sets++;
+        }
+
+        @Override
+        boolean changed() {
+            return sent == null || (value != sent && !value.equals(sent));
+        }
+
+        @Override
+        void send(NetworkTableEntry entry) {
+            entry.setString(value);
+            sent = value;
+        }
+    }
+
+    private final Clock clock;
+    private final ArrayList<Channel> channels = new ArrayList<>();
+    private NetworkTable table;
+
+    private double lastBatch = Double.NEGATIVE_INFINITY;
+
+    /* Totals since the last stats update, and the resulting rates */
+    private double statsStart = Double.NaN;
+    private long updates, sets;
+    private NumberChannel updateRate, setRate;
+
+    DashboardPublisher(Clock clock) {
+        this.clock = clock;
+        updateRate = number("Dashboard updates per second", STATS_PERIOD, 0.5);
+        setRate = number("Dashboard values set per second", STATS_PERIOD, 0.5);
+    }
+
+    /**
+     * @param period Fewest seconds between updates
+     * @param threshold Smallest change that is sent
+     */
+    public synchronized NumberChannel number(String key, double period, double threshold) {
+        return add(new NumberChannel(key, period, threshold));
+    }
+
+    /**
+     * @param period Fewest seconds between updates
+     */
+    public synchronized BooleanChannel bool(String key, double period) {
+        return add(new BooleanChannel(key, period));
+    }
+
+    /**
+     * @param period Fewest seconds between updates
+     */
+    public synchronized StringChannel string(String key, double period) {
+        return add(new StringChannel(key, period));
+    }
+
+    private <T extends Channel> T add(T channel) {
+        channels.add(channel);
+        return channel;
+    }
+
+    /**
+     * Send every changed channel that is due, at most once per BATCH_PERIOD. Call once per robot loop.
+     */
+    public synchronized void publish() {
+
+        double timestamp = clock.getTimestamp();
+        if(timestamp - lastBatch < BATCH_PERIOD)
+            return;
+        lastBatch = timestamp;
+
+        if(table == null)
+            table = NetworkTableInstance.getDefault().getTable("SmartDashboard");
+
+        for(int i = 0; i < channels.size(); i++) {
+            Channel channel = channels.get(i);
+            sets += channel.sets;
+            channel.sets = 0;
+            if(channel.publish(table, timestamp))
+                updates++;
+        }
+
+        if(Double.isNaN(statsStart)) {
+            statsStart = timestamp;
+        } else if(timestamp - statsStart >= STATS_PERIOD) {
+            updateRate.set(updates / (timestamp - statsStart));
+            setRate.set(sets / (timestamp - statsStart));
+            updates = 0;
+            sets = 0;
+            statsStart = timestamp;
+        }
+    }
+
+}
@@ -1,4 +1,385 @@
 package frc.team4159.robot.util;
 
+import edu.wpi.first.wpilibj.DriverStation;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Streams selected telemetry channels to TCP clients as newline-delimited JSON, from one non-blocking selector thread.
+ * Clients first get {"channels":[...],"rate":hz}, then one {"seq":n,"t":seconds,"ns":nanoTime,"v":[...]} line per
+ * frame. "t" is the robot timestamp of the values and "ns" is System.nanoTime() when the frame was encoded, for
+ * measuring latency on the same machine.
+ *
+ * The robot loop sets values and commits a frame without blocking or allocating. Frames are handed to the server
+ * thread through a triple buffer, so the server only ever sees whole frames. A client that has not finished reading the
+ * previous frame skips the next one instead of holding anything up.
+ */
+
 public class DashboardServer {
+
+    private static DashboardServer instance;
+
+    public static synchronized DashboardServer getInstance() {
+        if(instance == null)
+            instance = new DashboardServer();
+        return instance;
+    }
+
+    /* Most bytes a client may have waiting to be sent before it starts skipping frames */
+    private static final int CLIENT_BUFFER_BYTES = 64 * 1024;
+
+    /* Kernel send buffer per client. Small, so a slow client fills it and starts skipping after a few frames rather
+     * than falling seconds behind */
+    private static final int SOCKET_BUFFER_BYTES = 8 * 1024;
+
+    /* Longest a long and a double can be as appended to a StringBuilder, e.g. "-1.2345678901234567E-308" */
+    private static final int MAX_LONG_CHARS = 20;
+    private static final int MAX_DOUBLE_CHARS = 24;
+
+    /**
+     * Values for one loop
+     */
+    private static class Frame {
+        double timestamp;
+        double[] values;
+        boolean fresh;
+
+        Frame(int channels) {
+            values = new double[channels];
+        }
+    }
+
+    /**
+     * One connected client and the bytes still to be sent to it
+     */
+    private static class Client {
+        final SocketChannel channel;
+        final ByteBuffer output = ByteBuffer.allocate(CLIENT_BUFFER_BYTES);
+
+        Client(SocketChannel channel) {
+            this.channel = channel;
+            output.flip(); // Start empty, in read mode
+        }
+    }
+
+    private final ArrayList<String> channelNames = new ArrayList<>();
+
+    /* Triple buffer. The robot loop fills back, the server thread reads front, and latest is the one between them. */
+    private Frame back, front;
+    private AtomicReference<Frame> latest;
+
+    private volatile boolean running;
+    private volatile long framesSent;
+    private volatile long framesSkipped;
+    private volatile int clientCount;
+
+    private DashboardServer() {
+    }
+
+    /**
+     * @param name Channel name, e.g. "drive/left position"
+     * @return Channel number to set, or -1 if the server has already started
+     */
+    public synchronized int addChannel(String name) {
+        if(latest != null) {
+            DriverStation.reportWarning("Dashboard channel " + name + " added after the server started", false);
+            return -1;
+        }
+        channelNames.add(name);
+        return channelNames.size() - 1;
+    }
+
+    /**
+     * Listen for clients on every interface and start the server thread. Does not start if a frame or the channel list
+     * could be longer than a client's buffer, since clients need every line whole.
+     * @param port TCP port. The field allows 5800 to 5810 for team use
+     * @param rateHz Frames per second sent to each client
+     * @return True if the server started
+     */
+    public synchronized boolean start(int port, double rateHz) {
+
+        if(latest != null)
+            return running;
+
+        int channels = channelNames.size();
+        byte[] hello = hello(rateHz);
+        int frameBytes = maxFrameBytes(channels);
+        if(hello.length > CLIENT_BUFFER_BYTES || frameBytes > CLIENT_BUFFER_BYTES) {
+            DriverStation.reportError(String.format("Dashboard server not started: %d channels need up to %d bytes per "
+                    + "frame and %d for the channel list, over the %d byte client buffer", channels, frameBytes,
+                    hello.length, CLIENT_BUFFER_BYTES), false);
+            return false;
+        }
+
+        back = new Frame(channels);
+        front = new Frame(channels);
+        latest = new AtomicReference<>(new Frame(channels));
+
+        Selector selector;
+        ServerSocketChannel server;
+        try {
+            selector = Selector.open();
+            server = ServerSocketChannel.open();
+            server.bind(new InetSocketAddress(port));
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException ex) {
+            DriverStation.reportError("Error starting dashboard server on port " + port + ":  " + ex.getMessage(), false);
+            return false;
+        }
+
+        running = true;
+        Thread thread = new Thread(() -> serve(selector, server, hello, rateHz), "DashboardServer");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+
+        System.out.println("Streaming " + channels + " dashboard channels on port " + port + " at " + rateHz + " Hz");
+        return true;
+    }
+
+    /**
+     * Set a value for the next commit(). Call only from the robot loop.
+     */
+    public void set(int channel, double value) {
+        if(running && channel >= 0)
+            back.values[channel] = value;
+    }
+
+    /**
+     * Set true as 1 and false as 0
+     */
+    public void set(int channel, boolean value) {
+        set(channel, value ? 1 : 0);
+    }
+
+    /**
+     * Hand the values set so far to the server thread as one frame. Call only from the robot loop, once per loop.
+     * @param timestamp Time of the values in seconds
+     */
+    public void commit(double timestamp) {
+
+        if(!running)
+            return;
+
+        back.timestamp = timestamp;
+        back.fresh = true;
+        double[] values = back.values;
+        back = latest.getAndSet(back);
+
+        /* Carry values forward so channels that are not set every loop keep their last value */
+        System.arraycopy(values, 0, back.values, 0, values.length);
+    }
+
+    /**
+     * Server thread. Accepts clients, drops closed ones, and sends a frame every 1 / rateHz seconds.
+     */
+    private void serve(Selector selector, ServerSocketChannel server, byte[] hello, double rateHz) {
+
+        ArrayList<Client> clients = new ArrayList<>();
+        long period = (long) (1e9 / rateHz);
+        long nextFrame = System.nanoTime();
+        long seq = 0;
+        ByteBuffer scratch = ByteBuffer.allocate(1024);
+        StringBuilder json = new StringBuilder();
+
+        try {
+            while(running) {
+
+                long wait = (nextFrame - System.nanoTime()) / 1_000_000;
+                if(wait > 0)
+                    selector.select(wait);
+                else
+                    selector.selectNow();
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while(keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+
+                    if(!key.isValid())
+                        continue;
+
+                    if(key.isAcceptable()) {
+                        SocketChannel channel = server.accept();
+                        if(channel == null)
+                            continue;
+                        channel.configureBlocking(false);
+                        channel.socket().setTcpNoDelay(true);
+                        channel.socket().setSendBufferSize(SOCKET_BUFFER_BYTES);
+                        Client client = new Client(channel);
+                        channel.register(selector, SelectionKey.OP_READ, client);
+                        clients.add(client);
+                        enqueue(client, hello);
+                        flush(client, selector);
+                        continue;
+                    }
+
+                    Client client = (Client) key.attachment();
+                    try {
+                        if(key.isReadable()) {
+                            /* Clients do not send anything, so this only notices them closing */
+                            scratch.clear();
+                            if(client.channel.read(scratch) < 0) {
+                                close(client, clients);
+                                continue;
+                            }
+                        }
+                        if(key.isValid() && key.isWritable())
+                            flush(client, selector);
+                    } catch (IOException ex) {
+                        close(client, clients);
+                    }
+                }
+                clientCount = clients.size();
+
+                if(System.nanoTime() - nextFrame < 0)
+                    continue;
+                nextFrame += period;
+                if(System.nanoTime() - nextFrame > period)
+                    nextFrame = System.nanoTime() + period; // Fell far behind, do not try to catch up
+
+                if(!latest.get().fresh || clients.isEmpty())
+                    continue;
+                front.fresh = false;
+                front = latest.getAndSet(front);
+
+                byte[] frame = encode(json, seq++, front);
+                for(int i = clients.size() - 1; i >= 0; i--) {
+                    Client client = clients.get(i);
+                    if(client.output.hasRemaining()) {
+                        framesSkipped++;
+                        continue;
+                    }
+                    enqueue(client, frame);
+                    try {
+                        flush(client, selector);
+                        framesSent++;
+                    } catch (IOException ex) {
+                        close(client, clients);
+                    }
+                }
+            }
+        } catch (IOException ex) {
+            DriverStation.reportError("Dashboard server stopped:  " + ex.getMessage(), false);
+        }
+
+        running = false;
+        for(int i = clients.size() - 1; i >= 0; i--)
+            close(clients.get(i), clients);
+        try {
+            server.close();
+            selector.close();
+        } catch (IOException ex) {
+            DriverStation.reportWarning("Error closing dashboard server:  " + ex.getMessage(), false);
+        }
+    }
+
+    private byte[] hello(double rateHz) {
+        StringBuilder json = new StringBuilder("{\"channels\":[");
+        for(int i = 0; i < channelNames.size(); i++) {
+            if(i > 0)
+                json.append(',');
+            json.append('"').append(channelNames.get(i).replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+        }
+        json.append("],\"rate\":").append(rateHz).append("}\n");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return Most bytes encode() can produce for a frame of this many channels
+     */
+    private static int maxFrameBytes(int channels) {
+        int bytes = "{\"seq\":".length() + MAX_LONG_CHARS
+                + ",\"t\":".length() + MAX_DOUBLE_CHARS
+                + ",\"ns\":".length() + MAX_LONG_CHARS
+                + ",\"v\":[".length() + "]}\n".length();
+        return bytes + channels * (MAX_DOUBLE_CHARS + 1);
+    }
+
+    private static byte[] encode(StringBuilder json, long seq, Frame frame) {
+        json.setLength(0);
+        json.append("{\"seq\":").append(seq)
+                .append(",\"t\":").append(frame.timestamp)
+                .append(",\"ns\":").append(System.nanoTime())
+                .append(",\"v\":[");
+        for(int i = 0; i < frame.values.length; i++) {
+            if(i > 0)
+                json.append(',');
+            double value = frame.values[i];
+            if(Double.isNaN(value) || Double.isInfinite(value))
+                json.append("null");
+            else
+                json.append(value);
+        }
+        json.append("]}\n");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Queue bytes for a client whose buffer is empty. start() checked that every line fits.
+     */
+    private static void enqueue(Client client, byte[] bytes) {
+        client.output.clear();
+        client.output.put(bytes);
+        client.output.flip();
+    }
+
+    /**
+     * Write as much as the socket takes, and only ask the selector about writability while something is left
+     */
+    private static void flush(Client client, Selector selector) throws IOException {
+        client.channel.write(client.output);
+        SelectionKey key = client.channel.keyFor(selector);
+        if(key != null && key.isValid())
+            key.interestOps(client.output.hasRemaining() ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+    }
+
+    private static void close(Client client, ArrayList<Client> clients) {
+        clients.remove(client);
+        try {
+            client.channel.close();
+        } catch (IOException ex) {
+            DriverStation.reportWarning("Error closing dashboard client:  " + ex.getMessage(), false);
+        }
+    }
+
+    /**
+     * Stop the server thread and disconnect every client. The server cannot be restarted.
+     */
+    public void stop() {
+        running = false;
+    }
+
+    /**
+     * @return Frames sent, counting each client separately
+     */
+    public long getFramesSent() {
+        return framesSent;
+    }
+
+    /**
+     * @return Frames skipped because a client had not read the previous one
+     */
+    public long getFramesSkipped() {
+        return framesSkipped;
+    }
+
+    /**
+     * @return Number of connected clients
+     */
+    public int getClientCount() {
+        return clientCount;
+    }
+
 }
@@ -0,0 +1,159 @@
+package frc.team4159.robot.util;
+
+import edu.wpi.first.wpilibj.DriverStation;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+
+import static frc.team4159.robot.Constants.UNITS_PER_REV;
+import static frc.team4159.robot.Constants.WHEEL_CIRCUMFERANCE;
+
+/**
+ * Per-side drivetrain feedforward gains fit by FeedforwardFitter from CharacterizeDrive runs:
+ *
+ *   volts = kS * sign(velocity) + kV * velocity + kA * acceleration
+ *
+ * with velocity in feet per second and acceleration in feet per second squared, the units of the trajectories.
+ * Loaded once from FILE on the roboRIO, or the file given by -Dfeedforward=... in simulation. Without the file, get()
+ * returns null and callers keep their old gains.
+ */
+
+public class DriveFeedforward {
+
+    /* Copy the fitter's output here on the roboRIO */
+    public static final String FILE = "/home/lvuser/drive_feedforward.properties";
+
+    /* Voltage the gains are scaled by to get percent output */
+    public static final double NOMINAL_VOLTAGE = 12;
+
+    /**
+     * Gains for one side of the drivetrain
+     */
+    public static class Side {
+
+        public final double kS, kV, kA;
+
+        public Side(double kS, double kV, double kA) {
+            this.kS = kS;
+            this.kV = kV;
+            this.kA = kA;
+        }
+
+        /**
+         * @param velocity Feet per second
+         * @param acceleration Feet per second squared
+         * @return Volts needed to hold that velocity and acceleration
+         */
+        public double volts(double velocity, double acceleration) {
+            return (velocity == 0 ? 0 : Math.copySign(kS, velocity)) + kV * velocity + kA * acceleration;
+        }
+
+        /**
+         * @return Highest speed in feet per second this side reaches at NOMINAL_VOLTAGE
+         */
+        public double getMaxVelocity() {
+            return (NOMINAL_VOLTAGE - kS) / kV;
+        }
+
+        /**
+         * @return Talon velocity mode kF: 1023 output units per native unit per 100 ms
+         */
+        public double getTalonKF() {
+            double feetPerSecondPerNative = 10.0 / UNITS_PER_REV * WHEEL_CIRCUMFERANCE;
+            return 1023 * kV / NOMINAL_VOLTAGE * feetPerSecondPerNative;
+        }
+    }
+
+    private static DriveFeedforward loaded;
+    private static boolean triedLoading;
+
+    private final Side left, right;
+
+    public DriveFeedforward(Side left, Side right) {
+        this.left = left;
+        this.right = right;
+    }
+
+    /**
+     * @return Gains from FILE, or null if the drivetrain has not been characterized. Read once.
+     */
+    public static synchronized DriveFeedforward get() {
+
+        if(!triedLoading) {
+            triedLoading = true;
+            File file = new File(System.getProperty("feedforward", FILE));
+            if(file.exists()) {
+                try {
+                    loaded = read(file);
+                    System.out.println("Loaded drive feedforward from " + file);
+                } catch (IOException | RuntimeException ex) {
+                    DriverStation.reportError("Error loading " + file + ", using default gains:  " + ex.getMessage(),
+                            false);
+                }
+            }
+        }
+
+        return loaded;
+    }
+
+    public static DriveFeedforward read(File file) throws IOException {
+
+        Properties properties = new Properties();
+        try(InputStream in = new FileInputStream(file)) {
+            properties.load(in);
+        }
+
+        return new DriveFeedforward(side(properties, "left"), side(properties, "right"));
+    }
+
+    private static Side side(Properties properties, String name) throws IOException {
+        return new Side(number(properties, name + ".kS"), number(properties, name + ".kV"),
+                number(properties, name + ".kA"));
+    }
+
+    private static double number(Properties properties, String key) throws IOException {
+        String value = properties.getProperty(key);
+        if(value == null)
+            throw new IOException("Missing " + key);
+        return Double.parseDouble(value.trim());
+    }
+
+    /**
+     * @param comment Written at the top of the file, e.g. how well the gains fit
+     */
+    public void write(File file, String comment) throws IOException {
+
+        Properties properties = new Properties();
+        properties.setProperty("left.kS", Double.toString(left.kS));
+        properties.setProperty("left.kV", Double.toString(left.kV));
+        properties.setProperty("left.kA", Double.toString(left.kA));
+        properties.setProperty("right.kS", Double.toString(right.kS));
+        properties.setProperty("right.kV", Double.toString(right.kV));
+        properties.setProperty("right.kA", Double.toString(right.kA));
+
+        try(OutputStream out = new FileOutputStream(file)) {
+            properties.store(out, comment);
+        }
+    }
+
+    public Side getLeft() {
+        return left;
+    }
+
+    public Side getRight() {
+        return right;
+    }
+
+    /**
+     * @return Speed in feet per second both sides can reach at NOMINAL_VOLTAGE
+     */
+    public double getMaxVelocity() {
+        return Math.min(left.getMaxVelocity(), right.getMaxVelocity());
+    }
+
+}
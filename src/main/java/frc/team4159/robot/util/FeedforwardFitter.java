@@ -0,0 +1,219 @@
+package frc.team4159.robot.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fits DriveFeedforward gains to the characterization_*.csv files CharacterizeDrive writes. Each side is fit
+ * separately by least squares on
+ *
+ *   volts = kS * sign(velocity) + kV * velocity + kA * acceleration
+ *
+ * using every sample from every file, with acceleration recomputed from a central difference of the velocity since
+ * differencing neighbouring samples is too noisy. Samples where the side is barely moving are left out, since static
+ * friction holds it still at any voltage below kS. Copy the files off the roboRIO into logs and run
+ * `./gradlew fitFeedforward`, then copy drive_feedforward.properties to /home/lvuser.
+ */
+
+public class FeedforwardFitter {
+
+    /* Samples slower than this, in feet per second, are left out */
+    private static final double MIN_VELOCITY = 0.1;
+
+    /* Acceleration is the velocity change over this many samples either side */
+    private static final int ACCELERATION_SPAN = 2;
+
+    /**
+     * Normal equations of the least squares fit for one side, added to one sample at a time
+     */
+    private static class Fit {
+
+        private final double[][] normal = new double[3][3];
+        private final double[] target = new double[3];
+        private double sum, sumOfSquares;
+        private int samples;
+
+        void add(double volts, double velocity, double acceleration) {
+            double[] row = {Math.signum(velocity), velocity, acceleration};
+            for(int i = 0; i < 3; i++) {
+                for(int j = 0; j < 3; j++)
+                    normal[i][j] += row[i] * row[j];
+                target[i] += row[i] * volts;
+            }
+            sum += volts;
+            sumOfSquares += volts * volts;
+            samples++;
+        }
+
+        /**
+         * @return kS, kV and kA
+         */
+        double[] solve() {
+            return FeedforwardFitter.solve(normal, target);
+        }
+
+        /**
+         * @return Fraction of the variance in voltage explained by the gains, 1 for a perfect fit
+         */
+        double rSquared(double[] gains) {
+            /* Residual sum of squares from the normal equations: y'y - 2 b'X'y + b'X'X b */
+            double residual = sumOfSquares;
+            for(int i = 0; i < 3; i++) {
+                residual -= 2 * gains[i] * target[i];
+                for(int j = 0; j < 3; j++)
+                    residual += gains[i] * normal[i][j] * gains[j];
+            }
+            double total = sumOfSquares - sum * sum / samples;
+            return total > 0 ? 1 - residual / total : 0;
+        }
+    }
+
+    /**
+     * @param args Directory of characterization files, default logs, and the output file, default
+     *             drive_feedforward.properties
+     */
+    public static void main(String[] args) throws IOException {
+
+        File directory = new File(args.length > 0 ? args[0] : "logs");
+        File output = new File(args.length > 1 ? args[1] : "drive_feedforward.properties");
+
+        File[] files = directory.listFiles(
+                (dir, name) -> name.startsWith("characterization_") && name.endsWith(".csv"));
+        if(files == null || files.length == 0) {
+            System.out.println("No characterization_*.csv files in " + directory);
+            System.exit(1);
+        }
+        Arrays.sort(files);
+
+        Fit left = new Fit();
+        Fit right = new Fit();
+        for(File file : files) {
+            int used = read(file, left, right);
+            System.out.println(file.getName() + ": " + used + " samples");
+        }
+
+        if(left.samples < 3 || right.samples < 3) {
+            System.out.println("Not enough moving samples to fit");
+            System.exit(1);
+        }
+
+        double[] leftGains = left.solve();
+        double[] rightGains = right.solve();
+        double leftRSquared = left.rSquared(leftGains);
+        double rightRSquared = right.rSquared(rightGains);
+
+        System.out.printf("Left:  kS %.4f V, kV %.4f V per ft/s, kA %.4f V per ft/s^2, r^2 %.4f (%d samples)%n",
+                leftGains[0], leftGains[1], leftGains[2], leftRSquared, left.samples);
+        System.out.printf("Right: kS %.4f V, kV %.4f V per ft/s, kA %.4f V per ft/s^2, r^2 %.4f (%d samples)%n",
+                rightGains[0], rightGains[1], rightGains[2], rightRSquared, right.samples);
+
+        DriveFeedforward feedforward = new DriveFeedforward(
+                new DriveFeedforward.Side(leftGains[0], leftGains[1], leftGains[2]),
+                new DriveFeedforward.Side(rightGains[0], rightGains[1], rightGains[2]));
+        System.out.printf("Max velocity %.2f ft/s, Talon kF left %.4f right %.4f%n", feedforward.getMaxVelocity(),
+                feedforward.getLeft().getTalonKF(), feedforward.getRight().getTalonKF());
+
+        feedforward.write(output, String.format("Fit from %d files in %s, r^2 left %.4f right %.4f", files.length,
+                directory, leftRSquared, rightRSquared));
+        System.out.println("Wrote " + output);
+    }
+
+    /**
+     * Add the moving samples of one file to both sides' fits
+     * @return Samples used per side
+     */
+    private static int read(File file, Fit left, Fit right) throws IOException {
+
+        List<String> lines = Files.readAllLines(file.toPath());
+        if(lines.isEmpty())
+            return 0;
+
+        List<String> header = Arrays.asList(lines.get(0).split(","));
+        int time = column(header, "time", file);
+        int leftVolts = column(header, "left volts", file);
+        int rightVolts = column(header, "right volts", file);
+        int leftVelocity = column(header, "left velocity", file);
+        int rightVelocity = column(header, "right velocity", file);
+
+        int rows = lines.size() - 1;
+        double[][] values = new double[rows][];
+        for(int i = 0; i < rows; i++) {
+            String[] fields = lines.get(i + 1).split(",");
+            values[i] = new double[fields.length];
+            for(int j = 0; j < fields.length; j++)
+                values[i][j] = Double.parseDouble(fields[j]);
+        }
+
+        int used = 0;
+        for(int i = ACCELERATION_SPAN; i < rows - ACCELERATION_SPAN; i++) {
+            double[] before = values[i - ACCELERATION_SPAN];
+            double[] after = values[i + ACCELERATION_SPAN];
+            double dt = after[time] - before[time];
+            if(dt <= 0)
+                continue;
+
+            double[] sample = values[i];
+            if(Math.abs(sample[leftVelocity]) >= MIN_VELOCITY) {
+                left.add(sample[leftVolts], sample[leftVelocity], (after[leftVelocity] - before[leftVelocity]) / dt);
+                used++;
+            }
+            if(Math.abs(sample[rightVelocity]) >= MIN_VELOCITY) {
+                right.add(sample[rightVolts], sample[rightVelocity],
+                        (after[rightVelocity] - before[rightVelocity]) / dt);
+            }
+        }
+        return used;
+    }
+
+    private static int column(List<String> header, String name, File file) throws IOException {
+        int index = header.indexOf(name);
+        if(index < 0)
+            throw new IOException(file + " has no " + name + " column");
+        return index;
+    }
+
+    /**
+     * Solve a 3x3 system by Gaussian elimination with partial pivoting
+     */
+    private static double[] solve(double[][] a, double[] b) {
+
+        int n = b.length;
+        double[][] m = new double[n][n + 1];
+        for(int i = 0; i < n; i++) {
+            System.arraycopy(a[i], 0, m[i], 0, n);
+            m[i][n] = b[i];
+        }
+
+        for(int column = 0; column < n; column++) {
+            int pivot = column;
+            for(int row = column + 1; row < n; row++) {
+                if(Math.abs(m[row][column]) > Math.abs(m[pivot][column]))
+                    pivot = row;
+            }
+            if(Math.abs(m[pivot][column]) < 1e-12)
+                throw new IllegalStateException("Samples do not separate kS, kV and kA. Run both tests.");
+            double[] swap = m[column];
+            m[column] = m[pivot];
+            m[pivot] = swap;
+
+            for(int row = column + 1; row < n; row++) {
+                double factor = m[row][column] / m[column][column];
+                for(int k = column; k <= n; k++)
+                    m[row][k] -= factor * m[column][k];
+            }
+        }
+
+        double[] x = new double[n];
+        for(int row = n - 1; row >= 0; row--) {
+            double value = m[row][n];
+            for(int k = row + 1; k < n; k++)
+                value -= m[row][k] * x[k];
+            x[row] = value / m[row][row];
+        }
+        return x;
+    }
+
+}
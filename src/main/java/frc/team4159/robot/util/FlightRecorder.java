@@ -0,0 +1,292 @@
+package frc.team4159.robot.util;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.command.Command;
+import edu.wpi.first.wpilibj.command.Subsystem;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * Keeps the last few seconds of robot loops in memory, and writes them to a csv file when something goes wrong: the
+ * robot is disabled, the battery browns out, or a loop overruns. Recording only writes into preallocated arrays, so
+ * nothing is allocated and nothing touches the disk until a dump is triggered.
+ *
+ * Each frame holds one value per channel and the command each registered subsystem was running. A trigger copies the
+ * buffer into a second preallocated buffer on the robot loop, and a background thread writes that copy out, so the
+ * loop never waits on the file. Dumps share the logs' LogBudget, and a dump that fails to write is deleted.
+ */
+
+public class FlightRecorder {
+
+    private static FlightRecorder instance;
+
+    public static synchronized FlightRecorder getInstance() {
+        if(instance == null)
+            instance = new FlightRecorder();
+        return instance;
+    }
+
+    /* Ignore triggers for this long after a dump, so a run of overruns or a long brownout writes one file */
+    private static final double HOLDOFF = 5;
+
+    /* Upper bounds on the csv's size, to claim from the LogBudget before writing */
+    private static final int VALUE_CHARS = 25;
+    private static final int COMMAND_CHARS = 40;
+
+    private final ArrayList<String> channelNames = new ArrayList<>();
+    private final ArrayList<Subsystem> subsystems = new ArrayList<>();
+
+    /* Ring of frames, written by the robot loop */
+    private int capacity, channels;
+    private double[] timestamps, values;
+    private Command[] commands;
+    private int next;
+    private long frames;
+
+    /* Copy of the ring being written out. Owned by the writer thread while dumpPending is set. */
+    private double[] frozenTimestamps, frozenValues;
+    private Command[] frozenCommands;
+    private int frozenFrames, frozenStart;
+    private String frozenReason;
+    private volatile boolean dumpPending;
+
+    private double lastTrigger = Double.NEGATIVE_INFINITY;
+    private volatile int dumps;
+    private volatile int ignored;
+
+    private final Object writerLock = new Object();
+
+    private FlightRecorder() {
+    }
+
+    /**
+     * @param name Channel name, e.g. "battery voltage"
+     * @return Channel number to record, or -1 if recording has already started
+     */
+    public synchronized int addChannel(String name) {
+        if(values != null) {
+            DriverStation.reportWarning("Flight recorder channel " + name + " added after it started", false);
+            return -1;
+        }
+        channelNames.add(name);
+        return channelNames.size() - 1;
+    }
+
+    /**
+     * Record the command this subsystem is running in every frame
+     */
+    public synchronized void addSubsystem(Subsystem subsystem) {
+        if(values != null) {
+            DriverStation.reportWarning("Flight recorder subsystem " + subsystem.getName() + " added after it started",
+                    false);
+            return;
+        }
+        subsystems.add(subsystem);
+    }
+
+    /**
+     * Allocate the buffers and start the writer thread
+     * @param seconds How much history to keep
+     * @param loopHz How often frames are recorded
+     */
+    public synchronized void start(double seconds, double loopHz) {
+
+        if(values != null)
+            return;
+
+        capacity = (int) Math.ceil(seconds * loopHz);
+        channels = channelNames.size();
+
+        timestamps = new double[capacity];
+        values = new double[capacity * channels];
+        commands = new Command[capacity * subsystems.size()];
+        frozenTimestamps = new double[capacity];
+        frozenValues = new double[capacity * channels];
+        frozenCommands = new Command[capacity * subsystems.size()];
+
+        Thread thread = new Thread(this::writeDumps, "FlightRecorder");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+
+        System.out.printf("Flight recorder keeping %d frames of %d channels, %.0f KB%n", capacity, channels,
+                (capacity * (channels + 1) * 16 + commands.length * 8) / 1024.0);
+    }
+
+    /**
+     * Start a new frame, overwriting the oldest one. Channels not recorded this frame keep their previous value.
+     * Call only from the robot loop.
+     * @param timestamp Time of the frame in seconds
+     */
+    public void startFrame(double timestamp) {
+
+        if(values == null)
+            return;
+
+        if(frames > 0) {
+            int previous = (next + capacity - 1) % capacity;
+            System.arraycopy(values, previous * channels, values, next * channels, channels);
+        }
+        timestamps[next] = timestamp;
+
+        int first = next * subsystems.size();
+        for(int i = 0; i < subsystems.size(); i++)
+            commands[first + i] = subsystems.get(i).getCurrentCommand();
+    }
+
+    public void record(int channel, double value) {
+        if(values != null && channel >= 0)
+            values[next * channels + channel] = value;
+    }
+
+    public void record(int channel, boolean value) {
+        record(channel, value ? 1 : 0);
+    }
+
+    /**
+     * Finish the frame started by startFrame()
+     */
+    public void endFrame() {
+        if(values == null)
+            return;
+        next = (next + 1) % capacity;
+        frames++;
+    }
+
+    /**
+     * Freeze the buffer and write it out in the background. Ignored while a dump is being written, and for a few
+     * seconds after the last one. Call only from the robot loop.
+     * @param reason Why, e.g. "brownout". Used in the file name.
+     * @param timestamp Current time in seconds
+     * @return True if a dump was started
+     */
+    public boolean trigger(String reason, double timestamp) {
+
+        if(values == null || frames == 0)
+            return false;
+
+        if(dumpPending || timestamp - lastTrigger < HOLDOFF) {
+            ignored++;
+            return false;
+        }
+        lastTrigger = timestamp;
+
+        frozenFrames = (int) Math.min(frames, capacity);
+        frozenStart = (next + capacity - frozenFrames) % capacity;
+        frozenReason = reason;
+        System.arraycopy(timestamps, 0, frozenTimestamps, 0, capacity);
+        System.arraycopy(values, 0, frozenValues, 0, values.length);
+        System.arraycopy(commands, 0, frozenCommands, 0, commands.length);
+
+        synchronized(writerLock) {
+            dumpPending = true;
+            writerLock.notify();
+        }
+        return true;
+    }
+
+    /**
+     * Writer thread. Sleeps until a dump is triggered.
+     */
+    private void writeDumps() {
+        while(true) {
+            synchronized(writerLock) {
+                while(!dumpPending) {
+                    try {
+                        writerLock.wait();
+                    } catch (InterruptedException ex) {
+                        return;
+                    }
+                }
+            }
+
+            write();
+
+            /* References to commands would otherwise keep them alive until the next dump */
+            Arrays.fill(frozenCommands, null);
+            dumpPending = false;
+        }
+    }
+
+    private void write() {
+
+        File directory = TelemetryLog.findDirectory();
+        if(directory == null) {
+            DriverStation.reportError("No log directory, flight recorder dump (" + frozenReason + ") lost", false);
+            return;
+        }
+
+        File file = new File(directory, "flight_" + new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date()) + "_"
+                + frozenReason + ".csv");
+        long start = System.nanoTime();
+        int subsystemCount = subsystems.size();
+
+        LogBudget budget = new LogBudget(directory);
+        long size = (long) (frozenFrames + 1) * ((channels + 1) * VALUE_CHARS + subsystemCount * COMMAND_CHARS);
+        if(!budget.claim(size)) {
+            DriverStation.reportError("Flight recorder dump (" + frozenReason + ") not written, "
+                    + budget.getExhaustedReason(), false);
+            return;
+        }
+
+        try(PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(file)))) {
+
+            out.print("time");
+            for(String name : channelNames)
+                out.print("," + name);
+            for(Subsystem subsystem : subsystems)
+                out.print("," + subsystem.getName() + " command");
+            out.println();
+
+            for(int i = 0; i < frozenFrames; i++) {
+                int frame = (frozenStart + i) % capacity;
+                out.print(frozenTimestamps[frame]);
+                for(int channel = 0; channel < channels; channel++) {
+                    out.print(',');
+                    out.print(frozenValues[frame * channels + channel]);
+                }
+                for(int s = 0; s < subsystemCount; s++) {
+                    Command command = frozenCommands[frame * subsystemCount + s];
+                    out.print(',');
+                    out.print(command == null ? "" : command.getName());
+                }
+                out.println();
+            }
+
+            /* PrintWriter swallows IOExceptions, so a full disk or a pulled USB drive only shows up here */
+            if(out.checkError())
+                throw new IOException("write failed");
+        } catch (IOException ex) {
+            DriverStation.reportError("Error writing " + file + ", dump deleted:  " + ex.getMessage(), false);
+            file.delete();
+            return;
+        }
+
+        dumps++;
+        System.out.printf("Flight recorder wrote %d frames to %s in %.0f ms%n", frozenFrames, file,
+                (System.nanoTime() - start) / 1e6);
+    }
+
+    /**
+     * @return Dumps written since the robot started
+     */
+    public int getDumps() {
+        return dumps;
+    }
+
+    /**
+     * @return Triggers ignored because a dump was being written or had just been written
+     */
+    public int getIgnored() {
+        return ignored;
+    }
+
+}
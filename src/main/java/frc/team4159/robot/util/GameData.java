@@ -0,0 +1,45 @@
+package frc.team4159.robot.util;
+
+import openrio.powerup.MatchData;
+
+/**
+ * Field element ownership for auto. Reads the game specific message from the driver station unless an override has
+ * been set, so autos can be simulated for any field layout off the robot.
+ */
+
+public class GameData {
+
+    /* Three character game data like "LRL", or null to use the driver station */
+    private static volatile String override;
+
+    /**
+     * @param gameData Game data to use instead of the driver station's, e.g. "LRL". Null to clear.
+     */
+    public static void setOverride(String gameData) {
+        override = gameData;
+    }
+
+    /**
+     * @return Which side of the given feature is ours, or UNKNOWN if there is no game data yet
+     */
+    public static MatchData.OwnedSide getOwnedSide(MatchData.GameFeature feature) {
+
+        String gameData = override;
+        if(gameData == null)
+            return MatchData.getOwnedSide(feature);
+
+        int index = feature.ordinal();
+        if(gameData.length() <= index)
+            return MatchData.OwnedSide.UNKNOWN;
+
+        switch(gameData.charAt(index)) {
+            case 'L':
+                return MatchData.OwnedSide.LEFT;
+            case 'R':
+                return MatchData.OwnedSide.RIGHT;
+            default:
+                return MatchData.OwnedSide.UNKNOWN;
+        }
+    }
+
+}
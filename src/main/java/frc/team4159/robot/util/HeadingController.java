@@ -0,0 +1,153 @@
+package frc.team4159.robot.util;
+
+/**
+ * Heading controller run synchronously by its caller, one calculate() per robot loop, from the snapshot yaw. Unlike
+ * WPILib's PIDController it has no thread of its own, so its output is computed from the same sensor values as
+ * everything else in the loop and reaches the motors in that loop. Nothing is allocated after construction.
+ *
+ * Output is kP * error + kD * rate of change of heading + kS toward the setpoint, clamped to the max output. Error is
+ * wrapped to [-180, 180], so the robot turns the short way across the 180 degree seam. kS is a feedforward for the
+ * scrub of turning in place, and is only applied outside the tolerance so it does not chatter on target.
+ *
+ * The heading is settled once the error is within the tolerance and the robot is turning slower than the rate
+ * tolerance, continuously for the settle time.
+ */
+
+public class HeadingController {
+
+    private double kP, kD, kS;
+    private double maxOutput = 1;
+
+    private double tolerance = 2; // degrees
+    private double rateTolerance = 10; // degrees per second
+    private double settleTime = 0.1; // s
+
+    private double setpoint;
+    private double lastHeading, lastTimestamp;
+    private double error, rate, output;
+    private double settledSince;
+
+    public HeadingController() {
+        reset();
+    }
+
+    /**
+     * @param kP Output per degree of error
+     * @param kD Output per degree per second of turning, opposing it
+     * @param kS Output toward the setpoint added while outside the tolerance
+     * @param maxOutput Largest output magnitude, up to 1
+     */
+    public void configure(double kP, double kD, double kS, double maxOutput) {
+        this.kP = kP;
+        this.kD = kD;
+        this.kS = kS;
+        this.maxOutput = maxOutput;
+    }
+
+    /**
+     * @param tolerance Degrees of error that count as on target
+     * @param rateTolerance Degrees per second of turning that count as stopped
+     * @param settleTime Seconds both must hold before isSettled()
+     */
+    public void configureSettling(double tolerance, double rateTolerance, double settleTime) {
+        this.tolerance = tolerance;
+        this.rateTolerance = rateTolerance;
+        this.settleTime = settleTime;
+    }
+
+    /**
+     * Forget the previous heading and settling, e.g. before a new turn
+     */
+    public void reset() {
+        lastTimestamp = Double.NaN;
+        settledSince = Double.NaN;
+        error = rate = output = 0;
+    }
+
+    /**
+     * @param setpoint Heading to hold in degrees, same convention as the headings passed to calculate()
+     */
+    public void setSetpoint(double setpoint) {
+        this.setpoint = setpoint;
+        settledSince = Double.NaN;
+    }
+
+    public double getSetpoint() {
+        return setpoint;
+    }
+
+    /**
+     * @param heading Current heading in degrees
+     * @param timestamp Time the heading was read in seconds
+     * @return Output between -maxOutput and maxOutput, positive to increase the heading
+     */
+    public double calculate(double heading, double timestamp) {
+
+        error = wrap(setpoint - heading);
+
+        if(Double.isNaN(lastTimestamp)) {
+            rate = 0;
+        } else if(timestamp > lastTimestamp) {
+            rate = wrap(heading - lastHeading) / (timestamp - lastTimestamp);
+        }
+        lastHeading = heading;
+        lastTimestamp = timestamp;
+
+        boolean onTarget = Math.abs(error) <= tolerance;
+
+        output = kP * error - kD * rate;
+        if(!onTarget)
+            output += Math.copySign(kS, error);
+        output = Math.max(-maxOutput, Math.min(maxOutput, output));
+
+        if(onTarget && Math.abs(rate) <= rateTolerance) {
+            if(Double.isNaN(settledSince))
+                settledSince = timestamp;
+        } else {
+            settledSince = Double.NaN;
+        }
+
+        return output;
+    }
+
+    /**
+     * @return True if the heading has been on target and still for the settle time, as of the last calculate()
+     */
+    public boolean isSettled() {
+        return !Double.isNaN(settledSince) && lastTimestamp - settledSince >= settleTime;
+    }
+
+    /**
+     * @return Degrees from the heading to the setpoint as of the last calculate()
+     */
+    public double getError() {
+        return error;
+    }
+
+    /**
+     * @return Degrees per second the heading was changing as of the last calculate()
+     */
+    public double getRate() {
+        return rate;
+    }
+
+    /**
+     * @return Output of the last calculate()
+     */
+    public double getOutput() {
+        return output;
+    }
+
+    /**
+     * @return Angle in degrees wrapped to [-180, 180]
+     */
+    public static double wrap(double degrees) {
+        degrees %= 360;
+        if(degrees > 180)
+            degrees -= 360;
+        else if(degrees < -180)
+            degrees += 360;
+        return degrees;
+    }
+
+}
@@ -0,0 +1,152 @@
+package frc.team4159.robot.util;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Limits how much disk the logs take, since the roboRIO's flash is also where code is deployed. The files this program
+ * logs (telemetry_, inputs_ and flight_) are kept under MAX_TOTAL_BYTES per directory: when the first log of a boot
+ * opens, the oldest are deleted until this boot has at least BOOT_BYTES of room. Each log file then claims bytes
+ * before writing them, and is refused once it reaches its own limit, the boot's room is used up, or the disk has less
+ * than MIN_FREE_BYTES usable.
+ */
+
+public class LogBudget {
+
+    public static final long MAX_TOTAL_BYTES = 200L << 20;
+    public static final long BOOT_BYTES = 100L << 20;
+    public static final long MAX_FILE_BYTES = 60L << 20;
+    public static final long MIN_FREE_BYTES = 50L << 20;
+
+    /* getUsableSpace() is a system call, so it is only checked once per this many bytes claimed */
+    private static final long FREE_SPACE_CHECK_BYTES = 1L << 20;
+
+    private static final String[] PREFIXES = {"telemetry_", "inputs_", "flight_"};
+
+    /* Room left for this boot's logs in the prepared directory. Guarded by LogBudget.class */
+    private static File preparedDirectory;
+    private static long bootRemaining;
+
+    private final File directory;
+    private final long maxBytes;
+    private long claimed;
+    private long nextFreeSpaceCheck;
+    private String exhausted;
+
+    /**
+     * Budget for one log file of up to MAX_FILE_BYTES
+     * @param directory Directory the file is in
+     */
+    public LogBudget(File directory) {
+        this(directory, MAX_FILE_BYTES);
+    }
+
+    /**
+     * @param directory Directory the file is in. Old logs are deleted from it the first time it is used this boot.
+     * @param maxBytes Most bytes this file may have
+     */
+    public LogBudget(File directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        prepare(directory);
+    }
+
+    /**
+     * Delete the oldest logs until the rest fit in MAX_TOTAL_BYTES with BOOT_BYTES to spare and the disk has room for
+     * BOOT_BYTES, then give this boot whatever is left under MAX_TOTAL_BYTES
+     */
+    private static synchronized void prepare(File directory) {
+
+        if(directory.equals(preparedDirectory))
+            return;
+        preparedDirectory = directory;
+
+        File[] files = directory.listFiles(file -> file.isFile() && isLog(file.getName()));
+        if(files == null)
+            files = new File[0];
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+
+        long total = 0;
+        for(File file : files)
+            total += file.length();
+
+        int deleted = 0;
+        for(File file : files) {
+            boolean full = total > MAX_TOTAL_BYTES - BOOT_BYTES
+                    || directory.getUsableSpace() < MIN_FREE_BYTES + BOOT_BYTES;
+            if(!full)
+                break;
+            long length = file.length();
+            if(file.delete()) {
+                total -= length;
+                deleted++;
+            }
+        }
+
+        bootRemaining = Math.max(0, MAX_TOTAL_BYTES - total);
+        System.out.printf("Deleted %d old logs from %s, %.0f MB of logs left, %.0f MB for this boot%n", deleted,
+                directory, total / 1048576.0, bootRemaining / 1048576.0);
+    }
+
+    private static boolean isLog(String name) {
+        for(String prefix : PREFIXES) {
+            if(name.startsWith(prefix))
+                return true;
+        }
+        return false;
+    }
+
+    private static synchronized boolean takeBootBytes(long bytes) {
+        if(bytes > bootRemaining)
+            return false;
+        bootRemaining -= bytes;
+        return true;
+    }
+
+    /**
+     * Claim room for bytes about to be written. Once a claim is refused, every later one is too.
+     * @return True if the bytes may be written
+     */
+    public boolean claim(long bytes) {
+
+        if(exhausted != null)
+            return false;
+
+        if(claimed + bytes > maxBytes) {
+            exhausted = "file reached " + (maxBytes >> 20) + " MB";
+            return false;
+        }
+
+        if(claimed + bytes >= nextFreeSpaceCheck) {
+            if(directory.getUsableSpace() - bytes < MIN_FREE_BYTES) {
+                exhausted = "less than " + (MIN_FREE_BYTES >> 20) + " MB free on disk";
+                return false;
+            }
+            nextFreeSpaceCheck = claimed + bytes + FREE_SPACE_CHECK_BYTES;
+        }
+
+        if(!takeBootBytes(bytes)) {
+            exhausted = "logs reached " + (MAX_TOTAL_BYTES >> 20) + " MB";
+            return false;
+        }
+
+        claimed += bytes;
+        return true;
+    }
+
+    /**
+     * @return Why claims are being refused, or null if they are not
+     */
+    public String getExhaustedReason() {
+        return exhausted;
+    }
+
+    /**
+     * @return Bytes claimed so far
+     */
+    public long getClaimed() {
+        return claimed;
+    }
+
+}
@@ -0,0 +1,239 @@
+package frc.team4159.robot.util;
+
+import java.util.ArrayList;
+
+/**
+ * Latency histograms for the code the robot loop runs: each command's initialize/execute/isFinished/end, subsystem
+ * logging, and the phases of Robot's periodic methods. Every section keeps a fixed-size log-linear histogram, so
+ * timing a section costs two System.nanoTime() calls and an array increment, and memory does not grow with time.
+ *
+ * Buckets are 8 per power of two from 1 us to about 1 s, so percentiles are within 12.5% of the true value. Max is
+ * exact. Sections are only timed from the robot loop thread.
+ */
+
+public class LoopProfiler {
+
+    private static LoopProfiler instance;
+
+    public static synchronized LoopProfiler getInstance() {
+        if(instance == null)
+            instance = new LoopProfiler();
+        return instance;
+    }
+
+    /* Histogram layout: bucket 0 is under 2^MIN_EXPONENT ns, then SUB_BUCKETS per power of two up to 2^MAX_EXPONENT */
+    private static final int MIN_EXPONENT = 10;
+    private static final int MAX_EXPONENT = 30;
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = 2 + (MAX_EXPONENT - MIN_EXPONENT) * SUB_BUCKETS;
+
+    /**
+     * One timed piece of code
+     */
+    public static class Section {
+
+        private final String name;
+        private final long[] counts = new long[BUCKETS];
+        private long count;
+        private long total;
+        private long max;
+        private long startTime;
+
+        private Section(String name) {
+            this.name = name;
+        }
+
+        public void start() {
+            startTime = System.nanoTime();
+        }
+
+        public void stop() {
+            record(System.nanoTime() - startTime);
+        }
+
+        /**
+         * @param nanoseconds Time taken by one run of the section
+         */
+        public void record(long nanoseconds) {
+            counts[bucket(nanoseconds)]++;
+            count++;
+            total += nanoseconds;
+            if(nanoseconds > max)
+                max = nanoseconds;
+        }
+
+        /**
+         * @param fraction 0.5 for the median, 0.99 for p99
+         * @return Upper bound of the bucket holding that fraction of runs, in seconds. Never more than the max.
+         */
+        public double getPercentile(double fraction) {
+            if(count == 0)
+                return 0;
+            long rank = (long) Math.ceil(fraction * count);
+            long seen = 0;
+            for(int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if(seen >= rank)
+                    return Math.min(upperBound(i), max) / 1e9;
+            }
+            return max / 1e9;
+        }
+
+        /**
+         * @return Longest run in seconds
+         */
+        public double getMax() {
+            return max / 1e9;
+        }
+
+        /**
+         * @return Mean run time in seconds
+         */
+        public double getMean() {
+            return count == 0 ? 0 : total / 1e9 / count;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void reset() {
+            for(int i = 0; i < BUCKETS; i++)
+                counts[i] = 0;
+            count = 0;
+            total = 0;
+            max = 0;
+        }
+    }
+
+    private final ArrayList<Section> sections = new ArrayList<>();
+
+    /* Whole robot loops, and how many ran over their period */
+    private final Section loop;
+    private double loopPeriod = 0.02;
+    private long overruns;
+
+    private LoopProfiler() {
+        loop = section("Robot loop");
+    }
+
+    /**
+     * @param name Name printed in the report, e.g. "Drive execute"
+     * @return New section, or the existing one with that name
+     */
+    public synchronized Section section(String name) {
+        for(Section section : sections) {
+            if(section.name.equals(name))
+                return section;
+        }
+        Section section = new Section(name);
+        sections.add(section);
+        return section;
+    }
+
+    /**
+     * @param seconds Period of the robot loop. Loops longer than this are overruns.
+     */
+    public void setLoopPeriod(double seconds) {
+        loopPeriod = seconds;
+    }
+
+    /**
+     * Record one whole robot loop
+     * @param seconds Time from the start of the loop to the end of robotPeriodic()
+     */
+    public void loopFinished(double seconds) {
+        loop.record((long) (seconds * 1e9));
+        if(seconds > loopPeriod)
+            overruns++;
+    }
+
+    /**
+     * @return Whole robot loop section
+     */
+    public Section getLoop() {
+        return loop;
+    }
+
+    /**
+     * @return Loops that took longer than the loop period since the last reset
+     */
+    public long getOverruns() {
+        return overruns;
+    }
+
+    /**
+     * @return Section with the highest p99 other than the whole loop, or null if nothing has been timed
+     */
+    public synchronized Section getSlowest() {
+        Section slowest = null;
+        for(Section section : sections) {
+            if(section != loop && section.count > 0
+                    && (slowest == null || section.getPercentile(0.99) > slowest.getPercentile(0.99)))
+                slowest = section;
+        }
+        return slowest;
+    }
+
+    /**
+     * @return Table of every section that ran, slowest p99 first
+     */
+    public synchronized String report() {
+
+        ArrayList<Section> ran = new ArrayList<>();
+        for(Section section : sections) {
+            if(section.count > 0)
+                ran.add(section);
+        }
+        ran.sort((a, b) -> Double.compare(b.getPercentile(0.99), a.getPercentile(0.99)));
+
+        StringBuilder report = new StringBuilder(String.format("%d loops, %d over %.0f ms%n",
+                loop.count, overruns, loopPeriod * 1000));
+        report.append(String.format("%-28s %8s %9s %9s %9s %9s%n", "Section", "Count", "Mean ms", "p50 ms", "p99 ms",
+                "Max ms"));
+        for(Section section : ran) {
+            report.append(String.format("%-28s %8d %9.3f %9.3f %9.3f %9.3f%n", section.name, section.count,
+                    section.getMean() * 1000, section.getPercentile(0.5) * 1000, section.getPercentile(0.99) * 1000,
+                    section.getMax() * 1000));
+        }
+        return report.toString();
+    }
+
+    /**
+     * Clear every histogram and the overrun count
+     */
+    public synchronized void reset() {
+        for(Section section : sections)
+            section.reset();
+        overruns = 0;
+    }
+
+    private static int bucket(long nanoseconds) {
+        if(nanoseconds < (1L << MIN_EXPONENT))
+            return 0;
+        int exponent = 63 - Long.numberOfLeadingZeros(nanoseconds);
+        if(exponent >= MAX_EXPONENT)
+            return BUCKETS - 1;
+        int sub = (int) (nanoseconds >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return 1 + (exponent - MIN_EXPONENT) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * @return Largest time in ns that falls in the bucket
+     */
+    private static long upperBound(int bucket) {
+        if(bucket == 0)
+            return (1L << MIN_EXPONENT) - 1;
+        if(bucket == BUCKETS - 1)
+            return Long.MAX_VALUE;
+        int exponent = MIN_EXPONENT + (bucket - 1) / SUB_BUCKETS;
+        int sub = (bucket - 1) % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + sub + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+}
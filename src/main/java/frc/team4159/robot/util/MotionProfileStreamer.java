@@ -0,0 +1,159 @@
+package frc.team4159.robot.util;
+
+import com.ctre.phoenix.motorcontrol.SetValueMotionProfile;
+
+/**
+ * Streams one side of an ArrayTrajectory into a Talon's motion profile buffer, resampled to short points so the
+ * Talon's own closed loop follows the path instead of the 20 ms robot loop. update() is meant to run on a Notifier at
+ * least twice per point duration.
+ */
+
+public class MotionProfileStreamer {
+
+    private enum State { FILLING, RUNNING, FINISHED, STOPPED }
+
+    /* Points buffered in the Talon before the profile is enabled */
+    private static final int MIN_POINTS_TO_START = 10;
+
+    /* Most points pushed per update, to bound the time one update takes */
+    private static final int MAX_POINTS_PER_UPDATE = 64;
+
+    private final MotionProfileTalon talon;
+    private final ArrayTrajectory trajectory;
+    private final double unitsPerDistance;
+    private final int pointDurationMs;
+    private final int pointCount;
+
+    private int nextPoint;
+    private int underruns;
+    private volatile State state;
+
+    /**
+     * @param talon Talon to stream to
+     * @param trajectory One side of a path
+     * @param unitsPerDistance Native sensor units per trajectory distance unit
+     * @param pointDurationMs Duration of each streamed point, e.g. 10 ms. Should divide the trajectory dt.
+     */
+    public MotionProfileStreamer(MotionProfileTalon talon, ArrayTrajectory trajectory, double unitsPerDistance,
+                                 int pointDurationMs) {
+        this.talon = talon;
+        this.trajectory = trajectory;
+        this.unitsPerDistance = unitsPerDistance;
+        this.pointDurationMs = pointDurationMs;
+
+        double totalMs = (trajectory.length() - 1) * trajectory.getDt() * 1000;
+        pointCount = (int) Math.round(totalMs / pointDurationMs) + 1;
+        state = State.STOPPED;
+    }
+
+    /**
+     * Clear the Talon's buffers and start filling them. The profile is enabled once enough points are buffered.
+     */
+    public synchronized void start() {
+        talon.setMotionProfileMode(SetValueMotionProfile.Disable);
+        talon.clearTrajectories();
+        talon.clearUnderrun();
+        nextPoint = 0;
+        underruns = 0;
+        state = State.FILLING;
+    }
+
+    /**
+     * Push more points, move them into the Talon, and advance the state when the buffer is primed or the path is done
+     */
+    public synchronized void update() {
+
+        if(state == State.STOPPED || state == State.FINISHED)
+            return;
+
+        talon.updateStatus();
+
+        if(talon.hasUnderrun()) {
+            underruns++;
+            talon.clearUnderrun();
+        }
+
+        int room = Math.min(talon.getTopBufferRemaining(), MAX_POINTS_PER_UPDATE);
+        for(int i = 0; i < room && nextPoint < pointCount; i++) {
+            if(!pushPoint(nextPoint))
+                break;
+            nextPoint++;
+        }
+
+        talon.processBuffer();
+
+        switch(state) {
+            case FILLING:
+                if(talon.getBottomBufferCount() >= MIN_POINTS_TO_START || nextPoint == pointCount) {
+                    talon.setMotionProfileMode(SetValueMotionProfile.Enable);
+                    state = State.RUNNING;
+                }
+                break;
+            case RUNNING:
+                if(talon.isLastPointActive()) {
+                    talon.setMotionProfileMode(SetValueMotionProfile.Hold);
+                    state = State.FINISHED;
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Push point i, interpolated from the trajectory at i * pointDurationMs
+     */
+    private boolean pushPoint(int i) {
+
+        double index = i * pointDurationMs / 1000.0 / trajectory.getDt();
+        int segment = Math.min((int) index, trajectory.length() - 1);
+        int next = Math.min(segment + 1, trajectory.length() - 1);
+        double fraction = index - segment;
+        if(fraction > 1)
+            fraction = 1;
+
+        double position = trajectory.getPosition(segment)
+                + (trajectory.getPosition(next) - trajectory.getPosition(segment)) * fraction;
+        double velocity = trajectory.getVelocity(segment)
+                + (trajectory.getVelocity(next) - trajectory.getVelocity(segment)) * fraction;
+
+        /* Talon velocity units are per 100 ms */
+        return talon.pushPoint(position * unitsPerDistance, velocity * unitsPerDistance / 10, pointDurationMs,
+                i == 0, i == pointCount - 1);
+    }
+
+    /**
+     * Disable the profile and discard buffered points
+     */
+    public synchronized void stop() {
+        talon.setMotionProfileMode(SetValueMotionProfile.Disable);
+        talon.clearTrajectories();
+        state = State.STOPPED;
+    }
+
+    /**
+     * @return True once the Talon has reached the last point and is holding it
+     */
+    public boolean isFinished() {
+        return state == State.FINISHED;
+    }
+
+    /**
+     * @return Number of times the Talon's buffer ran dry while following
+     */
+    public synchronized int getUnderruns() {
+        return underruns;
+    }
+
+    /**
+     * @return Number of points streamed so far out of getPointCount()
+     */
+    public synchronized int getPointsStreamed() {
+        return nextPoint;
+    }
+
+    public int getPointCount() {
+        return pointCount;
+    }
+
+}
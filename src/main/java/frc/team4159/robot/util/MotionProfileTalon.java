@@ -0,0 +1,65 @@
+package frc.team4159.robot.util;
+
+import com.ctre.phoenix.motorcontrol.SetValueMotionProfile;
+
+/**
+ * The parts of a Talon SRX used to stream a motion profile into its trajectory buffers. Implemented by the real Talon
+ * and by SimulatedMotionProfileTalon, so buffer filling, underruns and completion can be checked off the robot.
+ */
+
+public interface MotionProfileTalon {
+
+    /**
+     * Add a point to the top (API side) buffer
+     * @param position Position in native sensor units
+     * @param velocity Velocity in native sensor units per 100 ms
+     * @param durationMs How long the Talon should spend on this point
+     * @param zeroPosition True on the first point to zero the sensor before starting
+     * @param isLastPoint True on the final point, after which the Talon holds position
+     * @return False if the point could not be buffered
+     */
+    boolean pushPoint(double position, double velocity, int durationMs, boolean zeroPosition, boolean isLastPoint);
+
+    /**
+     * Move points from the top buffer into the Talon's bottom buffer. Call at least twice per point duration.
+     */
+    void processBuffer();
+
+    /**
+     * Read the Talon's motion profile status. The getters below return values from the last update.
+     */
+    void updateStatus();
+
+    /**
+     * @return Free space in the top buffer
+     */
+    int getTopBufferRemaining();
+
+    /**
+     * @return Points waiting in the Talon's bottom buffer
+     */
+    int getBottomBufferCount();
+
+    /**
+     * @return True if the Talon ran out of points since the underrun flag was last cleared
+     */
+    boolean hasUnderrun();
+
+    void clearUnderrun();
+
+    /**
+     * @return True if the Talon is executing the last point of the profile
+     */
+    boolean isLastPointActive();
+
+    /**
+     * Discard every buffered point
+     */
+    void clearTrajectories();
+
+    /**
+     * @param value Disable before buffering, Enable to start following, Hold to hold the final point
+     */
+    void setMotionProfileMode(SetValueMotionProfile value);
+
+}
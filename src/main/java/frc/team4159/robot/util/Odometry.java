@@ -0,0 +1,166 @@
+package frc.team4159.robot.util;
+
+import static frc.team4159.robot.Constants.UNITS_PER_REV;
+import static frc.team4159.robot.Constants.WHEELBASE_WIDTH;
+import static frc.team4159.robot.Constants.WHEEL_CIRCUMFERANCE;
+
+/**
+ * Tracks where the robot is on the field from the drive encoders and the navX. Distance comes from the average of the
+ * two encoder deltas, heading from the gyro, and each step is integrated along the mean heading of its start and end.
+ * Where the gyro and encoders disagree about how far the robot turned, the gyro wins; getEncoderHeading() keeps the
+ * encoder-only heading from the wheelbase width so the two can be compared.
+ *
+ * The last poses are kept in a ring with their timestamps, so a measurement taken a few loops ago can be matched with
+ * where the robot was then. Updating and reading allocate nothing. update() is called from the drivetrain control loop
+ * thread and everything else may be called from any thread.
+ */
+
+public class Odometry {
+
+    private static final double FEET_PER_UNIT = WHEEL_CIRCUMFERANCE / UNITS_PER_REV;
+    private static final double WHEELBASE_FEET = WHEELBASE_WIDTH / 0.3048;
+
+    /* Current pose and the sensor values it was computed from */
+    private final Pose pose = new Pose();
+    private int lastLeft, lastRight;
+    private double headingOffset; // Heading when the navX reads 0, radians
+    private double encoderHeading;
+    private boolean initialized;
+
+    /* Ring of past poses, oldest overwritten first */
+    private final double[] timestamps, xs, ys, headings;
+    private int next, size;
+
+    /**
+     * @param historySize Number of past poses to keep, e.g. one second of control loop ticks
+     */
+    public Odometry(int historySize) {
+        timestamps = new double[historySize];
+        xs = new double[historySize];
+        ys = new double[historySize];
+        headings = new double[historySize];
+    }
+
+    /**
+     * Set the pose and clear the history. The next update() measures from these sensor values.
+     * @param timestamp Time in seconds
+     * @param leftPosition Left encoder in native units
+     * @param rightPosition Right encoder in native units
+     * @param yaw navX yaw in degrees, clockwise positive
+     * @param x Feet
+     * @param y Feet
+     * @param heading Radians counter clockwise
+     */
+    public synchronized void reset(double timestamp, int leftPosition, int rightPosition, double yaw, double x,
+                                   double y, double heading) {
+        lastLeft = leftPosition;
+        lastRight = rightPosition;
+        headingOffset = heading + Math.toRadians(yaw);
+        encoderHeading = heading;
+        pose.set(timestamp, x, y, Pose.wrap(heading));
+        initialized = true;
+        next = 0;
+        size = 0;
+        addHistory();
+    }
+
+    /**
+     * Keep the current heading while the gyro jumps to a new reading, e.g. after it is zeroed
+     * @param yaw navX yaw in degrees it will read from now on
+     */
+    public synchronized void setYaw(double yaw) {
+        headingOffset = pose.heading + Math.toRadians(yaw);
+    }
+
+    /**
+     * Move the pose by what the sensors measured since the last update. The first call without a reset() starts at
+     * the origin facing along the x axis.
+     * @param timestamp Time the sensors were read in seconds
+     */
+    public synchronized void update(double timestamp, int leftPosition, int rightPosition, double yaw) {
+
+        if(!initialized) {
+            reset(timestamp, leftPosition, rightPosition, yaw, 0, 0, 0);
+            return;
+        }
+
+        double left = (leftPosition - lastLeft) * FEET_PER_UNIT;
+        double right = (rightPosition - lastRight) * FEET_PER_UNIT;
+        lastLeft = leftPosition;
+        lastRight = rightPosition;
+
+        double distance = (left + right) / 2;
+        double heading = Pose.wrap(headingOffset - Math.toRadians(yaw));
+        double midHeading = pose.heading + Pose.wrap(heading - pose.heading) / 2;
+        encoderHeading = Pose.wrap(encoderHeading + (right - left) / WHEELBASE_FEET);
+
+        double x = pose.x + distance * Math.cos(midHeading);
+        double y = pose.y + distance * Math.sin(midHeading);
+        pose.set(timestamp, x, y, heading);
+        addHistory();
+    }
+
+    private void addHistory() {
+        timestamps[next] = pose.timestamp;
+        xs[next] = pose.x;
+        ys[next] = pose.y;
+        headings[next] = pose.heading;
+        next = (next + 1) % timestamps.length;
+        size = Math.min(size + 1, timestamps.length);
+    }
+
+    /**
+     * @param out Filled in with the current pose
+     */
+    public synchronized void getPose(Pose out) {
+        out.set(pose);
+    }
+
+    /**
+     * Where the robot was at a past time, interpolated between the two nearest updates
+     * @param timestamp Time in seconds
+     * @param out Filled in with the pose at that time
+     * @return False if the time is older than the history, in which case out is the oldest pose kept. Times after the
+     *         last update give the current pose.
+     */
+    public synchronized boolean getPoseAt(double timestamp, Pose out) {
+
+        if(size == 0) {
+            out.set(pose);
+            return false;
+        }
+
+        int newest = (next + timestamps.length - 1) % timestamps.length;
+        if(timestamp >= timestamps[newest]) {
+            out.set(pose);
+            return true;
+        }
+
+        /* Walk back from the newest pose to the first one at or before the time */
+        int later = newest;
+        for(int i = 1; i < size; i++) {
+            int earlier = (newest + timestamps.length - i) % timestamps.length;
+            if(timestamps[earlier] <= timestamp) {
+                double span = timestamps[later] - timestamps[earlier];
+                double fraction = span > 0 ? (timestamp - timestamps[earlier]) / span : 0;
+                out.set(timestamp,
+                        xs[earlier] + (xs[later] - xs[earlier]) * fraction,
+                        ys[earlier] + (ys[later] - ys[earlier]) * fraction,
+                        Pose.wrap(headings[earlier] + Pose.wrap(headings[later] - headings[earlier]) * fraction));
+                return true;
+            }
+            later = earlier;
+        }
+
+        out.set(timestamps[later], xs[later], ys[later], headings[later]);
+        return false;
+    }
+
+    /**
+     * @return Heading in radians from the encoders alone, for checking the gyro or the wheelbase width
+     */
+    public synchronized double getEncoderHeading() {
+        return encoderHeading;
+    }
+
+}
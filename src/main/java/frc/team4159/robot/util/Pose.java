@@ -0,0 +1,43 @@
+package frc.team4159.robot.util;
+
+/**
+ * Robot position on the field in the units of the Pathfinder trajectories: x and y in feet, heading in radians counter
+ * clockwise from the x axis. Mutable, so the control loop can fill one in every tick without allocating.
+ */
+
+public class Pose {
+
+    public double timestamp;
+    public double x, y, heading;
+
+    public void set(double timestamp, double x, double y, double heading) {
+        this.timestamp = timestamp;
+        this.x = x;
+        this.y = y;
+        this.heading = heading;
+    }
+
+    public void set(Pose pose) {
+        set(pose.timestamp, pose.x, pose.y, pose.heading);
+    }
+
+    /**
+     * @return Distance in feet to the other pose
+     */
+    public double distanceTo(Pose pose) {
+        return Math.hypot(pose.x - x, pose.y - y);
+    }
+
+    /**
+     * @return Angle in radians wrapped to [-pi, pi]
+     */
+    public static double wrap(double angle) {
+        return Math.atan2(Math.sin(angle), Math.cos(angle));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("(%.2f, %.2f, %.1f deg)", x, y, Math.toDegrees(heading));
+    }
+
+}
@@ -0,0 +1,237 @@
+package frc.team4159.robot.util;
+
+import static frc.team4159.robot.Constants.WHEELBASE_WIDTH;
+
+/**
+ * Follows both sides of a path by tracking the pose along it, using the x, y and heading columns of the detailed
+ * trajectories and the odometry pose. Along-track, cross-track and heading error are corrected together with the
+ * Ramsete control law:
+ *
+ *   v = vd cos(e_heading) + k e_x
+ *   w = wd + k e_heading + b vd sin(e_heading) / e_heading e_y
+ *   k = 2 zeta sqrt(wd^2 + b vd^2)
+ *
+ * where e_x and e_y are the error along and across the robot's heading. The commanded center and turn speeds become
+ * wheel speeds through the wheelbase width, and those become outputs through a per-side feedforward.
+ *
+ * Setpoints are picked by time since the first call and interpolated between segments, like TrajectoryFollower's
+ * time-indexed calculate(). Nothing is allocated after construction.
+ */
+
+public class RamseteFollower {
+
+    private static final double WHEELBASE_FEET = WHEELBASE_WIDTH / 0.3048;
+
+    private final ArrayTrajectory left, right;
+
+    /* Gains. b is per square foot, so 2 per square meter is about 0.19. */
+    private double b = 2 * 0.3048 * 0.3048;
+    private double zeta = 0.7;
+
+    /* Feedforward per side, percent per foot per second and per foot per second squared */
+    private double kS_left, kV_left, kA_left;
+    private double kS_right, kV_right, kA_right;
+
+    private double startTime;
+    private boolean finished;
+    private double leftOutput, rightOutput;
+
+    /* Setpoint of the last call, and the error from it */
+    private final Pose setpoint = new Pose();
+    private double alongTrackError, crossTrackError, headingError;
+    private double maxCrossTrackError;
+
+    /**
+     * @param left Left side of the path, with x, y and heading
+     * @param right Right side of the same path, segment for segment
+     */
+    public RamseteFollower(ArrayTrajectory left, ArrayTrajectory right) {
+        this.left = left;
+        this.right = right;
+        reset();
+    }
+
+    /**
+     * @param b Correction gain per square foot, larger is more aggressive. Above 0.
+     * @param zeta Damping between 0 and 1
+     */
+    public void configureGains(double b, double zeta) {
+        this.b = b;
+        this.zeta = zeta;
+    }
+
+    /**
+     * @param kS Percent to overcome static friction
+     * @param kV Percent per foot per second
+     * @param kA Percent per foot per second squared
+     */
+    public void configureLeftFeedforward(double kS, double kV, double kA) {
+        kS_left = kS;
+        kV_left = kV;
+        kA_left = kA;
+    }
+
+    /**
+     * @param kS Percent to overcome static friction
+     * @param kV Percent per foot per second
+     * @param kA Percent per foot per second squared
+     */
+    public void configureRightFeedforward(double kS, double kV, double kA) {
+        kS_right = kS;
+        kV_right = kV;
+        kA_right = kA;
+    }
+
+    /**
+     * Start again from the first segment on the next call
+     */
+    public void reset() {
+        startTime = Double.NaN;
+        finished = false;
+        leftOutput = rightOutput = 0;
+        maxCrossTrackError = 0;
+    }
+
+    /**
+     * Pose the path starts at, between the two sides of its first segment
+     * @param out Filled in with the start pose
+     */
+    public void getStartPose(Pose out) {
+        out.set(0, (left.getX(0) + right.getX(0)) / 2, (left.getY(0) + right.getY(0)) / 2, left.getHeading(0));
+    }
+
+    /**
+     * Calculate both sides' outputs for the setpoint at the given time. Read them with getLeftOutput() and
+     * getRightOutput(). The first call starts the path.
+     * @param pose Where the robot is, from odometry
+     * @param timestamp Current time in seconds
+     */
+    public void calculate(Pose pose, double timestamp) {
+
+        if(Double.isNaN(startTime))
+            startTime = timestamp;
+
+        int length = left.length();
+        double dt = left.getDt();
+        double index = (timestamp - startTime) / dt;
+
+        int i;
+        double fraction;
+        if(index >= length - 1) {
+            i = length - 1;
+            fraction = 0;
+            finished = true;
+        } else {
+            i = (int) index;
+            fraction = index - i;
+        }
+        int next = Math.min(i + 1, length - 1);
+
+        /* Center of the path from the two sides */
+        double x = interpolate((left.getX(i) + right.getX(i)) / 2, (left.getX(next) + right.getX(next)) / 2, fraction);
+        double y = interpolate((left.getY(i) + right.getY(i)) / 2, (left.getY(next) + right.getY(next)) / 2, fraction);
+        double headingChange = Pose.wrap(left.getHeading(next) - left.getHeading(i));
+        double heading = Pose.wrap(left.getHeading(i) + headingChange * fraction);
+        setpoint.set(timestamp, x, y, heading);
+
+        double leftVelocity = interpolate(left.getVelocity(i), left.getVelocity(next), fraction);
+        double rightVelocity = interpolate(right.getVelocity(i), right.getVelocity(next), fraction);
+        double leftAcceleration = interpolate(left.getAcceleration(i), left.getAcceleration(next), fraction);
+        double rightAcceleration = interpolate(right.getAcceleration(i), right.getAcceleration(next), fraction);
+
+        double velocity = (leftVelocity + rightVelocity) / 2;
+        double turnRate = next > i ? headingChange / dt : 0;
+        if(finished)
+            velocity = turnRate = 0;
+
+        /* Error in the robot's frame */
+        double dx = x - pose.x;
+        double dy = y - pose.y;
+        double cos = Math.cos(pose.heading);
+        double sin = Math.sin(pose.heading);
+        alongTrackError = cos * dx + sin * dy;
+        crossTrackError = -sin * dx + cos * dy;
+        headingError = Pose.wrap(heading - pose.heading);
+        maxCrossTrackError = Math.max(maxCrossTrackError, Math.abs(crossTrackError));
+
+        double k = 2 * zeta * Math.sqrt(turnRate * turnRate + b * velocity * velocity);
+        double commandedVelocity = velocity * Math.cos(headingError) + k * alongTrackError;
+        double commandedTurnRate = turnRate + k * headingError + b * velocity * sinc(headingError) * crossTrackError;
+
+        double leftCommand = commandedVelocity - commandedTurnRate * WHEELBASE_FEET / 2;
+        double rightCommand = commandedVelocity + commandedTurnRate * WHEELBASE_FEET / 2;
+
+        leftOutput = feedforward(leftCommand, leftAcceleration, kS_left, kV_left, kA_left);
+        rightOutput = feedforward(rightCommand, rightAcceleration, kS_right, kV_right, kA_right);
+    }
+
+    private static double feedforward(double velocity, double acceleration, double kS, double kV, double kA) {
+        double staticFriction = velocity == 0 ? 0 : Math.copySign(kS, velocity);
+        return staticFriction + kV * velocity + kA * acceleration;
+    }
+
+    private static double sinc(double angle) {
+        return Math.abs(angle) < 1e-9 ? 1 : Math.sin(angle) / angle;
+    }
+
+    private static double interpolate(double a, double b, double fraction) {
+        return a + (b - a) * fraction;
+    }
+
+    /**
+     * @return Left motor output from the last calculate()
+     */
+    public double getLeftOutput() {
+        return leftOutput;
+    }
+
+    /**
+     * @return Right motor output from the last calculate()
+     */
+    public double getRightOutput() {
+        return rightOutput;
+    }
+
+    /**
+     * @param out Filled in with the setpoint of the last calculate()
+     */
+    public void getSetpoint(Pose out) {
+        out.set(setpoint);
+    }
+
+    /**
+     * @return Feet the setpoint was ahead of the robot on the last calculate()
+     */
+    public double getAlongTrackError() {
+        return alongTrackError;
+    }
+
+    /**
+     * @return Feet the setpoint was to the left of the robot on the last calculate()
+     */
+    public double getCrossTrackError() {
+        return crossTrackError;
+    }
+
+    /**
+     * @return Radians the setpoint was counter clockwise of the robot on the last calculate()
+     */
+    public double getHeadingError() {
+        return headingError;
+    }
+
+    /**
+     * @return Largest cross-track error in feet since the path started
+     */
+    public double getMaxCrossTrackError() {
+        return maxCrossTrackError;
+    }
+
+    /**
+     * @return True once the last segment's time has passed
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+}
@@ -0,0 +1,31 @@
+package frc.team4159.robot.util;
+
+/**
+ * Clock that only moves when told to, for running timing-dependent code faster than real time off the robot
+ */
+
+public class SimulatedClock implements Clock {
+
+    private volatile double timestamp;
+
+    public SimulatedClock(double startTimestamp) {
+        timestamp = startTimestamp;
+    }
+
+    @Override
+    public double getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @param seconds Time to move forward
+     */
+    public void advance(double seconds) {
+        timestamp += seconds;
+    }
+
+    public void setTimestamp(double timestamp) {
+        this.timestamp = timestamp;
+    }
+
+}
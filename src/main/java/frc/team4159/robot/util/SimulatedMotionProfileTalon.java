@@ -0,0 +1,176 @@
+package frc.team4159.robot.util;
+
+import com.ctre.phoenix.motorcontrol.SetValueMotionProfile;
+
+/**
+ * Software model of a Talon SRX's motion profile buffers for running MotionProfileStreamer off the robot. Time only
+ * moves when step() is called, so tests can starve the buffer or delay processing on purpose.
+ */
+
+public class SimulatedMotionProfileTalon implements MotionProfileTalon {
+
+    /* Same buffer sizes as the Talon SRX firmware */
+    private static final int TOP_BUFFER_SIZE = 2048;
+    private static final int BOTTOM_BUFFER_SIZE = 128;
+
+    /* Ring buffers of position, velocity, duration, last point flag */
+    private final double[] topPosition = new double[TOP_BUFFER_SIZE];
+    private final double[] topVelocity = new double[TOP_BUFFER_SIZE];
+    private final int[] topDuration = new int[TOP_BUFFER_SIZE];
+    private final boolean[] topLast = new boolean[TOP_BUFFER_SIZE];
+    private int topHead, topCount;
+
+    private final double[] bottomPosition = new double[BOTTOM_BUFFER_SIZE];
+    private final double[] bottomVelocity = new double[BOTTOM_BUFFER_SIZE];
+    private final int[] bottomDuration = new int[BOTTOM_BUFFER_SIZE];
+    private final boolean[] bottomLast = new boolean[BOTTOM_BUFFER_SIZE];
+    private int bottomHead, bottomCount;
+
+    private SetValueMotionProfile mode = SetValueMotionProfile.Disable;
+
+    /* Point currently being executed */
+    private boolean activeValid, activeLast;
+    private double activePosition, activeVelocity;
+    private int activeRemainingMs;
+
+    private boolean hasUnderrun;
+    private int underrunMs;
+
+    /* Snapshot from the last updateStatus() */
+    private int statusTopRemaining, statusBottomCount;
+    private boolean statusUnderrun, statusLast;
+
+    @Override
+    public boolean pushPoint(double position, double velocity, int durationMs, boolean zeroPosition,
+                             boolean isLastPoint) {
+        if(topCount == TOP_BUFFER_SIZE)
+            return false;
+        int i = (topHead + topCount) % TOP_BUFFER_SIZE;
+        topPosition[i] = position;
+        topVelocity[i] = velocity;
+        topDuration[i] = durationMs;
+        topLast[i] = isLastPoint;
+        topCount++;
+        return true;
+    }
+
+    @Override
+    public void processBuffer() {
+        while(topCount > 0 && bottomCount < BOTTOM_BUFFER_SIZE) {
+            int i = (bottomHead + bottomCount) % BOTTOM_BUFFER_SIZE;
+            bottomPosition[i] = topPosition[topHead];
+            bottomVelocity[i] = topVelocity[topHead];
+            bottomDuration[i] = topDuration[topHead];
+            bottomLast[i] = topLast[topHead];
+            bottomCount++;
+            topHead = (topHead + 1) % TOP_BUFFER_SIZE;
+            topCount--;
+        }
+    }
+
+    /**
+     * Advance simulated time, executing buffered points while the profile is enabled
+     * @param ms Milliseconds to advance
+     */
+    public void step(int ms) {
+        for(int t = 0; t < ms; t++) {
+            if(mode != SetValueMotionProfile.Enable)
+                continue;
+
+            if(activeValid && activeLast)
+                continue; // Holds the final point until the mode changes
+
+            if(!activeValid || --activeRemainingMs <= 0) {
+                if(bottomCount == 0) {
+                    hasUnderrun = true;
+                    underrunMs++;
+                    activeValid = false;
+                    continue;
+                }
+                activePosition = bottomPosition[bottomHead];
+                activeVelocity = bottomVelocity[bottomHead];
+                activeRemainingMs = Math.max(bottomDuration[bottomHead], 1);
+                activeLast = bottomLast[bottomHead];
+                activeValid = true;
+                bottomHead = (bottomHead + 1) % BOTTOM_BUFFER_SIZE;
+                bottomCount--;
+            }
+        }
+    }
+
+    @Override
+    public void updateStatus() {
+        statusTopRemaining = TOP_BUFFER_SIZE - topCount;
+        statusBottomCount = bottomCount;
+        statusUnderrun = hasUnderrun;
+        statusLast = activeValid && activeLast;
+    }
+
+    @Override
+    public int getTopBufferRemaining() {
+        return statusTopRemaining;
+    }
+
+    @Override
+    public int getBottomBufferCount() {
+        return statusBottomCount;
+    }
+
+    @Override
+    public boolean hasUnderrun() {
+        return statusUnderrun;
+    }
+
+    @Override
+    public void clearUnderrun() {
+        hasUnderrun = false;
+    }
+
+    @Override
+    public boolean isLastPointActive() {
+        return statusLast;
+    }
+
+    @Override
+    public void clearTrajectories() {
+        topHead = topCount = 0;
+        bottomHead = bottomCount = 0;
+        activeValid = false;
+    }
+
+    @Override
+    public void setMotionProfileMode(SetValueMotionProfile value) {
+        mode = value;
+        if(value == SetValueMotionProfile.Disable)
+            activeValid = false;
+    }
+
+    /**
+     * @return Motion profile mode last set
+     */
+    public SetValueMotionProfile getMode() {
+        return mode;
+    }
+
+    /**
+     * @return Position setpoint of the point being executed, in native units
+     */
+    public double getActivePosition() {
+        return activePosition;
+    }
+
+    /**
+     * @return Velocity setpoint of the point being executed, in native units per 100 ms
+     */
+    public double getActiveVelocity() {
+        return activeVelocity;
+    }
+
+    /**
+     * @return Total milliseconds the simulated Talon spent enabled with an empty buffer
+     */
+    public int getUnderrunMs() {
+        return underrunMs;
+    }
+
+}
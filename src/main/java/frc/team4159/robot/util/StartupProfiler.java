@@ -0,0 +1,71 @@
+package frc.team4159.robot.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+
+/**
+ * Times the named phases of a startup sequence and prints how long each took, so it is clear what dominates the time
+ * until the robot is ready. Starting a phase ends the previous one.
+ */
+
+public class StartupProfiler {
+
+    private final String name;
+    private final long start;
+
+    private final ArrayList<String> phases = new ArrayList<>();
+    private final ArrayList<Long> durations = new ArrayList<>();
+
+    private String phase;
+    private long phaseStart;
+
+    /**
+     * @param name Name of the whole sequence, e.g. "robotInit"
+     */
+    public StartupProfiler(String name) {
+        this.name = name;
+        start = System.nanoTime();
+    }
+
+    /**
+     * End the current phase, if any, and start timing the next one
+     */
+    public void phase(String phase) {
+        long now = System.nanoTime();
+        endPhase(now);
+        this.phase = phase;
+        phaseStart = now;
+    }
+
+    private void endPhase(long now) {
+        if(phase != null) {
+            phases.add(phase);
+            durations.add(now - phaseStart);
+            phase = null;
+        }
+    }
+
+    /**
+     * End the current phase and print every phase's time, the total, and how long the JVM has been running
+     * @return Total time in milliseconds
+     */
+    public double report() {
+
+        long now = System.nanoTime();
+        endPhase(now);
+        double total = (now - start) / 1e6;
+
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%s took %.1f ms (JVM up %d ms)%n", name, total,
+                ManagementFactory.getRuntimeMXBean().getUptime()));
+        for(int i = 0; i < phases.size(); i++) {
+            double ms = durations.get(i) / 1e6;
+            report.append(String.format("  %-28s %8.1f ms %5.1f%%%n", phases.get(i), ms,
+                    total > 0 ? ms / total * 100 : 0));
+        }
+        System.out.print(report);
+
+        return total;
+    }
+
+}
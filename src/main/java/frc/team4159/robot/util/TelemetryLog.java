@@ -0,0 +1,298 @@
+package frc.team4159.robot.util;
+
+import edu.wpi.first.wpilibj.DriverStation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records numbered channels of primitive samples to a binary log file without slowing the robot loop. The loop writes
+ * into a lock-free ring buffer, which a background thread drains to disk. Recording allocates nothing and never blocks:
+ * if the writer falls behind, whole loops are dropped and counted. Logging stops when the file's LogBudget runs out.
+ *
+ * Only one thread may record, the main robot thread. Channels are added before start().
+ *
+ * File format, big endian: int MAGIC, short VERSION, short channel count, each channel name as modified UTF-8 (see
+ * DataOutputStream.writeUTF), then 10 byte records of short channel and double value. A record on channel FRAME starts
+ * a new loop and holds its timestamp in seconds. TelemetryLogConverter turns a log into a CSV.
+ */
+
+public class TelemetryLog {
+
+    private static TelemetryLog instance;
+
+    public static synchronized TelemetryLog getInstance() {
+        if(instance == null)
+            instance = new TelemetryLog();
+        return instance;
+    }
+
+    public static final int MAGIC = 0x4C4F4731; // "LOG1"
+    public static final short VERSION = 1;
+    public static final int FRAME = 0xFFFF;
+
+    /* Directories to log to, in order of preference. /u is a USB drive plugged into the roboRIO */
+    private static final String[] DIRECTORIES = {"/u/logs", "/home/lvuser/logs"};
+
+    /* Must be a power of two. About 8 seconds of 50 channels at 50 Hz */
+    private static final int CAPACITY = 1 << 15;
+    private static final int MASK = CAPACITY - 1;
+    private static final int RECORD_BYTES = 10;
+
+    /* A frame is only started if this many records fit, so a full buffer drops whole loops rather than parts of them */
+    private static final int FRAME_SPACE = 1024;
+
+    /* How long the writer sleeps when the buffer is empty */
+    private static final long DRAIN_PERIOD_NS = 20_000_000;
+
+    private final ArrayList<String> channelNames = new ArrayList<>();
+
+    private final short[] channels = new short[CAPACITY];
+    private final double[] values = new double[CAPACITY];
+
+    /* Next index to write, published by the recording thread */
+    private final AtomicLong head = new AtomicLong();
+    /* Next index to read, published by the writer thread */
+    private final AtomicLong tail = new AtomicLong();
+
+    /* Recording thread's copies, so it only reads the writer's index when the buffer looks full */
+    private long writeIndex;
+    private long cachedTail;
+    private boolean droppingFrame;
+
+    private volatile boolean running;
+    private volatile long dropped;
+    private volatile long written;
+
+    private File file;
+    private LogBudget budget;
+
+    private TelemetryLog() {
+    }
+
+    /**
+     * @param name Channel name, e.g. "drive/left position"
+     * @return Channel number to record with, or -1 if logging has already started
+     */
+    public synchronized int addChannel(String name) {
+        if(running || file != null) {
+            DriverStation.reportWarning("Telemetry channel " + name + " added after logging started", false);
+            return -1;
+        }
+        channelNames.add(name);
+        return channelNames.size() - 1;
+    }
+
+    /**
+     * Start logging to the first usable directory on the roboRIO
+     * @return True if logging started
+     */
+    public boolean start() {
+        File dir = findDirectory();
+        if(dir == null) {
+            DriverStation.reportError("No telemetry log directory, not logging", false);
+            return false;
+        }
+        return start(dir);
+    }
+
+    /**
+     * @return First log directory on the roboRIO that exists or can be created, or null if there is none
+     */
+    public static File findDirectory() {
+        for(String directory : DIRECTORIES) {
+            File dir = new File(directory);
+            if(dir.isDirectory() || (dir.getParentFile().isDirectory() && dir.mkdirs()))
+                return dir;
+        }
+        return null;
+    }
+
+    /**
+     * Open a new log file in the given directory and start the writer thread
+     * @return True if logging started
+     */
+    public synchronized boolean start(File directory) {
+
+        if(file != null)
+            return running;
+
+        file = new File(directory, "telemetry_" + new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date()) + ".bin");
+        budget = new LogBudget(directory);
+
+        FileChannel out;
+        try {
+            byte[] header = header();
+            if(!budget.claim(header.length)) {
+                DriverStation.reportError("Not logging telemetry, " + budget.getExhaustedReason(), false);
+                return false;
+            }
+            out = new FileOutputStream(file).getChannel();
+            out.write(ByteBuffer.wrap(header));
+        } catch (IOException ex) {
+            DriverStation.reportError("Error opening " + file + ":  " + ex.getMessage(), false);
+            return false;
+        }
+
+        running = true;
+        Thread thread = new Thread(() -> drain(out), "TelemetryLog");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+
+        System.out.println("Logging " + channelNames.size() + " telemetry channels to " + file);
+        return true;
+    }
+
+    private byte[] header() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(bytes);
+        header.writeInt(MAGIC);
+        header.writeShort(VERSION);
+        header.writeShort(channelNames.size());
+        for(String name : channelNames)
+            header.writeUTF(name);
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Start a new loop's samples
+     * @param timestamp Current time in seconds
+     */
+    public void startFrame(double timestamp) {
+
+        if(!running)
+            return;
+
+        if(writeIndex - cachedTail > CAPACITY - FRAME_SPACE) {
+            cachedTail = tail.get();
+            droppingFrame = writeIndex - cachedTail > CAPACITY - FRAME_SPACE;
+            if(droppingFrame) {
+                dropped++;
+                return;
+            }
+        }
+        droppingFrame = false;
+
+        put(FRAME, timestamp);
+    }
+
+    public void record(int channel, double value) {
+        if(channel >= 0)
+            put(channel, value);
+    }
+
+    /**
+     * Record true as 1 and false as 0
+     */
+    public void record(int channel, boolean value) {
+        if(channel >= 0)
+            put(channel, value ? 1 : 0);
+    }
+
+    private void put(int channel, double value) {
+
+        if(!running || droppingFrame)
+            return;
+
+        /* Only a frame with more than FRAME_SPACE records can get here */
+        if(writeIndex - cachedTail >= CAPACITY) {
+            cachedTail = tail.get();
+            if(writeIndex - cachedTail >= CAPACITY)
+                return;
+        }
+
+        int i = (int) writeIndex & MASK;
+        channels[i] = (short) channel;
+        values[i] = value;
+        head.lazySet(++writeIndex);
+    }
+
+    /**
+     * Writer thread. Copies records from the ring buffer into a direct buffer and writes it out whenever the ring is
+     * empty or the direct buffer is full.
+     */
+    private void drain(FileChannel out) {
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(RECORD_BYTES * 4096);
+        long readIndex = tail.get();
+
+        try {
+            while(running) {
+
+                long available = head.get();
+                if(available == readIndex) {
+                    LockSupport.parkNanos(DRAIN_PERIOD_NS);
+                    continue;
+                }
+
+                for(; readIndex < available; readIndex++) {
+                    if(buffer.remaining() < RECORD_BYTES)
+                        write(out, buffer);
+                    int i = (int) readIndex & MASK;
+                    buffer.putShort(channels[i]);
+                    buffer.putDouble(values[i]);
+                }
+                tail.lazySet(readIndex);
+                write(out, buffer);
+            }
+        } catch (IOException ex) {
+            running = false;
+            DriverStation.reportError("Error writing " + file + ", logging stopped:  " + ex.getMessage(), false);
+        }
+
+        try {
+            out.close();
+        } catch (IOException ex) {
+            DriverStation.reportWarning("Error closing " + file + ":  " + ex.getMessage(), false);
+        }
+    }
+
+    private void write(FileChannel out, ByteBuffer buffer) throws IOException {
+        if(!budget.claim(buffer.position()))
+            throw new IOException(budget.getExhaustedReason());
+        buffer.flip();
+        while(buffer.hasRemaining())
+            written += out.write(buffer);
+        buffer.clear();
+    }
+
+    /**
+     * Stop the writer thread after it writes what it has already read. Logging cannot be restarted.
+     */
+    public void stop() {
+        running = false;
+    }
+
+    /**
+     * @return True if samples are being logged
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * @return Loops dropped because the writer fell behind
+     */
+    public long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * @return Bytes of samples written to the log so far, not counting the header
+     */
+    public long getBytesWritten() {
+        return written;
+    }
+
+}
@@ -0,0 +1,112 @@
+package frc.team4159.robot.util;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+
+import static frc.team4159.robot.util.TelemetryLog.FRAME;
+import static frc.team4159.robot.util.TelemetryLog.MAGIC;
+import static frc.team4159.robot.util.TelemetryLog.VERSION;
+
+/**
+ * Converts TelemetryLog files into CSVs with one row per robot loop and one column per channel. A channel that was not
+ * recorded in a loop is left empty. Copy the logs off the roboRIO and run with `./gradlew convertTelemetry`.
+ */
+
+public class TelemetryLogConverter {
+
+    /**
+     * @param args Log files or directories of logs. Defaults to logs
+     */
+    public static void main(String[] args) throws IOException {
+
+        if(args.length == 0)
+            args = new String[] {"logs"};
+
+        for(String arg : args) {
+            File path = new File(arg);
+            File[] logs = path.isDirectory()
+                    ? path.listFiles((dir, name) -> name.startsWith("telemetry_") && name.endsWith(".bin"))
+                    : new File[] {path};
+            if(logs == null)
+                throw new IOException(arg + " is not a directory");
+
+            for(File log : logs) {
+                File csv = new File(log.getPath().replaceAll("\\.bin$", "") + ".csv");
+                int rows = convert(log, csv);
+                System.out.println(log.getName() + " -> " + csv.getName() + " (" + rows + " loops)");
+            }
+        }
+    }
+
+    /**
+     * @return Number of loops written
+     */
+    private static int convert(File log, File csv) throws IOException {
+
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(log)));
+            PrintWriter out = new PrintWriter(csv)) {
+
+            if(in.readInt() != MAGIC)
+                throw new IOException(log + " is not a telemetry log");
+            short version = in.readShort();
+            if(version != VERSION)
+                throw new IOException(log + " is version " + version + ", expected " + VERSION);
+
+            int count = in.readUnsignedShort();
+            out.print("time");
+            for(int i = 0; i < count; i++)
+                out.print("," + in.readUTF());
+            out.println();
+
+            double[] row = new double[count];
+            Arrays.fill(row, Double.NaN);
+            double time = Double.NaN;
+            int rows = 0;
+
+            while(true) {
+                int channel;
+                double value;
+                try {
+                    channel = in.readUnsignedShort();
+                    value = in.readDouble();
+                } catch (EOFException ex) {
+                    break; // Also drops a record cut off by power loss
+                }
+
+                if(channel == FRAME) {
+                    if(!Double.isNaN(time)) {
+                        printRow(out, time, row);
+                        rows++;
+                    }
+                    time = value;
+                    Arrays.fill(row, Double.NaN);
+                } else if(channel < count) {
+                    row[channel] = value;
+                }
+            }
+            if(!Double.isNaN(time)) {
+                printRow(out, time, row);
+                rows++;
+            }
+
+            return rows;
+        }
+    }
+
+    private static void printRow(PrintWriter out, double time, double[] row) {
+        out.print(time);
+        for(double value : row) {
+            out.print(',');
+            if(!Double.isNaN(value))
+                out.print(value);
+        }
+        out.println();
+    }
+
+}
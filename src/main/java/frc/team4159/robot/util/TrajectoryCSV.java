@@ -7,7 +7,7 @@ package frc.team4159.robot.util;
 public interface TrajectoryCSV {
 
     String BASELINE_L = "/traj/baseline_left_detailed.csv";
-    String BASELINE_R = "/traj/baseline_left_detailed.csv";
+    String BASELINE_R = "/traj/baseline_right_detailed.csv";
     String LEFT_TO_LEFT_L = "/traj/leftToLeft_left_detailed.csv";
     String LEFT_TO_LEFT_R = "/traj/leftToLeft_right_detailed.csv";
     String LEFT_TO_RIGHT_L = "/traj/leftToRight_left_detailed.csv";
@@ -18,7 +18,15 @@ public interface TrajectoryCSV {
     String MID_TO_RIGHT_R = "/traj/midToRight_right_detailed.csv";
     String RIGHT_TO_RIGHT_L = "/traj/rightToRight_left_detailed.csv";
     String RIGHT_TO_RIGHT_R = "/traj/rightToRight_right_detailed.csv";
-    String RIGHT_TO_LEFT_L = "/traj/rightToLeft_left_detailed.csv";
-    String RIGHT_TO_LEFT_R = "/traj/rightToLeft_right_detailed.csv";
+
+    /* Left and right CSVs of every path, loaded by TrajectoryCache when the robot boots. Every path above is listed. */
+    String[][] PATHS = {
+            {BASELINE_L, BASELINE_R},
+            {LEFT_TO_LEFT_L, LEFT_TO_LEFT_R},
+            {LEFT_TO_RIGHT_L, LEFT_TO_RIGHT_R},
+            {MID_TO_LEFT_L, MID_TO_LEFT_R},
+            {MID_TO_RIGHT_L, MID_TO_RIGHT_R},
+            {RIGHT_TO_RIGHT_L, RIGHT_TO_RIGHT_R}
+    };
 
 }
@@ -0,0 +1,143 @@
+package frc.team4159.robot.util;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import jaci.pathfinder.Pathfinder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import static frc.team4159.robot.util.TrajectoryCSV.PATHS;
+
+/**
+ * Loads every trajectory in TrajectoryCSV once when the robot boots and keeps them in memory, so no disk I/O or parsing
+ * happens when autonomous starts.
+ */
+
+public class TrajectoryCache {
+
+    private static TrajectoryCache instance;
+
+    public static synchronized TrajectoryCache getInstance() {
+        if(instance == null)
+            instance = new TrajectoryCache();
+        return instance;
+    }
+
+    /* Loaded trajectories keyed by their CSV path */
+    private HashMap<String, ArrayTrajectory> trajectories;
+
+    /* Directory to load from instead of the one in each CSV path, or null */
+    private String directory;
+
+    private TrajectoryCache() {
+        trajectories = new HashMap<>();
+    }
+
+    /**
+     * Load trajectories from another directory, e.g. the repo's traj folder when running off the robot. Paths are still
+     * looked up by their TrajectoryCSV names.
+     */
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Load and validate every left/right pair in TrajectoryCSV.PATHS. Each file must exist, and both sides of a path
+     * must have the same number of segments and the same dt. Every path that is missing or invalid is reported to the
+     * driver station, so problems show up at boot without stopping the robot program.
+     * @return True if every path loaded
+     */
+    public boolean preload() {
+
+        ArrayList<String> errors = new ArrayList<>();
+        long start = System.nanoTime();
+
+        for(String[] path : PATHS) {
+            try {
+                ArrayTrajectory left = load(locate(path[0]));
+                ArrayTrajectory right = load(locate(path[1]));
+                validatePair(path[0], left, path[1], right);
+                trajectories.put(path[0], left);
+                trajectories.put(path[1], right);
+            } catch (IOException ex) {
+                errors.add(ex.getMessage());
+            }
+        }
+
+        for(String error : errors) {
+            DriverStation.reportError("Trajectory error:  " + error, false);
+        }
+
+        System.out.printf("Loaded %d trajectories in %.1f ms, %d failed%n", trajectories.size(),
+                (System.nanoTime() - start) / 1e6, errors.size());
+        return errors.isEmpty();
+    }
+
+    /**
+     * @param csv Trajectory CSV path from TrajectoryCSV
+     * @return Trajectory loaded at boot. Loads it now if it was not preloaded.
+     */
+    public ArrayTrajectory get(String csv) {
+
+        ArrayTrajectory trajectory = trajectories.get(csv);
+
+        if(trajectory == null) {
+            DriverStation.reportWarning(csv + " was not preloaded, loading it now", false);
+            try {
+                trajectory = load(locate(csv));
+            } catch (IOException ex) {
+                throw new IllegalStateException(ex.getMessage(), ex);
+            }
+            trajectories.put(csv, trajectory);
+        }
+
+        return trajectory;
+    }
+
+    /**
+     * @return Where to load the given TrajectoryCSV path from
+     */
+    private String locate(String csv) {
+        return directory == null ? csv : new File(directory, new File(csv).getName()).getPath();
+    }
+
+    /**
+     * Load the binary version of a trajectory if it has been converted, falling back to parsing the CSV
+     * @param csv Path to trajectory CSV
+     */
+    private static ArrayTrajectory load(String csv) throws IOException {
+
+        String bin = BinaryTrajectory.binaryPath(csv);
+        if(new File(bin).exists()) {
+            try {
+                return ArrayTrajectory.fromBinary(BinaryTrajectory.load(bin));
+            } catch (IOException ex) {
+                DriverStation.reportError("Error loading " + bin + ", using CSV:  " + ex.getMessage(), false);
+            }
+        }
+
+        if(!new File(csv).exists())
+            throw new IOException(csv + " does not exist");
+
+        return ArrayTrajectory.fromTrajectory(Pathfinder.readFromCSV(new File(csv)));
+    }
+
+    /**
+     * @throws IOException If the two sides of a path do not line up segment for segment
+     */
+    private static void validatePair(String leftCSV, ArrayTrajectory left, String rightCSV, ArrayTrajectory right)
+            throws IOException {
+
+        if(leftCSV.equals(rightCSV))
+            throw new IOException(leftCSV + " is used for both sides");
+        if(left.length() == 0)
+            throw new IOException(leftCSV + " is empty");
+        if(left.length() != right.length())
+            throw new IOException(leftCSV + " has " + left.length() + " segments but " + rightCSV + " has " + right.length());
+        if(left.getDt() != right.getDt())
+            throw new IOException(leftCSV + " has dt " + left.getDt() + " but " + rightCSV + " has dt " + right.getDt());
+    }
+
+}
@@ -0,0 +1,74 @@
+package frc.team4159.robot.util;
+
+import jaci.pathfinder.Trajectory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Converts the detailed trajectory CSVs into the binary format read by BinaryTrajectory. Run off-robot with
+ * `./gradlew convertTrajectories`, then copy the .bin files to the roboRIO's `/traj` folder along with the CSVs.
+ */
+
+public class TrajectoryConverter {
+
+    private static final String DETAILED_SUFFIX = "_detailed.csv";
+
+    /**
+     * @param args Directories containing *_detailed.csv files. Defaults to traj
+     */
+    public static void main(String[] args) throws IOException {
+
+        if(args.length == 0)
+            args = new String[] {"traj"};
+
+        for(String directory : args) {
+            File[] files = new File(directory).listFiles((dir, name) -> name.endsWith(DETAILED_SUFFIX));
+            if(files == null)
+                throw new IOException(directory + " is not a directory");
+
+            for(File csv : files) {
+                File bin = new File(BinaryTrajectory.binaryPath(csv.getPath()));
+                Trajectory trajectory = readDetailedCSV(csv);
+                BinaryTrajectory.write(trajectory, bin);
+                System.out.println(csv.getName() + " -> " + bin.getName() + " (" + trajectory.length() + " segments)");
+            }
+        }
+    }
+
+    /**
+     * Parse a detailed CSV (dt,x,y,position,velocity,acceleration,jerk,heading) without Pathfinder's native library,
+     * so conversion works on any computer
+     */
+    static Trajectory readDetailedCSV(File csv) throws IOException {
+
+        ArrayList<Trajectory.Segment> segments = new ArrayList<>();
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(csv))) {
+            String line = reader.readLine(); // Header
+            int lineNumber = 1;
+
+            while((line = reader.readLine()) != null) {
+                lineNumber++;
+                if(line.trim().isEmpty())
+                    continue;
+
+                String[] values = line.split(",");
+                if(values.length != 8)
+                    throw new IOException(csv.getName() + ":" + lineNumber + " expected 8 columns, found " + values.length);
+
+                double[] v = new double[8];
+                for(int i = 0; i < 8; i++)
+                    v[i] = Double.parseDouble(values[i].trim());
+
+                segments.add(new Trajectory.Segment(v[0], v[1], v[2], v[3], v[4], v[5], v[6], v[7]));
+            }
+        }
+
+        return new Trajectory(segments.toArray(new Trajectory.Segment[0]));
+    }
+
+}
@@ -0,0 +1,267 @@
+package frc.team4159.robot.util;
+
+/**
+ * Follows one side of an ArrayTrajectory from encoder feedback. Same PIDVA math as Pathfinder's EncoderFollower,
+ * but calculate() reads primitive arrays and allocates nothing.
+ *
+ * calculate(encoderTick) advances one segment per call like EncoderFollower. calculate(encoderTick, timestamp) picks
+ * and interpolates the setpoint from time elapsed since the first call instead, so a late or skipped loop does not
+ * stretch the path out.
+ */
+
+public class TrajectoryFollower {
+
+    /**
+     * What time-indexed following does when the loop has fallen more than one segment behind
+     */
+    public enum CatchUp {
+        /* Jump to the setpoint for the current time, skipping the segments in between */
+        SKIP,
+        /* Advance at most maxSegmentsPerTick segments per call, delaying the rest of the path */
+        LIMIT
+    }
+
+    /* A tick is late if it comes more than this many dt after the previous one */
+    private static final double LATE_TOLERANCE = 1.5;
+
+    private ArrayTrajectory trajectory;
+
+    private int encoderOffset;
+    private int ticksPerRevolution;
+    private double wheelCircumference;
+
+    private double kP, kI, kD, kS, kV, kA;
+
+    private double lastError;
+    private double heading;
+    private int segment;
+
+    /* Time-indexed following */
+    private CatchUp catchUp = CatchUp.SKIP;
+    private int maxSegmentsPerTick = 2;
+    private double startTime;
+    private double lastTime;
+    private double lastIndex;
+
+    /* Loop timing metrics for time-indexed following */
+    private int ticks;
+    private int lateTicks;
+    private double maxLateness;
+
+    public TrajectoryFollower(ArrayTrajectory trajectory) {
+        this.trajectory = trajectory;
+        reset();
+    }
+
+    /**
+     * Change the trajectory being followed and start again from its first segment
+     */
+    public void setTrajectory(ArrayTrajectory trajectory) {
+        this.trajectory = trajectory;
+        reset();
+    }
+
+    /**
+     * @param kP Proportional gain on position error. Output is percent per unit of distance
+     * @param kI Unused, kept for parity with EncoderFollower
+     * @param kD Derivative gain on position error
+     * @param kV Velocity feedforward, usually 1 / max velocity
+     * @param kA Acceleration feedforward
+     */
+    public void configurePIDVA(double kP, double kI, double kD, double kV, double kA) {
+        this.kP = kP;
+        this.kI = kI;
+        this.kD = kD;
+        this.kV = kV;
+        this.kA = kA;
+    }
+
+    /**
+     * Replace the feedforward gains with ones fit by characterization, e.g. from DriveFeedforward
+     * @param kS Percent to overcome static friction, applied in the direction of the setpoint velocity
+     * @param kV Percent per unit of velocity
+     * @param kA Percent per unit of acceleration
+     */
+    public void configureFeedforward(double kS, double kV, double kA) {
+        this.kS = kS;
+        this.kV = kV;
+        this.kA = kA;
+    }
+
+    /**
+     * @param initialPosition Current encoder position, treated as the start of the path
+     * @param ticksPerRevolution Encoder ticks per wheel revolution
+     * @param wheelDiameter Wheel diameter in the same distance units as the trajectory
+     */
+    public void configureEncoder(int initialPosition, int ticksPerRevolution, double wheelDiameter) {
+        encoderOffset = initialPosition;
+        this.ticksPerRevolution = ticksPerRevolution;
+        wheelCircumference = Math.PI * wheelDiameter;
+    }
+
+    /**
+     * @param catchUp What to do when the loop has fallen behind the trajectory
+     * @param maxSegmentsPerTick Most segments to advance per call with CatchUp.LIMIT
+     */
+    public void configureTiming(CatchUp catchUp, int maxSegmentsPerTick) {
+        this.catchUp = catchUp;
+        this.maxSegmentsPerTick = maxSegmentsPerTick;
+    }
+
+    /**
+     * Start following again from the first segment
+     */
+    public void reset() {
+        lastError = 0;
+        segment = 0;
+        startTime = Double.NaN;
+        lastIndex = 0;
+        ticks = 0;
+        lateTicks = 0;
+        maxLateness = 0;
+    }
+
+    /**
+     * Calculate output for the current segment and advance to the next one
+     * @param encoderTick Current encoder position
+     * @return Motor output, or 0 once the trajectory is finished
+     */
+    public double calculate(int encoderTick) {
+
+        if(segment >= trajectory.length())
+            return 0;
+
+        double distanceCovered = ((double) (encoderTick - encoderOffset) / ticksPerRevolution) * wheelCircumference;
+
+        double error = trajectory.getPosition(segment) - distanceCovered;
+        double output = kP * error + kD * ((error - lastError) / trajectory.getDt())
+                + feedforward(trajectory.getVelocity(segment), trajectory.getAcceleration(segment));
+
+        lastError = error;
+        heading = trajectory.getHeading(segment);
+        segment++;
+
+        return output;
+    }
+
+    /**
+     * Calculate output for the setpoint at the given time, interpolated between segments. The first call starts the path.
+     * @param encoderTick Current encoder position
+     * @param timestamp Current time in seconds, e.g. from Clock.FPGA
+     * @return Motor output, or 0 once the trajectory is finished
+     */
+    public double calculate(int encoderTick, double timestamp) {
+
+        int length = trajectory.length();
+        if(segment >= length)
+            return 0;
+
+        double dt = trajectory.getDt();
+        double period = dt;
+
+        if(Double.isNaN(startTime)) {
+            startTime = timestamp;
+        } else {
+            period = timestamp - lastTime;
+            if(period > dt * LATE_TOLERANCE) {
+                lateTicks++;
+                maxLateness = Math.max(maxLateness, period - dt);
+            }
+        }
+        ticks++;
+        lastTime = timestamp;
+
+        double index = (timestamp - startTime) / dt;
+        if(catchUp == CatchUp.LIMIT && index > lastIndex + maxSegmentsPerTick) {
+            index = lastIndex + maxSegmentsPerTick;
+            startTime = timestamp - index * dt; // Delay the rest of the path by the time we could not catch up
+        }
+        lastIndex = index;
+
+        int i;
+        double fraction;
+        if(index >= length - 1) {
+            i = length - 1;
+            fraction = 0;
+            segment = length;
+        } else {
+            i = (int) index;
+            fraction = index - i;
+            segment = i + 1;
+        }
+        int next = Math.min(i + 1, length - 1);
+
+        double position = interpolate(trajectory.getPosition(i), trajectory.getPosition(next), fraction);
+        double velocity = interpolate(trajectory.getVelocity(i), trajectory.getVelocity(next), fraction);
+        double acceleration = interpolate(trajectory.getAcceleration(i), trajectory.getAcceleration(next), fraction);
+
+        double headingChange = trajectory.getHeading(next) - trajectory.getHeading(i);
+        if(headingChange > Math.PI)
+            headingChange -= 2 * Math.PI;
+        else if(headingChange < -Math.PI)
+            headingChange += 2 * Math.PI;
+        heading = trajectory.getHeading(i) + headingChange * fraction;
+
+        double distanceCovered = ((double) (encoderTick - encoderOffset) / ticksPerRevolution) * wheelCircumference;
+
+        double error = position - distanceCovered;
+        double output = kP * error + kD * ((error - lastError) / (period > 0 ? period : dt))
+                + feedforward(velocity, acceleration);
+
+        lastError = error;
+
+        return output;
+    }
+
+    private double feedforward(double velocity, double acceleration) {
+        double staticFriction = velocity == 0 ? 0 : Math.copySign(kS, velocity);
+        return staticFriction + kV * velocity + kA * acceleration;
+    }
+
+    private static double interpolate(double a, double b, double fraction) {
+        return a + (b - a) * fraction;
+    }
+
+    /**
+     * @return Number of time-indexed calls since the path started
+     */
+    public int getTicks() {
+        return ticks;
+    }
+
+    /**
+     * @return Number of time-indexed calls that came more than 1.5 dt after the previous call
+     */
+    public int getLateTicks() {
+        return lateTicks;
+    }
+
+    /**
+     * @return Longest time in seconds a time-indexed call came later than dt after the previous call
+     */
+    public double getMaxLateness() {
+        return maxLateness;
+    }
+
+    /**
+     * @return Heading of the last calculated segment in radians
+     */
+    public double getHeading() {
+        return heading;
+    }
+
+    /**
+     * @return Index of the next segment to be followed
+     */
+    public int getSegment() {
+        return segment;
+    }
+
+    /**
+     * @return True if every segment has been followed
+     */
+    public boolean isFinished() {
+        return segment >= trajectory.length();
+    }
+
+}
@@ -0,0 +1,201 @@
+package frc.team4159.robot.util;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import jaci.pathfinder.Pathfinder;
+import jaci.pathfinder.Trajectory;
+import jaci.pathfinder.Waypoint;
+import jaci.pathfinder.modifiers.TankModifier;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Generates tank drive trajectories on the robot from the motion profile generator's *_Preferences.bot files.
+ * Generated paths are cached in /traj/generated as binary trajectories named after a hash of the .bot file contents,
+ * so a path is only regenerated when its waypoints or limits change.
+ *
+ * .bot format: dt, max velocity, max acceleration, max jerk, wheelbase width, wheelbase depth, fit method ("Cubic" or
+ * "Quintic"), then one "x, y, angle in degrees" waypoint per line.
+ */
+
+public class TrajectoryGenerator {
+
+    private static TrajectoryGenerator instance;
+
+    public static synchronized TrajectoryGenerator getInstance() {
+        if(instance == null)
+            instance = new TrajectoryGenerator();
+        return instance;
+    }
+
+    private static final String BOT_DIRECTORY = "/traj";
+    private static final String CACHE_DIRECTORY = "/traj/generated";
+    private static final String BOT_SUFFIX = "_Preferences.bot";
+
+    /* Generated left and right trajectories keyed by path name, e.g. "midToLeft" */
+    private ConcurrentHashMap<String, ArrayTrajectory[]> paths;
+    private volatile boolean done;
+
+    private TrajectoryGenerator() {
+        paths = new ConcurrentHashMap<>();
+        done = false;
+    }
+
+    /**
+     * Generate or load every .bot file in /traj on a low priority background thread
+     */
+    public void startInBackground() {
+        Thread thread = new Thread(this::generateAll, "TrajectoryGenerator");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    private void generateAll() {
+
+        File[] botFiles = new File(BOT_DIRECTORY).listFiles((dir, name) -> name.endsWith(BOT_SUFFIX));
+
+        if(botFiles != null) {
+            for(File botFile : botFiles) {
+                String name = botFile.getName().substring(0, botFile.getName().length() - BOT_SUFFIX.length());
+                try {
+                    paths.put(name, generate(name, botFile));
+                } catch (IOException | RuntimeException ex) {
+                    DriverStation.reportError("Error generating " + name + ":  " + ex.getMessage(), false);
+                }
+            }
+        }
+
+        done = true;
+    }
+
+    /**
+     * Load a path from the cache if its .bot file is unchanged, otherwise generate it and write it to the cache
+     * @return Left and right trajectories
+     */
+    private ArrayTrajectory[] generate(String name, File botFile) throws IOException {
+
+        long start = System.nanoTime();
+
+        byte[] contents = Files.readAllBytes(botFile.toPath());
+        String hash = hash(contents);
+
+        File cacheDirectory = new File(CACHE_DIRECTORY);
+        File leftFile = new File(cacheDirectory, name + "_" + hash + "_left.bin");
+        File rightFile = new File(cacheDirectory, name + "_" + hash + "_right.bin");
+
+        if(leftFile.exists() && rightFile.exists()) {
+            try {
+                ArrayTrajectory[] cached = {
+                        ArrayTrajectory.fromBinary(BinaryTrajectory.load(leftFile.getPath())),
+                        ArrayTrajectory.fromBinary(BinaryTrajectory.load(rightFile.getPath()))
+                };
+                System.out.printf("Loaded cached %s in %.1f ms%n", name, (System.nanoTime() - start) / 1e6);
+                return cached;
+            } catch (IOException ex) {
+                DriverStation.reportWarning("Regenerating " + name + ", cache is invalid:  " + ex.getMessage(), false);
+            }
+        }
+
+        List<String> lines = Files.readAllLines(botFile.toPath(), StandardCharsets.UTF_8);
+        if(lines.size() < 9)
+            throw new IOException(botFile + " needs 7 settings and at least 2 waypoints");
+
+        double dt = Double.parseDouble(lines.get(0).trim());
+        double maxVelocity = Double.parseDouble(lines.get(1).trim());
+        double maxAcceleration = Double.parseDouble(lines.get(2).trim());
+        double maxJerk = Double.parseDouble(lines.get(3).trim());
+        double wheelbaseWidth = Double.parseDouble(lines.get(4).trim());
+        Trajectory.FitMethod fit = lines.get(6).trim().equalsIgnoreCase("Quintic") ?
+                Trajectory.FitMethod.HERMITE_QUINTIC : Trajectory.FitMethod.HERMITE_CUBIC;
+
+        Waypoint[] waypoints = lines.subList(7, lines.size()).stream()
+                .filter(line -> !line.trim().isEmpty())
+                .map(TrajectoryGenerator::parseWaypoint)
+                .toArray(Waypoint[]::new);
+
+        Trajectory.Config config = new Trajectory.Config(fit, Trajectory.Config.SAMPLES_HIGH, dt,
+                maxVelocity, maxAcceleration, maxJerk);
+        TankModifier modifier = new TankModifier(Pathfinder.generate(waypoints, config)).modify(wheelbaseWidth);
+        Trajectory left = modifier.getLeftTrajectory();
+        Trajectory right = modifier.getRightTrajectory();
+
+        if(!cacheDirectory.isDirectory() && !cacheDirectory.mkdirs())
+            throw new IOException("Could not create " + cacheDirectory);
+        deleteStale(cacheDirectory, name);
+        BinaryTrajectory.write(left, leftFile);
+        BinaryTrajectory.write(right, rightFile);
+
+        System.out.printf("Generated %s in %.1f ms%n", name, (System.nanoTime() - start) / 1e6);
+        return new ArrayTrajectory[] {ArrayTrajectory.fromTrajectory(left), ArrayTrajectory.fromTrajectory(right)};
+    }
+
+    /**
+     * @param line "x, y, angle" with angle in degrees
+     */
+    private static Waypoint parseWaypoint(String line) {
+        String[] values = line.split(",");
+        return new Waypoint(Double.parseDouble(values[0].trim()), Double.parseDouble(values[1].trim()),
+                Pathfinder.d2r(Double.parseDouble(values[2].trim())));
+    }
+
+    /**
+     * Remove cached trajectories generated from older versions of a .bot file
+     */
+    private static void deleteStale(File cacheDirectory, String name) {
+        File[] stale = cacheDirectory.listFiles((dir, file) -> file.startsWith(name + "_"));
+        if(stale != null) {
+            for(File file : stale) {
+                if(!file.delete())
+                    DriverStation.reportWarning("Could not delete " + file, false);
+            }
+        }
+    }
+
+    /**
+     * @return First 16 hex digits of the SHA-256 of the given bytes
+     */
+    private static String hash(byte[] contents) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(contents);
+            StringBuilder hex = new StringBuilder();
+            for(int i = 0; i < 8; i++)
+                hex.append(String.format("%02x", digest[i]));
+            return hex.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * @return True once every .bot file has been generated or loaded
+     */
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * @param name Path name, e.g. "midToLeft" for midToLeft_Preferences.bot
+     * @return Generated left trajectory, or null if it is not ready
+     */
+    public ArrayTrajectory getLeft(String name) {
+        ArrayTrajectory[] path = paths.get(name);
+        return path == null ? null : path[0];
+    }
+
+    /**
+     * @param name Path name, e.g. "midToLeft" for midToLeft_Preferences.bot
+     * @return Generated right trajectory, or null if it is not ready
+     */
+    public ArrayTrajectory getRight(String name) {
+        ArrayTrajectory[] path = paths.get(name);
+        return path == null ? null : path[1];
+    }
+
+}
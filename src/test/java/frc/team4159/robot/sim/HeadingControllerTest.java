@@ -0,0 +1,88 @@
+package frc.team4159.robot.sim;
+
+import edu.wpi.first.wpilibj.command.Scheduler;
+import frc.team4159.robot.Robot;
+import frc.team4159.robot.commands.drive.TurnToAngle;
+import frc.team4159.robot.util.HeadingController;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * TurnToAngle on SimulatedRobot, stepped at the 50 Hz robot loop. Each turn must start driving the motors in the loop
+ * it is scheduled in, settle in time and not overshoot, including across the 180 degree seam.
+ */
+
+public class HeadingControllerTest {
+
+    private static final double[] TURNS = {15, 45, 90, 180, -90};
+
+    /* Seconds allowed for each turn in TURNS to finish, a little over what it takes in simulation */
+    private static final double[] SETTLE_TIMES = {0.7, 1.0, 1.25, 1.6, 1.25};
+
+    private static final double MAX_OVERSHOOT = 1; // degrees
+    private static final double MAX_FINAL_ERROR = 2; // degrees, the settling tolerance
+    private static final double TIMEOUT = 4; // s
+
+    private static SimulatedRobot robot;
+
+    @BeforeClass
+    public static void createRobot() {
+        robot = SimulatedRobot.getInstance();
+    }
+
+    @After
+    public void stopTurning() {
+        Scheduler.getInstance().removeAll();
+    }
+
+    @Test
+    public void turnsSettleWithoutOvershoot() {
+
+        System.out.printf("%8s %9s %13s %13s %10s%n", "Turn deg", "Settle s", "Overshoot deg", "Final err deg",
+                "Latency ms");
+
+        for(int i = 0; i < TURNS.length; i++) {
+
+            double turn = TURNS[i];
+            robot.resetPose(0, 0, 0);
+            Robot.drivetrain.zeroNavX();
+
+            TurnToAngle command = new TurnToAngle(turn);
+            command.start();
+            double start = robot.getClock().getTimestamp();
+
+            /* Loops until the motors are driven, counting the one the command starts in */
+            int loopsToOutput = -1;
+            double overshoot = 0;
+            int loops = 0;
+
+            do {
+                robot.runCycle();
+                loops++;
+
+                if(loopsToOutput < 0 && robot.getDrivetrainIO().getLeftOutput() != 0)
+                    loopsToOutput = loops;
+
+                /* Past the setpoint in the direction of the turn */
+                double error = HeadingController.wrap(turn - robot.getDrivetrainIO().getYaw());
+                overshoot = Math.max(overshoot, -Math.signum(turn) * error);
+
+            } while(command.isRunning() && robot.getClock().getTimestamp() - start < TIMEOUT);
+
+            double settle = robot.getClock().getTimestamp() - start;
+            double finalError = HeadingController.wrap(turn - robot.getDrivetrainIO().getYaw());
+            System.out.printf("%8.0f %9.2f %13.2f %13.2f %10.0f%n", turn, settle, overshoot, finalError,
+                    (loopsToOutput - 1) * SimulatedRobot.SCHEDULER_PERIOD * 1000);
+
+            assertTrue(turn + " degree turn did not finish", !command.isRunning());
+            assertTrue(turn + " degree turn took " + settle + " s", settle <= SETTLE_TIMES[i]);
+            assertTrue(turn + " degree turn overshot by " + overshoot, overshoot <= MAX_OVERSHOOT);
+            assertTrue(turn + " degree turn ended " + finalError + " off", Math.abs(finalError) <= MAX_FINAL_ERROR);
+            assertTrue(turn + " degree turn waited " + (loopsToOutput - 1) + " loops for output", loopsToOutput == 1);
+        }
+    }
+
+}
@@ -0,0 +1,119 @@
+package frc.team4159.robot.sim;
+
+import frc.team4159.robot.Robot;
+import frc.team4159.robot.subsystems.Drivetrain;
+import frc.team4159.robot.util.ArrayTrajectory;
+import frc.team4159.robot.util.TrajectoryCache;
+import frc.team4159.robot.util.TrajectoryFollower;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static frc.team4159.robot.Constants.UNITS_PER_REV;
+import static frc.team4159.robot.Constants.WHEEL_DIAMETER;
+import static frc.team4159.robot.util.TrajectoryCSV.PATHS;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Odometry against the DrivetrainPhysics pose while SimulatedRobot drives every recorded path in ./traj with encoder
+ * followers, like RunCSVProfile. The simulated sensors slip and drift, so odometry has to stay close to a pose it is not
+ * fed directly.
+ */
+
+public class OdometryTest {
+
+    /* Followers are set up like RunCSVProfile without characterization, for a 13.3 ft/s top speed */
+    private static final double kV = 1 / 13.3;
+    private static final double kP_TURN = 0.05;
+
+    /* Seconds a path may run past its own length before the test gives up on it */
+    private static final double TIMEOUT = 5;
+
+    /* Realistic carpet slip and navX drift */
+    private static final double WHEEL_SLIP = 0.02;
+    private static final double GYRO_NOISE = 0.5; // degrees after one second
+
+    /* Slip makes the error grow with distance, so the bound does too. 2% slip and the gyro drift above stay under 3%. */
+    private static final double MAX_ERROR = 0.1; // ft
+    private static final double MAX_ERROR_PER_FOOT = 0.03;
+    private static final double MAX_HEADING_ERROR = Math.toRadians(5);
+
+    private static SimulatedRobot robot;
+
+    @BeforeClass
+    public static void loadPaths() {
+        robot = SimulatedRobot.getInstance();
+        TrajectoryCache.getInstance().setDirectory("traj");
+        assertTrue("Trajectories in ./traj failed to load", TrajectoryCache.getInstance().preload());
+    }
+
+    @After
+    public void clearSensorErrors() {
+        Robot.drivetrain.stopPath();
+        robot.getPhysics().setSensorErrors(0, 0, 0);
+    }
+
+    @Test
+    public void odometryTracksEveryPathWithSensorErrors() {
+
+        robot.getPhysics().setSensorErrors(WHEEL_SLIP, GYRO_NOISE, 4159);
+
+        for(String[] path : PATHS) {
+            double bound = drive(path[0], path[1]);
+            String message = String.format("%s: odometry off by %.3f ft of %.3f allowed, %.2f deg", path[0],
+                    robot.getMaxOdometryError(), bound, Math.toDegrees(robot.getMaxOdometryHeadingError()));
+            assertTrue(message, robot.getMaxOdometryError() < bound);
+            assertTrue(message, robot.getMaxOdometryHeadingError() < MAX_HEADING_ERROR);
+        }
+    }
+
+    @Test
+    public void largeSlipExceedsTheBound() {
+
+        /* So the bound above means something: wheels spinning 20% more than the robot moves must fail it */
+        robot.getPhysics().setSensorErrors(0.2, 0, 0);
+
+        for(String[] path : PATHS) {
+            double bound = drive(path[0], path[1]);
+            assertTrue(path[0] + ": 20% wheel slip went unnoticed", robot.getMaxOdometryError() >= bound);
+        }
+    }
+
+    /**
+     * Put the robot at the start of a path and follow it to the end
+     * @return Odometry error allowed for the path in feet
+     */
+    private static double drive(String leftCSV, String rightCSV) {
+
+        Drivetrain drivetrain = Robot.drivetrain;
+        ArrayTrajectory left = TrajectoryCache.getInstance().get(leftCSV);
+        ArrayTrajectory right = TrajectoryCache.getInstance().get(rightCSV);
+
+        /* Start on the path's center line, facing along it, with the gyro zeroed like RunCSVProfile does */
+        robot.resetPose((left.getX(0) + right.getX(0)) / 2, (left.getY(0) + right.getY(0)) / 2, left.getHeading(0));
+        drivetrain.zeroNavX();
+
+        TrajectoryFollower leftFollower = new TrajectoryFollower(left);
+        TrajectoryFollower rightFollower = new TrajectoryFollower(right);
+        leftFollower.configureEncoder(drivetrain.getLeftEncoderPosition(), UNITS_PER_REV, WHEEL_DIAMETER);
+        leftFollower.configurePIDVA(0, 0, 0, kV, 0);
+        rightFollower.configureEncoder(drivetrain.getRightEncoderPosition(), UNITS_PER_REV, WHEEL_DIAMETER);
+        rightFollower.configurePIDVA(0, 0, 0, kV, 0);
+        drivetrain.followPath(leftFollower, rightFollower, kP_TURN);
+
+        double end = robot.getClock().getTimestamp() + left.length() * left.getDt() + TIMEOUT;
+        while(!drivetrain.isPathFinished() && robot.getClock().getTimestamp() < end) {
+            robot.runCycle();
+        }
+        assertTrue(leftCSV + " did not finish", drivetrain.isPathFinished());
+
+        /* Length of the center line */
+        double length = 0;
+        for(int i = 1; i < left.length(); i++) {
+            length += Math.hypot((left.getX(i) + right.getX(i) - left.getX(i - 1) - right.getX(i - 1)) / 2,
+                    (left.getY(i) + right.getY(i) - left.getY(i - 1) - right.getY(i - 1)) / 2);
+        }
+        return MAX_ERROR + MAX_ERROR_PER_FOOT * length;
+    }
+
+}
@@ -0,0 +1,90 @@
+package frc.team4159.robot.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * ControlLoop's period, jitter, overrun and execution time statistics, with iterations started by hand at known times
+ * on a SimulatedClock
+ */
+
+public class ControlLoopTest {
+
+    private static final double HZ = 100;
+    private static final double PERIOD = 1 / HZ;
+
+    @Test
+    public void steadyTicksHaveNoJitter() {
+
+        SimulatedClock clock = new SimulatedClock(5);
+        ControlLoop loop = new ControlLoop(HZ, clock);
+
+        for(int i = 0; i < 11; i++) {
+            clock.setTimestamp(5 + i * PERIOD);
+            loop.runOnce();
+        }
+
+        assertEquals(10, loop.getIterations());
+        assertEquals(PERIOD, loop.getMeanPeriod(), 1e-12);
+        assertEquals(0, loop.getJitter(), 1e-9);
+        assertEquals(0, loop.getOverruns());
+    }
+
+    @Test
+    public void jitteredAndLateTicks() {
+
+        SimulatedClock clock = new SimulatedClock(0);
+        ControlLoop loop = new ControlLoop(HZ, clock);
+
+        /* Periods of 8, 12, 10 and 16 ms. Only the 16 ms one is more than 1.5 periods. */
+        double[] starts = {0, 0.008, 0.020, 0.030, 0.046};
+        for(double start : starts) {
+            clock.setTimestamp(start);
+            loop.runOnce();
+        }
+
+        double[] periods = {0.008, 0.012, 0.010, 0.016};
+        double mean = 0.0115;
+        double variance = 0;
+        for(double period : periods)
+            variance += (period - mean) * (period - mean) / periods.length;
+
+        assertEquals(4, loop.getIterations());
+        assertEquals(mean, loop.getMeanPeriod(), 1e-12);
+        assertEquals(Math.sqrt(variance), loop.getJitter(), 1e-9);
+        assertEquals(0.008, loop.getMinPeriod(), 1e-12);
+        assertEquals(0.016, loop.getMaxPeriod(), 1e-12);
+        assertEquals(1, loop.getOverruns());
+
+        loop.resetStatistics();
+        assertEquals(0, loop.getIterations());
+        assertEquals(0, loop.getOverruns());
+    }
+
+    @Test
+    public void loopsRunInOrderAndExecutionTimeIsMeasured() {
+
+        SimulatedClock clock = new SimulatedClock(0);
+        ControlLoop loop = new ControlLoop(HZ, clock);
+        ArrayList<String> calls = new ArrayList<>();
+
+        loop.register(timestamp -> calls.add("first " + timestamp));
+        loop.register(timestamp -> {
+            calls.add("second " + timestamp);
+            clock.advance(0.003);
+        });
+
+        clock.setTimestamp(1);
+        loop.runOnce();
+
+        assertEquals(2, calls.size());
+        assertEquals("first 1.0", calls.get(0));
+        assertEquals("second 1.0", calls.get(1));
+        assertEquals(0.003, loop.getMaxExecutionTime(), 1e-9);
+        assertEquals(0, loop.getIterations());
+    }
+
+}
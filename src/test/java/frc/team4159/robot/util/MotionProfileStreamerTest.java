@@ -0,0 +1,119 @@
+package frc.team4159.robot.util;
+
+import com.ctre.phoenix.motorcontrol.SetValueMotionProfile;
+import jaci.pathfinder.Trajectory;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * MotionProfileStreamer against a SimulatedMotionProfileTalon: priming the buffer, recovering from an underrun, and
+ * holding the last point. The path is 2 seconds long at 0.1 feet per segment, streamed as 10 ms points.
+ */
+
+public class MotionProfileStreamerTest {
+
+    private static final double DT = 0.05;
+    private static final int SEGMENTS = 41;
+    private static final double FEET_PER_SEGMENT = 0.1;
+    private static final double UNITS_PER_FOOT = 1000;
+    private static final int POINT_MS = 10;
+    private static final int UPDATE_MS = POINT_MS / 2;
+
+    private final SimulatedMotionProfileTalon talon = new SimulatedMotionProfileTalon();
+    private final MotionProfileStreamer streamer;
+
+    public MotionProfileStreamerTest() {
+        Trajectory.Segment[] segments = new Trajectory.Segment[SEGMENTS];
+        for(int i = 0; i < SEGMENTS; i++)
+            segments[i] = new Trajectory.Segment(DT, 0, 0, i * FEET_PER_SEGMENT, FEET_PER_SEGMENT / DT, 0, 0, 0);
+        ArrayTrajectory trajectory = ArrayTrajectory.fromTrajectory(new Trajectory(segments));
+        streamer = new MotionProfileStreamer(talon, trajectory, UNITS_PER_FOOT, POINT_MS);
+    }
+
+    /**
+     * Update the streamer and advance the Talon, like the Notifier would
+     * @return Milliseconds it took to finish, or -1 if it did not finish in time
+     */
+    private int run(int maxMs) {
+        for(int ms = 0; ms < maxMs; ms += UPDATE_MS) {
+            streamer.update();
+            if(streamer.isFinished())
+                return ms;
+            talon.step(UPDATE_MS);
+        }
+        return -1;
+    }
+
+    @Test
+    public void primesBufferBeforeEnabling() {
+
+        assertEquals(201, streamer.getPointCount());
+
+        streamer.start();
+        assertEquals(SetValueMotionProfile.Disable, talon.getMode());
+
+        /* The first update fills the buffer but reads the status from before it did, so the profile stays disabled */
+        streamer.update();
+        assertEquals(64, streamer.getPointsStreamed());
+        assertEquals(SetValueMotionProfile.Disable, talon.getMode());
+        talon.step(UPDATE_MS);
+        assertEquals(0, talon.getActivePosition(), 0);
+
+        streamer.update();
+        assertEquals(128, streamer.getPointsStreamed());
+        assertEquals(SetValueMotionProfile.Enable, talon.getMode());
+    }
+
+    @Test
+    public void streamsWholePathWithoutUnderruns() {
+
+        streamer.start();
+        int finishedMs = run(5000);
+
+        assertTrue("Did not finish", finishedMs >= 0);
+        assertEquals(2000, finishedMs, 2 * POINT_MS);
+        assertEquals(streamer.getPointCount(), streamer.getPointsStreamed());
+        assertEquals(0, streamer.getUnderruns());
+        assertEquals(0, talon.getUnderrunMs());
+    }
+
+    @Test
+    public void recoversFromUnderrun() {
+
+        streamer.start();
+        streamer.update();
+        streamer.update();
+
+        /* The Notifier stalls for longer than the 128 buffered points last */
+        talon.step(2000);
+        talon.updateStatus();
+        assertTrue(talon.hasUnderrun());
+        assertEquals(2000 - 128 * POINT_MS, talon.getUnderrunMs(), POINT_MS);
+
+        assertTrue("Did not finish after the stall", run(5000) >= 0);
+        assertEquals(1, streamer.getUnderruns());
+        assertEquals(streamer.getPointCount(), streamer.getPointsStreamed());
+    }
+
+    @Test
+    public void holdsLastPointWhenFinished() {
+
+        streamer.start();
+        assertTrue(run(5000) >= 0);
+
+        double last = (SEGMENTS - 1) * FEET_PER_SEGMENT * UNITS_PER_FOOT;
+        assertEquals(SetValueMotionProfile.Hold, talon.getMode());
+        assertEquals(last, talon.getActivePosition(), 1e-6);
+
+        /* Finished streamers ignore updates, and stop() disables the Talon */
+        streamer.update();
+        assertTrue(streamer.isFinished());
+        streamer.stop();
+        assertFalse(streamer.isFinished());
+        assertEquals(SetValueMotionProfile.Disable, talon.getMode());
+    }
+
+}
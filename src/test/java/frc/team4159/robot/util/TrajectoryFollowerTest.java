@@ -0,0 +1,159 @@
+package frc.team4159.robot.util;
+
+import jaci.pathfinder.Trajectory;
+import jaci.pathfinder.followers.EncoderFollower;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static frc.team4159.robot.Constants.UNITS_PER_REV;
+import static frc.team4159.robot.Constants.WHEEL_CIRCUMFERANCE;
+import static frc.team4159.robot.Constants.WHEEL_DIAMETER;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * TrajectoryFollower's per-segment calculate() must give the same output as Pathfinder's EncoderFollower on every path
+ * in traj. The encoder is fed a position that lags and wobbles around the path, so the P and D terms are exercised.
+ *
+ * Time-indexed calculate() is driven by a SimulatedClock with jittered and late ticks, against a straight path whose
+ * position is 0.1 feet per segment, so the setpoint it picks can be read straight off the output.
+ */
+
+public class TrajectoryFollowerTest {
+
+    private static final double kP = 0.8, kD = 0.1, kV = 1 / 4.05, kA = 0.02;
+    private static final int ENCODER_OFFSET = 1234;
+
+    @Test
+    public void matchesEncoderFollowerOnEveryPath() throws IOException {
+
+        File[] csvs = new File("traj").listFiles((dir, name) -> name.endsWith("_detailed.csv"));
+        assertTrue("No detailed trajectories in traj", csvs != null && csvs.length > 0);
+
+        for(File csv : csvs) {
+            Trajectory trajectory = TrajectoryConverter.readDetailedCSV(csv);
+
+            EncoderFollower expected = new EncoderFollower(trajectory);
+            expected.configureEncoder(ENCODER_OFFSET, UNITS_PER_REV, WHEEL_DIAMETER);
+            expected.configurePIDVA(kP, 0, kD, kV, kA);
+
+            TrajectoryFollower actual = new TrajectoryFollower(ArrayTrajectory.fromTrajectory(trajectory));
+            actual.configureEncoder(ENCODER_OFFSET, UNITS_PER_REV, WHEEL_DIAMETER);
+            actual.configurePIDVA(kP, 0, kD, kV, kA);
+
+            /* Run one past the end, where both should output 0 */
+            for(int i = 0; i <= trajectory.length(); i++) {
+                double position = trajectory.get(Math.min(i, trajectory.length() - 1)).position;
+                int encoderTick = ENCODER_OFFSET
+                        + (int) ((0.95 * position + 0.05 * Math.sin(i * 0.3)) / WHEEL_CIRCUMFERANCE * UNITS_PER_REV);
+
+                String segment = csv.getName() + " segment " + i;
+                assertEquals(segment, expected.calculate(encoderTick), actual.calculate(encoderTick), 1e-9);
+                assertEquals(segment, expected.getHeading(), actual.getHeading(), 1e-12);
+                assertEquals(segment, expected.isFinished(), actual.isFinished());
+            }
+        }
+    }
+
+    private static final double DT = 0.05;
+    private static final double FEET_PER_SEGMENT = 0.1;
+    private static final double START = 12.34;
+
+    /**
+     * @return Path with position FEET_PER_SEGMENT * i, and a follower on it whose output is its position setpoint
+     */
+    private static TrajectoryFollower straightFollower(int length) {
+        Trajectory.Segment[] segments = new Trajectory.Segment[length];
+        for(int i = 0; i < length; i++)
+            segments[i] = new Trajectory.Segment(DT, 0, 0, i * FEET_PER_SEGMENT, FEET_PER_SEGMENT / DT, 0, 0, 0);
+
+        TrajectoryFollower follower = new TrajectoryFollower(ArrayTrajectory.fromTrajectory(new Trajectory(segments)));
+        follower.configureEncoder(0, UNITS_PER_REV, WHEEL_DIAMETER);
+        follower.configurePIDVA(1, 0, 0, 0, 0);
+        return follower;
+    }
+
+    /**
+     * Call the follower at START plus the given number of segments' time, and check the setpoint it picked
+     * @param expectedIndex Fractional segment the setpoint should be interpolated at
+     */
+    private static void tick(TrajectoryFollower follower, SimulatedClock clock, double segments,
+                             double expectedIndex) {
+        clock.setTimestamp(START + segments * DT);
+        double output = follower.calculate(0, clock.getTimestamp());
+        String at = "tick at " + segments + " segments";
+        assertEquals(at, expectedIndex * FEET_PER_SEGMENT, output, 1e-9);
+        assertEquals(at, (int) Math.floor(expectedIndex) + 1, follower.getSegment());
+    }
+
+    @Test
+    public void jitteredTicksFollowElapsedTime() {
+
+        TrajectoryFollower follower = straightFollower(100);
+        SimulatedClock clock = new SimulatedClock(0);
+
+        /* Up to 0.45 dt between neighbours, never 1.5 dt late */
+        double[] jitter = {0, 0.1, 0.3, -0.15, 0.2, -0.1, 0.25, -0.2, 0.05};
+        for(int k = 0; k < jitter.length; k++)
+            tick(follower, clock, k + jitter[k], k + jitter[k]);
+
+        assertEquals(jitter.length, follower.getTicks());
+        assertEquals(0, follower.getLateTicks());
+        assertEquals(0, follower.getMaxLateness(), 0);
+    }
+
+    @Test
+    public void lateTickSkipsToCurrentTime() {
+
+        TrajectoryFollower follower = straightFollower(100);
+        SimulatedClock clock = new SimulatedClock(0);
+
+        tick(follower, clock, 0, 0);
+        tick(follower, clock, 1.2, 1.2);
+        tick(follower, clock, 6.7, 6.7);
+        tick(follower, clock, 7.6, 7.6);
+
+        assertEquals(1, follower.getLateTicks());
+        assertEquals(4.5 * DT, follower.getMaxLateness(), 1e-9);
+    }
+
+    @Test
+    public void lateTickWithLimitDelaysPath() {
+
+        TrajectoryFollower follower = straightFollower(100);
+        follower.configureTiming(TrajectoryFollower.CatchUp.LIMIT, 2);
+        SimulatedClock clock = new SimulatedClock(0);
+
+        tick(follower, clock, 0, 0);
+        tick(follower, clock, 1.2, 1.2);
+        /* 5.5 segments later, but only 2 may be advanced. The rest of the path runs 3.5 segments late. */
+        tick(follower, clock, 6.7, 3.2);
+        tick(follower, clock, 7.6, 4.1);
+        tick(follower, clock, 8.5, 5.0);
+
+        assertEquals(1, follower.getLateTicks());
+        assertEquals(4.5 * DT, follower.getMaxLateness(), 1e-9);
+    }
+
+    @Test
+    public void finishesAtLastSegmentTime() {
+
+        TrajectoryFollower follower = straightFollower(10);
+        SimulatedClock clock = new SimulatedClock(0);
+
+        tick(follower, clock, 0, 0);
+        tick(follower, clock, 8.5, 8.5);
+        assertFalse(follower.isFinished());
+
+        clock.setTimestamp(START + 9.2 * DT);
+        assertEquals(9 * FEET_PER_SEGMENT, follower.calculate(0, clock.getTimestamp()), 1e-9);
+        assertTrue(follower.isFinished());
+
+        clock.advance(DT);
+        assertEquals(0, follower.calculate(0, clock.getTimestamp()), 0);
+    }
+
+}